@@ -0,0 +1,143 @@
+package io.getint.recruitment_task.benchmark;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.model.Comment;
+import io.getint.recruitment_task.model.User;
+import io.getint.recruitment_task.util.FieldMapper;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Realistic Jira data shared by the benchmarks, shaped like the responses of a Jira Cloud instance.
+ */
+final class BenchmarkData {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    private static final ZonedDateTime FIRST_COMMENT = ZonedDateTime.of(2024, 1, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+
+    private BenchmarkData() {
+    }
+
+    static JSONObject issue(int index, int descriptionLength, int comments) {
+        JSONArray embeddedComments = new JSONArray();
+        for (int i = 0; i < comments; i++) {
+            embeddedComments.put(new JSONObject()
+                    .put("self", "https://xxx.atlassian.net/rest/api/2/issue/" + (10000 + index) + "/comment/" + (30000 + i))
+                    .put("id", String.valueOf(30000 + i))
+                    .put("author", user())
+                    .put("body", text(200))
+                    .put("updateAuthor", user())
+                    .put("created", created(i))
+                    .put("updated", created(i))
+                    .put("jsdPublic", true));
+        }
+        return new JSONObject()
+                .put("expand", "operations,versionedRepresentations,editmeta,changelog,renderedFields")
+                .put("id", String.valueOf(10000 + index))
+                .put("self", "https://xxx.atlassian.net/rest/api/2/issue/" + (10000 + index))
+                .put("key", "BRN-" + index)
+                .put("fields", new JSONObject()
+                        .put("summary", "Issue " + index + " " + text(60))
+                        .put("description", text(descriptionLength))
+                        .put("priority", new JSONObject()
+                                .put("self", "https://xxx.atlassian.net/rest/api/2/priority/3")
+                                .put("iconUrl", "https://xxx.atlassian.net/images/icons/priorities/medium.svg")
+                                .put("name", "Medium")
+                                .put("id", "3"))
+                        .put("issuetype", new JSONObject()
+                                .put("self", "https://xxx.atlassian.net/rest/api/2/issuetype/10001")
+                                .put("id", "10001")
+                                .put("iconUrl", "https://xxx.atlassian.net/images/icons/issuetypes/task.svg")
+                                .put("name", "Task")
+                                .put("subtask", false))
+                        .put("status", new JSONObject()
+                                .put("self", "https://xxx.atlassian.net/rest/api/2/status/3")
+                                .put("iconUrl", "https://xxx.atlassian.net/")
+                                .put("name", "In Progress")
+                                .put("id", "3"))
+                        .put("comment", new JSONObject()
+                                .put("comments", embeddedComments)
+                                .put("maxResults", comments)
+                                .put("total", comments)
+                                .put("startAt", 0)));
+    }
+
+    static String searchPage(int issues, int descriptionLength, int comments) {
+        JSONArray page = new JSONArray();
+        for (int i = 0; i < issues; i++) {
+            page.put(issue(i, descriptionLength, comments));
+        }
+        return new JSONObject()
+                .put("expand", "schema,names")
+                .put("startAt", 0)
+                .put("maxResults", issues)
+                .put("total", issues)
+                .put("issues", page)
+                .toString();
+    }
+
+    static List<Comment> comments(int count) {
+        List<Comment> comments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Comment comment = new Comment();
+            comment.setId(String.valueOf(30000 + i));
+            comment.setBody(text(200));
+            comment.setCreated(created(i));
+            User author = new User();
+            author.setAccountId("5b10ac8d82e05b22cc7d4ef5");
+            comment.setAuthor(author);
+            comments.add(comment);
+        }
+        return comments;
+    }
+
+    static FieldMapper fieldMapper() {
+        JSONArray issueTypes = new JSONArray().put(new JSONObject().put("id", "10001").put("name", "Task"));
+        JSONArray fields = new JSONArray()
+                .put(new JSONObject().put("fieldId", "summary").put("schema", new JSONObject().put("type", "string")))
+                .put(new JSONObject().put("fieldId", "description").put("schema", new JSONObject().put("type", "string")))
+                .put(new JSONObject().put("fieldId", "priority").put("schema", new JSONObject().put("type", "priority"))
+                        .put("allowedValues", new JSONArray()
+                                .put(new JSONObject().put("id", "1").put("name", "Highest"))
+                                .put(new JSONObject().put("id", "2").put("name", "High"))
+                                .put(new JSONObject().put("id", "3").put("name", "Medium"))
+                                .put(new JSONObject().put("id", "4").put("name", "Low"))
+                                .put(new JSONObject().put("id", "5").put("name", "Lowest"))));
+        return FieldMapper.compile("LBN", ConfigLoader.getJiraApiConfig().getFieldMapping(), issueTypes, Map.of("10001", fields));
+    }
+
+    private static JSONObject user() {
+        return new JSONObject()
+                .put("self", "https://xxx.atlassian.net/rest/api/2/user?accountId=5b10ac8d82e05b22cc7d4ef5")
+                .put("accountId", "5b10ac8d82e05b22cc7d4ef5")
+                .put("avatarUrls", new JSONObject()
+                        .put("48x48", "https://avatar-management.atlassian.net/48")
+                        .put("24x24", "https://avatar-management.atlassian.net/24")
+                        .put("16x16", "https://avatar-management.atlassian.net/16")
+                        .put("32x32", "https://avatar-management.atlassian.net/32"))
+                .put("displayName", "Marcin Olek")
+                .put("active", true)
+                .put("timeZone", "Europe/Warsaw")
+                .put("accountType", "atlassian");
+    }
+
+    private static String created(int index) {
+        return FIRST_COMMENT.plusMinutes(index).format(DATE_FORMAT);
+    }
+
+    private static String text(int length) {
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ");
+        }
+        return text.substring(0, length);
+    }
+
+}
@@ -0,0 +1,54 @@
+package io.getint.recruitment_task.benchmark;
+
+import io.getint.recruitment_task.model.Comment;
+import io.getint.recruitment_task.util.JiraDataUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Sorts the comments of issues with many comments, both in the server order and shuffled.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CommentSortBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int comments;
+
+    private List<Comment> orderedComments;
+    private List<Comment> shuffledComments;
+
+    @Setup
+    public void setUp() {
+        orderedComments = BenchmarkData.comments(comments);
+        shuffledComments = new ArrayList<>(orderedComments);
+        Collections.shuffle(shuffledComments, new Random(42));
+    }
+
+    @Benchmark
+    public List<Comment> sortOrderedComments() {
+        return JiraDataUtils.getSortedCommentsByCreated(orderedComments);
+    }
+
+    @Benchmark
+    public List<Comment> sortShuffledComments() {
+        return JiraDataUtils.getSortedCommentsByCreated(shuffledComments);
+    }
+
+}
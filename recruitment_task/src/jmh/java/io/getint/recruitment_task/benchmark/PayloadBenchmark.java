@@ -0,0 +1,48 @@
+package io.getint.recruitment_task.benchmark;
+
+import io.getint.recruitment_task.model.Comment;
+import io.getint.recruitment_task.util.FieldMapper;
+import io.getint.recruitment_task.util.JiraApiRequestQueryUtil;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Builds the payloads posted for every migrated issue and comment.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PayloadBenchmark {
+
+    private FieldMapper fieldMapper;
+    private JSONObject sourceIssue;
+    private Comment sourceComment;
+
+    @Setup
+    public void setUp() {
+        fieldMapper = BenchmarkData.fieldMapper();
+        sourceIssue = BenchmarkData.issue(1, 2_000, 0);
+        sourceComment = BenchmarkData.comments(1).get(0);
+    }
+
+    @Benchmark
+    public String createIssuePayload() {
+        return JiraApiRequestQueryUtil.createIssuePayload(sourceIssue, fieldMapper).toString();
+    }
+
+    @Benchmark
+    public String createCommentPayload() {
+        return JiraApiRequestQueryUtil.createCommentPayload(sourceComment).toString();
+    }
+
+}
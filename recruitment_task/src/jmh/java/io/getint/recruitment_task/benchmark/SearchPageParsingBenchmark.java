@@ -0,0 +1,52 @@
+package io.getint.recruitment_task.benchmark;
+
+import io.getint.recruitment_task.util.JiraResponseReader;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Parses a search page of 50 issues with long descriptions and embedded comments, streamed by
+ * {@link JiraResponseReader} and, for comparison, buffered as a String and parsed by org.json.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchPageParsingBenchmark {
+
+    @Param({"0", "20"})
+    private int comments;
+
+    private byte[] searchPage;
+
+    @Setup
+    public void setUp() {
+        searchPage = BenchmarkData.searchPage(50, 4_000, comments).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public JSONObject streamSearchPage() throws IOException {
+        return JiraResponseReader.readJson(new ByteArrayEntity(searchPage, ContentType.APPLICATION_JSON), JiraResponseReader.SKIPPED_ISSUE_PROPERTIES);
+    }
+
+    @Benchmark
+    public JSONObject bufferSearchPage() {
+        return new JSONObject(new String(searchPage, StandardCharsets.UTF_8));
+    }
+
+}
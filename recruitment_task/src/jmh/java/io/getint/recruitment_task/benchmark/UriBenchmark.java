@@ -0,0 +1,43 @@
+package io.getint.recruitment_task.benchmark;
+
+import io.getint.recruitment_task.util.JiraApiRequestQueryUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+/**
+ * Builds the request URIs of every migrated issue, all of them starting from the default URI builder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UriBenchmark {
+
+    @Benchmark
+    public URI defaultUriBuilder() throws URISyntaxException {
+        return JiraApiRequestQueryUtil.getDefaultUriBuilder().build();
+    }
+
+    @Benchmark
+    public URI searchIssuesQueryUri() throws URISyntaxException {
+        return JiraApiRequestQueryUtil.searchIssuesQueryUri(
+                JiraApiRequestQueryUtil.searchIssuesPageJql("project = {projectKey}", "BRN", "BRN-150"), 50,
+                "summary", "description", "priority", "issuetype", "status", "comment");
+    }
+
+    @Benchmark
+    public URI fetchCommentsByIssueIdQueryUri() throws URISyntaxException {
+        return JiraApiRequestQueryUtil.fetchCommentsByIssueIdQueryUri("10001", 100, 100);
+    }
+
+}
@@ -1,8 +1,34 @@
 package io.getint.recruitment_task;
 
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.exception.JiraApiException;
 import io.getint.recruitment_task.service.JiraApiService;
+import io.getint.recruitment_task.service.ProjectPairScheduler;
+import io.getint.recruitment_task.service.SyncDaemon;
+import io.getint.recruitment_task.service.WebhookListener;
+
+import java.util.List;
+import java.util.stream.Collectors;
 
 public class JiraSynchronizer {
+    private final String sourceProjectKey;
+    private final String destinationProjectKey;
+
+    public JiraSynchronizer() {
+        this("BRN", "LBN");
+    }
+
+    /**
+     * Constructs a synchronizer between the given projects.
+     *
+     * @param sourceProjectKey      the key of the project the tickets are taken from
+     * @param destinationProjectKey the key of the project the tickets are copied to
+     */
+    public JiraSynchronizer(String sourceProjectKey, String destinationProjectKey) {
+        this.sourceProjectKey = sourceProjectKey;
+        this.destinationProjectKey = destinationProjectKey;
+    }
+
     /**
      * Search for 5 tickets in one project, and move them
      * to the other project within same Jira instance.
@@ -14,6 +40,70 @@ public class JiraSynchronizer {
      */
     public void moveTasksToOtherProject() throws Exception {
         JiraApiService jiraApiService = new JiraApiService();
-        jiraApiService.moveIssuesToOtherProject("BRN", "LBN");
+        jiraApiService.moveIssuesToOtherProject(sourceProjectKey, destinationProjectKey);
+    }
+
+    /**
+     * Synchronise the tickets changed since the previous run from one project
+     * to the other project, updating the tickets synchronised before in place
+     * and keeping the source tickets.
+     */
+    public void syncTasksToOtherProject() throws Exception {
+        JiraApiService jiraApiService = new JiraApiService();
+        jiraApiService.syncIssuesToOtherProject(sourceProjectKey, destinationProjectKey);
+    }
+
+    /**
+     * Keep synchronising the tickets from one project to the other on the configured schedule
+     * until the JVM shuts down, reusing one warmed connection pool and the resolved metadata
+     * of the destination project between cycles. With webhooks enabled, the tickets named by
+     * Jira webhook events are synchronised between the cycles as well.
+     */
+    public void runSyncDaemon() throws Exception {
+        SyncDaemon daemon = new SyncDaemon(sourceProjectKey, destinationProjectKey);
+        ConfigLoader.WebhookConfig webhookConfig = ConfigLoader.getJiraApiConfig().getWebhook();
+        WebhookListener webhookListener = webhookConfig.isEnabled()
+                ? new WebhookListener(webhookConfig, sourceProjectKey, daemon::requestIssues) : null;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            if (webhookListener != null) {
+                webhookListener.close();
+            }
+            daemon.close();
+        }, "jira-sync-daemon-shutdown"));
+        daemon.start();
+        if (webhookListener != null) {
+            webhookListener.start();
+        }
+        daemon.awaitTermination();
+    }
+
+    /**
+     * Move the tickets of all project pairs listed in the configuration at once,
+     * sharing one connection pool and one rate budget fairly between the pairs.
+     */
+    public void moveTasksOfAllProjectPairs() throws Exception {
+        ProjectPairScheduler scheduler = new ProjectPairScheduler(ConfigLoader.getJiraApiConfig().getProjectPairs());
+        checkPairsSucceeded(scheduler.moveAll());
+    }
+
+    /**
+     * Synchronise the tickets of all project pairs listed in the configuration at once,
+     * sharing one connection pool and one rate budget fairly between the pairs.
+     */
+    public void syncTasksOfAllProjectPairs() throws Exception {
+        ProjectPairScheduler scheduler = new ProjectPairScheduler(ConfigLoader.getJiraApiConfig().getProjectPairs());
+        checkPairsSucceeded(scheduler.syncAll());
+    }
+
+    private void checkPairsSucceeded(List<ProjectPairScheduler.PairSummary> summaries) throws JiraApiException {
+        List<ProjectPairScheduler.PairSummary> failed = summaries.stream()
+                .filter(summary -> summary.getFailure() != null)
+                .collect(Collectors.toList());
+        if (!failed.isEmpty()) {
+            String pairs = failed.stream()
+                    .map(summary -> summary.getSourceProjectKey() + " -> " + summary.getDestinationProjectKey())
+                    .collect(Collectors.joining(", "));
+            throw new JiraApiException("Project pairs failed: " + pairs, failed.get(0).getFailure());
+        }
     }
 }
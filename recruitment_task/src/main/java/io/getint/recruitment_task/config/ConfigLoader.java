@@ -3,33 +3,52 @@ package io.getint.recruitment_task.config;
 
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.Constructor;
+import org.yaml.snakeyaml.error.YAMLException;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * Utility class for loading Jira API configuration from a YAML file.
+ * <p>
+ * The configuration is read from the file named by the {@code jira.config} system property if it is set,
+ * from the {@code jira-api-config.yml} classpath resource otherwise. It is loaded once and may be reloaded
+ * at runtime: a reloaded configuration is parsed completely before it replaces the current one in a single
+ * volatile write, so a reader always sees either the old or the new configuration, never a mix of both.
  */
 public class ConfigLoader {
 
     private ConfigLoader() {
     }
 
+    /**
+     * The system property naming the configuration file to use instead of the classpath resource.
+     */
+    public static final String CONFIG_FILE_PROPERTY = "jira.config";
+
     private static final String JIRA_API_CONFIG_PATH = "jira-api-config.yml";
-    private static JiraApiConfig jiraApiConfig;
+    private static volatile JiraApiConfig jiraApiConfig;
+    private static long loadedLastModified = -1;
 
     /**
-     * Loads the Jira API configuration from the YAML file.
+     * Loads the Jira API configuration from the YAML file, unless it is already loaded.
      *
      * @return the loaded JiraApiConfig object
      */
-    public static JiraApiConfig loadJiraApiConfig() {
+    public static synchronized JiraApiConfig loadJiraApiConfig() {
         if (Objects.isNull(jiraApiConfig)) {
-            Yaml yaml = new Yaml(new Constructor(JiraApiConfig.class));
-            InputStream inputStream = ConfigLoader.class
-                    .getClassLoader()
-                    .getResourceAsStream(JIRA_API_CONFIG_PATH);
-            jiraApiConfig = yaml.load(inputStream);
+            loadedLastModified = getConfigLastModified();
+            jiraApiConfig = readJiraApiConfig();
         }
         return jiraApiConfig;
     }
@@ -40,7 +59,105 @@ public class ConfigLoader {
      * @return the JiraApiConfig object
      */
     public static JiraApiConfig getJiraApiConfig() {
-        return Objects.isNull(jiraApiConfig) ? loadJiraApiConfig() : jiraApiConfig;
+        JiraApiConfig config = jiraApiConfig;
+        return Objects.isNull(config) ? loadJiraApiConfig() : config;
+    }
+
+    /**
+     * Reloads the Jira API configuration from the YAML file, replacing the current configuration.
+     * Objects holding parts of the previous configuration keep them until they are recreated.
+     *
+     * @return the reloaded JiraApiConfig object
+     * @throws org.yaml.snakeyaml.error.YAMLException if the file cannot be parsed or misses the server, user or API key,
+     *                                                leaving the current configuration in place
+     */
+    public static synchronized JiraApiConfig reloadJiraApiConfig() {
+        long lastModified = getConfigLastModified();
+        JiraApiConfig config = readJiraApiConfig();
+        validateJiraApiConfig(config);
+        loadedLastModified = lastModified;
+        jiraApiConfig = config;
+        return config;
+    }
+
+    /**
+     * Reloads the Jira API configuration if its file was modified since it was loaded.
+     * A configuration read from a classpath resource inside a JAR is never reloaded.
+     *
+     * @return true if the configuration was reloaded
+     * @throws org.yaml.snakeyaml.error.YAMLException if the file cannot be parsed or misses the server, user or API key,
+     *                                                leaving the current configuration in place
+     */
+    public static synchronized boolean reloadJiraApiConfigIfChanged() {
+        long lastModified = getConfigLastModified();
+        if (Objects.isNull(jiraApiConfig) || lastModified < 0 || lastModified == loadedLastModified) {
+            return false;
+        }
+        reloadJiraApiConfig();
+        return true;
+    }
+
+    private static JiraApiConfig readJiraApiConfig() {
+        Yaml yaml = new Yaml(new Constructor(JiraApiConfig.class));
+        Path configFile = getConfigFile();
+        try (InputStream inputStream = configFile != null
+                ? Files.newInputStream(configFile)
+                : ConfigLoader.class.getClassLoader().getResourceAsStream(JIRA_API_CONFIG_PATH)) {
+            JiraApiConfig config = yaml.load(inputStream);
+            if (config == null) {
+                throw new YAMLException("Empty Jira API configuration");
+            }
+            return config;
+        } catch (IOException e) {
+            throw new YAMLException("Jira API configuration cannot be read: " + e.getMessage(), e);
+        }
+    }
+
+    private static void validateJiraApiConfig(JiraApiConfig config) {
+        List<String> missingFields = new ArrayList<>();
+        if (isBlank(config.getServer())) {
+            missingFields.add("server");
+        }
+        if (isBlank(config.getUser())) {
+            missingFields.add("user");
+        }
+        if (isBlank(config.getApiKey())) {
+            missingFields.add("apiKey");
+        }
+        if (!missingFields.isEmpty()) {
+            throw new YAMLException("Jira API configuration misses required fields: " + missingFields);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * Gets the configuration file: the file named by the system property, or the classpath resource if it is a plain file.
+     *
+     * @return the configuration file, or null if the configuration is not read from a file
+     */
+    private static Path getConfigFile() {
+        String configFile = System.getProperty(CONFIG_FILE_PROPERTY);
+        if (configFile != null && !configFile.isEmpty()) {
+            return Paths.get(configFile);
+        }
+        URL resource = ConfigLoader.class.getClassLoader().getResource(JIRA_API_CONFIG_PATH);
+        try {
+            return resource != null && "file".equals(resource.getProtocol()) ? Paths.get(resource.toURI()) : null;
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    private static long getConfigLastModified() {
+        Path configFile = getConfigFile();
+        try {
+            return configFile != null ? Files.getLastModifiedTime(configFile).toMillis() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
     }
 
     /**
@@ -51,6 +168,20 @@ public class ConfigLoader {
         private String apiUri;
         private String apiKey;
         private String user;
+        private SearchConfig search = new SearchConfig();
+        private MigrationConfig migration = new MigrationConfig();
+        private HttpConfig http = new HttpConfig();
+        private ThrottleConfig throttle = new ThrottleConfig();
+        private RetryConfig retry = new RetryConfig();
+        private JournalConfig journal = new JournalConfig();
+        private SyncConfig sync = new SyncConfig();
+        private FieldMappingConfig fieldMapping = new FieldMappingConfig();
+        private MetricsConfig metrics = new MetricsConfig();
+        private ProjectPairsConfig projectPairs = new ProjectPairsConfig();
+        private AttachmentConfig attachments = new AttachmentConfig();
+        private CacheConfig cache = new CacheConfig();
+        private DaemonConfig daemon = new DaemonConfig();
+        private WebhookConfig webhook = new WebhookConfig();
 
         private JiraApiConfig() {
         }
@@ -86,6 +217,1177 @@ public class ConfigLoader {
         public void setUser(String user) {
             this.user = user;
         }
+
+        public SearchConfig getSearch() {
+            return search;
+        }
+
+        public void setSearch(SearchConfig search) {
+            this.search = search;
+        }
+
+        public MigrationConfig getMigration() {
+            return migration;
+        }
+
+        public void setMigration(MigrationConfig migration) {
+            this.migration = migration;
+        }
+
+        public HttpConfig getHttp() {
+            return http;
+        }
+
+        public void setHttp(HttpConfig http) {
+            this.http = http;
+        }
+
+        public ThrottleConfig getThrottle() {
+            return throttle;
+        }
+
+        public void setThrottle(ThrottleConfig throttle) {
+            this.throttle = throttle;
+        }
+
+        public RetryConfig getRetry() {
+            return retry;
+        }
+
+        public void setRetry(RetryConfig retry) {
+            this.retry = retry;
+        }
+
+        public JournalConfig getJournal() {
+            return journal;
+        }
+
+        public void setJournal(JournalConfig journal) {
+            this.journal = journal;
+        }
+
+        public SyncConfig getSync() {
+            return sync;
+        }
+
+        public void setSync(SyncConfig sync) {
+            this.sync = sync;
+        }
+
+        public FieldMappingConfig getFieldMapping() {
+            return fieldMapping;
+        }
+
+        public void setFieldMapping(FieldMappingConfig fieldMapping) {
+            this.fieldMapping = fieldMapping;
+        }
+
+        public MetricsConfig getMetrics() {
+            return metrics;
+        }
+
+        public void setMetrics(MetricsConfig metrics) {
+            this.metrics = metrics;
+        }
+
+        public ProjectPairsConfig getProjectPairs() {
+            return projectPairs;
+        }
+
+        public void setProjectPairs(ProjectPairsConfig projectPairs) {
+            this.projectPairs = projectPairs;
+        }
+
+        public AttachmentConfig getAttachments() {
+            return attachments;
+        }
+
+        public void setAttachments(AttachmentConfig attachments) {
+            this.attachments = attachments;
+        }
+
+        public CacheConfig getCache() {
+            return cache;
+        }
+
+        public void setCache(CacheConfig cache) {
+            this.cache = cache;
+        }
+
+        public DaemonConfig getDaemon() {
+            return daemon;
+        }
+
+        public void setDaemon(DaemonConfig daemon) {
+            this.daemon = daemon;
+        }
+
+        public WebhookConfig getWebhook() {
+            return webhook;
+        }
+
+        public void setWebhook(WebhookConfig webhook) {
+            this.webhook = webhook;
+        }
+    }
+
+    /**
+     * Inner class representing the issue search settings.
+     * <p>
+     * The {@code jql} may reference the project being migrated with the {@code {projectKey}} placeholder
+     * and must not contain an {@code ORDER BY} clause, because pages are walked in issue key order.
+     */
+    public static class SearchConfig {
+        private String jql = "project = {projectKey}";
+        private int pageSize = 50;
+        private boolean prefetch = true;
+
+        private SearchConfig() {
+        }
+
+        public String getJql() {
+            return jql;
+        }
+
+        public void setJql(String jql) {
+            this.jql = jql;
+        }
+
+        public int getPageSize() {
+            return pageSize;
+        }
+
+        public void setPageSize(int pageSize) {
+            this.pageSize = pageSize;
+        }
+
+        public boolean isPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(boolean prefetch) {
+            this.prefetch = prefetch;
+        }
+    }
+
+    /**
+     * Inner class representing the issue migration settings.
+     * <p>
+     * With {@code async} enabled the issues are migrated over the non-blocking transport
+     * and {@code concurrency} bounds the number of issues in flight instead of the number of worker threads.
+     * A {@code bulkCreateSize} greater than 1 creates issues in batches of that size (at most 50) through the bulk
+     * create endpoint before migrating their comments and status.
+     * Otherwise, with the {@code pipeline} enabled, the blocking migration runs as a staged pipeline
+     * configured by the pipeline settings instead of {@code concurrency} workers.
+     * When the outcomes of the issues are published, up to {@code outcomeBufferSize} outcomes not yet requested
+     * by the subscriber are buffered before the migration waits for it.
+     */
+    public static class MigrationConfig {
+        private int concurrency = 1;
+        private boolean async;
+        private int bulkCreateSize;
+        private int commentPageSize = 100;
+        private int outcomeBufferSize = 256;
+        private PipelineConfig pipeline = new PipelineConfig();
+
+        private MigrationConfig() {
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public boolean isAsync() {
+            return async;
+        }
+
+        public void setAsync(boolean async) {
+            this.async = async;
+        }
+
+        public int getBulkCreateSize() {
+            return bulkCreateSize;
+        }
+
+        public void setBulkCreateSize(int bulkCreateSize) {
+            this.bulkCreateSize = bulkCreateSize;
+        }
+
+        public int getCommentPageSize() {
+            return commentPageSize;
+        }
+
+        public void setCommentPageSize(int commentPageSize) {
+            this.commentPageSize = commentPageSize;
+        }
+
+        public int getOutcomeBufferSize() {
+            return outcomeBufferSize;
+        }
+
+        public void setOutcomeBufferSize(int outcomeBufferSize) {
+            this.outcomeBufferSize = outcomeBufferSize;
+        }
+
+        public PipelineConfig getPipeline() {
+            return pipeline;
+        }
+
+        public void setPipeline(PipelineConfig pipeline) {
+            this.pipeline = pipeline;
+        }
+    }
+
+    /**
+     * Inner class representing the HTTP transport settings. All durations are in milliseconds.
+     * <p>
+     * The {@code keepAlive} duration is used when the server does not send a {@code Keep-Alive} timeout itself,
+     * pooled connections idle for longer than {@code validateAfterInactivity} are checked for staleness before reuse
+     * and the ones idle for longer than {@code maxIdleTime} are evicted from the pool.
+     * <p>
+     * With {@code compressResponses} gzip encoded responses are requested and decoded while they are read.
+     * With {@code compressRequests} JSON request bodies are sent gzip encoded; it is switched off by the client
+     * as soon as the server answers a compressed request with {@code 415 Unsupported Media Type}.
+     */
+    public static class HttpConfig {
+        private int maxConnections = 50;
+        private int maxConnectionsPerRoute = 20;
+        private int connectTimeout = 10_000;
+        private int socketTimeout = 30_000;
+        private int connectionRequestTimeout = 30_000;
+        private long keepAlive = 30_000;
+        private int validateAfterInactivity = 2_000;
+        private long maxIdleTime = 60_000;
+        private boolean compressResponses = true;
+        private boolean compressRequests = false;
+
+        private HttpConfig() {
+        }
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public int getMaxConnectionsPerRoute() {
+            return maxConnectionsPerRoute;
+        }
+
+        public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+            this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        }
+
+        public int getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public int getSocketTimeout() {
+            return socketTimeout;
+        }
+
+        public void setSocketTimeout(int socketTimeout) {
+            this.socketTimeout = socketTimeout;
+        }
+
+        public int getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        public long getKeepAlive() {
+            return keepAlive;
+        }
+
+        public void setKeepAlive(long keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+
+        public int getValidateAfterInactivity() {
+            return validateAfterInactivity;
+        }
+
+        public void setValidateAfterInactivity(int validateAfterInactivity) {
+            this.validateAfterInactivity = validateAfterInactivity;
+        }
+
+        public long getMaxIdleTime() {
+            return maxIdleTime;
+        }
+
+        public void setMaxIdleTime(long maxIdleTime) {
+            this.maxIdleTime = maxIdleTime;
+        }
+
+        public boolean isCompressResponses() {
+            return compressResponses;
+        }
+
+        public void setCompressResponses(boolean compressResponses) {
+            this.compressResponses = compressResponses;
+        }
+
+        public boolean isCompressRequests() {
+            return compressRequests;
+        }
+
+        public void setCompressRequests(boolean compressRequests) {
+            this.compressRequests = compressRequests;
+        }
+    }
+
+    /**
+     * Inner class representing the client-side request throttling settings.
+     * <p>
+     * Requests are paced to {@code requestsPerSecond} with bursts of up to {@code burst} requests
+     * ({@code requestsPerSecond} of 0 disables pacing), while the number of requests in flight adapts between
+     * {@code minConcurrency} and {@code maxConcurrency}. Requests throttled by the server are retried up to
+     * {@code maxRetries} times, waiting {@code retryBackoff} milliseconds doubled per attempt when the server
+     * does not tell how long to wait.
+     */
+    public static class ThrottleConfig {
+        private double requestsPerSecond = 20;
+        private int burst = 20;
+        private int minConcurrency = 1;
+        private int maxConcurrency = 20;
+        private int maxRetries = 5;
+        private long retryBackoff = 1_000;
+
+        private ThrottleConfig() {
+        }
+
+        public double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+
+        public void setRequestsPerSecond(double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public int getMinConcurrency() {
+            return minConcurrency;
+        }
+
+        public void setMinConcurrency(int minConcurrency) {
+            this.minConcurrency = minConcurrency;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public void setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+        }
+
+        public long getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(long retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+    }
+
+    /**
+     * Inner class representing the retry settings of failed requests.
+     * <p>
+     * Every created issue is labelled with {@code sourceLabelPrefix} followed by the source issue ID,
+     * so a retried create can look for the issue created by the failed attempt instead of duplicating it.
+     * An empty prefix disables the label, and with it the retries of ambiguous create failures.
+     * Across a run, retries are limited to {@code minRetries} plus {@code budgetRatio} of all requests.
+     */
+    public static class RetryConfig {
+        private String sourceLabelPrefix = "migrated-from-";
+        private int minRetries = 10;
+        private double budgetRatio = 0.2;
+        private RetryPolicyConfig search = new RetryPolicyConfig();
+        private RetryPolicyConfig create = new RetryPolicyConfig();
+        private RetryPolicyConfig comment = new RetryPolicyConfig();
+        private RetryPolicyConfig transition = new RetryPolicyConfig();
+        private RetryPolicyConfig update = new RetryPolicyConfig();
+        private RetryPolicyConfig delete = new RetryPolicyConfig();
+        private RetryPolicyConfig attachment = new RetryPolicyConfig();
+
+        private RetryConfig() {
+        }
+
+        public String getSourceLabelPrefix() {
+            return sourceLabelPrefix;
+        }
+
+        public void setSourceLabelPrefix(String sourceLabelPrefix) {
+            this.sourceLabelPrefix = sourceLabelPrefix;
+        }
+
+        public int getMinRetries() {
+            return minRetries;
+        }
+
+        public void setMinRetries(int minRetries) {
+            this.minRetries = minRetries;
+        }
+
+        public double getBudgetRatio() {
+            return budgetRatio;
+        }
+
+        public void setBudgetRatio(double budgetRatio) {
+            this.budgetRatio = budgetRatio;
+        }
+
+        public RetryPolicyConfig getSearch() {
+            return search;
+        }
+
+        public void setSearch(RetryPolicyConfig search) {
+            this.search = search;
+        }
+
+        public RetryPolicyConfig getCreate() {
+            return create;
+        }
+
+        public void setCreate(RetryPolicyConfig create) {
+            this.create = create;
+        }
+
+        public RetryPolicyConfig getComment() {
+            return comment;
+        }
+
+        public void setComment(RetryPolicyConfig comment) {
+            this.comment = comment;
+        }
+
+        public RetryPolicyConfig getTransition() {
+            return transition;
+        }
+
+        public void setTransition(RetryPolicyConfig transition) {
+            this.transition = transition;
+        }
+
+        public RetryPolicyConfig getUpdate() {
+            return update;
+        }
+
+        public void setUpdate(RetryPolicyConfig update) {
+            this.update = update;
+        }
+
+        public RetryPolicyConfig getDelete() {
+            return delete;
+        }
+
+        public void setDelete(RetryPolicyConfig delete) {
+            this.delete = delete;
+        }
+
+        public RetryPolicyConfig getAttachment() {
+            return attachment;
+        }
+
+        public void setAttachment(RetryPolicyConfig attachment) {
+            this.attachment = attachment;
+        }
+    }
+
+    /**
+     * Inner class representing the retry settings of a single request type. Backoffs are in milliseconds.
+     */
+    public static class RetryPolicyConfig {
+        private int maxAttempts = 3;
+        private long initialBackoff = 500;
+        private long maxBackoff = 10_000;
+
+        private RetryPolicyConfig() {
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(long initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public long getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(long maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    /**
+     * Inner class representing the migration journal settings.
+     * <p>
+     * The {@code path} may reference the migrated projects with the {@code {sourceProjectKey}} and
+     * {@code {destinationProjectKey}} placeholders; an empty path keeps the journal in memory only.
+     * Journal records are forced to disk after {@code syncEvery} records or {@code syncInterval} milliseconds,
+     * whichever comes first.
+     */
+    public static class JournalConfig {
+        private String path = "state/migration-journal-{sourceProjectKey}-{destinationProjectKey}.bin";
+        private int syncEvery = 64;
+        private long syncInterval = 1_000;
+
+        private JournalConfig() {
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public int getSyncEvery() {
+            return syncEvery;
+        }
+
+        public void setSyncEvery(int syncEvery) {
+            this.syncEvery = syncEvery;
+        }
+
+        public long getSyncInterval() {
+            return syncInterval;
+        }
+
+        public void setSyncInterval(long syncInterval) {
+            this.syncInterval = syncInterval;
+        }
+    }
+
+    /**
+     * Inner class representing the incremental synchronisation settings.
+     * <p>
+     * The {@code statePath} may reference the synchronised projects with the {@code {sourceProjectKey}} and
+     * {@code {destinationProjectKey}} placeholders. Every cycle searches the issues updated since the start of the
+     * previous cycle minus {@code overlap} milliseconds, covering clock skew and the minute precision of JQL dates,
+     * which are interpreted in the {@code timeZone} of the Jira user (fetched from Jira if empty).
+     */
+    public static class SyncConfig {
+        private String statePath = "state/sync-state-{sourceProjectKey}-{destinationProjectKey}.json";
+        private String timeZone = "";
+        private long overlap = 60_000;
+
+        private SyncConfig() {
+        }
+
+        public String getStatePath() {
+            return statePath;
+        }
+
+        public void setStatePath(String statePath) {
+            this.statePath = statePath;
+        }
+
+        public String getTimeZone() {
+            return timeZone;
+        }
+
+        public void setTimeZone(String timeZone) {
+            this.timeZone = timeZone;
+        }
+
+        public long getOverlap() {
+            return overlap;
+        }
+
+        public void setOverlap(long overlap) {
+            this.overlap = overlap;
+        }
+    }
+
+    /**
+     * Inner class representing the mapping of source issue fields to destination issue fields.
+     * <p>
+     * Issue types are mapped by name through the {@code issueTypes} translation table, keeping the source name
+     * when it is not listed. The mappings are resolved against the create metadata of the destination project
+     * once per run, and the run fails before any issue is written if a mapping cannot be resolved.
+     */
+    public static class FieldMappingConfig {
+        private Map<String, String> issueTypes = new HashMap<>();
+        private List<FieldRule> fields = new ArrayList<>(List.of(
+                new FieldRule("summary"), new FieldRule("description"), new FieldRule("priority")));
+
+        private FieldMappingConfig() {
+        }
+
+        public Map<String, String> getIssueTypes() {
+            return issueTypes;
+        }
+
+        public void setIssueTypes(Map<String, String> issueTypes) {
+            this.issueTypes = issueTypes;
+        }
+
+        public List<FieldRule> getFields() {
+            return fields;
+        }
+
+        public void setFields(List<FieldRule> fields) {
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * Inner class representing the mapping of a single field, e.g. a custom field to another custom field.
+     * <p>
+     * The {@code destination} field defaults to the {@code source} field. Values of fields with allowed values
+     * are matched by name, after translating them through the {@code values} table.
+     */
+    public static class FieldRule {
+        private String source;
+        private String destination;
+        private Map<String, String> values = new HashMap<>();
+
+        private FieldRule() {
+        }
+
+        private FieldRule(String field) {
+            this.source = field;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public void setSource(String source) {
+            this.source = source;
+        }
+
+        public String getDestination() {
+            return destination == null || destination.isEmpty() ? source : destination;
+        }
+
+        public void setDestination(String destination) {
+            this.destination = destination;
+        }
+
+        public Map<String, String> getValues() {
+            return values;
+        }
+
+        public void setValues(Map<String, String> values) {
+            this.values = values;
+        }
+    }
+
+    /**
+     * Inner class representing the metrics export settings.
+     * <p>
+     * After every migration or synchronisation the metrics are exported to the {@code exportPath},
+     * as JSON if it ends with {@code .json} and in the Prometheus text format otherwise; an empty path disables the export.
+     */
+    public static class MetricsConfig {
+        private String exportPath = "";
+
+        private MetricsConfig() {
+        }
+
+        public String getExportPath() {
+            return exportPath;
+        }
+
+        public void setExportPath(String exportPath) {
+            this.exportPath = exportPath;
+        }
+    }
+
+    /**
+     * Inner class representing the settings of the staged migration pipeline.
+     * <p>
+     * Every issue passes the {@code create}, {@code comments}, {@code attachments}, {@code status} and {@code delete} stages in order.
+     * Each stage runs {@code parallelism} workers taking issues from a queue of at most {@code queueCapacity} issues,
+     * so a slow stage blocks the stages before it, down to the issue search, instead of buffering them.
+     * <p>
+     * The pipeline is disabled by default. Once enabled, it replaces the blocking migration of {@code migration.concurrency}
+     * issues at once, and the parallelism of its stages applies instead.
+     */
+    public static class PipelineConfig {
+        private boolean enabled = false;
+        private PipelineStageConfig create = new PipelineStageConfig(1, 20);
+        private PipelineStageConfig comments = new PipelineStageConfig(4, 20);
+        private PipelineStageConfig attachments = new PipelineStageConfig(2, 20);
+        private PipelineStageConfig status = new PipelineStageConfig(2, 20);
+        private PipelineStageConfig delete = new PipelineStageConfig(2, 20);
+
+        private PipelineConfig() {
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public PipelineStageConfig getCreate() {
+            return create;
+        }
+
+        public void setCreate(PipelineStageConfig create) {
+            this.create = create;
+        }
+
+        public PipelineStageConfig getComments() {
+            return comments;
+        }
+
+        public void setComments(PipelineStageConfig comments) {
+            this.comments = comments;
+        }
+
+        public PipelineStageConfig getAttachments() {
+            return attachments;
+        }
+
+        public void setAttachments(PipelineStageConfig attachments) {
+            this.attachments = attachments;
+        }
+
+        public PipelineStageConfig getStatus() {
+            return status;
+        }
+
+        public void setStatus(PipelineStageConfig status) {
+            this.status = status;
+        }
+
+        public PipelineStageConfig getDelete() {
+            return delete;
+        }
+
+        public void setDelete(PipelineStageConfig delete) {
+            this.delete = delete;
+        }
+    }
+
+    /**
+     * Inner class representing the settings of a single pipeline stage.
+     */
+    public static class PipelineStageConfig {
+        private int parallelism = 1;
+        private int queueCapacity = 20;
+
+        private PipelineStageConfig() {
+        }
+
+        private PipelineStageConfig(int parallelism, int queueCapacity) {
+            this.parallelism = parallelism;
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    /**
+     * Inner class representing the project pairs migrated by one instance.
+     * <p>
+     * Up to {@code concurrency} pairs run at once over one connection pool and one rate budget,
+     * and their progress is logged every {@code progressInterval} milliseconds.
+     */
+    public static class ProjectPairsConfig {
+        private int concurrency = 4;
+        private long progressInterval = 10_000;
+        private List<ProjectPairConfig> pairs = new ArrayList<>(List.of(new ProjectPairConfig("BRN", "LBN")));
+
+        private ProjectPairsConfig() {
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public long getProgressInterval() {
+            return progressInterval;
+        }
+
+        public void setProgressInterval(long progressInterval) {
+            this.progressInterval = progressInterval;
+        }
+
+        public List<ProjectPairConfig> getPairs() {
+            return pairs;
+        }
+
+        public void setPairs(List<ProjectPairConfig> pairs) {
+            this.pairs = pairs;
+        }
+    }
+
+    /**
+     * Inner class representing a single project pair. The {@code weight} is the share of the rate budget
+     * the pair gets while other pairs are waiting: the number of its requests sent in a row before the next pair's.
+     */
+    public static class ProjectPairConfig {
+        private String source;
+        private String destination;
+        private int weight = 1;
+
+        private ProjectPairConfig() {
+        }
+
+        private ProjectPairConfig(String source, String destination) {
+            this.source = source;
+            this.destination = destination;
+        }
+
+        public String getSource() {
+            return source;
+        }
+
+        public void setSource(String source) {
+            this.source = source;
+        }
+
+        public String getDestination() {
+            return destination;
+        }
+
+        public void setDestination(String destination) {
+            this.destination = destination;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public void setWeight(int weight) {
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Inner class representing the attachment transfer settings.
+     * <p>
+     * Every attachment is streamed from the source download into the destination upload without being buffered,
+     * so each transfer holds two pooled connections for its whole duration: {@code maxConcurrentTransfers} must not exceed
+     * half of the connections per route, which is checked when the service starts. Attachments larger than {@code maxSize} bytes are skipped,
+     * 0 disables the limit.
+     */
+    public static class AttachmentConfig {
+        private boolean enabled = false;
+        private long maxSize = 512L * 1024 * 1024;
+        private int maxConcurrentTransfers = 2;
+
+        private AttachmentConfig() {
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(long maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public int getMaxConcurrentTransfers() {
+            return maxConcurrentTransfers;
+        }
+
+        public void setMaxConcurrentTransfers(int maxConcurrentTransfers) {
+            this.maxConcurrentTransfers = maxConcurrentTransfers;
+        }
+    }
+
+    /**
+     * Inner class representing the settings of the response cache of GET requests.
+     * <p>
+     * A response is cached for the TTL of its endpoint in {@code ttls}, keyed by endpoint template
+     * (e.g. {@code GET issue/{id}/transitions}), or for the {@code defaultTtl} of the other endpoints, in milliseconds.
+     * Within its TTL a response is served without a request; after it, or with a TTL of 0, a response carrying
+     * an {@code ETag} or {@code Last-Modified} validator is revalidated with a conditional request.
+     * The memory tier keeps at most {@code maxEntries} responses and {@code maxMemory} bytes, dropping the least recently used ones;
+     * responses larger than {@code maxEntrySize} bytes are not cached. A non-empty {@code diskPath} keeps every
+     * cached response in that directory too, so it is reused by later runs, for at most {@code maxDiskAge} milliseconds
+     * and within {@code maxDisk} bytes, dropping the oldest stored responses first.
+     */
+    public static class CacheConfig {
+        private boolean enabled = false;
+        private int maxEntries = 10_000;
+        private long maxMemory = 64L * 1024 * 1024;
+        private int maxEntrySize = 1024 * 1024;
+        private String diskPath = "";
+        private long maxDisk = 256L * 1024 * 1024;
+        private long maxDiskAge = 7L * 24 * 60 * 60 * 1000;
+        private long defaultTtl = 0;
+        private Map<String, Long> ttls = new HashMap<>(Map.of(
+                "GET issue/createmeta/{projectKey}/issuetypes", 3_600_000L,
+                "GET issue/createmeta/{projectKey}/issuetypes/{id}", 3_600_000L,
+                "GET issue/{id}/transitions", 300_000L));
+
+        private CacheConfig() {
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public long getMaxMemory() {
+            return maxMemory;
+        }
+
+        public void setMaxMemory(long maxMemory) {
+            this.maxMemory = maxMemory;
+        }
+
+        public int getMaxEntrySize() {
+            return maxEntrySize;
+        }
+
+        public void setMaxEntrySize(int maxEntrySize) {
+            this.maxEntrySize = maxEntrySize;
+        }
+
+        public String getDiskPath() {
+            return diskPath;
+        }
+
+        public void setDiskPath(String diskPath) {
+            this.diskPath = diskPath;
+        }
+
+        public long getMaxDisk() {
+            return maxDisk;
+        }
+
+        public void setMaxDisk(long maxDisk) {
+            this.maxDisk = maxDisk;
+        }
+
+        public long getMaxDiskAge() {
+            return maxDiskAge;
+        }
+
+        public void setMaxDiskAge(long maxDiskAge) {
+            this.maxDiskAge = maxDiskAge;
+        }
+
+        public long getDefaultTtl() {
+            return defaultTtl;
+        }
+
+        public void setDefaultTtl(long defaultTtl) {
+            this.defaultTtl = defaultTtl;
+        }
+
+        public Map<String, Long> getTtls() {
+            return ttls;
+        }
+
+        public void setTtls(Map<String, Long> ttls) {
+            this.ttls = ttls;
+        }
+
+        /**
+         * Gets the TTL of the responses of an endpoint.
+         *
+         * @param endpoint the method and path template of the endpoint
+         * @return the TTL in milliseconds
+         */
+        public long getTtl(String endpoint) {
+            Number ttl = ttls.get(endpoint);
+            return ttl != null ? ttl.longValue() : defaultTtl;
+        }
+    }
+
+    /**
+     * Inner class representing the settings of the synchronisation daemon.
+     * <p>
+     * A new cycle starts {@code interval} milliseconds after the previous one finished. With {@code reloadConfig}
+     * the configuration file is reloaded before a cycle when it was modified. On shutdown a running cycle may finish
+     * within {@code shutdownTimeout} milliseconds before it is interrupted.
+     */
+    public static class DaemonConfig {
+        private long interval = 60_000;
+        private boolean reloadConfig = true;
+        private long shutdownTimeout = 30_000;
+
+        private DaemonConfig() {
+        }
+
+        public long getInterval() {
+            return interval;
+        }
+
+        public void setInterval(long interval) {
+            this.interval = interval;
+        }
+
+        public boolean isReloadConfig() {
+            return reloadConfig;
+        }
+
+        public void setReloadConfig(boolean reloadConfig) {
+            this.reloadConfig = reloadConfig;
+        }
+
+        public long getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(long shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+    }
+
+    /**
+     * Inner class representing the settings of the webhook listener of the synchronisation daemon.
+     * <p>
+     * Jira issue and comment events are accepted by POST requests to {@code path} on {@code port} (0 picks a free port).
+     * The issues named by events received within {@code coalesceWindow} milliseconds of the first one are synchronised
+     * together, each once. With a non-empty {@code secret}, events must be signed with it in the {@code X-Hub-Signature} header.
+     * The identifiers of the last {@code deduplicationCapacity} deliveries are remembered to drop redelivered events.
+     */
+    public static class WebhookConfig {
+        private boolean enabled = false;
+        private int port = 8090;
+        private String path = "/webhooks/jira";
+        private long coalesceWindow = 2_000;
+        private String secret = "";
+        private int maxBodySize = 1024 * 1024;
+        private int deduplicationCapacity = 10_000;
+
+        private WebhookConfig() {
+        }
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getPort() {
+            return port;
+        }
+
+        public void setPort(int port) {
+            this.port = port;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+
+        public long getCoalesceWindow() {
+            return coalesceWindow;
+        }
+
+        public void setCoalesceWindow(long coalesceWindow) {
+            this.coalesceWindow = coalesceWindow;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public int getMaxBodySize() {
+            return maxBodySize;
+        }
+
+        public void setMaxBodySize(int maxBodySize) {
+            this.maxBodySize = maxBodySize;
+        }
+
+        public int getDeduplicationCapacity() {
+            return deduplicationCapacity;
+        }
+
+        public void setDeduplicationCapacity(int deduplicationCapacity) {
+            this.deduplicationCapacity = deduplicationCapacity;
+        }
     }
 
 }
@@ -0,0 +1,12 @@
+package io.getint.recruitment_task.exception;
+
+/**
+ * Thrown when the configured field mapping cannot be resolved against the destination project,
+ * before any issue is written to it.
+ */
+public class FieldMappingException extends IllegalStateException {
+
+    public FieldMappingException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,23 @@
+package io.getint.recruitment_task.exception;
+
+/**
+ * Thrown when Jira throttled a request with a 429 or 503 response, so the request may be retried later.
+ */
+public class JiraRateLimitException extends JiraResponseException {
+
+    private final long retryAfterMillis;
+
+    public JiraRateLimitException(String message, int statusCode, long retryAfterMillis) {
+        super(message, statusCode);
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * Gets the delay requested by the server before the request is retried.
+     *
+     * @return the delay in milliseconds, or -1 if the server did not request any
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+}
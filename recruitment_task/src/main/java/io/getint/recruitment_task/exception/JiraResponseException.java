@@ -0,0 +1,35 @@
+package io.getint.recruitment_task.exception;
+
+import org.apache.http.HttpException;
+
+/**
+ * Thrown when Jira answered a request with a non-2xx status.
+ */
+public class JiraResponseException extends HttpException {
+
+    private final int statusCode;
+    private final String responseBody;
+
+    public JiraResponseException(String message, int statusCode) {
+        this(message, statusCode, null);
+    }
+
+    public JiraResponseException(String message, int statusCode, String responseBody) {
+        super(message);
+        this.statusCode = statusCode;
+        this.responseBody = responseBody;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the body of the failed response as sent by Jira, e.g. the per-element errors of a rejected bulk request.
+     *
+     * @return the response body, or null if the response had none
+     */
+    public String getResponseBody() {
+        return responseBody;
+    }
+}
@@ -1,53 +1,314 @@
 package io.getint.recruitment_task.httpclient;
 
 import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.exception.JiraRateLimitException;
+import io.getint.recruitment_task.exception.JiraResponseException;
+import io.getint.recruitment_task.metrics.JiraMetrics;
 import org.apache.http.*;
+import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.methods.*;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.GzipCompressingEntity;
+import org.apache.http.client.entity.GzipDecompressingEntity;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.HttpEntityWrapper;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
 import org.apache.http.protocol.HttpContext;
 import org.apache.http.util.EntityUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
 
 /**
  * A custom HTTP client for interacting with Jira API, utilizing
  * Apache HttpClient with pre-configured authentication and response checking.
+ * <p>
+ * When the response cache is enabled, GET requests are served from it or revalidated through it,
+ * and PUT, POST and DELETE requests drop the cached responses of the resources they change.
+ * <p>
+ * Responses are requested gzip encoded and decoded while they are read; JSON request bodies are sent
+ * gzip encoded too when request compression is enabled and the server has not rejected it.
  */
 public class JiraHttpClient implements AutoCloseable {
 
+    private static final String ENDPOINT = "jira.metrics.endpoint";
+    private static final String REQUEST_START = "jira.metrics.requestStart";
+    private static final String GZIP_REQUEST_BODY = "jira.http.gzipRequestBody";
+
+    private final Logger log = Logger.getLogger(JiraHttpClient.class.getName());
+
     private final CloseableHttpClient httpClient;
     private final ConfigLoader.JiraApiConfig jiraApiConfig = ConfigLoader.getJiraApiConfig();
+    private final ConfigLoader.HttpConfig httpConfig = jiraApiConfig.getHttp();
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final ScheduledExecutorService idleConnectionEvictor;
+    private final RequestThrottle throttle;
+    private final RequestThrottle.Lane lane;
+    private final JiraMetrics metrics;
+    private final JiraHttpClient shared;
+    private final ResponseCache cache;
+    private final AtomicBoolean compressRequests;
+    private CloseableHttpAsyncClient asyncHttpClient;
+    private PoolingNHttpClientConnectionManager asyncConnectionManager;
 
     /**
-     * Constructs a new JiraHttpClient with authentication and response validation.
+     * Constructs a new JiraHttpClient with authentication, response validation
+     * and a connection pool configured by the HTTP transport settings.
      */
     public JiraHttpClient() {
-        httpClient = HttpClients.custom()
+        this(new JiraMetrics());
+    }
+
+    /**
+     * Constructs a new JiraHttpClient recording the metrics of every request.
+     *
+     * @param metrics the metrics to record the requests to, shared by all clients of a migration
+     */
+    public JiraHttpClient(JiraMetrics metrics) {
+        this.metrics = metrics;
+        this.shared = null;
+        compressRequests = new AtomicBoolean(httpConfig.isCompressRequests());
+        throttle = new RequestThrottle(jiraApiConfig.getThrottle());
+        lane = throttle.getDefaultLane();
+        cache = jiraApiConfig.getCache().isEnabled()
+                ? new ResponseCache(jiraApiConfig.getCache(), jiraApiConfig.getApiUri(), metrics.getCache())
+                : null;
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(httpConfig.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(httpConfig.getMaxConnectionsPerRoute());
+        connectionManager.setValidateAfterInactivity(httpConfig.getValidateAfterInactivity());
+        HttpClientBuilder httpClientBuilder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(createRequestConfig())
+                .setKeepAliveStrategy(this::getKeepAliveDuration)
                 .addInterceptorFirst(this::addAuthorizationHeader)
-                .addInterceptorLast(this::checkResponseStatus)
-                .build();
+                .addInterceptorFirst(this::prepareRequestBody)
+                .addInterceptorLast(this::recordRequest)
+                .addInterceptorFirst(this::recordResponse)
+                .addInterceptorLast(this::adaptThrottle)
+                .addInterceptorLast(this::checkResponseStatus);
+        if (!httpConfig.isCompressResponses()) {
+            httpClientBuilder.disableContentCompression();
+        }
+        httpClient = httpClientBuilder.build();
+        idleConnectionEvictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jira-http-idle-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long evictionPeriod = Math.max(1_000, httpConfig.getMaxIdleTime() / 2);
+        idleConnectionEvictor.scheduleWithFixedDelay(this::evictIdleConnections, evictionPeriod, evictionPeriod, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Constructs a view of the shared client sending its requests through the given lane of the shared throttle.
+     *
+     * @param shared the client whose connection pools, throttle and metrics are shared
+     * @param lane   the throttle lane of the requests of this view
+     */
+    private JiraHttpClient(JiraHttpClient shared, RequestThrottle.Lane lane) {
+        this.shared = shared;
+        this.lane = lane;
+        this.metrics = shared.metrics;
+        this.throttle = shared.throttle;
+        this.cache = shared.cache;
+        this.compressRequests = shared.compressRequests;
+        this.connectionManager = shared.connectionManager;
+        this.httpClient = shared.httpClient;
+        this.idleConnectionEvictor = shared.idleConnectionEvictor;
+    }
+
+    /**
+     * Creates a view of this client for one of several migrations running at once, e.g. one project pair.
+     * The view shares the connection pools, the throttle and the metrics of this client, but its requests wait
+     * in their own throttle lane, so the rate budget is shared fairly between the migrations.
+     * Closing the view leaves this client open.
+     *
+     * @param laneName the name of the throttle lane
+     * @param weight   the number of requests the lane may send in a row before the next lane is served
+     * @return a new view of this client
+     */
+    public JiraHttpClient forLane(String laneName, int weight) {
+        return new JiraHttpClient(shared != null ? shared : this, throttle.getLane(laneName, weight));
+    }
+
+    /**
+     * Creates a view of this client in the same throttle lane, for a user which closes the client when done
+     * while this client stays open.
+     *
+     * @return a new view of this client
+     */
+    public JiraHttpClient share() {
+        return new JiraHttpClient(shared != null ? shared : this, lane);
     }
 
     public CloseableHttpResponse execute(HttpGet request) throws IOException {
-        return getHttpClient().execute(request);
+        if (cache == null) {
+            return executeThrottled(request);
+        }
+        CloseableHttpResponse fresh = cache.getFresh(request.getURI());
+        if (fresh != null) {
+            return fresh;
+        }
+        ResponseCache.Entry stale = cache.prepare(request);
+        CloseableHttpResponse response = executeThrottled(request);
+        HttpResponse completed;
+        try {
+            completed = cache.complete(request.getURI(), stale, response);
+        } catch (IOException e) {
+            response.close();
+            throw e;
+        }
+        if (completed != response) {
+            response.close();
+            return (CloseableHttpResponse) completed;
+        }
+        return response;
     }
 
     public CloseableHttpResponse execute(HttpPost request) throws IOException {
-        return getHttpClient().execute(request);
+        return executeChanging(request);
     }
 
     public CloseableHttpResponse execute(HttpPut request) throws IOException {
-        return getHttpClient().execute(request);
+        return executeChanging(request);
     }
 
     public CloseableHttpResponse execute(HttpDelete request) throws IOException {
-        return getHttpClient().execute(request);
+        return executeChanging(request);
+    }
+
+    /**
+     * Executes a request of any method, serving GET requests from the cache like {@link #execute(HttpGet)}.
+     *
+     * @param request the HTTP request to execute
+     * @return the response, to be closed by the caller
+     * @throws IOException if an I/O error occurs or the response status is not 2xx
+     */
+    public CloseableHttpResponse execute(HttpUriRequest request) throws IOException {
+        return request instanceof HttpGet ? execute((HttpGet) request) : executeChanging(request);
+    }
+
+    /**
+     * Executes the request without blocking the calling thread.
+     * <p>
+     * The response body is buffered in memory, so the returned response does not need to be closed.
+     * Responses with a non-2xx status complete the future exceptionally with a {@link ClientProtocolException},
+     * the same exception the blocking {@code execute} methods throw. A GET response passing through the response cache
+     * completes the future on the worker thread of the cache rather than on an I/O thread.
+     *
+     * @param request the HTTP request to execute
+     * @return a CompletableFuture completed with the response
+     */
+    public CompletableFuture<HttpResponse> executeAsync(HttpUriRequest request) {
+        if (cache == null) {
+            return executeAsync(request, 1);
+        }
+        if (!HttpGet.METHOD_NAME.equals(request.getMethod())) {
+            return executeAsync(request, 1).whenComplete((response, failure) -> cache.invalidate(request.getURI()));
+        }
+        HttpResponse fresh = cache.getFresh(request.getURI());
+        if (fresh != null) {
+            return CompletableFuture.completedFuture(fresh);
+        }
+        ResponseCache.Entry stale = cache.prepare(request);
+        return executeAsync(request, 1).thenApplyAsync(response -> {
+            try {
+                return cache.complete(request.getURI(), stale, response);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, cache.getWorker());
+    }
+
+    public RequestThrottle getThrottle() {
+        return throttle;
+    }
+
+    public RequestThrottle.Lane getLane() {
+        return lane;
+    }
+
+    public JiraMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the response cache of GET requests.
+     *
+     * @return the cache shared by all views of this client, or null if it is disabled
+     */
+    public ResponseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets live statistics of the blocking client connection pool.
+     *
+     * @return the PoolStats with the number of leased, pending and available connections
+     */
+    public PoolStats getConnectionPoolStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * Gets live statistics of the non-blocking client connection pool.
+     *
+     * @return the PoolStats with the number of leased, pending and available connections,
+     * all zero when no asynchronous request has been made yet
+     */
+    public synchronized PoolStats getAsyncConnectionPoolStats() {
+        if (shared != null) {
+            return shared.getAsyncConnectionPoolStats();
+        }
+        return asyncConnectionManager != null
+                ? asyncConnectionManager.getTotalStats()
+                : new PoolStats(0, 0, 0, httpConfig.getMaxConnections());
     }
 
     public void close() throws Exception {
+        if (shared != null) {
+            return;
+        }
+        idleConnectionEvictor.shutdownNow();
+        throttle.close();
         httpClient.close();
+        synchronized (this) {
+            if (asyncHttpClient != null) {
+                asyncHttpClient.close();
+            }
+        }
+        if (cache != null) {
+            cache.close();
+        }
     }
 
     public CloseableHttpClient getHttpClient() {
@@ -55,7 +316,219 @@ public class JiraHttpClient implements AutoCloseable {
     }
 
     /**
-     * Adds an authorization header to the HTTP request.
+     * Gets the non-blocking HTTP client, starting it on first use, so its I/O threads
+     * are only created when asynchronous requests are actually made.
+     *
+     * @return the started CloseableHttpAsyncClient
+     */
+    public synchronized CloseableHttpAsyncClient getAsyncHttpClient() {
+        if (shared != null) {
+            return shared.getAsyncHttpClient();
+        }
+        if (asyncHttpClient == null) {
+            asyncConnectionManager = createAsyncConnectionManager();
+            asyncHttpClient = HttpAsyncClients.custom()
+                    .setConnectionManager(asyncConnectionManager)
+                    .setDefaultRequestConfig(createRequestConfig())
+                    .setKeepAliveStrategy(this::getKeepAliveDuration)
+                    .addInterceptorFirst(this::addAuthorizationHeader)
+                    .addInterceptorFirst(this::acceptGzipEncoding)
+                    .addInterceptorLast(this::recordRequest)
+                    .addInterceptorFirst(this::recordResponseStatus)
+                    .build();
+            asyncHttpClient.start();
+        }
+        return asyncHttpClient;
+    }
+
+    /**
+     * Executes the request once the throttle allows it, retrying it when Jira throttles it.
+     *
+     * @param request the HTTP request to execute
+     * @return the HTTP response
+     * @throws IOException if an I/O error occurs, the response status indicates failure
+     *                     or the request is still throttled after all retries
+     */
+    private CloseableHttpResponse executeThrottled(HttpUriRequest request) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            long waitStart = System.nanoTime();
+            try {
+                throttle.acquire(lane);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the request throttle");
+            }
+            metrics.getThrottleWait().record(System.nanoTime() - waitStart);
+            HttpClientContext context = HttpClientContext.create();
+            try {
+                return getHttpClient().execute(request, context);
+            } catch (ClientProtocolException e) {
+                if (isCompressionRejected(request, context, e)) {
+                    continue;
+                }
+                if (!(e.getCause() instanceof JiraRateLimitException) || attempt > throttle.getMaxRetries() || !isRepeatable(request)) {
+                    throw e;
+                }
+                pauseBeforeRetry(request, (JiraRateLimitException) e.getCause(), attempt);
+            } catch (IOException e) {
+                metrics.getEndpoint(getEndpoint(request.getMethod(), request.getURI())).recordFailure();
+                throw e;
+            } finally {
+                throttle.release();
+            }
+        }
+    }
+
+    /**
+     * Executes a request changing a resource, dropping the cached responses of the resource once it is done.
+     *
+     * @param request the PUT, POST or DELETE request
+     * @return the HTTP response
+     * @throws IOException if an I/O error occurs or the response status indicates failure
+     */
+    private CloseableHttpResponse executeChanging(HttpUriRequest request) throws IOException {
+        try {
+            return executeThrottled(request);
+        } finally {
+            if (cache != null) {
+                cache.invalidate(request.getURI());
+            }
+        }
+    }
+
+    /**
+     * Checks whether the server rejected the gzip encoded body of this very request, switching request compression off if so.
+     * The decision is made per request, so every request rejected while compression was still on is sent again,
+     * however many of them fail at once.
+     *
+     * @param request the failed HTTP request
+     * @param context the context the request was sent with
+     * @param failure the failure of the request
+     * @return true if the request should be sent again uncompressed
+     */
+    private boolean isCompressionRejected(HttpUriRequest request, HttpContext context, ClientProtocolException failure) {
+        if (!(failure.getCause() instanceof JiraResponseException)
+                || ((JiraResponseException) failure.getCause()).getStatusCode() != HttpStatus.SC_UNSUPPORTED_MEDIA_TYPE
+                || !Boolean.TRUE.equals(context.getAttribute(GZIP_REQUEST_BODY))) {
+            return false;
+        }
+        if (compressRequests.compareAndSet(true, false)) {
+            log.warning(String.format("%s %s rejected the gzip encoded body, sending request bodies uncompressed",
+                    request.getMethod(), request.getURI().getPath()));
+        }
+        return true;
+    }
+
+    private CompletableFuture<HttpResponse> executeAsync(HttpUriRequest request, int attempt) {
+        CompletableFuture<HttpResponse> result = new CompletableFuture<>();
+        long waitStart = System.nanoTime();
+        throttle.acquireAsync(lane).whenComplete((ignored, acquireFailure) -> {
+            if (acquireFailure != null) {
+                result.completeExceptionally(acquireFailure);
+                return;
+            }
+            metrics.getThrottleWait().record(System.nanoTime() - waitStart);
+            HttpClientContext context = HttpClientContext.create();
+            try {
+                getAsyncHttpClient().execute(prepareAsyncRequest(request, context), context,
+                        new ThrottledResponseCallback(request, context, attempt, result));
+            } catch (IOException | RuntimeException e) {
+                throttle.release();
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Prepares the body of an asynchronous request attempt the way {@link #prepareRequestBody} does for the blocking client.
+     * The non-blocking client reads the body from its content stream, which a gzip compressing entity does not offer,
+     * so the compressed body is buffered. The body is replaced in a wrapper of the request only, so the original request
+     * keeps its body and is prepared again when it is retried or resent uncompressed.
+     *
+     * @param request the HTTP request
+     * @param context the context the attempt is sent with
+     * @return the request to send
+     * @throws IOException if the body cannot be compressed
+     */
+    private HttpUriRequest prepareAsyncRequest(HttpUriRequest request, HttpContext context) throws IOException {
+        HttpEntity entity = getEntity(request);
+        if (entity == null) {
+            return request;
+        }
+        if (entity instanceof JsonEntity && compressRequests.get()) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            new GzipCompressingEntity(entity).writeTo(compressed);
+            ByteArrayEntity compressedEntity = new ByteArrayEntity(compressed.toByteArray());
+            compressedEntity.setContentType(entity.getContentType());
+            compressedEntity.setContentEncoding("gzip");
+            entity = compressedEntity;
+            context.setAttribute(GZIP_REQUEST_BODY, Boolean.TRUE);
+        }
+        if (entity.getContentLength() < 0) {
+            entity = new CountingRequestEntity(entity, metrics.getEndpoint(getEndpoint(request.getMethod(), request.getURI())));
+        }
+        HttpRequestWrapper attemptRequest = HttpRequestWrapper.wrap(request);
+        ((HttpEntityEnclosingRequest) attemptRequest).setEntity(entity);
+        return attemptRequest;
+    }
+
+    private void pauseBeforeRetry(HttpUriRequest request, JiraRateLimitException rateLimit, int attempt) {
+        long delayMillis = throttle.getRetryDelayMillis(rateLimit.getRetryAfterMillis(), attempt);
+        log.info(String.format("%s %s throttled with status %S, retry %S in %S ms",
+                request.getMethod(), request.getURI().getPath(), rateLimit.getStatusCode(), attempt, delayMillis));
+        throttle.pause(delayMillis);
+    }
+
+    private PoolingNHttpClientConnectionManager createAsyncConnectionManager() {
+        IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+                .setConnectTimeout(httpConfig.getConnectTimeout())
+                .setSoTimeout(httpConfig.getSocketTimeout())
+                .build();
+        try {
+            PoolingNHttpClientConnectionManager manager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(ioReactorConfig));
+            manager.setMaxTotal(httpConfig.getMaxConnections());
+            manager.setDefaultMaxPerRoute(httpConfig.getMaxConnectionsPerRoute());
+            return manager;
+        } catch (IOReactorException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private RequestConfig createRequestConfig() {
+        return RequestConfig.custom()
+                .setConnectTimeout(httpConfig.getConnectTimeout())
+                .setSocketTimeout(httpConfig.getSocketTimeout())
+                .setConnectionRequestTimeout(httpConfig.getConnectionRequestTimeout())
+                .build();
+    }
+
+    /**
+     * Keeps connections alive as long as the server allows, but never longer than the configured duration.
+     *
+     * @param response the HTTP response received on the connection
+     * @param context  the context of the HTTP request
+     * @return the keep-alive duration in milliseconds
+     */
+    private long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+        long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+        return serverKeepAlive > 0 ? Math.min(serverKeepAlive, httpConfig.getKeepAlive()) : httpConfig.getKeepAlive();
+    }
+
+    private void evictIdleConnections() {
+        connectionManager.closeExpiredConnections();
+        connectionManager.closeIdleConnections(httpConfig.getMaxIdleTime(), TimeUnit.MILLISECONDS);
+        synchronized (this) {
+            if (asyncConnectionManager != null) {
+                asyncConnectionManager.closeExpiredConnections();
+                asyncConnectionManager.closeIdleConnections(httpConfig.getMaxIdleTime(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Adds an authorization header to the HTTP request, and a JSON content type if the request sends a body
+     * other than multipart content.
      *
      * @param request the HTTP request to modify
      * @param context the context of the HTTP request
@@ -63,23 +536,333 @@ public class JiraHttpClient implements AutoCloseable {
     private void addAuthorizationHeader(HttpRequest request, HttpContext context) {
         String auth = jiraApiConfig.getUser() + ":" + jiraApiConfig.getApiKey();
         String authHeader = "Basic " + new String(Base64.getEncoder().encode(auth.getBytes()));
-        request.addHeader(HttpHeaders.AUTHORIZATION, authHeader);
-        request.setHeader(HttpHeaders.CONTENT_TYPE, "application/json");
+        request.setHeader(HttpHeaders.AUTHORIZATION, authHeader);
+        if (getEntity(request) != null && !isMultipart(request)) {
+            request.setHeader(HttpHeaders.CONTENT_TYPE, "application/json");
+        }
+    }
+
+    /**
+     * Compresses a JSON request body if request compression is on, and counts the bytes of a body of unknown length
+     * as it is written. The body is replaced in the request sent by the client only, so it is prepared again
+     * from the original body when the request is retried.
+     *
+     * @param request the HTTP request to modify
+     * @param context the context of the HTTP request
+     */
+    private void prepareRequestBody(HttpRequest request, HttpContext context) {
+        HttpEntity entity = getEntity(request);
+        if (entity == null || entity instanceof CountingRequestEntity) {
+            return;
+        }
+        if (entity instanceof JsonEntity && compressRequests.get()) {
+            entity = new GzipCompressingEntity(entity);
+            context.setAttribute(GZIP_REQUEST_BODY, Boolean.TRUE);
+        }
+        if (entity.getContentLength() < 0) {
+            String endpoint = getEndpoint(request.getRequestLine().getMethod(), URI.create(request.getRequestLine().getUri()));
+            entity = new CountingRequestEntity(entity, metrics.getEndpoint(endpoint));
+        }
+        ((HttpEntityEnclosingRequest) request).setEntity(entity);
+    }
+
+    /**
+     * Requests gzip encoded responses of the non-blocking client, which are decoded once they are received.
+     *
+     * @param request the HTTP request to modify
+     * @param context the context of the HTTP request
+     */
+    private void acceptGzipEncoding(HttpRequest request, HttpContext context) {
+        if (httpConfig.isCompressResponses() && !request.containsHeader(HttpHeaders.ACCEPT_ENCODING)) {
+            request.setHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        }
+    }
+
+    /**
+     * Replaces a gzip encoded body of a response of the non-blocking client with the decoded body.
+     *
+     * @param response the HTTP response
+     */
+    private static void decodeResponseBody(HttpResponse response) {
+        HttpEntity entity = response.getEntity();
+        Header contentEncoding = entity != null ? entity.getContentEncoding() : null;
+        if (contentEncoding != null && "gzip".equalsIgnoreCase(contentEncoding.getValue().trim())) {
+            response.setEntity(new GzipDecompressingEntity(entity));
+            response.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+            response.removeHeaders(HttpHeaders.CONTENT_ENCODING);
+        }
+    }
+
+    private static HttpEntity getEntity(HttpRequest request) {
+        return request instanceof HttpEntityEnclosingRequest ? ((HttpEntityEnclosingRequest) request).getEntity() : null;
+    }
+
+    private static boolean isMultipart(HttpRequest request) {
+        HttpEntity entity = getEntity(request);
+        return entity != null && entity.getContentType() != null && entity.getContentType().getValue().startsWith("multipart/");
+    }
+
+    /**
+     * Checks whether the request can be sent again: a request streaming a body which cannot be repeated,
+     * e.g. an attachment piped from a download, is not retried by the client.
+     *
+     * @param request the HTTP request
+     * @return true if the request has no body or a repeatable one
+     */
+    private static boolean isRepeatable(HttpRequest request) {
+        if (!(request instanceof HttpEntityEnclosingRequest)) {
+            return true;
+        }
+        HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+        return entity == null || entity.isRepeatable();
+    }
+
+    /**
+     * Starts timing the HTTP request and counts the bytes of its body.
+     *
+     * @param request the HTTP request
+     * @param context the context of the HTTP request
+     */
+    private void recordRequest(HttpRequest request, HttpContext context) {
+        String endpoint = getEndpoint(request.getRequestLine().getMethod(), URI.create(request.getRequestLine().getUri()));
+        context.setAttribute(ENDPOINT, endpoint);
+        context.setAttribute(REQUEST_START, System.nanoTime());
+        if (request instanceof HttpEntityEnclosingRequest) {
+            HttpEntity entity = ((HttpEntityEnclosingRequest) request).getEntity();
+            if (entity != null && entity.getContentLength() > 0) {
+                metrics.getEndpoint(endpoint).addBytesSent(entity.getContentLength());
+            }
+        }
+    }
+
+    /**
+     * Records the status and latency of the HTTP response and counts the bytes of its body as it is read.
+     *
+     * @param response the HTTP response
+     * @param context  the context of the HTTP request
+     */
+    private void recordResponse(HttpResponse response, HttpContext context) {
+        recordResponseStatus(response, context);
+        String endpoint = (String) context.getAttribute(ENDPOINT);
+        if (endpoint != null && response.getEntity() != null) {
+            response.setEntity(new CountingEntity(response.getEntity(), metrics.getEndpoint(endpoint)));
+        }
+    }
+
+    /**
+     * Records the status and latency of the HTTP response.
+     *
+     * @param response the HTTP response
+     * @param context  the context of the HTTP request
+     */
+    private void recordResponseStatus(HttpResponse response, HttpContext context) {
+        String endpoint = (String) context.getAttribute(ENDPOINT);
+        Long requestStart = (Long) context.getAttribute(REQUEST_START);
+        if (endpoint != null && requestStart != null) {
+            metrics.getEndpoint(endpoint).recordResponse(response.getStatusLine().getStatusCode(), System.nanoTime() - requestStart);
+        }
+    }
+
+    private String getEndpoint(String method, URI uri) {
+        return JiraMetrics.getEndpointTemplate(method, uri, jiraApiConfig.getApiUri());
+    }
+
+    /**
+     * Adapts the request throttle to the HTTP response.
+     *
+     * @param response the HTTP response
+     * @param context  the context of the HTTP request
+     */
+    private void adaptThrottle(HttpResponse response, HttpContext context) {
+        throttle.onResponse(response);
     }
 
     /**
      * Checks the status of the HTTP response and throws an exception if it indicates failure.
+     * A {@code 304 Not Modified} answer to a conditional request of the response cache is not a failure.
      *
      * @param response the HTTP response to check
      * @param context  the context of the HTTP request
-     * @throws HttpException if the response status code indicates failure
-     * @throws IOException   if an I/O error occurs
+     * @throws JiraRateLimitException if Jira throttled the request
+     * @throws JiraResponseException   if the response status code indicates failure
+     * @throws IOException             if an I/O error occurs
      */
     private void checkResponseStatus(HttpResponse response, HttpContext context) throws HttpException, IOException {
         int statusCode = response.getStatusLine().getStatusCode();
         HttpEntity entity = response.getEntity();
-        if (statusCode < 200 || statusCode >= 300) {
-            throw new HttpException(String.format("Response failed: status=%S, body=%S", statusCode, (entity != null ? EntityUtils.toString(entity) : null)));
+        if (RequestThrottle.isThrottled(response)) {
+            EntityUtils.consumeQuietly(entity);
+            throw new JiraRateLimitException(String.format("Request throttled: status=%S", statusCode), statusCode,
+                    RequestThrottle.getServerRetryDelayMillis(response));
+        }
+        if ((statusCode < 200 || statusCode >= 300) && statusCode != HttpStatus.SC_NOT_MODIFIED) {
+            String body = entity != null ? EntityUtils.toString(entity) : null;
+            throw new JiraResponseException(String.format("Response failed: status=%S, body=%S", statusCode, body), statusCode, body);
+        }
+    }
+
+    /**
+     * Completes an asynchronous request: releases the throttle, checks the response status, retries the request
+     * when Jira throttled it and sends it again uncompressed when the server rejected its gzip encoded body.
+     */
+    private class ThrottledResponseCallback implements FutureCallback<HttpResponse> {
+        private final HttpUriRequest request;
+        private final HttpContext context;
+        private final int attempt;
+        private final CompletableFuture<HttpResponse> result;
+
+        private ThrottledResponseCallback(HttpUriRequest request, HttpContext context, int attempt, CompletableFuture<HttpResponse> result) {
+            this.request = request;
+            this.context = context;
+            this.attempt = attempt;
+            this.result = result;
+        }
+
+        @Override
+        public void completed(HttpResponse response) {
+            throttle.onResponse(response);
+            throttle.release();
+            if (response.getEntity() != null && response.getEntity().getContentLength() > 0) {
+                metrics.getEndpoint(getEndpoint(request.getMethod(), request.getURI())).addBytesReceived(response.getEntity().getContentLength());
+            }
+            decodeResponseBody(response);
+            try {
+                checkResponseStatus(response, null);
+                result.complete(response);
+            } catch (JiraRateLimitException e) {
+                if (attempt > throttle.getMaxRetries()) {
+                    result.completeExceptionally(new ClientProtocolException(e.getMessage(), e));
+                    return;
+                }
+                pauseBeforeRetry(request, e, attempt);
+                resend();
+            } catch (HttpException e) {
+                ClientProtocolException failure = new ClientProtocolException(e.getMessage(), e);
+                if (isCompressionRejected(request, context, failure)) {
+                    resend();
+                } else {
+                    result.completeExceptionally(failure);
+                }
+            } catch (IOException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private void resend() {
+            executeAsync(request, attempt + 1).whenComplete((resent, resendFailure) -> {
+                if (resendFailure != null) {
+                    result.completeExceptionally(resendFailure);
+                } else {
+                    result.complete(resent);
+                }
+            });
+        }
+
+        @Override
+        public void failed(Exception e) {
+            throttle.release();
+            metrics.getEndpoint(getEndpoint(request.getMethod(), request.getURI())).recordFailure();
+            result.completeExceptionally(e);
+        }
+
+        @Override
+        public void cancelled() {
+            throttle.release();
+            result.cancel(false);
+        }
+    }
+
+    /**
+     * Response entity counting the bytes read from it.
+     */
+    private static class CountingEntity extends HttpEntityWrapper {
+        private final JiraMetrics.EndpointMetrics endpointMetrics;
+
+        private CountingEntity(HttpEntity entity, JiraMetrics.EndpointMetrics endpointMetrics) {
+            super(entity);
+            this.endpointMetrics = endpointMetrics;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int read = super.read();
+                    if (read >= 0) {
+                        endpointMetrics.addBytesReceived(1);
+                    }
+                    return read;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0) {
+                        endpointMetrics.addBytesReceived(read);
+                    }
+                    return read;
+                }
+            };
+        }
+
+        @Override
+        public void writeTo(OutputStream output) throws IOException {
+            try (InputStream content = getContent()) {
+                content.transferTo(output);
+            }
+        }
+    }
+
+    /**
+     * Request entity of unknown length counting the bytes sent, as they are written or read by the client.
+     */
+    private static class CountingRequestEntity extends HttpEntityWrapper {
+        private final JiraMetrics.EndpointMetrics endpointMetrics;
+
+        private CountingRequestEntity(HttpEntity entity, JiraMetrics.EndpointMetrics endpointMetrics) {
+            super(entity);
+            this.endpointMetrics = endpointMetrics;
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            return new FilterInputStream(super.getContent()) {
+                @Override
+                public int read() throws IOException {
+                    int read = super.read();
+                    if (read >= 0) {
+                        endpointMetrics.addBytesSent(1);
+                    }
+                    return read;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, length);
+                    if (read > 0) {
+                        endpointMetrics.addBytesSent(read);
+                    }
+                    return read;
+                }
+            };
+        }
+
+        @Override
+        public void writeTo(OutputStream output) throws IOException {
+            super.writeTo(new FilterOutputStream(output) {
+                @Override
+                public void write(int b) throws IOException {
+                    out.write(b);
+                    endpointMetrics.addBytesSent(1);
+                }
+
+                @Override
+                public void write(byte[] buffer, int offset, int length) throws IOException {
+                    out.write(buffer, offset, length);
+                    endpointMetrics.addBytesSent(length);
+                }
+            });
         }
     }
 
@@ -0,0 +1,75 @@
+package io.getint.recruitment_task.httpclient;
+
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ContentType;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Request entity serializing a JSON payload straight to the connection while the request is sent,
+ * instead of building the whole body as a String first.
+ * <p>
+ * The length of the body is not known before it is written, so it is sent chunked. The entity is repeatable,
+ * since the payload is serialized again for every attempt. Only the non-blocking client, which reads bodies
+ * through {@link #getContent()}, serializes the payload into memory.
+ */
+public class JsonEntity extends AbstractHttpEntity {
+
+    private static final int WRITE_BUFFER_SIZE = 8192;
+
+    private final JSONObject payload;
+
+    /**
+     * Constructs an entity of the given payload, sent as UTF-8 encoded JSON.
+     *
+     * @param payload the JSON payload
+     */
+    public JsonEntity(JSONObject payload) {
+        this.payload = payload;
+        setContentType(ContentType.APPLICATION_JSON.toString());
+        setChunked(true);
+    }
+
+    public JSONObject getPayload() {
+        return payload;
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public long getContentLength() {
+        return -1;
+    }
+
+    @Override
+    public InputStream getContent() throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writeTo(body);
+        return new ByteArrayInputStream(body.toByteArray());
+    }
+
+    @Override
+    public void writeTo(OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        payload.write(writer);
+        writer.flush();
+    }
+
+    @Override
+    public boolean isStreaming() {
+        return false;
+    }
+
+}
@@ -0,0 +1,532 @@
+package io.getint.recruitment_task.httpclient;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Logger;
+
+/**
+ * Client-side throttle pacing the requests sent to Jira.
+ * <p>
+ * Every request has to take a token from a token bucket refilled at the configured rate
+ * and a slot from a concurrency limit which adapts to the server (AIMD): it grows by one slot per
+ * {@code limit} successful responses and is halved whenever the server throttles a request with a 429 or 503.
+ * Before a throttled request is retried, all requests are paused for the time given by the {@code Retry-After}
+ * or {@code X-RateLimit-Reset} header, or for an exponential backoff when the server sent neither.
+ * <p>
+ * Requests wait in {@link Lane lanes}, one per project pair sharing the throttle. Tokens and slots are granted
+ * to the lanes in weighted round-robin: each lane with waiting requests gets up to {@code weight} requests
+ * in a row before the next lane is served, so a large migration cannot starve the small ones.
+ */
+public class RequestThrottle implements AutoCloseable {
+
+    public static final String RETRY_AFTER = "Retry-After";
+    public static final String RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+    public static final String RATE_LIMIT_RESET = "X-RateLimit-Reset";
+    public static final String RATE_LIMIT_NEAR_LIMIT = "X-RateLimit-NearLimit";
+
+    private static final int SC_TOO_MANY_REQUESTS = 429;
+    private static final long MAX_RETRY_DELAY_MILLIS = 60_000;
+
+    private final Logger log = Logger.getLogger(RequestThrottle.class.getName());
+
+    private final ConfigLoader.ThrottleConfig config;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<String, Lane> lanes = new LinkedHashMap<>();
+    private final Deque<Lane> waitingLanes = new ArrayDeque<>();
+    private final Lane defaultLane;
+    private final ScheduledExecutorService asyncScheduler;
+
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+    private double concurrencyLimit;
+    private int inFlight;
+    private long pausedUntil = System.nanoTime();
+    private long throttledResponses;
+    private boolean asyncDispatchScheduled;
+    private boolean closed;
+
+    /**
+     * Constructs a new throttle configured by the throttle settings.
+     *
+     * @param config the throttle settings
+     */
+    public RequestThrottle(ConfigLoader.ThrottleConfig config) {
+        this.config = config;
+        this.tokens = Math.max(1, config.getBurst());
+        this.concurrencyLimit = config.getMaxConcurrency();
+        this.defaultLane = getLane("default", 1);
+        this.asyncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jira-request-throttle");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the lane with the given name, registering it on first use.
+     *
+     * @param name   the name of the lane, e.g. the project pair it serves
+     * @param weight the number of requests the lane may send in a row before the next lane is served
+     * @return the lane
+     */
+    public Lane getLane(String name, int weight) {
+        lock.lock();
+        try {
+            return lanes.computeIfAbsent(name, key -> new Lane(key, Math.max(1, weight)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the lane of the requests sent without a lane of their own.
+     *
+     * @return the default lane
+     */
+    public Lane getDefaultLane() {
+        return defaultLane;
+    }
+
+    /**
+     * Gets all lanes registered so far.
+     *
+     * @return the lanes in registration order
+     */
+    public List<Lane> getLanes() {
+        lock.lock();
+        try {
+            return new ArrayList<>(lanes.values());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the request may be sent. Every acquire must be followed by a {@link #release()}.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        acquire(defaultLane);
+    }
+
+    /**
+     * Blocks until the request of the given lane may be sent. Every acquire must be followed by a {@link #release()}.
+     *
+     * @param lane the lane the request waits in
+     * @throws InterruptedException  if interrupted while waiting
+     * @throws IllegalStateException if the throttle is closed before the request may be sent
+     */
+    public void acquire(Lane lane) throws InterruptedException {
+        Waiter waiter = new Waiter(null);
+        lock.lock();
+        try {
+            checkNotClosed();
+            enqueue(lane, waiter);
+        } finally {
+            lock.unlock();
+        }
+        dispatchWaiters();
+        boolean granted;
+        lock.lock();
+        try {
+            while (!waiter.granted) {
+                checkNotClosed();
+                changed.await();
+            }
+            return;
+        } catch (InterruptedException e) {
+            granted = waiter.granted;
+            if (!granted && lane.waiters.remove(waiter) && lane.waiters.isEmpty()) {
+                waitingLanes.remove(lane);
+            }
+            if (!granted) {
+                throw e;
+            }
+        } finally {
+            lock.unlock();
+        }
+        release();
+        throw new InterruptedException();
+    }
+
+    /**
+     * Waits without blocking the calling thread until the request may be sent.
+     * Every acquire must be followed by a {@link #release()}.
+     *
+     * @return a CompletableFuture completed once the request may be sent
+     */
+    public CompletableFuture<Void> acquireAsync() {
+        return acquireAsync(defaultLane);
+    }
+
+    /**
+     * Waits without blocking the calling thread until the request of the given lane may be sent.
+     * Every acquire must be followed by a {@link #release()}.
+     *
+     * @param lane the lane the request waits in
+     * @return a CompletableFuture completed once the request may be sent, cancelled if the throttle is closed first
+     */
+    public CompletableFuture<Void> acquireAsync(Lane lane) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        lock.lock();
+        try {
+            if (closed) {
+                future.cancel(false);
+                return future;
+            }
+            enqueue(lane, new Waiter(future));
+        } finally {
+            lock.unlock();
+        }
+        dispatchWaiters();
+        return future;
+    }
+
+    /**
+     * Releases the concurrency slot taken by {@link #acquire()} or {@link #acquireAsync()}.
+     */
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        dispatchWaiters();
+    }
+
+    /**
+     * Adapts the concurrency limit to a response: grows it on success unless the server reports
+     * that the rate limit is close, and halves it when the server throttled the request.
+     *
+     * @param response the received HTTP response
+     */
+    public void onResponse(HttpResponse response) {
+        lock.lock();
+        try {
+            if (isThrottled(response)) {
+                throttledResponses++;
+                concurrencyLimit = Math.max(config.getMinConcurrency(), concurrencyLimit / 2);
+                log.warning(String.format("Request throttled with status %S, concurrency limit lowered to %S",
+                        response.getStatusLine().getStatusCode(), (int) concurrencyLimit));
+            } else if (!isNearLimit(response)) {
+                concurrencyLimit = Math.min(config.getMaxConcurrency(), concurrencyLimit + 1 / concurrencyLimit);
+            }
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        dispatchWaiters();
+    }
+
+    /**
+     * Pauses all requests, so the retries of throttled requests do not hit the server while it is still limiting.
+     *
+     * @param delayMillis the pause in milliseconds
+     */
+    public void pause(long delayMillis) {
+        lock.lock();
+        try {
+            pausedUntil = Math.max(pausedUntil, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        dispatchWaiters();
+    }
+
+    /**
+     * Gets the time to wait before retrying a throttled request: the delay requested by the server,
+     * or an exponential backoff when the server did not tell.
+     *
+     * @param serverRetryDelayMillis the delay requested by the server, or -1 if none
+     * @param attempt                the number of the attempt which was throttled, starting at 1
+     * @return the delay in milliseconds
+     */
+    public long getRetryDelayMillis(long serverRetryDelayMillis, int attempt) {
+        if (serverRetryDelayMillis >= 0) {
+            return serverRetryDelayMillis;
+        }
+        long backoff = config.getRetryBackoff() << Math.min(attempt - 1, 16);
+        return Math.min(MAX_RETRY_DELAY_MILLIS, backoff);
+    }
+
+    public int getMaxRetries() {
+        return config.getMaxRetries();
+    }
+
+    public int getConcurrencyLimit() {
+        lock.lock();
+        try {
+            return (int) concurrencyLimit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getThrottledResponses() {
+        lock.lock();
+        try {
+            return throttledResponses;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the throttle, cancelling the asynchronous waiters and failing the blocked ones
+     * with an {@link IllegalStateException}, since no grant is scheduled any more.
+     */
+    @Override
+    public void close() {
+        asyncScheduler.shutdownNow();
+        lock.lock();
+        try {
+            closed = true;
+            for (Lane lane : lanes.values()) {
+                lane.waiters.stream().filter(waiter -> waiter.future != null).forEach(waiter -> waiter.future.cancel(false));
+                lane.waiters.clear();
+            }
+            waitingLanes.clear();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the delay requested by the server: the {@code Retry-After} seconds
+     * or the time left until {@code X-RateLimit-Reset}.
+     *
+     * @param response the throttled HTTP response
+     * @return the delay in milliseconds, or -1 if the server did not send either header
+     */
+    public static long getServerRetryDelayMillis(HttpResponse response) {
+        Header retryAfter = response.getFirstHeader(RETRY_AFTER);
+        if (retryAfter != null) {
+            try {
+                return Math.min(MAX_RETRY_DELAY_MILLIS, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.getValue().trim())));
+            } catch (NumberFormatException e) {
+                // HTTP-date values are not sent by Jira, fall back to the rate limit reset
+            }
+        }
+        Header reset = response.getFirstHeader(RATE_LIMIT_RESET);
+        if (reset != null) {
+            try {
+                long untilReset = Duration.between(OffsetDateTime.now(), OffsetDateTime.parse(reset.getValue().trim())).toMillis();
+                return Math.max(0, Math.min(MAX_RETRY_DELAY_MILLIS, untilReset));
+            } catch (DateTimeParseException e) {
+                // unsupported format, fall back to the backoff
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether the response tells the client to slow down.
+     *
+     * @param response the HTTP response
+     * @return true for 429 Too Many Requests and 503 Service Unavailable responses
+     */
+    public static boolean isThrottled(HttpResponse response) {
+        int statusCode = response.getStatusLine().getStatusCode();
+        return statusCode == SC_TOO_MANY_REQUESTS || statusCode == HttpStatus.SC_SERVICE_UNAVAILABLE;
+    }
+
+    private boolean isNearLimit(HttpResponse response) {
+        Header nearLimit = response.getFirstHeader(RATE_LIMIT_NEAR_LIMIT);
+        if (nearLimit != null && Boolean.parseBoolean(nearLimit.getValue().trim())) {
+            return true;
+        }
+        Header remaining = response.getFirstHeader(RATE_LIMIT_REMAINING);
+        try {
+            return remaining != null && Long.parseLong(remaining.getValue().trim()) <= inFlight;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Takes a token and a concurrency slot if both are available. Must be called with the lock held.
+     *
+     * @return 0 if acquired, the nanoseconds to wait for a token or the end of a pause,
+     * or -1 if a concurrency slot has to be released first
+     */
+    private long tryAcquire() {
+        long now = System.nanoTime();
+        if (now < pausedUntil) {
+            return pausedUntil - now;
+        }
+        if (inFlight >= Math.max(1, (int) concurrencyLimit)) {
+            return -1;
+        }
+        double rate = config.getRequestsPerSecond();
+        if (rate > 0) {
+            tokens = Math.min(Math.max(1, config.getBurst()), tokens + (now - lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+            lastRefill = now;
+            if (tokens < 1) {
+                return Math.max(1, (long) ((1 - tokens) / rate * TimeUnit.SECONDS.toNanos(1)));
+            }
+            tokens--;
+        }
+        inFlight++;
+        return 0;
+    }
+
+    /**
+     * Queues the waiter in its lane, adding the lane to the round-robin if it had no waiting request.
+     * Must be called with the lock held.
+     */
+    private void enqueue(Lane lane, Waiter waiter) {
+        if (lane.waiters.isEmpty()) {
+            lane.credits = lane.weight;
+            waitingLanes.addLast(lane);
+        }
+        lane.waiters.addLast(waiter);
+    }
+
+    private void checkNotClosed() {
+        if (closed) {
+            throw new IllegalStateException("Request throttle is closed");
+        }
+    }
+
+    /**
+     * Grants tokens and slots to the waiting requests in weighted round-robin over the lanes,
+     * scheduling the next grant when the throttle has to wait for a token or the end of a pause.
+     */
+    private void dispatchWaiters() {
+        long waitNanos = 0;
+        Deque<CompletableFuture<Void>> acquired = new ArrayDeque<>();
+        lock.lock();
+        try {
+            while (!waitingLanes.isEmpty()) {
+                Lane lane = waitingLanes.peekFirst();
+                Waiter waiter = lane.waiters.peekFirst();
+                if (waiter == null) {
+                    waitingLanes.pollFirst();
+                    continue;
+                }
+                if (waiter.future != null && waiter.future.isDone()) {
+                    lane.waiters.pollFirst();
+                    rotate(lane);
+                    continue;
+                }
+                waitNanos = tryAcquire();
+                if (waitNanos != 0) {
+                    break;
+                }
+                lane.waiters.pollFirst();
+                lane.credits--;
+                lane.granted++;
+                rotate(lane);
+                if (waiter.future != null) {
+                    acquired.add(waiter.future);
+                } else {
+                    waiter.granted = true;
+                    changed.signalAll();
+                }
+            }
+            if (waitNanos > 0 && !asyncDispatchScheduled && !asyncScheduler.isShutdown()) {
+                asyncDispatchScheduled = true;
+                asyncScheduler.schedule(() -> {
+                    lock.lock();
+                    try {
+                        asyncDispatchScheduled = false;
+                    } finally {
+                        lock.unlock();
+                    }
+                    dispatchWaiters();
+                }, waitNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        acquired.forEach(future -> {
+            if (!future.complete(null)) {
+                release();
+            }
+        });
+    }
+
+    /**
+     * Moves the lane at the head of the round-robin to its end once it used up its credits,
+     * or drops it when it has no more waiting requests. Must be called with the lock held.
+     */
+    private void rotate(Lane lane) {
+        if (lane.waiters.isEmpty()) {
+            waitingLanes.pollFirst();
+        } else if (lane.credits <= 0) {
+            lane.credits = lane.weight;
+            waitingLanes.addLast(waitingLanes.pollFirst());
+        }
+    }
+
+    /**
+     * Queue of the requests of one client of the throttle, e.g. one project pair, served in FIFO order.
+     */
+    public static class Lane {
+        private final String name;
+        private final int weight;
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        private int credits;
+        private volatile long granted;
+
+        private Lane(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        /**
+         * Gets the number of requests of the lane let through so far, retries included.
+         *
+         * @return the number of granted requests
+         */
+        public long getGrantedRequests() {
+            return granted;
+        }
+    }
+
+    /**
+     * Request waiting for the throttle: a blocked thread, or a future completed once the request may be sent.
+     */
+    private static class Waiter {
+        private final CompletableFuture<Void> future;
+        private boolean granted;
+
+        private Waiter(CompletableFuture<Void> future) {
+            this.future = future;
+        }
+    }
+
+
+}
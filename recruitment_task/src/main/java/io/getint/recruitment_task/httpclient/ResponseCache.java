@@ -0,0 +1,540 @@
+package io.getint.recruitment_task.httpclient;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.metrics.JiraMetrics;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.message.BasicStatusLine;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Cache of the responses of GET requests, keyed by request URI, with a size-bounded LRU memory tier
+ * and an optional disk tier which survives restarts.
+ * <p>
+ * The TTLs are set per endpoint template by the configuration rather than by {@code Cache-Control},
+ * because Jira marks its REST responses as not cacheable. A response within its TTL is served without a request;
+ * an expired response carrying an {@code ETag} or {@code Last-Modified} validator is revalidated with a conditional
+ * request, and reused as is when Jira answers {@code 304 Not Modified}.
+ * <p>
+ * A PUT, POST or DELETE request drops the cached responses of the resource it changes, e.g. a transition
+ * of {@code issue/10001} drops the cached transitions of that issue. Search results are not dropped by writes,
+ * so their endpoint should keep a TTL of 0 and only be revalidated.
+ * <p>
+ * Responses are written to the disk tier by the worker thread of the cache, which also drops the files older than
+ * {@code maxDiskAge} and, once the files exceed {@code maxDisk} bytes, the oldest stored ones.
+ * Failures of the disk tier are logged and never fail a request.
+ */
+public class ResponseCache implements AutoCloseable {
+
+    private static final String ENTRY_SUFFIX = ".entry";
+    private static final long SWEEP_INTERVAL_MILLIS = 60_000;
+
+    private final Logger log = Logger.getLogger(ResponseCache.class.getName());
+
+    private final ConfigLoader.CacheConfig config;
+    private final String apiPath;
+    private final JiraMetrics.CacheMetrics metrics;
+    private final LinkedHashMap<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, DiskEntry> disk = new ConcurrentHashMap<>();
+    private final AtomicLong diskBytes = new AtomicLong();
+    private final Path directory;
+    private final ExecutorService worker;
+    private long memoryBytes;
+    private long lastSweep;
+
+    /**
+     * Constructs a new cache, loading the index of the disk tier if it is configured.
+     *
+     * @param config  the cache settings
+     * @param apiPath the base path of the API, e.g. {@code /rest/api/2/}
+     * @param metrics the metrics to count the lookups to
+     */
+    public ResponseCache(ConfigLoader.CacheConfig config, String apiPath, JiraMetrics.CacheMetrics metrics) {
+        this.config = config;
+        this.apiPath = apiPath;
+        this.metrics = metrics;
+        this.directory = config.getDiskPath() == null || config.getDiskPath().isEmpty() ? null : Paths.get(config.getDiskPath());
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jira-response-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (directory != null) {
+            loadDiskIndex();
+            sweepDisk();
+        }
+    }
+
+    /**
+     * Gets the worker thread of the cache, which completes the responses of asynchronous requests
+     * and writes the disk tier, so neither buffering nor file I/O runs on the I/O threads of the non-blocking transport.
+     *
+     * @return the worker thread of the cache
+     */
+    public Executor getWorker() {
+        return worker;
+    }
+
+    /**
+     * Gets a cached response which is still within its TTL, counting the lookup as a hit.
+     *
+     * @param uri the request URI
+     * @return the cached response, or null if the response is not cached or has expired
+     */
+    public CachedResponse getFresh(URI uri) {
+        String key = uri.toString();
+        Entry entry;
+        synchronized (this) {
+            entry = memory.get(key);
+        }
+        boolean fromDisk = false;
+        if (entry == null) {
+            entry = readFromDisk(key);
+            fromDisk = entry != null;
+        }
+        if (entry == null || !isFresh(entry)) {
+            return null;
+        }
+        if (fromDisk) {
+            putInMemory(entry);
+            metrics.recordDiskHit();
+        } else {
+            metrics.recordHit();
+        }
+        return entry.toResponse();
+    }
+
+    /**
+     * Makes the request conditional on the validators of its expired cached response, if there is one.
+     *
+     * @param request the GET request
+     * @return the expired response the request revalidates, or null if there is none
+     */
+    public Entry prepare(HttpUriRequest request) {
+        request.removeHeaders(HttpHeaders.IF_NONE_MATCH);
+        request.removeHeaders(HttpHeaders.IF_MODIFIED_SINCE);
+        String key = request.getURI().toString();
+        Entry entry;
+        synchronized (this) {
+            entry = memory.get(key);
+        }
+        if (entry == null) {
+            entry = readFromDisk(key);
+        }
+        if (entry == null || (entry.etag == null && entry.lastModified == null)) {
+            return null;
+        }
+        if (entry.etag != null) {
+            request.setHeader(HttpHeaders.IF_NONE_MATCH, entry.etag);
+        }
+        if (entry.lastModified != null) {
+            request.setHeader(HttpHeaders.IF_MODIFIED_SINCE, entry.lastModified);
+        }
+        return entry;
+    }
+
+    /**
+     * Completes a GET request sent through the cache: a {@code 304 Not Modified} response is replaced by the revalidated
+     * cached response, and a successful response is cached if its endpoint has a TTL or it carries a validator.
+     * The body of a cached response is buffered, replacing the entity of the response.
+     *
+     * @param uri      the request URI
+     * @param stale    the expired response the request revalidated, or null
+     * @param response the response received
+     * @return the response to use, a {@link CachedResponse} if the cached response was revalidated
+     * @throws IOException if the response body cannot be read
+     */
+    public HttpResponse complete(URI uri, Entry stale, HttpResponse response) throws IOException {
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (statusCode == HttpStatus.SC_NOT_MODIFIED && stale != null) {
+            metrics.recordRevalidated();
+            Entry revalidated = new Entry(stale.key, stale.path, stale.endpoint, stale.body, stale.contentType,
+                    headerOr(response, HttpHeaders.ETAG, stale.etag), headerOr(response, HttpHeaders.LAST_MODIFIED, stale.lastModified),
+                    System.currentTimeMillis());
+            store(revalidated);
+            return revalidated.toResponse();
+        }
+        metrics.recordMiss();
+        HttpEntity entity = response.getEntity();
+        String endpoint = JiraMetrics.getEndpointTemplate("GET", uri, apiPath);
+        String etag = headerOr(response, HttpHeaders.ETAG, null);
+        String lastModified = headerOr(response, HttpHeaders.LAST_MODIFIED, null);
+        if (statusCode != HttpStatus.SC_OK || entity == null || entity.getContentLength() > config.getMaxEntrySize()
+                || (config.getTtl(endpoint) <= 0 && etag == null && lastModified == null)) {
+            return response;
+        }
+        InputStream content = entity.getContent();
+        byte[] body = content.readNBytes(config.getMaxEntrySize() + 1);
+        String contentType = entity.getContentType() != null ? entity.getContentType().getValue() : null;
+        if (body.length > config.getMaxEntrySize()) {
+            response.setEntity(new InputStreamEntity(new SequenceInputStream(new ByteArrayInputStream(body), content),
+                    entity.getContentLength(), contentType != null ? ContentType.parse(contentType) : null));
+            return response;
+        }
+        content.close();
+        ByteArrayEntity buffered = new ByteArrayEntity(body);
+        buffered.setContentType(contentType);
+        response.setEntity(buffered);
+        store(new Entry(uri.toString(), getPath(uri), endpoint, body, contentType, etag, lastModified, System.currentTimeMillis()));
+        return response;
+    }
+
+    /**
+     * Drops the cached responses of the resource changed by a PUT, POST or DELETE request:
+     * the first two path segments below the API path, e.g. {@code issue/10001}, and everything below it.
+     *
+     * @param uri the URI of the changing request
+     */
+    public void invalidate(URI uri) {
+        String path = getPath(uri);
+        String[] segments = path.split("/");
+        String resource = segments.length >= 2 ? segments[0] + "/" + segments[1] : path;
+        boolean nested = segments.length >= 2;
+        synchronized (this) {
+            for (Iterator<Entry> iterator = memory.values().iterator(); iterator.hasNext(); ) {
+                Entry entry = iterator.next();
+                if (isOf(entry.path, resource, nested)) {
+                    iterator.remove();
+                    memoryBytes -= entry.body.length;
+                }
+            }
+        }
+        if (directory != null) {
+            invalidateOnDisk(resource, nested);
+            if (!worker.isShutdown()) {
+                worker.execute(() -> invalidateOnDisk(resource, nested));
+            }
+        }
+    }
+
+    /**
+     * Drops the files of the changed resource. Run again on the worker thread after the writes queued before the change.
+     */
+    private void invalidateOnDisk(String resource, boolean nested) {
+        for (Map.Entry<String, DiskEntry> entry : disk.entrySet()) {
+            if (isOf(getPath(URI.create(entry.getKey())), resource, nested)) {
+                removeFromDisk(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Gets the number of responses in the memory tier.
+     *
+     * @return the number of responses
+     */
+    public synchronized int getMemoryEntries() {
+        return memory.size();
+    }
+
+    /**
+     * Gets the size of the bodies of the responses in the memory tier.
+     *
+     * @return the size in bytes
+     */
+    public synchronized long getMemoryBytes() {
+        return memoryBytes;
+    }
+
+    public int getDiskEntries() {
+        return disk.size();
+    }
+
+    /**
+     * Gets the size of the files of the disk tier.
+     *
+     * @return the size in bytes
+     */
+    public long getDiskBytes() {
+        return diskBytes.get();
+    }
+
+    /**
+     * Stops the worker once the responses handed to it are written to the disk tier.
+     */
+    @Override
+    public void close() {
+        worker.shutdown();
+        try {
+            worker.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean isFresh(Entry entry) {
+        return System.currentTimeMillis() - entry.storedAt < config.getTtl(entry.endpoint);
+    }
+
+    private static boolean isOf(String path, String resource, boolean nested) {
+        return path.equals(resource) || (nested && path.startsWith(resource + "/"));
+    }
+
+    private String getPath(URI uri) {
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        String base = apiPath.endsWith("/") ? apiPath : apiPath + "/";
+        return path.startsWith(base) ? path.substring(base.length()) : path;
+    }
+
+    private void store(Entry entry) {
+        putInMemory(entry);
+        if (directory != null && !worker.isShutdown()) {
+            worker.execute(() -> writeToDisk(entry));
+        }
+    }
+
+    private synchronized void putInMemory(Entry entry) {
+        Entry previous = memory.put(entry.key, entry);
+        memoryBytes += entry.body.length - (previous != null ? previous.body.length : 0);
+        for (Iterator<Entry> eldest = memory.values().iterator();
+             eldest.hasNext() && (memory.size() > config.getMaxEntries() || memoryBytes > config.getMaxMemory()); ) {
+            memoryBytes -= eldest.next().body.length;
+            eldest.remove();
+            metrics.recordEviction();
+        }
+    }
+
+    private void loadDiskIndex() {
+        try {
+            Files.createDirectories(directory);
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + ENTRY_SUFFIX)) {
+                for (Path file : files) {
+                    try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+                        String key = input.readUTF();
+                        for (int i = 0; i < 5; i++) {
+                            input.readUTF();
+                        }
+                        putOnDisk(key, new DiskEntry(file, Files.size(file), input.readLong()));
+                    } catch (IOException e) {
+                        deleteQuietly(file);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warning(String.format("Response cache directory %S cannot be read, caching in memory only: %s", directory, e.getMessage()));
+        }
+    }
+
+    private Entry readFromDisk(String key) {
+        DiskEntry diskEntry = disk.get(key);
+        if (diskEntry == null) {
+            return null;
+        }
+        try (DataInputStream input = new DataInputStream(Files.newInputStream(diskEntry.file))) {
+            String storedKey = input.readUTF();
+            if (!storedKey.equals(key)) {
+                return null;
+            }
+            String path = input.readUTF();
+            String endpoint = input.readUTF();
+            String contentType = emptyToNull(input.readUTF());
+            String etag = emptyToNull(input.readUTF());
+            String lastModified = emptyToNull(input.readUTF());
+            long storedAt = input.readLong();
+            byte[] body = new byte[input.readInt()];
+            input.readFully(body);
+            return new Entry(key, path, endpoint, body, contentType, etag, lastModified, storedAt);
+        } catch (IOException e) {
+            removeFromDisk(key, diskEntry);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the response to its file, replacing the previous file atomically, on the worker thread.
+     */
+    private void writeToDisk(Entry entry) {
+        Path file = directory.resolve(sha256(entry.key) + ENTRY_SUFFIX);
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream output = new DataOutputStream(Files.newOutputStream(temporary))) {
+                output.writeUTF(entry.key);
+                output.writeUTF(entry.path);
+                output.writeUTF(entry.endpoint);
+                output.writeUTF(nullToEmpty(entry.contentType));
+                output.writeUTF(nullToEmpty(entry.etag));
+                output.writeUTF(nullToEmpty(entry.lastModified));
+                output.writeLong(entry.storedAt);
+                output.writeInt(entry.body.length);
+                output.write(entry.body);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            putOnDisk(entry.key, new DiskEntry(file, Files.size(file), entry.storedAt));
+        } catch (IOException e) {
+            deleteQuietly(temporary);
+            log.warning(String.format("Response of %S cannot be cached on disk: %s", entry.key, e.getMessage()));
+        }
+        if (diskBytes.get() > config.getMaxDisk() || System.currentTimeMillis() - lastSweep >= SWEEP_INTERVAL_MILLIS) {
+            sweepDisk();
+        }
+    }
+
+    /**
+     * Drops the files of the disk tier older than {@code maxDiskAge}, then the oldest stored ones
+     * until the files fit in {@code maxDisk} bytes.
+     */
+    private void sweepDisk() {
+        long now = System.currentTimeMillis();
+        lastSweep = now;
+        List<Map.Entry<String, DiskEntry>> entries = new ArrayList<>(disk.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().storedAt));
+        for (Map.Entry<String, DiskEntry> entry : entries) {
+            if (now - entry.getValue().storedAt <= config.getMaxDiskAge() && diskBytes.get() <= config.getMaxDisk()) {
+                break;
+            }
+            removeFromDisk(entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void putOnDisk(String key, DiskEntry diskEntry) {
+        DiskEntry previous = disk.put(key, diskEntry);
+        diskBytes.addAndGet(diskEntry.size - (previous != null ? previous.size : 0));
+    }
+
+    private void removeFromDisk(String key, DiskEntry diskEntry) {
+        if (disk.remove(key, diskEntry)) {
+            diskBytes.addAndGet(-diskEntry.size);
+            deleteQuietly(diskEntry.file);
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warning(String.format("Cached response %S cannot be deleted: %s", file, e.getMessage()));
+        }
+    }
+
+    private static String headerOr(HttpResponse response, String name, String defaultValue) {
+        Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : defaultValue;
+    }
+
+    private static String emptyToNull(String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private static String sha256(String key) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8))) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A cached response body with its validators.
+     */
+    public static class Entry {
+        private final String key;
+        private final String path;
+        private final String endpoint;
+        private final byte[] body;
+        private final String contentType;
+        private final String etag;
+        private final String lastModified;
+        private final long storedAt;
+
+        private Entry(String key, String path, String endpoint, byte[] body, String contentType,
+                      String etag, String lastModified, long storedAt) {
+            this.key = key;
+            this.path = path;
+            this.endpoint = endpoint;
+            this.body = body;
+            this.contentType = contentType;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.storedAt = storedAt;
+        }
+
+        private CachedResponse toResponse() {
+            CachedResponse response = new CachedResponse();
+            ByteArrayEntity entity = new ByteArrayEntity(body);
+            entity.setContentType(contentType);
+            response.setEntity(entity);
+            if (etag != null) {
+                response.setHeader(HttpHeaders.ETAG, etag);
+            }
+            if (lastModified != null) {
+                response.setHeader(HttpHeaders.LAST_MODIFIED, lastModified);
+            }
+            return response;
+        }
+    }
+
+    /**
+     * A response file of the disk tier.
+     */
+    private static class DiskEntry {
+        private final Path file;
+        private final long size;
+        private final long storedAt;
+
+        private DiskEntry(Path file, long size, long storedAt) {
+            this.file = file;
+            this.size = size;
+            this.storedAt = storedAt;
+        }
+    }
+
+    /**
+     * Response served from the cache. Its body is in memory, so closing it does nothing.
+     */
+    public static class CachedResponse extends BasicHttpResponse implements CloseableHttpResponse {
+        private CachedResponse() {
+            super(new BasicStatusLine(HttpVersion.HTTP_1_1, HttpStatus.SC_OK, "OK"));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+}
@@ -0,0 +1,419 @@
+package io.getint.recruitment_task.metrics;
+
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Metrics of a migration: the requests sent to every Jira endpoint, with their status classes,
+ * transferred bytes and latencies, the time requests waited for the client-side throttle,
+ * the number of issues which passed every migration stage, the queue depths of the migration pipeline
+ * and the lookups of the response cache.
+ * <p>
+ * Endpoints are identified by their method and path template, with the IDs and keys of issues replaced by
+ * placeholders, e.g. {@code POST issue/{id}/comment}. All counters are updated without locking and can be
+ * read or exported at any time as a Prometheus text snapshot or as JSON.
+ */
+public class JiraMetrics {
+
+    /**
+     * Status class of requests which failed without a response.
+     */
+    public static final String NO_RESPONSE = "error";
+
+    public static final String SEARCHED = "searched";
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String COMMENTS_TRANSFERRED = "commentsTransferred";
+    public static final String ATTACHMENTS_TRANSFERRED = "attachmentsTransferred";
+    public static final String STATUS_TRANSFERRED = "statusTransferred";
+    public static final String DELETED = "deleted";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.95, 0.99};
+    private static final Pattern ISSUE_ID = Pattern.compile("\\d+");
+    private static final Pattern ISSUE_KEY = Pattern.compile("[A-Z][A-Z0-9_]*-\\d+");
+
+    private final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> stages = new ConcurrentHashMap<>();
+    private final Map<String, QueueMetrics> queues = new ConcurrentHashMap<>();
+    private final LatencyHistogram throttleWait = new LatencyHistogram();
+    private final CacheMetrics cache = new CacheMetrics();
+
+    /**
+     * Gets the metrics of an endpoint, registering it on first use.
+     *
+     * @param endpoint the method and path template of the endpoint
+     * @return the live metrics of the endpoint
+     */
+    public EndpointMetrics getEndpoint(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, key -> new EndpointMetrics());
+    }
+
+    /**
+     * Gets the metrics of all endpoints requested so far.
+     *
+     * @return the live metrics by endpoint, sorted by endpoint
+     */
+    public Map<String, EndpointMetrics> getEndpoints() {
+        return new TreeMap<>(endpoints);
+    }
+
+    /**
+     * Gets the metrics of the queue of a pipeline stage, registering it on first use.
+     *
+     * @param stage the name of the stage
+     * @return the live metrics of the queue
+     */
+    public QueueMetrics getQueue(String stage) {
+        return queues.computeIfAbsent(stage, key -> new QueueMetrics());
+    }
+
+    public LatencyHistogram getThrottleWait() {
+        return throttleWait;
+    }
+
+    public CacheMetrics getCache() {
+        return cache;
+    }
+
+    /**
+     * Counts issues which passed a migration stage.
+     *
+     * @param stage  the name of the stage, e.g. {@code created}
+     * @param issues the number of issues
+     */
+    public void countIssues(String stage, long issues) {
+        stages.computeIfAbsent(stage, key -> new LongAdder()).add(issues);
+    }
+
+    public long getIssueCount(String stage) {
+        LongAdder count = stages.get(stage);
+        return count != null ? count.sum() : 0;
+    }
+
+    /**
+     * Gets the method and path template identifying the endpoint of a request:
+     * the path relative to the API base path, with issue IDs and keys replaced by {@code {id}}
+     * and the project key of create metadata by {@code {projectKey}}.
+     *
+     * @param method  the HTTP method
+     * @param uri     the request URI
+     * @param apiPath the base path of the API, e.g. {@code /rest/api/2/}
+     * @return the endpoint, e.g. {@code GET issue/{id}/transitions}
+     */
+    public static String getEndpointTemplate(String method, URI uri, String apiPath) {
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        String base = apiPath.endsWith("/") ? apiPath : apiPath + "/";
+        if (path.startsWith(base)) {
+            path = path.substring(base.length());
+        }
+        String[] segments = path.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            if (i > 0 && segments[i - 1].equals("createmeta")) {
+                segments[i] = "{projectKey}";
+            } else if (ISSUE_ID.matcher(segments[i]).matches() || ISSUE_KEY.matcher(segments[i]).matches()) {
+                segments[i] = "{id}";
+            }
+        }
+        return method + " " + String.join("/", segments);
+    }
+
+    /**
+     * Gets the status class of a response status code.
+     *
+     * @param statusCode the status code
+     * @return the status class, e.g. {@code 4xx}
+     */
+    public static String getStatusClass(int statusCode) {
+        return statusCode / 100 + "xx";
+    }
+
+    /**
+     * Writes a snapshot of the metrics in the Prometheus text exposition format. Latencies are exported as summaries.
+     *
+     * @return the snapshot
+     */
+    public String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        Map<String, EndpointMetrics> snapshot = getEndpoints();
+        text.append("# HELP jira_http_requests_total Requests sent to Jira by endpoint and response status class.\n")
+                .append("# TYPE jira_http_requests_total counter\n");
+        snapshot.forEach((endpoint, metrics) -> metrics.getStatusClasses().forEach((statusClass, count) ->
+                text.append("jira_http_requests_total{").append(labels(endpoint)).append(",status=\"").append(statusClass)
+                        .append("\"} ").append(count).append('\n')));
+        text.append("# HELP jira_http_request_bytes_total Bytes of request bodies sent to Jira by endpoint.\n")
+                .append("# TYPE jira_http_request_bytes_total counter\n");
+        snapshot.forEach((endpoint, metrics) -> text.append("jira_http_request_bytes_total{").append(labels(endpoint))
+                .append("} ").append(metrics.getBytesSent()).append('\n'));
+        text.append("# HELP jira_http_response_bytes_total Bytes of response bodies received from Jira by endpoint.\n")
+                .append("# TYPE jira_http_response_bytes_total counter\n");
+        snapshot.forEach((endpoint, metrics) -> text.append("jira_http_response_bytes_total{").append(labels(endpoint))
+                .append("} ").append(metrics.getBytesReceived()).append('\n'));
+        text.append("# HELP jira_http_request_duration_seconds Time from sending a request to receiving the response headers.\n")
+                .append("# TYPE jira_http_request_duration_seconds summary\n");
+        snapshot.forEach((endpoint, metrics) -> appendSummary(text, "jira_http_request_duration_seconds", labels(endpoint) + ",", metrics.getLatency()));
+        text.append("# HELP jira_throttle_wait_seconds Time requests waited for the client-side throttle.\n")
+                .append("# TYPE jira_throttle_wait_seconds summary\n");
+        appendSummary(text, "jira_throttle_wait_seconds", "", throttleWait);
+        text.append("# HELP jira_pipeline_queue_depth Issues waiting in the queue of a pipeline stage.\n")
+                .append("# TYPE jira_pipeline_queue_depth gauge\n");
+        new TreeMap<>(queues).forEach((stage, queue) -> text.append("jira_pipeline_queue_depth{stage=\"").append(stage)
+                .append("\"} ").append(queue.getDepth()).append('\n'));
+        text.append("# HELP jira_pipeline_queue_max_depth Most issues waiting in the queue of a pipeline stage at once.\n")
+                .append("# TYPE jira_pipeline_queue_max_depth gauge\n");
+        new TreeMap<>(queues).forEach((stage, queue) -> text.append("jira_pipeline_queue_max_depth{stage=\"").append(stage)
+                .append("\"} ").append(queue.getMaxDepth()).append('\n'));
+        text.append("# HELP jira_http_cache_lookups_total Lookups of GET responses in the response cache by result.\n")
+                .append("# TYPE jira_http_cache_lookups_total counter\n");
+        cache.getLookups().forEach((result, count) -> text.append("jira_http_cache_lookups_total{result=\"").append(result)
+                .append("\"} ").append(count).append('\n'));
+        text.append("# HELP jira_http_cache_evictions_total Responses dropped from the memory tier of the response cache.\n")
+                .append("# TYPE jira_http_cache_evictions_total counter\n")
+                .append("jira_http_cache_evictions_total ").append(cache.getEvictions()).append('\n');
+        text.append("# HELP jira_issues_total Issues which passed a migration stage.\n")
+                .append("# TYPE jira_issues_total counter\n");
+        new TreeMap<>(stages).forEach((stage, count) -> text.append("jira_issues_total{stage=\"").append(stage)
+                .append("\"} ").append(count.sum()).append('\n'));
+        return text.toString();
+    }
+
+    /**
+     * Writes a snapshot of the metrics as JSON. Latencies are in milliseconds.
+     *
+     * @return the snapshot
+     */
+    public JSONObject toJson() {
+        JSONObject endpointsJson = new JSONObject();
+        getEndpoints().forEach((endpoint, metrics) -> endpointsJson.put(endpoint, new JSONObject()
+                .put("requests", new JSONObject(metrics.getStatusClasses()))
+                .put("bytesSent", metrics.getBytesSent())
+                .put("bytesReceived", metrics.getBytesReceived())
+                .put("latencyMillis", toJson(metrics.getLatency()))));
+        JSONObject issues = new JSONObject();
+        stages.forEach((stage, count) -> issues.put(stage, count.sum()));
+        JSONObject queuesJson = new JSONObject();
+        queues.forEach((stage, queue) -> queuesJson.put(stage, new JSONObject()
+                .put("depth", queue.getDepth())
+                .put("maxDepth", queue.getMaxDepth())));
+        return new JSONObject()
+                .put("endpoints", endpointsJson)
+                .put("throttleWaitMillis", toJson(throttleWait))
+                .put("issues", issues)
+                .put("queues", queuesJson)
+                .put("cache", new JSONObject(cache.getLookups()).put("evictions", cache.getEvictions()));
+    }
+
+    /**
+     * Exports a snapshot of the metrics to a file, replacing it atomically:
+     * as JSON if the file name ends with {@code .json}, in the Prometheus text format otherwise.
+     *
+     * @param path the file to write
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void export(Path path) throws IOException {
+        String snapshot = path.getFileName().toString().endsWith(".json") ? toJson().toString(2) : toPrometheus();
+        Path absolutePath = path.toAbsolutePath();
+        Path temporary = absolutePath.resolveSibling(absolutePath.getFileName() + ".tmp");
+        Files.write(temporary, snapshot.getBytes(StandardCharsets.UTF_8));
+        Files.move(temporary, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static JSONObject toJson(LatencyHistogram histogram) {
+        JSONObject json = new JSONObject()
+                .put("count", histogram.getCount())
+                .put("mean", histogram.getMeanMillis())
+                .put("max", histogram.getMaxMillis());
+        for (double quantile : QUANTILES) {
+            json.put("p" + Math.round(quantile * 100), histogram.getPercentileMillis(quantile * 100));
+        }
+        return json;
+    }
+
+    private static void appendSummary(StringBuilder text, String name, String labels, LatencyHistogram histogram) {
+        for (double quantile : QUANTILES) {
+            text.append(name).append('{').append(labels).append("quantile=\"").append(quantile).append("\"} ")
+                    .append(seconds(histogram.getPercentileMillis(quantile * 100))).append('\n');
+        }
+        String plainLabels = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        text.append(name).append("_sum").append(plainLabels).append(' ').append(seconds(histogram.getSumMillis())).append('\n');
+        text.append(name).append("_count").append(plainLabels).append(' ').append(histogram.getCount()).append('\n');
+    }
+
+    private static String labels(String endpoint) {
+        int separator = endpoint.indexOf(' ');
+        return "method=\"" + endpoint.substring(0, separator) + "\",endpoint=\"" + endpoint.substring(separator + 1).replace("\"", "\\\"") + "\"";
+    }
+
+    private static String seconds(double millis) {
+        return String.format(Locale.ROOT, "%.6f", millis / 1_000);
+    }
+
+    /**
+     * Metrics of the requests sent to a single endpoint.
+     */
+    public static class EndpointMetrics {
+        private final Map<String, LongAdder> statusClasses = new ConcurrentHashMap<>();
+        private final LongAdder bytesSent = new LongAdder();
+        private final LongAdder bytesReceived = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        /**
+         * Records a request which received a response.
+         *
+         * @param statusCode    the status code of the response
+         * @param durationNanos the time from sending the request to receiving the response headers
+         */
+        public void recordResponse(int statusCode, long durationNanos) {
+            countStatusClass(getStatusClass(statusCode));
+            latency.record(durationNanos);
+        }
+
+        /**
+         * Records a request which failed without a response, e.g. on a connection timeout.
+         */
+        public void recordFailure() {
+            countStatusClass(NO_RESPONSE);
+        }
+
+        public void addBytesSent(long bytes) {
+            bytesSent.add(bytes);
+        }
+
+        public void addBytesReceived(long bytes) {
+            bytesReceived.add(bytes);
+        }
+
+        /**
+         * Gets the number of requests by status class.
+         *
+         * @return the counts by status class, sorted by status class
+         */
+        public Map<String, Long> getStatusClasses() {
+            Map<String, Long> counts = new TreeMap<>();
+            statusClasses.forEach((statusClass, count) -> counts.put(statusClass, count.sum()));
+            return counts;
+        }
+
+        public long getRequestCount() {
+            return statusClasses.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        public long getBytesSent() {
+            return bytesSent.sum();
+        }
+
+        public long getBytesReceived() {
+            return bytesReceived.sum();
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        private void countStatusClass(String statusClass) {
+            statusClasses.computeIfAbsent(statusClass, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Depth of the queue of a pipeline stage.
+     */
+    public static class QueueMetrics {
+        private final AtomicLong depth = new AtomicLong();
+        private final LongAccumulator maxDepth = new LongAccumulator(Math::max, 0);
+
+        public void setDepth(long depth) {
+            this.depth.set(depth);
+            maxDepth.accumulate(depth);
+        }
+
+        public long getDepth() {
+            return depth.get();
+        }
+
+        public long getMaxDepth() {
+            return maxDepth.get();
+        }
+    }
+
+    /**
+     * Lookups of the response cache: responses served from memory or disk without a request,
+     * revalidated with a conditional request, or fetched because they were not cached.
+     */
+    public static class CacheMetrics {
+        public static final String HIT = "hit";
+        public static final String DISK_HIT = "diskHit";
+        public static final String REVALIDATED = "revalidated";
+        public static final String MISS = "miss";
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder diskHits = new LongAdder();
+        private final LongAdder revalidated = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        public void recordHit() {
+            hits.increment();
+        }
+
+        public void recordDiskHit() {
+            diskHits.increment();
+        }
+
+        public void recordRevalidated() {
+            revalidated.increment();
+        }
+
+        public void recordMiss() {
+            misses.increment();
+        }
+
+        public void recordEviction() {
+            evictions.increment();
+        }
+
+        /**
+         * Gets the number of lookups by result.
+         *
+         * @return the counts of {@code hit}, {@code diskHit}, {@code revalidated} and {@code miss} lookups
+         */
+        public Map<String, Long> getLookups() {
+            Map<String, Long> lookups = new TreeMap<>();
+            lookups.put(HIT, hits.sum());
+            lookups.put(DISK_HIT, diskHits.sum());
+            lookups.put(REVALIDATED, revalidated.sum());
+            lookups.put(MISS, misses.sum());
+            return lookups;
+        }
+
+        public long getHits() {
+            return hits.sum() + diskHits.sum();
+        }
+
+        public long getRevalidated() {
+            return revalidated.sum();
+        }
+
+        public long getMisses() {
+            return misses.sum();
+        }
+
+        public long getEvictions() {
+            return evictions.sum();
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+package io.getint.recruitment_task.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies with a bounded relative error, in the style of HdrHistogram.
+ * <p>
+ * Latencies are recorded in microseconds into log-linear buckets: every power of two is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so a recorded value is off by at most 1/{@value #SUB_BUCKETS}
+ * of itself, from one microsecond up to about twelve days. Recording only increments atomic counters, it never locks.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_VALUE_BITS = 40;
+    private static final long MAX_VALUE = (1L << MAX_VALUE_BITS) - 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(getBucketIndex(MAX_VALUE) + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records a latency.
+     *
+     * @param durationNanos the latency in nanoseconds
+     */
+    public void record(long durationNanos) {
+        long micros = Math.min(MAX_VALUE, Math.max(0, TimeUnit.NANOSECONDS.toMicros(durationNanos)));
+        buckets.incrementAndGet(getBucketIndex(micros));
+        count.increment();
+        sum.add(micros);
+        max.accumulate(micros);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the sum of the recorded latencies.
+     *
+     * @return the sum in milliseconds
+     */
+    public double getSumMillis() {
+        return sum.sum() / 1_000.0;
+    }
+
+    public double getMaxMillis() {
+        return max.get() / 1_000.0;
+    }
+
+    public double getMeanMillis() {
+        long recorded = count.sum();
+        return recorded > 0 ? getSumMillis() / recorded : 0;
+    }
+
+    /**
+     * Gets a percentile of the recorded latencies. While latencies are recorded concurrently,
+     * the percentile reflects some of them and not others.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the highest latency of the bucket holding the percentile in milliseconds, or 0 if nothing was recorded
+     */
+    public double getPercentileMillis(double percentile) {
+        long[] snapshot = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(getBucketUpperBound(i), max.get()) / 1_000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    private static int getBucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    private static long getBucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowerBound = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowerBound + (1L << shift) - 1;
+    }
+
+}
@@ -0,0 +1,46 @@
+package io.getint.recruitment_task.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Comment of a Jira issue, holding only the properties used by the migration.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Comment {
+    private String id;
+    private String body;
+    private User author;
+    private String created;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public void setBody(String body) {
+        this.body = body;
+    }
+
+    public User getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(User author) {
+        this.author = author;
+    }
+
+    public String getCreated() {
+        return created;
+    }
+
+    public void setCreated(String created) {
+        this.created = created;
+    }
+}
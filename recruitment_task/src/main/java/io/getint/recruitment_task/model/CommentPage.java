@@ -0,0 +1,70 @@
+package io.getint.recruitment_task.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page of the comments of a Jira issue.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CommentPage {
+    private int startAt;
+    private int maxResults;
+    private int total;
+    private List<Comment> comments = new ArrayList<>();
+
+    public int getStartAt() {
+        return startAt;
+    }
+
+    public void setStartAt(int startAt) {
+        this.startAt = startAt;
+    }
+
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public void setTotal(int total) {
+        this.total = total;
+    }
+
+    public List<Comment> getComments() {
+        return comments;
+    }
+
+    public void setComments(List<Comment> comments) {
+        this.comments = comments;
+    }
+
+    /**
+     * Gets the index of the first comment of the next page.
+     *
+     * @return the start index of the next page
+     */
+    @JsonIgnore
+    public int getNextStartAt() {
+        return startAt + comments.size();
+    }
+
+    /**
+     * Checks whether no comments follow this page.
+     *
+     * @return true if this is the last page
+     */
+    @JsonIgnore
+    public boolean isLastPage() {
+        return comments.isEmpty() || getNextStartAt() >= total;
+    }
+}
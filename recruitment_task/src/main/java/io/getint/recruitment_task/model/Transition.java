@@ -0,0 +1,79 @@
+package io.getint.recruitment_task.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Workflow transition available from the current status of a Jira issue.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class Transition {
+    private String id;
+    private String name;
+    private Status to;
+
+    public Transition() {
+    }
+
+    public Transition(String id, String name, Status to) {
+        this.id = id;
+        this.name = name;
+        this.to = to;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Status getTo() {
+        return to;
+    }
+
+    public void setTo(Status to) {
+        this.to = to;
+    }
+
+    /**
+     * Workflow status of a Jira issue.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Status {
+        private String id;
+        private String name;
+
+        public Status() {
+        }
+
+        public Status(String id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
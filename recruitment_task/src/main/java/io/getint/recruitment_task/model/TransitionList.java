@@ -0,0 +1,22 @@
+package io.getint.recruitment_task.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transitions available from the current status of a Jira issue.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TransitionList {
+    private List<Transition> transitions = new ArrayList<>();
+
+    public List<Transition> getTransitions() {
+        return transitions;
+    }
+
+    public void setTransitions(List<Transition> transitions) {
+        this.transitions = transitions;
+    }
+}
@@ -0,0 +1,38 @@
+package io.getint.recruitment_task.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Jira user referenced by an issue or a comment. Cloud instances identify users by account ID,
+ * Server and Data Center instances by name.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class User {
+    private String accountId;
+    private String name;
+    private String displayName;
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+}
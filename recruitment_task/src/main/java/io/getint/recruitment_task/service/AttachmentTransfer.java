@@ -0,0 +1,253 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.exception.JiraRateLimitException;
+import io.getint.recruitment_task.httpclient.JiraHttpClient;
+import io.getint.recruitment_task.httpclient.RequestThrottle;
+import io.getint.recruitment_task.util.Fields;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.HttpMultipartMode;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.InputStreamBody;
+import org.apache.http.util.EntityUtils;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+import static io.getint.recruitment_task.util.JiraApiRequestQueryUtil.addAttachmentsByIssueIdUri;
+
+/**
+ * Transfers the attachments of source issues to destination issues by streaming every attachment
+ * from its source download straight into the multipart upload to the destination issue.
+ * <p>
+ * The download response body is not buffered, neither in memory nor on disk: the upload reads it
+ * through a copy buffer while it is sent, so the memory used by a transfer does not depend on the size of the file.
+ * A streamed upload cannot be repeated, so a failed or throttled transfer is retried by downloading the attachment again.
+ * <p>
+ * At most {@code maxConcurrentTransfers} attachments are streamed at once across all issues of the service,
+ * and attachments larger than {@code maxSize} are skipped. Every transfer holds a pooled connection for its download
+ * while it waits for another one for its upload, so the transfers may take at most half of the connections per route:
+ * otherwise the downloads could take every connection and the uploads would wait forever.
+ */
+class AttachmentTransfer {
+
+    private static final String NO_CHECK_HEADER = "X-Atlassian-Token";
+    private static final String FILE_PART = "file";
+
+    private final Logger log = Logger.getLogger(AttachmentTransfer.class.getName());
+
+    private final RetryPolicy retryPolicy;
+    private final ConfigLoader.AttachmentConfig config;
+    private final Semaphore transfers;
+    private final ThreadPoolExecutor asyncTransfers;
+
+    AttachmentTransfer(RetryPolicy retryPolicy, ConfigLoader.AttachmentConfig config, ConfigLoader.HttpConfig httpConfig) {
+        this.retryPolicy = retryPolicy;
+        this.config = config;
+        int maxConcurrentTransfers = Math.max(1, config.getMaxConcurrentTransfers());
+        int maxConnections = Math.min(httpConfig.getMaxConnections(), httpConfig.getMaxConnectionsPerRoute());
+        if (config.isEnabled() && maxConcurrentTransfers * 2 > maxConnections) {
+            throw new IllegalArgumentException(String.format(
+                    "attachments.maxConcurrentTransfers %S needs %S pooled connections, only %S available per route",
+                    maxConcurrentTransfers, maxConcurrentTransfers * 2, maxConnections));
+        }
+        this.transfers = new Semaphore(maxConcurrentTransfers, true);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.asyncTransfers = new ThreadPoolExecutor(maxConcurrentTransfers, maxConcurrentTransfers, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "jira-attachment-transfer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.asyncTransfers.allowCoreThreadTimeOut(true);
+    }
+
+    boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Transfers the attachments of the source issue which were not transferred yet, one after another.
+     *
+     * @param httpClient    the HTTP client to use
+     * @param sourceIssue   the source issue, with its {@code attachment} field
+     * @param issueId       the ID of the destination issue
+     * @param transferred   tells whether a source attachment was already transferred by an earlier run
+     * @param transferLog   records every transferred source attachment
+     * @return the number of transferred attachments
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    int transferAll(JiraHttpClient httpClient, JSONObject sourceIssue, String issueId,
+                    Predicate<String> transferred, TransferLog transferLog) throws IOException, URISyntaxException {
+        int transferredAttachments = 0;
+        for (JSONObject attachment : getAttachments(sourceIssue)) {
+            String attachmentId = attachment.getString(Fields.Attachment.ID);
+            if (transferred.test(attachmentId)) {
+                continue;
+            }
+            long size = attachment.optLong(Fields.Attachment.SIZE, -1);
+            if (config.getMaxSize() > 0 && size > config.getMaxSize()) {
+                log.warning(String.format("Attachment %S of issue %S skipped: %S bytes exceed the limit of %S bytes",
+                        attachment.optString(Fields.Attachment.FILENAME), sourceIssue.getString(Fields.KEY), size, config.getMaxSize()));
+                continue;
+            }
+            transfer(httpClient, attachment, issueId);
+            transferLog.recordTransferred(attachmentId);
+            transferredAttachments++;
+        }
+        return transferredAttachments;
+    }
+
+    /**
+     * Transfers the attachments of the source issue on the transfer threads, so the calling thread is not blocked
+     * while they are streamed.
+     *
+     * @param httpClient    the HTTP client to use
+     * @param sourceIssue   the source issue, with its {@code attachment} field
+     * @param issueId       the ID of the destination issue
+     * @param transferred   tells whether a source attachment was already transferred by an earlier run
+     * @param transferLog   records every transferred source attachment
+     * @return a CompletableFuture of the number of transferred attachments
+     */
+    CompletableFuture<Integer> transferAllAsync(JiraHttpClient httpClient, JSONObject sourceIssue, String issueId,
+                                                Predicate<String> transferred, TransferLog transferLog) {
+        if (getAttachments(sourceIssue).isEmpty()) {
+            return CompletableFuture.completedFuture(0);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return transferAll(httpClient, sourceIssue, issueId, transferred, transferLog);
+            } catch (IOException | URISyntaxException e) {
+                throw new CompletionException(e);
+            }
+        }, asyncTransfers);
+    }
+
+    /**
+     * Gets the attachments of a source issue.
+     *
+     * @param sourceIssue the source issue
+     * @return the attachments, empty if the issue has none or they were not searched
+     */
+    static List<JSONObject> getAttachments(JSONObject sourceIssue) {
+        JSONArray attachments = sourceIssue.getJSONObject(Fields.Issue.FIELDS).optJSONArray(Fields.Issue.ATTACHMENT);
+        List<JSONObject> result = new ArrayList<>(attachments != null ? attachments.length() : 0);
+        for (int i = 0; attachments != null && i < attachments.length(); i++) {
+            result.add(attachments.getJSONObject(i));
+        }
+        return result;
+    }
+
+    /**
+     * Transfers a single attachment once a transfer slot is free, retrying it from the download
+     * when it failed before the upload could reach the server or Jira throttled the upload.
+     */
+    private void transfer(JiraHttpClient httpClient, JSONObject attachment, String issueId) throws IOException, URISyntaxException {
+        try {
+            transfers.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an attachment transfer slot");
+        }
+        try {
+            retryPolicy.call(RetryPolicy.RequestType.ATTACHMENT, false, attempt -> {
+                streamThrottled(httpClient, attachment, issueId);
+                return null;
+            });
+        } finally {
+            transfers.release();
+        }
+    }
+
+    private void streamThrottled(JiraHttpClient httpClient, JSONObject attachment, String issueId) throws IOException, URISyntaxException {
+        RequestThrottle throttle = httpClient.getThrottle();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                stream(httpClient, attachment, issueId);
+                return;
+            } catch (ClientProtocolException e) {
+                if (!(e.getCause() instanceof JiraRateLimitException) || attempt > throttle.getMaxRetries()) {
+                    throw e;
+                }
+                long delayMillis = throttle.getRetryDelayMillis(((JiraRateLimitException) e.getCause()).getRetryAfterMillis(), attempt);
+                log.info(String.format("Upload of attachment %S throttled, retry %S in %S ms", attachment.getString(Fields.Attachment.ID), attempt, delayMillis));
+                throttle.pause(delayMillis);
+            }
+        }
+    }
+
+    /**
+     * Downloads the attachment and uploads it to the destination issue in one pass, piping the download body into the upload.
+     */
+    private void stream(JiraHttpClient httpClient, JSONObject attachment, String issueId) throws IOException, URISyntaxException {
+        String filename = attachment.getString(Fields.Attachment.FILENAME);
+        long expectedSize = attachment.optLong(Fields.Attachment.SIZE, -1);
+        try (CloseableHttpResponse download = httpClient.execute(new HttpGet(attachment.getString(Fields.Attachment.CONTENT)))) {
+            HttpEntity content = download.getEntity();
+            ContentType contentType = ContentType.create(attachment.optString(Fields.Attachment.MIME_TYPE,
+                    ContentType.APPLICATION_OCTET_STREAM.getMimeType()));
+            HttpPost upload = new HttpPost(addAttachmentsByIssueIdUri(issueId));
+            upload.setHeader(NO_CHECK_HEADER, "no-check");
+            upload.setEntity(MultipartEntityBuilder.create()
+                    .setMode(HttpMultipartMode.RFC6532)
+                    .addPart(FILE_PART, new StreamedBody(content.getContent(), contentType, filename, content.getContentLength()))
+                    .build());
+            try (CloseableHttpResponse response = httpClient.execute(upload)) {
+                JSONArray uploaded = new JSONArray(EntityUtils.toString(response.getEntity()));
+                long uploadedSize = uploaded.length() > 0 ? uploaded.getJSONObject(0).optLong(Fields.Attachment.SIZE, -1) : -1;
+                if (expectedSize >= 0 && uploadedSize >= 0 && uploadedSize != expectedSize) {
+                    throw new IOException(String.format("Attachment %S uploaded with %S of %S bytes", filename, uploadedSize, expectedSize));
+                }
+            }
+        }
+        log.info(String.format("Attachment %S [%S bytes] moved to %S issue.", filename, expectedSize, issueId));
+    }
+
+    /**
+     * Records the transfer of a source attachment, e.g. in the migration journal.
+     */
+    @FunctionalInterface
+    interface TransferLog {
+        void recordTransferred(String sourceAttachmentId) throws IOException;
+    }
+
+    /**
+     * Multipart body read from a stream of known length, so the upload is sent with a {@code Content-Length}
+     * instead of chunked when the download tells its length.
+     */
+    private static class StreamedBody extends InputStreamBody {
+        private final long contentLength;
+
+        private StreamedBody(InputStream in, ContentType contentType, String filename, long contentLength) {
+            super(in, contentType, filename);
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public long getContentLength() {
+            return contentLength;
+        }
+    }
+
+}
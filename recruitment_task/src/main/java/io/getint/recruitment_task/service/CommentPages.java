@@ -0,0 +1,84 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.httpclient.JiraHttpClient;
+import io.getint.recruitment_task.model.CommentPage;
+import io.getint.recruitment_task.util.JiraApiRequestQueryUtil;
+import io.getint.recruitment_task.util.JiraResponseReader;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Fetches the comments of an issue page by page, ordered by their creation date. On the non-blocking transport
+ * the next page can be fetched while the comments of the current page are added; on the blocking transport
+ * the pages are fetched on the calling thread.
+ */
+class CommentPages {
+
+    private final JiraHttpClient httpClient;
+    private final RetryPolicy retryPolicy;
+    private final int pageSize;
+    private final boolean async;
+
+    CommentPages(JiraHttpClient httpClient, RetryPolicy retryPolicy, int pageSize, boolean async) {
+        this.httpClient = httpClient;
+        this.retryPolicy = retryPolicy;
+        this.pageSize = pageSize;
+        this.async = async;
+    }
+
+    /**
+     * Fetches a single page of the comments of an issue on the transport of the pages.
+     *
+     * @param issueId the ID of the issue
+     * @param startAt the index of the first comment of the page
+     * @return a CompletableFuture of the page, already completed on the blocking transport
+     */
+    CompletableFuture<CommentPage> fetch(String issueId, int startAt) {
+        if (!async) {
+            try {
+                return CompletableFuture.completedFuture(get(issueId, startAt));
+            } catch (IOException | URISyntaxException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return retryPolicy.callAsync(RetryPolicy.RequestType.SEARCH, true, attempt -> {
+            HttpGet request;
+            try {
+                request = new HttpGet(JiraApiRequestQueryUtil.fetchCommentsByIssueIdQueryUri(issueId, startAt, pageSize));
+            } catch (URISyntaxException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            return httpClient.executeAsync(request).thenApply(response -> {
+                try {
+                    return JiraResponseReader.read(response.getEntity(), CommentPage.class);
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            });
+        });
+    }
+
+    /**
+     * Fetches a single page of the comments of an issue on the blocking transport.
+     *
+     * @param issueId the ID of the issue
+     * @param startAt the index of the first comment of the page
+     * @return the page
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    CommentPage get(String issueId, int startAt) throws IOException, URISyntaxException {
+        return retryPolicy.call(RetryPolicy.RequestType.SEARCH, true, attempt -> {
+            HttpGet request = new HttpGet(JiraApiRequestQueryUtil.fetchCommentsByIssueIdQueryUri(issueId, startAt, pageSize));
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                return JiraResponseReader.read(response.getEntity(), CommentPage.class);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,259 @@
+package io.getint.recruitment_task.service;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the migration of many issues at once on a bounded pool of worker threads.
+ * <p>
+ * Every issue is migrated by a single worker, so the steps of one issue keep their order,
+ * while the results are collected in the order of the source issues regardless of which worker finished first.
+ * With a concurrency of 1 the issues are migrated one after another on the calling thread.
+ * <p>
+ * Asynchronous migrations are not run on the worker pool at all, the concurrency only bounds
+ * how many of them are in flight at once.
+ */
+public class IssueMigrationExecutor implements AutoCloseable {
+
+    private final int concurrency;
+    private final Semaphore inFlightPermits;
+    private ExecutorService executor;
+    private ExecutorService outcomeExecutor;
+
+    /**
+     * Constructs a new executor migrating at most the given number of issues at once.
+     *
+     * @param concurrency the maximum number of issues migrated at once
+     */
+    public IssueMigrationExecutor(int concurrency) {
+        this.concurrency = Math.max(1, concurrency);
+        this.inFlightPermits = new Semaphore(this.concurrency);
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Migrates all given issues and collects the non-empty results in the order of the source issues.
+     * <p>
+     * When a migration fails, issues which have not been started yet are skipped,
+     * the ones already running are awaited and the failure of the first failed issue is rethrown.
+     *
+     * @param sourceIssues the issues to migrate
+     * @param migration    the migration of a single issue
+     * @return a JSONArray of migration results in source order
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    public JSONArray migrateAll(JSONArray sourceIssues, IssueMigration migration) throws IOException, URISyntaxException {
+        JSONArray results = new JSONArray();
+        if (concurrency == 1) {
+            for (int i = 0; i < sourceIssues.length(); i++) {
+                addResult(results, migration.migrate(i, sourceIssues.getJSONObject(i)));
+            }
+            return results;
+        }
+
+        ExecutorService workers = getExecutor();
+        List<Future<JSONObject>> futures = new ArrayList<>(sourceIssues.length());
+        for (int i = 0; i < sourceIssues.length(); i++) {
+            int index = i;
+            JSONObject sourceIssue = sourceIssues.getJSONObject(i);
+            futures.add(workers.submit(() -> migration.migrate(index, sourceIssue)));
+        }
+
+        Exception failure = null;
+        for (Future<JSONObject> future : futures) {
+            try {
+                JSONObject result = future.get();
+                if (failure == null) {
+                    addResult(results, result);
+                }
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                    futures.forEach(pending -> pending.cancel(false));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(pending -> pending.cancel(true));
+                throw new IOException("Interrupted while waiting for issue migrations", e);
+            } catch (CancellationException e) {
+                // skipped after an earlier failure
+            }
+        }
+        rethrow(failure);
+        return results;
+    }
+
+    /**
+     * Starts the asynchronous migrations of all given issues, keeping at most {@code concurrency} of them in flight,
+     * and collects the non-empty results in the order of the source issues.
+     * <p>
+     * When a migration fails, no further issues are started, the ones in flight are awaited
+     * and the failure of the first failed issue is rethrown.
+     *
+     * @param sourceIssues the issues to migrate
+     * @param migration    the asynchronous migration of a single issue
+     * @return a JSONArray of migration results in source order
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    public JSONArray migrateAllAsync(JSONArray sourceIssues, AsyncIssueMigration migration) throws IOException, URISyntaxException {
+        List<CompletableFuture<JSONObject>> futures = new ArrayList<>(sourceIssues.length());
+        AtomicBoolean failed = new AtomicBoolean();
+        try {
+            for (int i = 0; i < sourceIssues.length() && !failed.get(); i++) {
+                inFlightPermits.acquire();
+                CompletableFuture<JSONObject> future;
+                try {
+                    future = migration.migrate(i, sourceIssues.getJSONObject(i));
+                } catch (RuntimeException e) {
+                    future = CompletableFuture.failedFuture(e);
+                }
+                futures.add(future.whenComplete((result, e) -> {
+                    if (e != null) {
+                        failed.set(true);
+                    }
+                    inFlightPermits.release();
+                }));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while starting issue migrations", e);
+        }
+
+        JSONArray results = new JSONArray();
+        Exception failure = null;
+        for (CompletableFuture<JSONObject> future : futures) {
+            try {
+                JSONObject result = future.join();
+                if (failure == null) {
+                    addResult(results, result);
+                }
+            } catch (CompletionException | CancellationException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+        rethrow(failure);
+        return results;
+    }
+
+    /**
+     * Gets the thread handing the outcomes of asynchronous migrations to their listener. A listener may block,
+     * e.g. until a slow subscriber requests more outcomes, so it never runs on an I/O thread of the non-blocking transport.
+     * The in-flight permit of an issue is released only once its outcome is handed over, so a blocked listener
+     * still holds back the start of further issues.
+     *
+     * @return the single thread of the outcome listener
+     */
+    public synchronized Executor getOutcomeExecutor() {
+        if (outcomeExecutor == null) {
+            outcomeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "jira-migration-outcomes");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return outcomeExecutor;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (outcomeExecutor != null) {
+            outcomeExecutor.shutdownNow();
+        }
+    }
+
+    private ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(concurrency, new WorkerThreadFactory());
+        }
+        return executor;
+    }
+
+    private void rethrow(Exception failure) throws IOException, URISyntaxException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof URISyntaxException) {
+            throw (URISyntaxException) failure;
+        }
+        if (failure != null) {
+            throw new IOException(failure.getMessage(), failure);
+        }
+    }
+
+    private void addResult(JSONArray results, JSONObject result) {
+        if (result != null && !result.isEmpty()) {
+            results.put(result);
+        }
+    }
+
+    /**
+     * Migration of a single source issue.
+     */
+    @FunctionalInterface
+    public interface IssueMigration {
+        /**
+         * Migrates a single issue.
+         *
+         * @param index       the index of the issue within the migrated batch
+         * @param sourceIssue the source issue
+         * @return the migration result, or an empty JSONObject when nothing was migrated
+         * @throws IOException        if an I/O error occurs
+         * @throws URISyntaxException if the URI syntax is incorrect
+         */
+        JSONObject migrate(int index, JSONObject sourceIssue) throws IOException, URISyntaxException;
+    }
+
+    /**
+     * Asynchronous migration of a single source issue.
+     */
+    @FunctionalInterface
+    public interface AsyncIssueMigration {
+        /**
+         * Starts the migration of a single issue without blocking the calling thread.
+         *
+         * @param index       the index of the issue within the migrated batch
+         * @param sourceIssue the source issue
+         * @return a CompletableFuture of the migration result, completed with an empty JSONObject when nothing was migrated
+         */
+        CompletableFuture<JSONObject> migrate(int index, JSONObject sourceIssue);
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "jira-migration-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,538 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.httpclient.JiraHttpClient;
+import io.getint.recruitment_task.httpclient.JsonEntity;
+import io.getint.recruitment_task.metrics.JiraMetrics;
+import io.getint.recruitment_task.model.Comment;
+import io.getint.recruitment_task.model.CommentPage;
+import io.getint.recruitment_task.model.Transition;
+import io.getint.recruitment_task.model.TransitionList;
+import io.getint.recruitment_task.util.FieldMapper;
+import io.getint.recruitment_task.util.Fields;
+import io.getint.recruitment_task.util.JiraDataUtils;
+import io.getint.recruitment_task.util.JiraResponseReader;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+import static io.getint.recruitment_task.util.JiraApiRequestQueryUtil.*;
+
+/**
+ * Migrates single issues by chaining the dependent Jira API calls (create, comments, attachments, status, delete),
+ * resuming every issue at the first step not recorded in the journal.
+ * <p>
+ * The same steps run on either transport of {@link JiraHttpClient}. On the non-blocking transport no thread is held
+ * while a request is in flight. On the blocking transport every request is sent on the calling thread and the returned
+ * futures are already completed, so the blocking migration waits for them with {@link #await(CompletableFuture)}.
+ */
+public class IssueMigrator {
+
+    private final Logger log = Logger.getLogger(IssueMigrator.class.getName());
+
+    private final JiraHttpClient httpClient;
+    private final RetryPolicy retryPolicy;
+    private final MigrationJournal journal;
+    private final WorkflowTransitionCache transitionCache;
+    private final FieldMapper fieldMapper;
+    private final CommentPages commentPages;
+    private final AttachmentTransfer attachmentTransfer;
+    private final boolean async;
+
+    /**
+     * Constructs a migrator of the issues of a single run.
+     *
+     * @param httpClient         the HTTP client to use
+     * @param retryPolicy        the retry policy of the requests
+     * @param journal            the journal of completed migration steps
+     * @param transitionCache    the cached workflows of the destination project
+     * @param attachmentTransfer the transfer of attachments
+     * @param fieldMapper        the field mapping of the destination project
+     * @param async              whether the requests are sent on the non-blocking transport
+     */
+    IssueMigrator(JiraHttpClient httpClient, RetryPolicy retryPolicy, MigrationJournal journal, WorkflowTransitionCache transitionCache,
+                  AttachmentTransfer attachmentTransfer, FieldMapper fieldMapper, boolean async) {
+        this.httpClient = httpClient;
+        this.retryPolicy = retryPolicy;
+        this.journal = journal;
+        this.transitionCache = transitionCache;
+        this.attachmentTransfer = attachmentTransfer;
+        this.fieldMapper = fieldMapper;
+        this.async = async;
+        this.commentPages = new CommentPages(httpClient, retryPolicy, ConfigLoader.getJiraApiConfig().getMigration().getCommentPageSize(), async);
+    }
+
+    /**
+     * Recreates a single issue in the destination project and deletes it from the source project,
+     * resuming at the first step not recorded in the journal.
+     *
+     * @param index                 the index of the issue within the migrated page
+     * @param sourceIssue           the issue to recreate
+     * @param destinationProjectKey the key of the destination project
+     * @return a CompletableFuture of the created issue, completed with an empty JSONObject if it was not created
+     */
+    public CompletableFuture<JSONObject> recreateIssueInDestination(int index, JSONObject sourceIssue, String destinationProjectKey) {
+        return createIssueOnce(index, sourceIssue, destinationProjectKey)
+                .thenCompose(newIssue -> newIssue.isEmpty()
+                        ? CompletableFuture.completedFuture(newIssue)
+                        : completeIssueMigration(newIssue, sourceIssue));
+    }
+
+    /**
+     * Creates the issue in the destination project unless the journal records it was created already.
+     *
+     * @param index                 the index of the issue within the migration
+     * @param sourceIssue           the issue to recreate
+     * @param destinationProjectKey the key of the destination project
+     * @return a CompletableFuture of the created issue, completed with an empty JSONObject if it was not created
+     */
+    public CompletableFuture<JSONObject> createIssueOnce(int index, JSONObject sourceIssue, String destinationProjectKey) {
+        String sourceIssueId = sourceIssue.getString(Fields.Issue.ID);
+        JSONObject journaledIssue = journal.getProgress(sourceIssueId).getNewIssue();
+        if (journaledIssue != null) {
+            log.info(String.format("[%S] Resuming migration of issue id: %S created as %S", index, sourceIssueId, journaledIssue.getString(Fields.KEY)));
+            return CompletableFuture.completedFuture(journaledIssue);
+        }
+        log.info(String.format("[%S] Moving issue id: %S", index, sourceIssueId));
+        return createIssue(sourceIssue, destinationProjectKey)
+                .thenCompose(newIssue -> {
+                    if (newIssue.isEmpty()) {
+                        return CompletableFuture.completedFuture(newIssue);
+                    }
+                    log.info(String.format("Issue in project %S created: %S", destinationProjectKey, newIssue.getString(Fields.KEY)));
+                    return journal(() -> journal.recordCreated(sourceIssueId, newIssue)).thenApply(ignored -> {
+                        httpClient.getMetrics().countIssues(JiraMetrics.CREATED, 1);
+                        return newIssue;
+                    });
+                });
+    }
+
+    /**
+     * Completes the migration of an already created issue: recreates its comments, attachments and status
+     * and deletes the source issue, skipping the steps already recorded in the journal.
+     *
+     * @param newIssue    the new issue created in the destination project
+     * @param sourceIssue the source issue from the source project
+     * @return a CompletableFuture of the new issue, completed once the source issue is deleted
+     */
+    public CompletableFuture<JSONObject> completeIssueMigration(JSONObject newIssue, JSONObject sourceIssue) {
+        return transferComments(newIssue, sourceIssue)
+                .thenCompose(ignored -> transferAttachments(newIssue, sourceIssue))
+                .thenCompose(ignored -> transferStatus(newIssue, sourceIssue))
+                .thenCompose(ignored -> deleteSourceIssue(sourceIssue))
+                .thenApply(ignored -> newIssue);
+    }
+
+    /**
+     * Adds the comments of the source issue to the new issue, unless the journal records they were added already.
+     *
+     * @param newIssue    the new issue created in the destination project
+     * @param sourceIssue the source issue from the source project
+     * @return a CompletableFuture completed once the comments are added
+     */
+    public CompletableFuture<Void> transferComments(JSONObject newIssue, JSONObject sourceIssue) {
+        String newIssueId = newIssue.getString(Fields.Issue.ID);
+        String sourceIssueId = sourceIssue.getString(Fields.Issue.ID);
+        if (journal.getProgress(sourceIssueId).isCommentsAdded()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return addSourceComments(sourceIssue, newIssueId)
+                .thenCompose(addedComments -> journal(() -> journal.recordCommentsAdded(sourceIssueId)).thenRun(() -> {
+                    httpClient.getMetrics().countIssues(JiraMetrics.COMMENTS_TRANSFERRED, 1);
+                    log.info(String.format("Comments [%S] moved to %S issue.", addedComments, newIssueId));
+                }));
+    }
+
+    /**
+     * Transfers the attachments of the source issue which the journal does not record as transferred.
+     * On the non-blocking transport they are streamed on the transfer threads of the {@link AttachmentTransfer}, not on the I/O threads.
+     *
+     * @param newIssue    the new issue created in the destination project
+     * @param sourceIssue the source issue from the source project
+     * @return a CompletableFuture completed once the attachments are transferred
+     */
+    public CompletableFuture<Void> transferAttachments(JSONObject newIssue, JSONObject sourceIssue) {
+        if (!attachmentTransfer.isEnabled()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String newIssueId = newIssue.getString(Fields.Issue.ID);
+        String sourceIssueId = sourceIssue.getString(Fields.Issue.ID);
+        MigrationJournal.IssueProgress progress = journal.getProgress(sourceIssueId);
+        AttachmentTransfer.TransferLog transferLog = attachmentId -> journal.recordAttachmentAdded(sourceIssueId, attachmentId);
+        CompletableFuture<Integer> transfer;
+        if (async) {
+            transfer = attachmentTransfer.transferAllAsync(httpClient, sourceIssue, newIssueId, progress::isAttachmentAdded, transferLog);
+        } else {
+            try {
+                transfer = CompletableFuture.completedFuture(
+                        attachmentTransfer.transferAll(httpClient, sourceIssue, newIssueId, progress::isAttachmentAdded, transferLog));
+            } catch (IOException | URISyntaxException e) {
+                transfer = CompletableFuture.failedFuture(e);
+            }
+        }
+        return transfer.thenAccept(addedAttachments -> {
+            httpClient.getMetrics().countIssues(JiraMetrics.ATTACHMENTS_TRANSFERRED, 1);
+            if (addedAttachments > 0) {
+                log.info(String.format("Attachments [%S] moved to %S issue.", addedAttachments, newIssueId));
+            }
+        });
+    }
+
+    /**
+     * Transfers the status of the source issue to the new issue, unless the journal records it was transferred already.
+     *
+     * @param newIssue    the new issue created in the destination project
+     * @param sourceIssue the source issue from the source project
+     * @return a CompletableFuture completed once the status is transferred
+     */
+    public CompletableFuture<Void> transferStatus(JSONObject newIssue, JSONObject sourceIssue) {
+        String sourceIssueId = sourceIssue.getString(Fields.Issue.ID);
+        if (journal.getProgress(sourceIssueId).isStatusTransferred()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String status = sourceIssue.getJSONObject(Fields.Issue.FIELDS).getJSONObject(Fields.Issue.STATUS).getString(Fields.Issue.NAME);
+        String issueType = sourceIssue.getJSONObject(Fields.Issue.FIELDS).getJSONObject(Fields.Issue.ISSUE_TYPE).getString(Fields.IssueType.NAME);
+        return transferIssueStatus(newIssue.getString(Fields.Issue.ID), newIssue.getString(Fields.KEY), issueType, null, status)
+                .thenCompose(ignored -> journal(() -> journal.recordStatusTransferred(sourceIssueId)))
+                .thenRun(() -> httpClient.getMetrics().countIssues(JiraMetrics.STATUS_TRANSFERRED, 1));
+    }
+
+    /**
+     * Deletes the source issue, the last step of its migration.
+     *
+     * @param sourceIssue the source issue from the source project
+     * @return a CompletableFuture completed once the source issue is deleted
+     */
+    public CompletableFuture<Void> deleteSourceIssue(JSONObject sourceIssue) {
+        String sourceIssueId = sourceIssue.getString(Fields.Issue.ID);
+        return deleteIssueById(sourceIssueId)
+                .thenCompose(ignored -> journal(() -> journal.recordDeleted(sourceIssueId)))
+                .thenRun(() -> httpClient.getMetrics().countIssues(JiraMetrics.DELETED, 1));
+    }
+
+    /**
+     * Creates a new issue in the destination project.
+     * <p>
+     * When a create is retried after a failure which may have reached the server, the issue created
+     * by the failed attempt is looked up by its source label first, so it is never created twice.
+     *
+     * @param sourceIssue           the source issue to recreate
+     * @param destinationProjectKey the key of the destination project
+     * @return a CompletableFuture of the created issue
+     */
+    public CompletableFuture<JSONObject> createIssue(JSONObject sourceIssue, String destinationProjectKey) {
+        String sourceIssueId = sourceIssue.getString(Fields.Issue.ID);
+        return retry(RetryPolicy.RequestType.CREATE, retryPolicy.isSourceLabelEnabled(), attempt -> {
+            CompletableFuture<JSONObject> existingIssue = attempt > 1
+                    ? findCreatedIssue(sourceIssueId, destinationProjectKey)
+                    : CompletableFuture.completedFuture(null);
+            return existingIssue.thenCompose(issue -> {
+                if (issue != null) {
+                    log.info(String.format("Issue id: %S was already created by a failed attempt: %S", sourceIssueId, issue.getString(Fields.KEY)));
+                    return CompletableFuture.completedFuture(issue);
+                }
+                return request(() -> post(createIssueUri(), createIssuePayload(sourceIssue, fieldMapper)),
+                        response -> JiraResponseReader.readJson(response.getEntity()));
+            });
+        });
+    }
+
+    /**
+     * Creates a comment in an issue of the destination project.
+     *
+     * @param issueId        the ID of the issue
+     * @param commentPayload the payload of the new comment
+     * @return a CompletableFuture of the created comment
+     */
+    public CompletableFuture<Comment> createComment(String issueId, JSONObject commentPayload) {
+        return retry(RetryPolicy.RequestType.COMMENT, false, attempt ->
+                request(() -> post(createCommentByIssueIdUri(issueId), commentPayload),
+                        response -> JiraResponseReader.read(response.getEntity(), Comment.class)));
+    }
+
+    /**
+     * Transfers the status of an issue along the shortest sequence of transitions planned over the cached workflow
+     * of the issue type.
+     * <p>
+     * When a planned transition is rejected, the actual status of the issue is fetched: the issue is either
+     * not in the assumed status, or the cached transitions of the status are stale and are learnt again.
+     *
+     * @param issueId       the ID of the issue
+     * @param issueKey      the key of the issue
+     * @param issueType     the name of the issue type
+     * @param currentStatus the current status of the issue, or null if the issue was just created
+     * @param targetStatus  the target status to set
+     * @return a CompletableFuture completed once the target status is reached or found unreachable
+     */
+    public CompletableFuture<Void> transferIssueStatus(String issueId, String issueKey, String issueType, String currentStatus, String targetStatus) {
+        String projectKey = JiraDataUtils.getProjectKey(issueKey);
+        String initialStatus = currentStatus != null ? currentStatus : transitionCache.getInitialStatus(projectKey, issueType);
+        CompletableFuture<String> status = initialStatus != null
+                ? CompletableFuture.completedFuture(initialStatus)
+                : fetchIssueStatus(issueId).thenApply(fetchedStatus -> {
+            transitionCache.putInitialStatus(projectKey, issueType, fetchedStatus);
+            return fetchedStatus;
+        });
+        return status.thenCompose(actualStatus -> transferIssueStatus(issueId, issueKey, projectKey, issueType, actualStatus, targetStatus, 0, false));
+    }
+
+    /**
+     * Waits for a step started by this migrator.
+     *
+     * @param step the started step
+     * @param <T>  the type of the result
+     * @return the result of the step
+     * @throws IOException        if the step failed with an I/O error or the thread was interrupted
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    public static <T> T await(CompletableFuture<T> step) throws IOException, URISyntaxException {
+        try {
+            return step.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof URISyntaxException) {
+                throw (URISyntaxException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private CompletableFuture<Void> transferIssueStatus(String issueId, String issueKey, String projectKey, String issueType,
+                                                        String status, String targetStatus, int hops, boolean rejected) {
+        if (status.equals(targetStatus)) {
+            if (hops > 0) {
+                log.info(String.format("Status %S moved with issue %S", targetStatus, issueId));
+            }
+            return CompletableFuture.completedFuture(null);
+        }
+        if (hops >= WorkflowTransitionCache.MAX_PATH_LENGTH) {
+            log.warning(String.format("Status %S not reached by issue %S in %S transitions", targetStatus, issueKey, hops));
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> learnt = transitionCache.isKnown(projectKey, issueType, status)
+                ? CompletableFuture.completedFuture(null)
+                : fetchAvailableTransitions(issueId).thenAccept(transitions -> transitionCache.putTransitions(projectKey, issueType, status, transitions));
+        return learnt.thenCompose(ignored -> {
+            Transition transition = transitionCache.nextTransition(projectKey, issueType, status, targetStatus);
+            if (transition == null) {
+                log.warning(String.format("Status %S is not reachable from %S for issue %S", targetStatus, status, issueKey));
+                return CompletableFuture.completedFuture(null);
+            }
+            JSONObject payload = new JSONObject().put(
+                    Fields.Transition.TRANSITION,
+                    new JSONObject().put(Fields.Transition.ID, transition.getId()));
+            return retry(RetryPolicy.RequestType.TRANSITION, false, attempt ->
+                    request(() -> post(transferStatusByIssueIdUri(issueId), payload), response -> response.getStatusLine().getStatusCode()))
+                    .handle((response, failure) -> {
+                        if (failure == null) {
+                            return transferIssueStatus(issueId, issueKey, projectKey, issueType, WorkflowTransitionCache.getTargetStatus(transition),
+                                    targetStatus, hops + 1, rejected);
+                        }
+                        if (rejected || RetryPolicy.getStatusCode(failure) != HttpStatus.SC_BAD_REQUEST) {
+                            return CompletableFuture.<Void>failedFuture(failure);
+                        }
+                        return fetchIssueStatus(issueId).thenCompose(actualStatus -> {
+                            if (actualStatus.equals(status)) {
+                                transitionCache.evict(projectKey, issueType, status);
+                            }
+                            return transferIssueStatus(issueId, issueKey, projectKey, issueType, actualStatus, targetStatus, hops + 1, true);
+                        });
+                    })
+                    .thenCompose(next -> next);
+        });
+    }
+
+    private CompletableFuture<JSONObject> findCreatedIssue(String sourceIssueId, String destinationProjectKey) {
+        String sourceLabel = getSourceLabel(sourceIssueId);
+        if (sourceLabel == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        String jql = findIssuesBySourceLabelsJql(destinationProjectKey, Collections.singleton(sourceLabel));
+        return request(() -> new HttpGet(searchIssuesQueryUri(jql, 1, Fields.Issue.LABELS)),
+                response -> JiraDataUtils.getIssuesBySourceLabel(
+                        readJson(response, JiraResponseReader.SKIPPED_ISSUE_PROPERTIES).getJSONArray(Fields.SearchResult.ISSUES),
+                        Collections.singletonMap(sourceLabel, sourceIssueId)).get(sourceIssueId));
+    }
+
+    /**
+     * Adds the comments of the source issue, embedded in the search result or, if they were truncated there,
+     * fetched page by page: the next page is fetched while the comments of the current page are added,
+     * so at most two pages are held at once.
+     */
+    private CompletableFuture<Integer> addSourceComments(JSONObject sourceIssue, String issueId) {
+        String sourceIssueId = sourceIssue.getString(Fields.Issue.ID);
+        List<Comment> embeddedComments = JiraDataUtils.getEmbeddedComments(sourceIssue);
+        if (embeddedComments != null) {
+            return addCommentsToIssue(sourceIssueId, issueId, embeddedComments).thenApply(List::size);
+        }
+        return addCommentPages(sourceIssueId, issueId, commentPages.fetch(sourceIssueId, 0), 0);
+    }
+
+    private CompletableFuture<Integer> addCommentPages(String sourceIssueId, String issueId, CompletableFuture<CommentPage> pageRequest, int addedComments) {
+        return pageRequest.thenCompose(page -> {
+            CompletableFuture<CommentPage> nextPage = page.isLastPage() ? null : commentPages.fetch(sourceIssueId, page.getNextStartAt());
+            return addCommentsToIssue(sourceIssueId, issueId, page.getComments()).thenCompose(newComments -> nextPage == null
+                    ? CompletableFuture.completedFuture(addedComments + newComments.size())
+                    : addCommentPages(sourceIssueId, issueId, nextPage, addedComments + newComments.size()));
+        });
+    }
+
+    /**
+     * Adds comments one after another, so they keep their chronological order in the new issue,
+     * skipping the comments already added according to the journal.
+     */
+    private CompletableFuture<List<Comment>> addCommentsToIssue(String sourceIssueId, String issueId, List<Comment> sourceComments) {
+        List<Comment> createdComments = new ArrayList<>();
+        MigrationJournal.IssueProgress progress = journal.getProgress(sourceIssueId);
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        for (Comment sourceComment : JiraDataUtils.getSortedCommentsByCreated(sourceComments)) {
+            String sourceCommentId = sourceComment.getId();
+            if (progress.isCommentAdded(sourceCommentId)) {
+                continue;
+            }
+            chain = chain
+                    .thenCompose(ignored -> createComment(issueId, createCommentPayload(sourceComment)))
+                    .thenCompose(newComment -> journal(() -> journal.recordCommentAdded(sourceIssueId, sourceCommentId))
+                            .thenRun(() -> createdComments.add(newComment)));
+        }
+        return chain.thenApply(ignored -> createdComments);
+    }
+
+    private CompletableFuture<List<Transition>> fetchAvailableTransitions(String issueId) {
+        return retry(RetryPolicy.RequestType.SEARCH, true, attempt ->
+                request(() -> new HttpGet(fetchTransitionsByIssueIdQueryUri(issueId)),
+                        response -> JiraResponseReader.read(response.getEntity(), TransitionList.class).getTransitions()));
+    }
+
+    private CompletableFuture<String> fetchIssueStatus(String issueId) {
+        return retry(RetryPolicy.RequestType.SEARCH, true, attempt ->
+                request(() -> new HttpGet(fetchIssueByIdQueryUri(issueId, Fields.Issue.STATUS)),
+                        response -> readJson(response, JiraResponseReader.SKIPPED_ISSUE_PROPERTIES).getJSONObject(Fields.Issue.FIELDS)
+                                .getJSONObject(Fields.Issue.STATUS).getString(Fields.Issue.NAME)));
+    }
+
+    /**
+     * Deletes the issue, counting a retried delete which finds the issue already gone as successful.
+     */
+    private CompletableFuture<Void> deleteIssueById(String issueId) {
+        return retry(RetryPolicy.RequestType.DELETE, true, attempt ->
+                request(() -> new HttpDelete(deleteIssueByIdUri(issueId)), response -> response.getStatusLine().getStatusCode())
+                        .exceptionally(failure -> {
+                            if (attempt > 1 && RetryPolicy.getStatusCode(failure) == HttpStatus.SC_NOT_FOUND) {
+                                return HttpStatus.SC_NOT_FOUND;
+                            }
+                            throw failure instanceof CompletionException ? (CompletionException) failure : new CompletionException(failure);
+                        }))
+                .thenAccept(statusCode -> log.info(String.format("Issue %S deleted successfully", issueId)));
+    }
+
+    /**
+     * Sends a request on the transport of the migrator and reads its response.
+     */
+    private <T> CompletableFuture<T> request(RequestFactory requestFactory, ResponseReader<T> responseReader) {
+        if (async) {
+            try {
+                return httpClient.executeAsync(requestFactory.create()).thenApply(response -> {
+                    try {
+                        return responseReader.read(response);
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+            } catch (IOException | URISyntaxException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        try (CloseableHttpResponse response = httpClient.execute(requestFactory.create())) {
+            return CompletableFuture.completedFuture(responseReader.read(response));
+        } catch (IOException | URISyntaxException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Retries a request as the retry policy allows: without blocking any thread on the non-blocking transport,
+     * waiting out the backoff on the calling thread on the blocking one.
+     */
+    private <T> CompletableFuture<T> retry(RetryPolicy.RequestType type, boolean idempotent, IntFunction<CompletableFuture<T>> call) {
+        if (async) {
+            return retryPolicy.callAsync(type, idempotent, call);
+        }
+        try {
+            return CompletableFuture.completedFuture(retryPolicy.call(type, idempotent, attempt -> await(call.apply(attempt))));
+        } catch (IOException | URISyntaxException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static HttpPost post(URI uri, JSONObject payload) {
+        HttpPost request = new HttpPost(uri);
+        request.setEntity(new JsonEntity(payload));
+        return request;
+    }
+
+    private static JSONObject readJson(HttpResponse response, Set<String> skippedProperties) throws IOException {
+        return JiraResponseReader.readJson(response.getEntity(), skippedProperties);
+    }
+
+    /**
+     * Records a step in the journal, failing the migration chain if the journal cannot be written. On the non-blocking
+     * transport the record is written by the writer of the journal instead of the I/O thread which completed the step.
+     */
+    private CompletableFuture<Void> journal(JournalRecord record) {
+        if (async) {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    record.write();
+                } catch (IOException e) {
+                    throw new CompletionException(e);
+                }
+            }, journal.getWriter());
+        }
+        try {
+            record.write();
+            return CompletableFuture.completedFuture(null);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface JournalRecord {
+        void write() throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface RequestFactory {
+        HttpUriRequest create() throws IOException, URISyntaxException;
+    }
+
+    @FunctionalInterface
+    private interface ResponseReader<T> {
+        T read(HttpResponse response) throws IOException;
+    }
+
+}
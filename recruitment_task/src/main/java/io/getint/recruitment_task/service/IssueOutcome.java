@@ -0,0 +1,123 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.util.Fields;
+import org.json.JSONObject;
+
+/**
+ * Outcome of the migration of a single source issue, published as soon as the issue is migrated or failed.
+ */
+public class IssueOutcome {
+
+    private final String sourceIssueId;
+    private final String sourceIssueKey;
+    private final String newIssueKey;
+    private final int addedComments;
+    private final boolean statusTransferred;
+    private final boolean deleted;
+    private final Exception failure;
+
+    private IssueOutcome(JSONObject sourceIssue, MigrationJournal.IssueProgress progress, boolean deleted, Exception failure) {
+        this.sourceIssueId = sourceIssue.getString(Fields.Issue.ID);
+        this.sourceIssueKey = sourceIssue.optString(Fields.KEY, null);
+        this.newIssueKey = progress.getNewIssue() != null ? progress.getNewIssue().getString(Fields.KEY) : null;
+        this.addedComments = progress.getAddedCommentCount();
+        this.statusTransferred = progress.isStatusTransferred();
+        this.deleted = deleted;
+        this.failure = failure;
+    }
+
+    /**
+     * Creates the outcome of an issue whose migration finished, from the steps recorded in its progress.
+     * An issue which was created is deleted from the source project as the last step of its migration.
+     *
+     * @param sourceIssue the source issue
+     * @param progress    the migration progress of the issue
+     * @return the outcome
+     */
+    static IssueOutcome finished(JSONObject sourceIssue, MigrationJournal.IssueProgress progress) {
+        return new IssueOutcome(sourceIssue, progress, progress.getNewIssue() != null, null);
+    }
+
+    /**
+     * Creates the outcome of an issue whose migration failed, with the steps completed before the failure.
+     *
+     * @param sourceIssue the source issue
+     * @param progress    the migration progress of the issue
+     * @param failure     the cause of the failure
+     * @return the outcome
+     */
+    static IssueOutcome failed(JSONObject sourceIssue, MigrationJournal.IssueProgress progress, Exception failure) {
+        return new IssueOutcome(sourceIssue, progress, false, failure);
+    }
+
+    public String getSourceIssueId() {
+        return sourceIssueId;
+    }
+
+    public String getSourceIssueKey() {
+        return sourceIssueKey;
+    }
+
+    /**
+     * Gets the key of the issue created in the destination project.
+     *
+     * @return the key, or null if the issue was not created
+     */
+    public String getNewIssueKey() {
+        return newIssueKey;
+    }
+
+    /**
+     * Gets the number of comments added to the new issue, including the ones added by an interrupted run.
+     *
+     * @return the number of comments
+     */
+    public int getAddedComments() {
+        return addedComments;
+    }
+
+    public boolean isStatusTransferred() {
+        return statusTransferred;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    /**
+     * Gets the cause of a failed migration.
+     *
+     * @return the cause, or null if the migration did not fail
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    /**
+     * Checks whether the issue was moved: created in the destination project and deleted from the source project.
+     *
+     * @return true if the issue was moved
+     */
+    public boolean isMoved() {
+        return failure == null && newIssueKey != null && deleted;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("IssueOutcome{source=%s, new=%s, comments=%d, status=%s, deleted=%s, failure=%s}",
+                sourceIssueKey != null ? sourceIssueKey : sourceIssueId, newIssueKey, addedComments, statusTransferred, deleted,
+                failure != null ? failure.getMessage() : null);
+    }
+
+    /**
+     * Receives the outcomes of the migrated issues. It is called by the threads migrating the issues,
+     * possibly by several at once, or by a single outcome thread when the issues are migrated asynchronously,
+     * never by an I/O thread. A call which blocks holds back the migration of further issues.
+     * An exception thrown by the listener fails the migration.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        void onOutcome(IssueOutcome outcome);
+    }
+
+}
@@ -0,0 +1,96 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.exception.JiraApiException;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publisher of the outcomes of a single migration, which starts when the publisher is subscribed to.
+ * <p>
+ * The outcomes are delivered to the subscriber as it requests them. Up to {@code bufferSize} outcomes not requested
+ * yet are buffered; when the buffer is full, the threads migrating the issues wait until the subscriber requests more,
+ * so the memory used does not grow with the number of migrated issues. Cancelling the subscription stops the migration
+ * before the next issue is published; the migration journal lets a later run resume it. The subscriber is completed
+ * when the migration finished, or receives the failure of the migration.
+ * <p>
+ * A migration runs once, so the publisher accepts a single subscriber.
+ */
+public class IssueOutcomePublisher implements Flow.Publisher<IssueOutcome> {
+
+    private static final Flow.Subscription NO_SUBSCRIPTION = new Flow.Subscription() {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    };
+
+    private final Migration migration;
+    private final int bufferSize;
+    private boolean subscribed;
+
+    /**
+     * Constructs a publisher of the outcomes of the given migration.
+     *
+     * @param migration  the migration, reporting the outcome of every issue to its listener
+     * @param bufferSize the maximum number of outcomes buffered for the subscriber
+     */
+    IssueOutcomePublisher(Migration migration, int bufferSize) {
+        this.migration = migration;
+        this.bufferSize = Math.max(1, bufferSize);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super IssueOutcome> subscriber) {
+        Objects.requireNonNull(subscriber);
+        synchronized (this) {
+            if (subscribed) {
+                subscriber.onSubscribe(NO_SUBSCRIPTION);
+                subscriber.onError(new IllegalStateException("The outcomes of a migration can be subscribed to only once"));
+                return;
+            }
+            subscribed = true;
+        }
+        ThreadPoolExecutor delivery = new ThreadPoolExecutor(0, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "jira-outcome-delivery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        SubmissionPublisher<IssueOutcome> outcomes = new SubmissionPublisher<>(delivery, bufferSize);
+        outcomes.subscribe(subscriber);
+        Thread thread = new Thread(() -> run(outcomes), "jira-outcome-publisher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run(SubmissionPublisher<IssueOutcome> outcomes) {
+        try {
+            migration.run(outcome -> {
+                if (!outcomes.hasSubscribers()) {
+                    throw new CancellationException("Migration cancelled by the subscriber");
+                }
+                outcomes.submit(outcome);
+            });
+            outcomes.close();
+        } catch (JiraApiException | RuntimeException e) {
+            outcomes.closeExceptionally(e);
+        }
+    }
+
+    /**
+     * Migration reporting the outcome of every issue to the listener.
+     */
+    @FunctionalInterface
+    interface Migration {
+        void run(IssueOutcome.Listener listener) throws JiraApiException;
+    }
+
+}
@@ -1,21 +1,47 @@
 package io.getint.recruitment_task.service;
 
+import io.getint.recruitment_task.config.ConfigLoader;
 import io.getint.recruitment_task.exception.JiraApiException;
+import io.getint.recruitment_task.exception.JiraResponseException;
 import io.getint.recruitment_task.httpclient.JiraHttpClient;
+import io.getint.recruitment_task.httpclient.JsonEntity;
+import io.getint.recruitment_task.metrics.JiraMetrics;
+import io.getint.recruitment_task.model.Comment;
+import io.getint.recruitment_task.model.CommentPage;
+import io.getint.recruitment_task.util.FieldMapper;
 import io.getint.recruitment_task.util.Fields;
-import io.getint.recruitment_task.util.JiraApiRequestQueryUtil;
 import io.getint.recruitment_task.util.JiraDataUtils;
+import io.getint.recruitment_task.util.JiraResponseReader;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.ClientProtocolException;
 import org.apache.http.client.methods.CloseableHttpResponse;
-import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.util.EntityUtils;
+import org.apache.http.client.methods.HttpPut;
 import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
 import java.util.logging.Logger;
 
 import static io.getint.recruitment_task.util.JiraApiRequestQueryUtil.*;
@@ -27,8 +53,55 @@ import static io.getint.recruitment_task.util.JiraApiRequestQueryUtil.*;
  */
 public class JiraApiService {
 
+    private static final int MAX_BULK_CREATE_SIZE = 50;
+
+    private static final int CREATE_META_PAGE_SIZE = 50;
+
     private final Logger log = Logger.getLogger(JiraApiService.class.getName());
 
+    private final RetryPolicy retryPolicy = new RetryPolicy(ConfigLoader.getJiraApiConfig().getRetry());
+
+    private final AttachmentTransfer attachmentTransfer = new AttachmentTransfer(retryPolicy, ConfigLoader.getJiraApiConfig().getAttachments(),
+            ConfigLoader.getJiraApiConfig().getHttp());
+
+    private final WorkflowTransitionCache transitionCache = new WorkflowTransitionCache();
+
+    private final Map<String, FieldMapper> fieldMappers = new ConcurrentHashMap<>();
+
+    private final JiraMetrics metrics;
+
+    private final JiraHttpClient sharedHttpClient;
+
+    private volatile ZoneId userTimeZone;
+
+    /**
+     * Constructs a service opening its own HTTP client for every run.
+     */
+    public JiraApiService() {
+        this.metrics = new JiraMetrics();
+        this.sharedHttpClient = null;
+    }
+
+    /**
+     * Constructs a service sending its requests through a client shared with other services running at once,
+     * so they all use one connection pool and one rate budget. The shared client is not closed by the service.
+     *
+     * @param sharedHttpClient the shared HTTP client, usually a lane of it created by {@link JiraHttpClient#forLane}
+     */
+    public JiraApiService(JiraHttpClient sharedHttpClient) {
+        this.metrics = sharedHttpClient.getMetrics();
+        this.sharedHttpClient = sharedHttpClient;
+    }
+
+    /**
+     * Gets the metrics of the requests and migrated issues of all runs of this service.
+     *
+     * @return the live metrics
+     */
+    public JiraMetrics getMetrics() {
+        return metrics;
+    }
+
     /**
      * Moves issues from the source project to the destination project.
      *
@@ -38,210 +111,971 @@ public class JiraApiService {
      * @throws JiraApiException if there is an error during the process
      */
     public JSONArray moveIssuesToOtherProject(String sourceProjectKey, String destinationProjectKey) throws JiraApiException {
-        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+        return moveIssues(sourceProjectKey, destinationProjectKey, null);
+    }
+
+    /**
+     * Moves issues from the source project to the destination project, handing the outcome of every issue
+     * to the listener as soon as the issue is migrated instead of collecting the created issues.
+     * When an issue fails, its outcome is handed to the listener before the failure is thrown.
+     *
+     * @param sourceProjectKey      the key of the source project
+     * @param destinationProjectKey the key of the destination project
+     * @param listener              receives the outcome of every issue, on the threads migrating the issues, never on an I/O thread
+     * @throws JiraApiException if there is an error during the process
+     */
+    public void moveIssuesToOtherProject(String sourceProjectKey, String destinationProjectKey, IssueOutcome.Listener listener) throws JiraApiException {
+        moveIssues(sourceProjectKey, destinationProjectKey, Objects.requireNonNull(listener));
+    }
+
+    /**
+     * Creates a publisher of the outcomes of moving issues from the source project to the destination project.
+     * The issues are moved once the publisher is subscribed to, as fast as the subscriber requests the outcomes.
+     *
+     * @param sourceProjectKey      the key of the source project
+     * @param destinationProjectKey the key of the destination project
+     * @return a publisher accepting a single subscriber
+     */
+    public Flow.Publisher<IssueOutcome> publishMovedIssues(String sourceProjectKey, String destinationProjectKey) {
+        return new IssueOutcomePublisher(listener -> moveIssuesToOtherProject(sourceProjectKey, destinationProjectKey, listener),
+                ConfigLoader.getJiraApiConfig().getMigration().getOutcomeBufferSize());
+    }
+
+    /**
+     * Moves issues, collecting the created issues unless their outcomes are handed to the listener.
+     */
+    private JSONArray moveIssues(String sourceProjectKey, String destinationProjectKey, IssueOutcome.Listener listener) throws JiraApiException {
+        try (JiraHttpClient httpClient = openHttpClient();
+             IssueMigrationExecutor migrationExecutor = createMigrationExecutor();
+             MigrationJournal journal = MigrationJournal.open(ConfigLoader.getJiraApiConfig().getJournal(), sourceProjectKey, destinationProjectKey);
+             PagedIssueSearch issueSearch = searchIssuesByProjectKey(httpClient, sourceProjectKey, getFieldMapper(httpClient, destinationProjectKey))) {
             log.info(String.format("### Start moving issues from project %S to %S ###", sourceProjectKey, destinationProjectKey));
-            JSONArray sourceIssues = fetchIssuesByProjectKey(httpClient, sourceProjectKey);
-//            log.info(sourceIssues.toString(4));
-            JSONArray result = recreateIssuesInDestination(httpClient, sourceIssues, destinationProjectKey);
+            JSONArray result = new JSONArray();
+            if (isPipelined()) {
+                result = recreateIssuesThroughPipeline(httpClient, journal, issueSearch, destinationProjectKey, listener);
+            } else {
+                while (issueSearch.hasNextPage()) {
+                    JSONArray sourceIssues = issueSearch.nextPage();
+                    metrics.countIssues(JiraMetrics.SEARCHED, sourceIssues.length());
+                    JSONArray newIssues = recreateIssuesInDestination(httpClient, migrationExecutor, journal, sourceIssues, destinationProjectKey, listener);
+                    if (listener == null) {
+                        result.putAll(newIssues);
+                    }
+                }
+            }
+            journal.complete();
             log.info(String.format("### Issues moved from project %S to %S successfully ###", sourceProjectKey, destinationProjectKey));
+            log.info(String.format("Connection pool: %s, async connection pool: %s", httpClient.getConnectionPoolStats(), httpClient.getAsyncConnectionPoolStats()));
             return result;
         } catch (Exception e) {
             throw new JiraApiException(e.getMessage(), e);
+        } finally {
+            exportMetrics();
         }
     }
 
     /**
-     * Recreates issues in the destination project.
+     * Synchronises the issues of the source project to the destination project without deleting them.
+     * <p>
+     * Only the issues updated since the previous cycle are searched. Issues synchronised before are updated
+     * in place: changed fields are updated, new comments are added and the status is transferred if it changed.
+     * The remaining issues are created in the destination project.
+     *
+     * @param sourceProjectKey      the key of the source project
+     * @param destinationProjectKey the key of the destination project
+     * @return a JSONArray of created or updated issues in the destination project
+     * @throws JiraApiException if there is an error during the process
+     */
+    public JSONArray syncIssuesToOtherProject(String sourceProjectKey, String destinationProjectKey) throws JiraApiException {
+        return syncIssues(sourceProjectKey, destinationProjectKey, null);
+    }
+
+    /**
+     * Synchronises only the given issues of the source project to the destination project, e.g. the issues
+     * named by webhook events. The watermark of the cycles is left as it is, so the next cycle still searches
+     * every issue updated since the previous cycle.
+     *
+     * @param sourceProjectKey      the key of the source project
+     * @param destinationProjectKey the key of the destination project
+     * @param sourceIssueIds        the IDs of the source issues to synchronise
+     * @return a JSONArray of created or updated issues in the destination project
+     * @throws JiraApiException if there is an error during the process
+     */
+    public JSONArray syncIssuesToOtherProject(String sourceProjectKey, String destinationProjectKey, Collection<String> sourceIssueIds) throws JiraApiException {
+        if (sourceIssueIds.isEmpty()) {
+            return new JSONArray();
+        }
+        return syncIssues(sourceProjectKey, destinationProjectKey, sourceIssueIds);
+    }
+
+    /**
+     * Synchronises the issues updated since the previous cycle, or the given issues, advancing the watermark
+     * only in the former case.
+     */
+    private JSONArray syncIssues(String sourceProjectKey, String destinationProjectKey, Collection<String> sourceIssueIds) throws JiraApiException {
+        ConfigLoader.JiraApiConfig config = ConfigLoader.getJiraApiConfig();
+        try (JiraHttpClient httpClient = openHttpClient();
+             IssueMigrationExecutor migrationExecutor = createMigrationExecutor()) {
+            FieldMapper fieldMapper = getFieldMapper(httpClient, destinationProjectKey);
+            SyncState syncState = SyncState.load(config.getSync(), sourceProjectKey, destinationProjectKey);
+            Instant cycleStart = Instant.now();
+            String jql;
+            if (sourceIssueIds == null) {
+                Instant updatedSince = syncState.getWatermark() != null ? syncState.getWatermark().minusMillis(config.getSync().getOverlap()) : null;
+                log.info(String.format("### Start syncing issues from project %S to %S updated since %S ###", sourceProjectKey, destinationProjectKey, updatedSince));
+                jql = updatedSinceJql(config.getSearch().getJql(), updatedSince, getSyncTimeZone(httpClient));
+            } else {
+                log.info(String.format("### Start syncing issues %S from project %S to %S ###", sourceIssueIds, sourceProjectKey, destinationProjectKey));
+                jql = issuesByIdJql(config.getSearch().getJql(), sourceIssueIds);
+            }
+            JSONArray result = new JSONArray();
+            try (PagedIssueSearch issueSearch = new PagedIssueSearch(httpClient, retryPolicy, sourceProjectKey, jql,
+                    getSearchedFields(fieldMapper), config.getSearch())) {
+                while (issueSearch.hasNextPage()) {
+                    JSONArray sourceIssues = issueSearch.nextPage();
+                    metrics.countIssues(JiraMetrics.SEARCHED, sourceIssues.length());
+                    result.putAll(syncIssuesToDestination(httpClient, migrationExecutor, syncState, sourceIssues, destinationProjectKey));
+                    syncState.save();
+                }
+            }
+            if (sourceIssueIds == null) {
+                syncState.setWatermark(cycleStart);
+            }
+            syncState.save();
+            log.info(String.format("### Issues [%S] synced from project %S to %S successfully ###", result.length(), sourceProjectKey, destinationProjectKey));
+            return result;
+        } catch (Exception e) {
+            throw new JiraApiException(e.getMessage(), e);
+        } finally {
+            exportMetrics();
+        }
+    }
+
+    /**
+     * Synchronises the given source issues to the destination project, as many issues at once as the executor allows.
      *
      * @param httpClient            the HTTP client to use
-     * @param sourceIssues          the issues to recreate
+     * @param migrationExecutor     the executor running the issue synchronisations
+     * @param syncState             the synchronisation state mapping source issues to destination issues
+     * @param sourceIssues          the issues to synchronise
      * @param destinationProjectKey the key of the destination project
-     * @return a JSONArray of created issues in the destination project
+     * @return a JSONArray of created or updated issues in the destination project
      * @throws IOException        if an I/O error occurs
      * @throws URISyntaxException if the URI syntax is incorrect
      */
-    public JSONArray recreateIssuesInDestination(JiraHttpClient httpClient, JSONArray sourceIssues, String destinationProjectKey) throws IOException, URISyntaxException {
-        JSONArray createdIssues = new JSONArray();
+    public JSONArray syncIssuesToDestination(JiraHttpClient httpClient, IssueMigrationExecutor migrationExecutor, SyncState syncState,
+                                             JSONArray sourceIssues, String destinationProjectKey) throws IOException, URISyntaxException {
+        getFieldMapper(httpClient, destinationProjectKey).validateIssueTypes(sourceIssues);
+        Set<String> recoveredIssueIds = recoverSyncedIssues(httpClient, syncState, sourceIssues, destinationProjectKey);
+        IssueMigrator migrator = createIssueMigrator(httpClient, MigrationJournal.inMemory(), destinationProjectKey, false);
+        return migrationExecutor.migrateAll(sourceIssues, (i, sourceIssue) ->
+                syncIssueToDestination(httpClient, migrator, syncState, recoveredIssueIds, i, sourceIssue, destinationProjectKey));
+    }
+
+    /**
+     * Maps the source issues missing from the synchronisation state to the destination issues created from them,
+     * found by their source labels, so a lost or reset state does not duplicate issues.
+     *
+     * @param httpClient            the HTTP client to use
+     * @param syncState             the synchronisation state
+     * @param sourceIssues          the issues to synchronise
+     * @param destinationProjectKey the key of the destination project
+     * @return a Set of IDs of the source issues mapped to found destination issues
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    private Set<String> recoverSyncedIssues(JiraHttpClient httpClient, SyncState syncState, JSONArray sourceIssues, String destinationProjectKey) throws IOException, URISyntaxException {
+        JSONArray unmappedIssues = new JSONArray();
         for (int i = 0; i < sourceIssues.length(); i++) {
-            JSONObject sourceIssue = sourceIssues.getJSONObject(i);
-            log.info(String.format("[%S] Moving issue id: %S", i, sourceIssue.get(Fields.Issue.ID)));
-            JSONObject newIssue = createIssue(httpClient, createIssuePayload(sourceIssue, destinationProjectKey));
-            if (!newIssue.isEmpty()) {
-                log.info(String.format("Issue in project %S created: %S", destinationProjectKey, newIssue.toString(4)));
-                recreateAdditionalDataInDestination(httpClient, newIssue, sourceIssue);
-                createdIssues.put(newIssue);
-                deleteIssueById(httpClient, sourceIssue.getString(Fields.Issue.ID));
+            if (syncState.getIssue(sourceIssues.getJSONObject(i).getString(Fields.Issue.ID)) == null) {
+                unmappedIssues.put(sourceIssues.getJSONObject(i));
             }
         }
-        return createdIssues;
+        if (unmappedIssues.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Map<String, JSONObject> foundIssues = retryPolicy.call(RetryPolicy.RequestType.SEARCH, true,
+                attempt -> findCreatedIssues(httpClient, unmappedIssues, destinationProjectKey));
+        foundIssues.forEach(syncState::putIssue);
+        return foundIssues.keySet();
     }
 
     /**
-     * Recreates additional data (comments, status) for the new issue in the destination project.
+     * Synchronises a single source issue: creates it in the destination project if it was not synchronised yet,
+     * otherwise updates its changed fields, then adds its new comments and transfers its status if it changed.
      *
-     * @param httpClient  the HTTP client to use
-     * @param newIssue    the new issue created in the destination project
-     * @param sourceIssue the source issue from the source project
+     * @param httpClient            the HTTP client to use
+     * @param migrator              the migrator sending the requests of the issue
+     * @param syncState             the synchronisation state
+     * @param recoveredIssueIds     the IDs of the source issues mapped by their source labels in this cycle
+     * @param index                 the index of the issue within the synchronised page
+     * @param sourceIssue           the issue to synchronise
+     * @param destinationProjectKey the key of the destination project
+     * @return the created or updated issue, or an empty JSONObject if it was not created
      * @throws IOException        if an I/O error occurs
      * @throws URISyntaxException if the URI syntax is incorrect
      */
-    private void recreateAdditionalDataInDestination(JiraHttpClient httpClient, JSONObject newIssue, JSONObject sourceIssue) throws IOException, URISyntaxException {
-        String newIssueId = newIssue.getString(Fields.Issue.ID);
+    private JSONObject syncIssueToDestination(JiraHttpClient httpClient, IssueMigrator migrator, SyncState syncState, Set<String> recoveredIssueIds,
+                                              int index, JSONObject sourceIssue, String destinationProjectKey) throws IOException, URISyntaxException {
         String sourceIssueId = sourceIssue.getString(Fields.Issue.ID);
-        JSONArray sourceComments = fetchIssueComments(httpClient, sourceIssueId);
-        JSONArray newComments = addCommentsToIssue(httpClient, newIssueId, sourceComments);
-        log.info(String.format("Comments [%S] moved to %S issue.", newComments.length(), newIssueId));
+        SyncState.SyncedIssue syncedIssue = syncState.getIssue(sourceIssueId);
+        if (syncedIssue == null) {
+            log.info(String.format("[%S] Creating issue id: %S", index, sourceIssueId));
+            JSONObject newIssue = IssueMigrator.await(migrator.createIssue(sourceIssue, destinationProjectKey));
+            if (newIssue.isEmpty()) {
+                return newIssue;
+            }
+            httpClient.getMetrics().countIssues(JiraMetrics.CREATED, 1);
+            syncedIssue = syncState.putIssue(sourceIssueId, newIssue);
+            JSONObject copiedFields = getFieldMapper(httpClient, destinationProjectKey).mapFields(sourceIssue);
+            for (String field : copiedFields.keySet()) {
+                syncedIssue.setFieldFingerprint(field, JiraDataUtils.getFieldFingerprint(copiedFields.get(field)));
+            }
+        } else {
+            log.info(String.format("[%S] Updating issue id: %S synced as %S", index, sourceIssueId, syncedIssue.getIssue().getString(Fields.KEY)));
+            updateChangedFields(httpClient, syncedIssue, sourceIssue, getFieldMapper(httpClient, destinationProjectKey));
+            httpClient.getMetrics().countIssues(JiraMetrics.UPDATED, 1);
+        }
+        String newIssueId = syncedIssue.getIssue().getString(Fields.Issue.ID);
+        syncNewComments(httpClient, migrator, syncedIssue, sourceIssue, newIssueId, recoveredIssueIds.contains(sourceIssueId));
+        if (attachmentTransfer.isEnabled()) {
+            attachmentTransfer.transferAll(httpClient, sourceIssue, newIssueId, syncedIssue::isAttachmentSynced, syncedIssue::addSyncedAttachment);
+        }
         String status = sourceIssue.getJSONObject(Fields.Issue.FIELDS).getJSONObject(Fields.Issue.STATUS).getString(Fields.Issue.NAME);
-        transferIssueStatus(httpClient, newIssueId, status);
+        if (!status.equals(syncedIssue.getStatus())) {
+            String issueType = sourceIssue.getJSONObject(Fields.Issue.FIELDS).getJSONObject(Fields.Issue.ISSUE_TYPE).getString(Fields.IssueType.NAME);
+            IssueMigrator.await(migrator.transferIssueStatus(newIssueId, syncedIssue.getIssue().getString(Fields.KEY), issueType, syncedIssue.getStatus(), status));
+            syncedIssue.setStatus(status);
+            httpClient.getMetrics().countIssues(JiraMetrics.STATUS_TRANSFERRED, 1);
+        }
+        return syncedIssue.getIssue();
     }
 
     /**
-     * Fetches issues by project key.
+     * Updates the fields of a synchronised issue which changed in the source issue since they were last copied.
      *
-     * @param httpClient       the HTTP client to use
-     * @param sourceProjectKey the key of the source project
-     * @return a JSONArray of issues
+     * @param httpClient  the HTTP client to use
+     * @param syncedIssue the synchronised destination issue
+     * @param sourceIssue the source issue
+     * @param fieldMapper the field mapping of the destination project
      * @throws IOException        if an I/O error occurs
      * @throws URISyntaxException if the URI syntax is incorrect
      */
-    private JSONArray fetchIssuesByProjectKey(JiraHttpClient httpClient, String sourceProjectKey) throws IOException, URISyntaxException {
-        HttpGet request = new HttpGet(JiraApiRequestQueryUtil.fetchFiveIssuesByProjectKeyQueryUri(sourceProjectKey));
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
-            String result = EntityUtils.toString(response.getEntity());
-            return new JSONObject(result).getJSONArray(Fields.SearchResult.ISSUES);
+    private void updateChangedFields(JiraHttpClient httpClient, SyncState.SyncedIssue syncedIssue, JSONObject sourceIssue,
+                                     FieldMapper fieldMapper) throws IOException, URISyntaxException {
+        JSONObject copiedFields = fieldMapper.mapFields(sourceIssue);
+        JSONObject changedFields = new JSONObject();
+        Map<String, String> fingerprints = new HashMap<>();
+        for (String field : copiedFields.keySet()) {
+            String fingerprint = JiraDataUtils.getFieldFingerprint(copiedFields.get(field));
+            if (!fingerprint.equals(syncedIssue.getFieldFingerprint(field))) {
+                changedFields.put(field, copiedFields.get(field));
+                fingerprints.put(field, fingerprint);
+            }
         }
+        if (changedFields.isEmpty()) {
+            return;
+        }
+        String issueId = syncedIssue.getIssue().getString(Fields.Issue.ID);
+        retryPolicy.call(RetryPolicy.RequestType.UPDATE, true, attempt -> {
+            HttpPut request = new HttpPut(updateIssueByIdUri(issueId));
+            request.setEntity(new JsonEntity(updateIssuePayload(changedFields)));
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                return response.getStatusLine().getStatusCode();
+            }
+        });
+        fingerprints.forEach(syncedIssue::setFieldFingerprint);
+        log.info(String.format("Fields %S of issue %S updated", fingerprints.keySet(), syncedIssue.getIssue().getString(Fields.KEY)));
     }
 
     /**
-     * Creates a new issue in the destination project.
+     * Adds the comments of the source issue which were not synchronised yet to the destination issue.
+     * For an issue mapped by its source label, the comments already present in the destination issue
+     * are recognised by their body.
      *
-     * @param httpClient   the HTTP client to use
-     * @param issuePayload the payload for the new issue
-     * @return the created issue as a JSONObject
+     * @param httpClient  the HTTP client to use
+     * @param migrator    the migrator sending the requests of the issue
+     * @param syncedIssue the synchronised destination issue
+     * @param sourceIssue the source issue
+     * @param issueId     the ID of the destination issue
+     * @param recovered   whether the issue was mapped by its source label in this cycle
      * @throws IOException        if an I/O error occurs
      * @throws URISyntaxException if the URI syntax is incorrect
      */
-    private JSONObject createIssue(JiraHttpClient httpClient, JSONObject issuePayload) throws IOException, URISyntaxException {
-        HttpPost postRequest = new HttpPost(createIssueUri());
-        postRequest.setEntity(new StringEntity(issuePayload.toString()));
-        try (CloseableHttpResponse response = httpClient.execute(postRequest)) {
-            String result = EntityUtils.toString(response.getEntity());
-            return new JSONObject(result);
+    private void syncNewComments(JiraHttpClient httpClient, IssueMigrator migrator, SyncState.SyncedIssue syncedIssue, JSONObject sourceIssue, String issueId, boolean recovered) throws IOException, URISyntaxException {
+        List<Comment> sourceComments = getSourceComments(httpClient, sourceIssue);
+        Set<String> existingBodies = new HashSet<>();
+        if (recovered) {
+            for (Comment existingComment : fetchIssueComments(httpClient, issueId)) {
+                existingBodies.add(existingComment.getBody());
+            }
+        }
+        int addedComments = 0;
+        for (Comment sourceComment : JiraDataUtils.getSortedCommentsByCreated(sourceComments)) {
+            String sourceCommentId = sourceComment.getId();
+            if (syncedIssue.isCommentSynced(sourceCommentId)) {
+                continue;
+            }
+            if (!existingBodies.remove(sourceComment.getBody())) {
+                IssueMigrator.await(migrator.createComment(issueId, createCommentPayload(sourceComment)));
+                addedComments++;
+            }
+            syncedIssue.addSyncedComment(sourceCommentId);
+        }
+        if (addedComments > 0) {
+            log.info(String.format("Comments [%S] synced to %S issue.", addedComments, syncedIssue.getIssue().getString(Fields.KEY)));
         }
     }
 
     /**
-     * Fetches comments for a given issue ID.
+     * Recreates issues in the destination project.
      *
-     * @param httpClient the HTTP client to use
-     * @param issueId    the ID of the issue
-     * @return a JSONArray of comments
+     * @param httpClient            the HTTP client to use
+     * @param sourceIssues          the issues to recreate
+     * @param destinationProjectKey the key of the destination project
+     * @return a JSONArray of created issues in the destination project
      * @throws IOException        if an I/O error occurs
      * @throws URISyntaxException if the URI syntax is incorrect
      */
-    private JSONArray fetchIssueComments(JiraHttpClient httpClient, String issueId) throws IOException, URISyntaxException {
-        HttpGet request = new HttpGet(JiraApiRequestQueryUtil.fetchCommentsByIssueIdQueryUri(issueId));
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
-            String result = EntityUtils.toString(response.getEntity());
-            return new JSONObject(result).getJSONArray(Fields.SearchResult.COMMENTS);
+    public JSONArray recreateIssuesInDestination(JiraHttpClient httpClient, JSONArray sourceIssues, String destinationProjectKey) throws IOException, URISyntaxException {
+        try (IssueMigrationExecutor migrationExecutor = createMigrationExecutor();
+             MigrationJournal journal = MigrationJournal.inMemory()) {
+            return recreateIssuesInDestination(httpClient, migrationExecutor, journal, sourceIssues, destinationProjectKey);
         }
     }
 
     /**
-     * Adds comments to a new issue in the destination project.
+     * Recreates issues in the destination project, migrating as many issues at once as the executor allows.
+     * The steps of a single issue are always run in order and the result keeps the order of the source issues.
+     * Every completed step is recorded in the journal and the steps already recorded are skipped.
      *
-     * @param httpClient     the HTTP client to use
-     * @param issueId        the ID of the new issue
-     * @param sourceComments the comments from the source issue
-     * @return a JSONArray of created comments
+     * @param httpClient            the HTTP client to use
+     * @param migrationExecutor     the executor running the issue migrations
+     * @param journal               the journal of completed migration steps
+     * @param sourceIssues          the issues to recreate
+     * @param destinationProjectKey the key of the destination project
+     * @return a JSONArray of created issues in the destination project
      * @throws IOException        if an I/O error occurs
      * @throws URISyntaxException if the URI syntax is incorrect
      */
-    private JSONArray addCommentsToIssue(JiraHttpClient httpClient, String issueId, JSONArray sourceComments) throws IOException, URISyntaxException {
-        JSONArray createdComments = new JSONArray();
-        for (JSONObject sourceComment : JiraDataUtils.getSortedCommentsByCreated(sourceComments)) {
-            JSONObject newComment = createCommentInIssue(httpClient, issueId, createCommentPayload(sourceComment));
-            createdComments.put(newComment);
+    public JSONArray recreateIssuesInDestination(JiraHttpClient httpClient, IssueMigrationExecutor migrationExecutor, MigrationJournal journal,
+                                                 JSONArray sourceIssues, String destinationProjectKey) throws IOException, URISyntaxException {
+        return recreateIssuesInDestination(httpClient, migrationExecutor, journal, sourceIssues, destinationProjectKey, null);
+    }
+
+    private JSONArray recreateIssuesInDestination(JiraHttpClient httpClient, IssueMigrationExecutor migrationExecutor, MigrationJournal journal,
+                                                  JSONArray sourceIssues, String destinationProjectKey, IssueOutcome.Listener listener) throws IOException, URISyntaxException {
+        getFieldMapper(httpClient, destinationProjectKey).validateIssueTypes(sourceIssues);
+        if (journal.isResumed()) {
+            recoverCreatedIssues(httpClient, journal, sourceIssues, destinationProjectKey);
+        }
+        if (ConfigLoader.getJiraApiConfig().getMigration().getBulkCreateSize() > 1) {
+            return recreateIssuesInBulk(httpClient, migrationExecutor, journal, sourceIssues, destinationProjectKey, listener);
+        }
+        boolean async = ConfigLoader.getJiraApiConfig().getMigration().isAsync();
+        IssueMigrator migrator = createIssueMigrator(httpClient, journal, destinationProjectKey, async);
+        if (async) {
+            return migrationExecutor.migrateAllAsync(sourceIssues, reportingAsyncOutcomes(journal, listener, migrationExecutor,
+                    (i, sourceIssue) -> migrator.recreateIssueInDestination(i, sourceIssue, destinationProjectKey)));
+        }
+        return migrationExecutor.migrateAll(sourceIssues, reportingOutcomes(journal, listener,
+                (i, sourceIssue) -> IssueMigrator.await(migrator.recreateIssueInDestination(i, sourceIssue, destinationProjectKey))));
+    }
+
+    /**
+     * Decorates the migration of a single issue to hand the outcome of the issue to the listener once it is migrated or failed.
+     *
+     * @param journal   the journal of completed migration steps
+     * @param listener  the listener of the outcomes, null if they are not reported
+     * @param migration the migration of a single issue
+     * @return the decorated migration
+     */
+    private static IssueMigrationExecutor.IssueMigration reportingOutcomes(MigrationJournal journal, IssueOutcome.Listener listener,
+                                                                           IssueMigrationExecutor.IssueMigration migration) {
+        if (listener == null) {
+            return migration;
+        }
+        return (index, sourceIssue) -> {
+            MigrationJournal.IssueProgress progress = journal.track(sourceIssue.getString(Fields.Issue.ID));
+            JSONObject newIssue;
+            try {
+                newIssue = migration.migrate(index, sourceIssue);
+            } catch (IOException | URISyntaxException | RuntimeException e) {
+                listener.onOutcome(IssueOutcome.failed(sourceIssue, progress, e));
+                throw e;
+            }
+            listener.onOutcome(IssueOutcome.finished(sourceIssue, progress));
+            return newIssue;
+        };
+    }
+
+    /**
+     * Decorates the asynchronous migration of a single issue to hand the outcome of the issue to the listener
+     * on the outcome thread of the executor, never on the I/O thread which completed the migration.
+     *
+     * @param journal           the journal of completed migration steps
+     * @param listener          the listener of the outcomes, null if they are not reported
+     * @param migrationExecutor the executor running the issue migrations
+     * @param migration         the asynchronous migration of a single issue
+     * @return the decorated migration
+     */
+    private static IssueMigrationExecutor.AsyncIssueMigration reportingAsyncOutcomes(MigrationJournal journal, IssueOutcome.Listener listener,
+                                                                                     IssueMigrationExecutor migrationExecutor,
+                                                                                     IssueMigrationExecutor.AsyncIssueMigration migration) {
+        if (listener == null) {
+            return migration;
         }
-        return createdComments;
+        Executor outcomeExecutor = migrationExecutor.getOutcomeExecutor();
+        return (index, sourceIssue) -> {
+            MigrationJournal.IssueProgress progress = journal.track(sourceIssue.getString(Fields.Issue.ID));
+            return migration.migrate(index, sourceIssue).whenCompleteAsync((newIssue, e) -> listener.onOutcome(e == null
+                    ? IssueOutcome.finished(sourceIssue, progress)
+                    : IssueOutcome.failed(sourceIssue, progress, e.getCause() instanceof Exception ? (Exception) e.getCause() : new Exception(e))),
+                    outcomeExecutor);
+        };
     }
 
     /**
-     * Creates a comment in a new issue in the destination project.
+     * Decorates a stage of the migration pipeline to hand the outcome of an issue to the listener once the issue
+     * failed, left the pipeline or passed the last stage.
      *
-     * @param httpClient     the HTTP client to use
-     * @param issueId        the ID of the new issue
-     * @param commentPayload the payload for the new comment
-     * @return the created comment as a JSONObject
+     * @param journal   the journal of completed migration steps
+     * @param listener  the listener of the outcomes, null if they are not reported
+     * @param lastStage whether the stage is the last one
+     * @param task      the step of the stage
+     * @return the decorated step
+     */
+    private static MigrationPipeline.StageTask reportingStageOutcomes(MigrationJournal journal, IssueOutcome.Listener listener, boolean lastStage,
+                                                                      MigrationPipeline.StageTask task) {
+        if (listener == null) {
+            return task;
+        }
+        return issueTask -> {
+            JSONObject sourceIssue = issueTask.getSourceIssue();
+            MigrationJournal.IssueProgress progress = journal.track(sourceIssue.getString(Fields.Issue.ID));
+            boolean passed;
+            try {
+                passed = task.process(issueTask);
+            } catch (IOException | URISyntaxException | RuntimeException e) {
+                listener.onOutcome(IssueOutcome.failed(sourceIssue, progress, e));
+                throw e;
+            }
+            if (!passed || lastStage) {
+                listener.onOutcome(IssueOutcome.finished(sourceIssue, progress));
+            }
+            return passed;
+        };
+    }
+
+    /**
+     * Recreates all issues found by the search in the destination project through the staged migration pipeline:
+     * the issues are created, get their comments and status and are deleted from the source project
+     * by separate stages, each with its own workers. The search is paused while the pipeline is full.
+     *
+     * @param httpClient            the HTTP client to use
+     * @param journal               the journal of completed migration steps
+     * @param issueSearch           the search of the issues to recreate
+     * @param destinationProjectKey the key of the destination project
+     * @param listener              the listener of the outcomes, null if the created issues are collected instead
+     * @return a JSONArray of created issues in the destination project, in the order they were found
      * @throws IOException        if an I/O error occurs
      * @throws URISyntaxException if the URI syntax is incorrect
      */
-    private JSONObject createCommentInIssue(JiraHttpClient httpClient, String issueId, JSONObject commentPayload) throws IOException, URISyntaxException {
-        HttpPost request = new HttpPost(JiraApiRequestQueryUtil.createCommentByIssueIdUri(issueId));
-        request.setEntity(new StringEntity(commentPayload.toString()));
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
-            String result = EntityUtils.toString(response.getEntity());
-            return new JSONObject(result);
+    private JSONArray recreateIssuesThroughPipeline(JiraHttpClient httpClient, MigrationJournal journal, PagedIssueSearch issueSearch,
+                                                    String destinationProjectKey, IssueOutcome.Listener listener) throws IOException, URISyntaxException {
+        try (MigrationPipeline pipeline = createMigrationPipeline(httpClient, journal, destinationProjectKey, listener)) {
+            while (issueSearch.hasNextPage()) {
+                JSONArray sourceIssues = issueSearch.nextPage();
+                metrics.countIssues(JiraMetrics.SEARCHED, sourceIssues.length());
+                getFieldMapper(httpClient, destinationProjectKey).validateIssueTypes(sourceIssues);
+                if (journal.isResumed()) {
+                    recoverCreatedIssues(httpClient, journal, sourceIssues, destinationProjectKey);
+                }
+                for (int i = 0; i < sourceIssues.length(); i++) {
+                    pipeline.submit(sourceIssues.getJSONObject(i));
+                }
+                log.info(String.format("Issues [%S] submitted to the migration pipeline, queue depths: %s", sourceIssues.length(), pipeline.getQueueDepths()));
+            }
+            return pipeline.finish();
         }
     }
 
     /**
-     * Transfers the status of a new issue to match the source issue.
+     * Creates the migration pipeline configured by the pipeline settings, with the stages of the blocking migration.
      *
-     * @param httpClient   the HTTP client to use
-     * @param issueId      the ID of the new issue
-     * @param targetStatus the target status to set
+     * @param httpClient            the HTTP client to use
+     * @param journal               the journal of completed migration steps
+     * @param destinationProjectKey the key of the destination project
+     * @param listener              the listener of the outcomes, null if the created issues are collected instead
+     * @return a new MigrationPipeline with its workers started
      * @throws IOException        if an I/O error occurs
      * @throws URISyntaxException if the URI syntax is incorrect
      */
-    private void transferIssueStatus(JiraHttpClient httpClient, String issueId, String targetStatus) throws IOException, URISyntaxException {
-        JSONArray transitions = fetchAvailableTransitions(httpClient, issueId);
-        for (int i = 0; i < transitions.length(); i++) {
-            JSONObject transition = transitions.getJSONObject(i);
-            if (transition.getJSONObject(Fields.Transition.TO).getString(Fields.Transition.NAME).equals(targetStatus)) {
-                HttpPost request = new HttpPost(transferStatusByIssueIdUri(issueId));
-                JSONObject payload = new JSONObject().put(
-                        Fields.Transition.TRANSITION,
-                        new JSONObject().put(Fields.Transition.ID, transition.getString(Fields.Transition.ID)));
-                request.setEntity(new StringEntity(payload.toString()));
-                try (CloseableHttpResponse response = httpClient.execute(request)) {
-                    log.info(String.format("Status %S moved with issue %S", targetStatus, issueId));
-                    return;
+    private MigrationPipeline createMigrationPipeline(JiraHttpClient httpClient, MigrationJournal journal, String destinationProjectKey,
+                                                      IssueOutcome.Listener listener) throws IOException, URISyntaxException {
+        ConfigLoader.PipelineConfig config = ConfigLoader.getJiraApiConfig().getMigration().getPipeline();
+        IssueMigrator migrator = createIssueMigrator(httpClient, journal, destinationProjectKey, false);
+        List<MigrationPipeline.Stage> stages = List.of(
+                new MigrationPipeline.Stage("create", config.getCreate().getParallelism(), config.getCreate().getQueueCapacity(),
+                        reportingStageOutcomes(journal, listener, false, task -> {
+                            task.setNewIssue(IssueMigrator.await(migrator.createIssueOnce((int) task.getSequence(), task.getSourceIssue(), destinationProjectKey)));
+                            return !task.getNewIssue().isEmpty();
+                        })),
+                new MigrationPipeline.Stage("comments", config.getComments().getParallelism(), config.getComments().getQueueCapacity(),
+                        reportingStageOutcomes(journal, listener, false, task -> {
+                            IssueMigrator.await(migrator.transferComments(task.getNewIssue(), task.getSourceIssue()));
+                            return true;
+                        })),
+                new MigrationPipeline.Stage("attachments", config.getAttachments().getParallelism(), config.getAttachments().getQueueCapacity(),
+                        reportingStageOutcomes(journal, listener, false, task -> {
+                            IssueMigrator.await(migrator.transferAttachments(task.getNewIssue(), task.getSourceIssue()));
+                            return true;
+                        })),
+                new MigrationPipeline.Stage("status", config.getStatus().getParallelism(), config.getStatus().getQueueCapacity(),
+                        reportingStageOutcomes(journal, listener, false, task -> {
+                            IssueMigrator.await(migrator.transferStatus(task.getNewIssue(), task.getSourceIssue()));
+                            return true;
+                        })),
+                new MigrationPipeline.Stage("delete", config.getDelete().getParallelism(), config.getDelete().getQueueCapacity(),
+                        reportingStageOutcomes(journal, listener, true, task -> {
+                            IssueMigrator.await(migrator.deleteSourceIssue(task.getSourceIssue()));
+                            return true;
+                        })));
+        return new MigrationPipeline(stages, httpClient.getMetrics(), listener == null);
+    }
+
+    /**
+     * Checks whether the migration runs through the staged pipeline, which is the blocking migration
+     * of single issues when the pipeline is enabled.
+     *
+     * @return true if the migration is pipelined
+     */
+    private boolean isPipelined() {
+        ConfigLoader.MigrationConfig config = ConfigLoader.getJiraApiConfig().getMigration();
+        return config.getPipeline().isEnabled() && !config.isAsync() && config.getBulkCreateSize() <= 1;
+    }
+
+    /**
+     * Records the issues which an interrupted run created in the destination project without recording them
+     * in the journal, so the resumed run does not create them again.
+     *
+     * @param httpClient            the HTTP client to use
+     * @param journal               the journal of completed migration steps
+     * @param sourceIssues          the issues to recreate
+     * @param destinationProjectKey the key of the destination project
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    private void recoverCreatedIssues(JiraHttpClient httpClient, MigrationJournal journal, JSONArray sourceIssues, String destinationProjectKey) throws IOException, URISyntaxException {
+        JSONArray notCreatedIssues = getNotCreatedIssues(journal, sourceIssues);
+        if (notCreatedIssues.isEmpty()) {
+            return;
+        }
+        Map<String, JSONObject> createdIssues = retryPolicy.call(RetryPolicy.RequestType.SEARCH, true,
+                attempt -> findCreatedIssues(httpClient, notCreatedIssues, destinationProjectKey));
+        for (Map.Entry<String, JSONObject> createdIssue : createdIssues.entrySet()) {
+            log.info(String.format("Issue id: %S was created by an interrupted run: %S", createdIssue.getKey(), createdIssue.getValue().getString(Fields.KEY)));
+            journal.recordCreated(createdIssue.getKey(), createdIssue.getValue());
+        }
+    }
+
+    private JSONArray getNotCreatedIssues(MigrationJournal journal, JSONArray sourceIssues) {
+        JSONArray notCreatedIssues = new JSONArray();
+        for (int i = 0; i < sourceIssues.length(); i++) {
+            if (journal.getProgress(sourceIssues.getJSONObject(i).getString(Fields.Issue.ID)).getNewIssue() == null) {
+                notCreatedIssues.put(sourceIssues.getJSONObject(i));
+            }
+        }
+        return notCreatedIssues;
+    }
+
+    /**
+     * Recreates issues in the destination project, creating them in batches through the bulk create endpoint.
+     * Comments, status and deletion of the source issue are then migrated only for the issues created successfully.
+     *
+     * @param httpClient            the HTTP client to use
+     * @param migrationExecutor     the executor running the issue migrations
+     * @param journal               the journal of completed migration steps
+     * @param sourceIssues          the issues to recreate
+     * @param destinationProjectKey the key of the destination project
+     * @param listener              the listener of the outcomes, null if they are not reported
+     * @return a JSONArray of created issues in the destination project
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    private JSONArray recreateIssuesInBulk(JiraHttpClient httpClient, IssueMigrationExecutor migrationExecutor, MigrationJournal journal,
+                                           JSONArray sourceIssues, String destinationProjectKey, IssueOutcome.Listener listener) throws IOException, URISyntaxException {
+        int batchSize = Math.min(MAX_BULK_CREATE_SIZE, ConfigLoader.getJiraApiConfig().getMigration().getBulkCreateSize());
+        boolean async = ConfigLoader.getJiraApiConfig().getMigration().isAsync();
+        IssueMigrator migrator = createIssueMigrator(httpClient, journal, destinationProjectKey, async);
+        JSONArray notCreatedIssues = getNotCreatedIssues(journal, sourceIssues);
+        for (int from = 0; from < notCreatedIssues.length(); from += batchSize) {
+            JSONArray batch = new JSONArray();
+            for (int i = from; i < Math.min(from + batchSize, notCreatedIssues.length()); i++) {
+                batch.put(notCreatedIssues.getJSONObject(i));
+            }
+            JSONArray newIssues = createIssuesInBulk(httpClient, batch, destinationProjectKey);
+            for (int i = 0; i < batch.length(); i++) {
+                if (!newIssues.getJSONObject(i).isEmpty()) {
+                    journal.recordCreated(batch.getJSONObject(i).getString(Fields.Issue.ID), newIssues.getJSONObject(i));
+                    httpClient.getMetrics().countIssues(JiraMetrics.CREATED, 1);
                 }
             }
         }
+        if (async) {
+            return migrationExecutor.migrateAllAsync(sourceIssues, reportingAsyncOutcomes(journal, listener, migrationExecutor, (i, sourceIssue) -> {
+                JSONObject newIssue = journal.getProgress(sourceIssue.getString(Fields.Issue.ID)).getNewIssue();
+                return newIssue == null
+                        ? CompletableFuture.completedFuture(new JSONObject())
+                        : migrator.completeIssueMigration(newIssue, sourceIssue);
+            }));
+        }
+        return migrationExecutor.migrateAll(sourceIssues, reportingOutcomes(journal, listener, (i, sourceIssue) -> {
+            JSONObject newIssue = journal.getProgress(sourceIssue.getString(Fields.Issue.ID)).getNewIssue();
+            if (newIssue == null) {
+                return new JSONObject();
+            }
+            return IssueMigrator.await(migrator.completeIssueMigration(newIssue, sourceIssue));
+        }));
+    }
+
+    /**
+     * Exports the metrics to the configured file, if any. A failed export is logged, it never fails the run.
+     */
+    private void exportMetrics() {
+        String exportPath = ConfigLoader.getJiraApiConfig().getMetrics().getExportPath();
+        if (exportPath == null || exportPath.isEmpty()) {
+            return;
+        }
+        try {
+            metrics.export(Paths.get(exportPath));
+        } catch (IOException e) {
+            log.warning(String.format("Metrics not exported to %S: %s", exportPath, e.getMessage()));
+        }
     }
 
     /**
-     * Fetches available transitions for a given issue ID.
+     * Gets the time zone in which Jira interprets the dates of JQL queries: the configured one, or else the time zone
+     * of the Jira user, fetched once. The time zone of the machine running the sync may differ from both.
      *
      * @param httpClient the HTTP client to use
-     * @param issueId    the ID of the issue
-     * @return a JSONArray of available transitions
+     * @return the time zone of JQL dates
+     * @throws IOException        if an I/O error occurs or Jira does not report the time zone of the user
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    private ZoneId getSyncTimeZone(JiraHttpClient httpClient) throws IOException, URISyntaxException {
+        String timeZone = ConfigLoader.getJiraApiConfig().getSync().getTimeZone();
+        if (timeZone != null && !timeZone.isEmpty()) {
+            return ZoneId.of(timeZone);
+        }
+        if (userTimeZone == null) {
+            JSONObject user = retryPolicy.call(RetryPolicy.RequestType.SEARCH, true, attempt -> {
+                try (CloseableHttpResponse response = httpClient.execute(new HttpGet(fetchMyselfQueryUri()))) {
+                    return JiraResponseReader.readJson(response.getEntity());
+                }
+            });
+            String userZone = user.optString(Fields.User.TIME_ZONE);
+            if (userZone.isEmpty()) {
+                throw new IOException("Jira did not report the time zone of the user, set sync.timeZone");
+            }
+            userTimeZone = ZoneId.of(userZone);
+            log.info(String.format("JQL dates are interpreted in the time zone of the Jira user: %S", userTimeZone));
+        }
+        return userTimeZone;
+    }
+
+    /**
+     * Opens the HTTP client of a run: a view of the shared client if the service has one, a new client otherwise.
+     *
+     * @return the HTTP client to close at the end of the run
+     */
+    private JiraHttpClient openHttpClient() {
+        return sharedHttpClient != null ? sharedHttpClient.share() : new JiraHttpClient(metrics);
+    }
+
+    /**
+     * Creates the executor running issue migrations with the configured concurrency.
+     *
+     * @return a new IssueMigrationExecutor
+     */
+    private IssueMigrationExecutor createMigrationExecutor() {
+        return new IssueMigrationExecutor(ConfigLoader.getJiraApiConfig().getMigration().getConcurrency());
+    }
+
+    /**
+     * Creates the migrator running the steps of single issues of a run.
+     *
+     * @param httpClient            the HTTP client to use
+     * @param journal               the journal of completed migration steps
+     * @param destinationProjectKey the key of the destination project
+     * @param async                 whether the requests are sent on the non-blocking transport
+     * @return a new IssueMigrator
      * @throws IOException        if an I/O error occurs
      * @throws URISyntaxException if the URI syntax is incorrect
      */
-    private JSONArray fetchAvailableTransitions(JiraHttpClient httpClient, String issueId) throws IOException, URISyntaxException {
-        HttpGet request = new HttpGet(fetchTransitionsByIssueIdQueryUri(issueId));
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
-            String result = EntityUtils.toString(response.getEntity());
-            return new JSONObject(result).getJSONArray(Fields.SearchResult.TRANSITIONS);
+    private IssueMigrator createIssueMigrator(JiraHttpClient httpClient, MigrationJournal journal, String destinationProjectKey,
+                                              boolean async) throws IOException, URISyntaxException {
+        return new IssueMigrator(httpClient, retryPolicy, journal, transitionCache, attachmentTransfer, getFieldMapper(httpClient, destinationProjectKey), async);
+    }
+
+    /**
+     * Gets the field mapping of the destination project, resolving it against the create metadata of the project
+     * the first time it is needed. Every run resolves it before writing anything, so an invalid mapping fails the run
+     * before any issue is created.
+     *
+     * @param httpClient            the HTTP client to use
+     * @param destinationProjectKey the key of the destination project
+     * @return the compiled field mapper
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     * @throws io.getint.recruitment_task.exception.FieldMappingException if the mapping cannot be resolved
+     */
+    private FieldMapper getFieldMapper(JiraHttpClient httpClient, String destinationProjectKey) throws IOException, URISyntaxException {
+        FieldMapper fieldMapper = fieldMappers.get(destinationProjectKey);
+        if (fieldMapper != null) {
+            return fieldMapper;
+        }
+        synchronized (fieldMappers) {
+            fieldMapper = fieldMappers.get(destinationProjectKey);
+            if (fieldMapper == null) {
+                JSONArray issueTypes = fetchCreateMeta(httpClient, fetchIssueTypesByProjectKeyQueryUri(destinationProjectKey), Fields.CreateMeta.ISSUE_TYPES);
+                Map<String, JSONArray> fieldsByIssueTypeId = new HashMap<>();
+                for (int i = 0; i < issueTypes.length(); i++) {
+                    String issueTypeId = issueTypes.getJSONObject(i).getString(Fields.Issue.ID);
+                    fieldsByIssueTypeId.put(issueTypeId, fetchCreateMeta(httpClient,
+                            fetchFieldsByIssueTypeQueryUri(destinationProjectKey, issueTypeId), Fields.CreateMeta.FIELDS));
+                }
+                fieldMapper = FieldMapper.compile(destinationProjectKey, ConfigLoader.getJiraApiConfig().getFieldMapping(), issueTypes, fieldsByIssueTypeId);
+                fieldMappers.put(destinationProjectKey, fieldMapper);
+                log.info(String.format("Field mapping of project %S resolved for %S issue types", destinationProjectKey, issueTypes.length()));
+            }
+            return fieldMapper;
         }
     }
 
     /**
-     * Deletes an issue by its ID.
+     * Fetches all pages of a create metadata list.
      *
      * @param httpClient the HTTP client to use
-     * @param issueId    the ID of the issue to delete
+     * @param uri        the query URI of the list
+     * @param listName   the name of the list in the response, used by servers which do not return {@code values}
+     * @return a JSONArray of all elements of the list
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    private JSONArray fetchCreateMeta(JiraHttpClient httpClient, URI uri, String listName) throws IOException, URISyntaxException {
+        JSONArray elements = new JSONArray();
+        while (true) {
+            int startAt = elements.length();
+            JSONObject page = retryPolicy.call(RetryPolicy.RequestType.SEARCH, true, attempt -> {
+                HttpGet request = new HttpGet(pagedQueryUri(uri, startAt, CREATE_META_PAGE_SIZE));
+                try (CloseableHttpResponse response = httpClient.execute(request)) {
+                    return JiraResponseReader.readJson(response.getEntity());
+                }
+            });
+            JSONArray pageElements = page.has(Fields.CreateMeta.VALUES) ? page.getJSONArray(Fields.CreateMeta.VALUES) : page.optJSONArray(listName);
+            if (pageElements == null || pageElements.isEmpty()) {
+                return elements;
+            }
+            elements.putAll(pageElements);
+            boolean lastPage = page.has(Fields.SearchResult.IS_LAST)
+                    ? page.getBoolean(Fields.SearchResult.IS_LAST)
+                    : elements.length() >= page.optInt(Fields.SearchResult.TOTAL, 0);
+            if (lastPage) {
+                return elements;
+            }
+        }
+    }
+
+    /**
+     * Starts a paged search over the issues of the given project.
+     *
+     * @param httpClient       the HTTP client to use
+     * @param sourceProjectKey the key of the source project
+     * @param fieldMapper      the field mapping of the destination project
+     * @return a PagedIssueSearch handing out the issues page by page
+     */
+    private PagedIssueSearch searchIssuesByProjectKey(JiraHttpClient httpClient, String sourceProjectKey, FieldMapper fieldMapper) {
+        ConfigLoader.SearchConfig searchConfig = ConfigLoader.getJiraApiConfig().getSearch();
+        return new PagedIssueSearch(httpClient, retryPolicy, sourceProjectKey, searchConfig.getJql(), getSearchedFields(fieldMapper), searchConfig);
+    }
+
+    /**
+     * Gets the fields of the source issues returned by the search: the fields read by the field mapping,
+     * the issue type and status, and the comments and attachments, embedded in the search results so they are not fetched per issue.
+     *
+     * @param fieldMapper the field mapping of the destination project
+     * @return the IDs of the searched fields
+     */
+    private Set<String> getSearchedFields(FieldMapper fieldMapper) {
+        Set<String> fields = new LinkedHashSet<>(fieldMapper.getSourceFields());
+        fields.add(Fields.Issue.ISSUE_TYPE);
+        fields.add(Fields.Issue.STATUS);
+        fields.add(Fields.Issue.COMMENT);
+        if (attachmentTransfer.isEnabled()) {
+            fields.add(Fields.Issue.ATTACHMENT);
+        }
+        return fields;
+    }
+
+    /**
+     * Gets the comments of a source issue, embedded in the search result or, if they were truncated there, fetched.
+     *
+     * @param httpClient  the HTTP client to use
+     * @param sourceIssue the source issue
+     * @return a List of comments
+     * @throws IOException        if an I/O error occurs
      * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    private List<Comment> getSourceComments(JiraHttpClient httpClient, JSONObject sourceIssue) throws IOException, URISyntaxException {
+        List<Comment> comments = JiraDataUtils.getEmbeddedComments(sourceIssue);
+        return comments != null ? comments : fetchIssueComments(httpClient, sourceIssue.getString(Fields.Issue.ID));
+    }
+
+    /**
+     * Creates the given source issues in the destination project with a single bulk create request.
+     * A retried bulk create submits only the issues which the failed attempt did not create.
+     *
+     * @param httpClient            the HTTP client to use
+     * @param sourceIssues          the issues to create, at most {@value #MAX_BULK_CREATE_SIZE}
+     * @param destinationProjectKey the key of the destination project
+     * @return a JSONArray of created issues aligned with the source issues,
+     * with an empty JSONObject for every issue the server failed to create
      * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
      */
-    private void deleteIssueById(JiraHttpClient httpClient, String issueId) throws URISyntaxException, IOException {
-        HttpDelete request = new HttpDelete(deleteIssueByIdUri(issueId));
+    private JSONArray createIssuesInBulk(JiraHttpClient httpClient, JSONArray sourceIssues, String destinationProjectKey) throws IOException, URISyntaxException {
+        return retryPolicy.call(RetryPolicy.RequestType.CREATE, retryPolicy.isSourceLabelEnabled(), attempt -> {
+            Map<String, JSONObject> existingIssues = attempt > 1
+                    ? findCreatedIssues(httpClient, sourceIssues, destinationProjectKey)
+                    : Collections.emptyMap();
+            JSONArray pendingIssues = new JSONArray();
+            for (int i = 0; i < sourceIssues.length(); i++) {
+                if (!existingIssues.containsKey(sourceIssues.getJSONObject(i).getString(Fields.Issue.ID))) {
+                    pendingIssues.put(sourceIssues.getJSONObject(i));
+                }
+            }
+            JSONArray pendingNewIssues = pendingIssues.isEmpty() ? new JSONArray() : postIssuesInBulk(httpClient, pendingIssues, destinationProjectKey);
+            JSONArray newIssues = new JSONArray();
+            for (int i = 0, pending = 0; i < sourceIssues.length(); i++) {
+                JSONObject existingIssue = existingIssues.get(sourceIssues.getJSONObject(i).getString(Fields.Issue.ID));
+                newIssues.put(existingIssue != null ? existingIssue : pendingNewIssues.getJSONObject(pending++));
+            }
+            return newIssues;
+        });
+    }
+
+    /**
+     * Posts the given source issues to the bulk create endpoint.
+     *
+     * @param httpClient            the HTTP client to use
+     * @param sourceIssues          the issues to create, at most {@value #MAX_BULK_CREATE_SIZE}
+     * @param destinationProjectKey the key of the destination project
+     * @return a JSONArray of created issues aligned with the source issues,
+     * with an empty JSONObject for every issue the server failed to create
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    private JSONArray postIssuesInBulk(JiraHttpClient httpClient, JSONArray sourceIssues, String destinationProjectKey) throws IOException, URISyntaxException {
+        FieldMapper fieldMapper = getFieldMapper(httpClient, destinationProjectKey);
+        List<JSONObject> issuePayloads = new ArrayList<>(sourceIssues.length());
+        for (int i = 0; i < sourceIssues.length(); i++) {
+            issuePayloads.add(createIssuePayload(sourceIssues.getJSONObject(i), fieldMapper));
+        }
+        HttpPost postRequest = new HttpPost(createIssuesInBulkUri());
+        postRequest.setEntity(new JsonEntity(createIssuesInBulkPayload(issuePayloads)));
+        JSONObject result;
+        try (CloseableHttpResponse response = httpClient.execute(postRequest)) {
+            result = JiraResponseReader.readJson(response.getEntity());
+        } catch (ClientProtocolException e) {
+            result = readFailedBulkCreate(e);
+        }
+        JSONArray newIssues = JiraDataUtils.alignBulkCreateResult(result, sourceIssues.length());
+        for (int i = 0; i < newIssues.length(); i++) {
+            if (newIssues.getJSONObject(i).isEmpty()) {
+                log.warning(String.format("Issue id: %S was not created: %S",
+                        sourceIssues.getJSONObject(i).get(Fields.Issue.ID), JiraDataUtils.getBulkCreateError(result, i)));
+            }
+        }
+        log.info(String.format("Issues in project %S created in bulk: %S of %S", destinationProjectKey,
+                result.optJSONArray(Fields.SearchResult.ISSUES) != null ? result.getJSONArray(Fields.SearchResult.ISSUES).length() : 0, sourceIssues.length()));
+        return newIssues;
+    }
+
+    /**
+     * Reads the result of a bulk create which failed for every issue: Jira then answers with status 400 instead of 201,
+     * with the errors of every issue in the same form as a partially failed bulk create, so each issue is handled
+     * on its own as when only some of them fail.
+     *
+     * @param failure the failure of the bulk create request
+     * @return the bulk create result listing the error of every issue
+     * @throws ClientProtocolException the failure, if it is not a bulk create result
+     */
+    private static JSONObject readFailedBulkCreate(ClientProtocolException failure) throws ClientProtocolException {
+        if (failure.getCause() instanceof JiraResponseException) {
+            JiraResponseException rejection = (JiraResponseException) failure.getCause();
+            if (rejection.getStatusCode() == HttpStatus.SC_BAD_REQUEST && rejection.getResponseBody() != null) {
+                try {
+                    JSONObject result = new JSONObject(rejection.getResponseBody());
+                    if (result.optJSONArray(Fields.Bulk.ERRORS) != null) {
+                        return result;
+                    }
+                } catch (JSONException e) {
+                    // not a bulk create result, the failure is rethrown
+                }
+            }
+        }
+        throw failure;
+    }
+
+    /**
+     * Finds the issues already created in the destination project from the given source issues by their source labels.
+     *
+     * @param httpClient            the HTTP client to use
+     * @param sourceIssues          the source issues
+     * @param destinationProjectKey the key of the destination project
+     * @return a Map of the found issues by source issue ID, empty if source labels are disabled
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    private Map<String, JSONObject> findCreatedIssues(JiraHttpClient httpClient, JSONArray sourceIssues, String destinationProjectKey) throws IOException, URISyntaxException {
+        Map<String, String> sourceIssueIdsByLabel = new HashMap<>();
+        for (int i = 0; i < sourceIssues.length(); i++) {
+            String sourceIssueId = sourceIssues.getJSONObject(i).getString(Fields.Issue.ID);
+            String sourceLabel = getSourceLabel(sourceIssueId);
+            if (sourceLabel != null) {
+                sourceIssueIdsByLabel.put(sourceLabel, sourceIssueId);
+            }
+        }
+        if (sourceIssueIdsByLabel.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        String jql = findIssuesBySourceLabelsJql(destinationProjectKey, sourceIssueIdsByLabel.keySet());
+        HttpGet request = new HttpGet(searchIssuesQueryUri(jql, sourceIssueIdsByLabel.size(), Fields.Issue.LABELS));
         try (CloseableHttpResponse response = httpClient.execute(request)) {
-            log.info(String.format("Issue %S deleted successfully", issueId));
+            JSONObject result = JiraResponseReader.readJson(response.getEntity(), JiraResponseReader.SKIPPED_ISSUE_PROPERTIES);
+            return JiraDataUtils.getIssuesBySourceLabel(result.getJSONArray(Fields.SearchResult.ISSUES), sourceIssueIdsByLabel);
         }
     }
 
+    /**
+     * Fetches all comments of a given issue ID, page by page in the order of their creation.
+     *
+     * @param httpClient the HTTP client to use
+     * @param issueId    the ID of the issue
+     * @return a List of comments
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    private List<Comment> fetchIssueComments(JiraHttpClient httpClient, String issueId) throws IOException, URISyntaxException {
+        CommentPages commentPages = new CommentPages(httpClient, retryPolicy, ConfigLoader.getJiraApiConfig().getMigration().getCommentPageSize(), false);
+        List<Comment> comments = new ArrayList<>();
+        CommentPage page;
+        do {
+            page = commentPages.get(issueId, comments.size());
+            comments.addAll(page.getComments());
+        } while (!page.isLastPage());
+        return comments;
+    }
+
 }
@@ -0,0 +1,377 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.util.Fields;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the completed migration steps of every source issue,
+ * letting a restarted migration skip finished work and resume each issue at its first incomplete step.
+ * <p>
+ * Every step is appended as a compact binary record ({@code length, step, source issue ID, values, CRC32})
+ * written to the file right away, so it survives the JVM dying, while forcing the file to the disk
+ * is batched. A torn record at the end of the file is detected by its checksum and truncated on open.
+ * <p>
+ * A step completed on the server just before the process died may still be missing from the journal:
+ * a resumed run looks up the issues created without a journal record by their source label,
+ * while a comment or attachment added in that window is added once more.
+ */
+public class MigrationJournal implements AutoCloseable {
+
+    private static final int MAX_RECORD_LENGTH = 64 * 1024;
+    private static final IssueProgress NOT_STARTED = new IssueProgress();
+
+    private final Logger log = Logger.getLogger(MigrationJournal.class.getName());
+
+    private final Map<String, IssueProgress> progress = new ConcurrentHashMap<>();
+    private final Path path;
+    private final FileChannel channel;
+    private final ExecutorService writer;
+    private final int syncEvery;
+    private final long syncIntervalNanos;
+    private final boolean resumed;
+    private int unsyncedRecords;
+    private long lastSync = System.nanoTime();
+
+    /**
+     * Steps of an issue migration recorded in the journal.
+     */
+    public enum Step {
+        CREATED, COMMENT_ADDED, COMMENTS_ADDED, STATUS_TRANSFERRED, DELETED, ATTACHMENT_ADDED
+    }
+
+    private MigrationJournal(Path path, int syncEvery, long syncIntervalMillis) throws IOException {
+        this.path = path;
+        this.syncEvery = Math.max(1, syncEvery);
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+        if (path == null) {
+            this.channel = null;
+            this.writer = null;
+            this.resumed = false;
+            return;
+        }
+        Path directory = path.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jira-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long validLength = replay();
+        if (validLength < channel.size()) {
+            log.warning(String.format("Truncating torn journal record at offset %S of %S", validLength, path));
+            channel.truncate(validLength);
+        }
+        channel.position(validLength);
+        this.resumed = validLength > 0;
+        if (resumed) {
+            log.info(String.format("Resuming migration from journal %S with %S unfinished issues", path, progress.size()));
+        }
+    }
+
+    /**
+     * Opens the journal of a migration between two projects as configured, replaying the steps recorded by earlier runs.
+     *
+     * @param config                the journal settings
+     * @param sourceProjectKey      the key of the source project
+     * @param destinationProjectKey the key of the destination project
+     * @return the opened journal, kept in memory only if no path is configured
+     * @throws IOException if the journal file cannot be read or created
+     */
+    public static MigrationJournal open(ConfigLoader.JournalConfig config, String sourceProjectKey, String destinationProjectKey) throws IOException {
+        if (config.getPath() == null || config.getPath().isEmpty()) {
+            return inMemory();
+        }
+        String path = config.getPath()
+                .replace("{sourceProjectKey}", sourceProjectKey)
+                .replace("{destinationProjectKey}", destinationProjectKey);
+        return open(Paths.get(path), config.getSyncEvery(), config.getSyncInterval());
+    }
+
+    /**
+     * Opens the journal file, replaying the steps recorded by earlier runs.
+     *
+     * @param path               the journal file, created along with its directory if missing
+     * @param syncEvery          the number of records after which the file is forced to the disk
+     * @param syncIntervalMillis the time in milliseconds after which the file is forced to the disk
+     * @return the opened journal
+     * @throws IOException if the journal file cannot be read or created
+     */
+    public static MigrationJournal open(Path path, int syncEvery, long syncIntervalMillis) throws IOException {
+        return new MigrationJournal(path, syncEvery, syncIntervalMillis);
+    }
+
+    /**
+     * Creates a journal which is kept in memory only, for migrations which are not resumable.
+     *
+     * @return a new in-memory journal
+     */
+    public static MigrationJournal inMemory() {
+        try {
+            return new MigrationJournal(null, 1, 0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Checks whether steps recorded by an earlier run were replayed.
+     *
+     * @return true if the migration is resumed
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    /**
+     * Gets the migration progress of a source issue. Looking up an issue which was not started yet keeps no entry for it.
+     *
+     * @param sourceIssueId the ID of the source issue
+     * @return the live progress of the issue, or a shared progress without any completed step if the issue was not started yet
+     */
+    public IssueProgress getProgress(String sourceIssueId) {
+        return progress.getOrDefault(sourceIssueId, NOT_STARTED);
+    }
+
+    /**
+     * Starts tracking the migration progress of a source issue, so steps recorded later show up in the returned progress.
+     * The entry is dropped once the issue is deleted from the source project.
+     *
+     * @param sourceIssueId the ID of the source issue
+     * @return the live progress of the issue
+     */
+    public IssueProgress track(String sourceIssueId) {
+        return progress.computeIfAbsent(sourceIssueId, id -> new IssueProgress());
+    }
+
+    /**
+     * Gets the executor writing the records of steps completed on the I/O threads of the non-blocking transport,
+     * so appending to the file and forcing it to the disk never stalls the I/O reactor.
+     * The records handed to it are written one after another, in order.
+     *
+     * @return the writer thread of the journal file, or a direct executor if the journal is kept in memory only
+     */
+    public Executor getWriter() {
+        return writer != null ? writer : Runnable::run;
+    }
+
+    public void recordCreated(String sourceIssueId, JSONObject newIssue) throws IOException {
+        record(Step.CREATED, sourceIssueId, newIssue.getString(Fields.Issue.ID), newIssue.getString(Fields.KEY));
+    }
+
+    public void recordCommentAdded(String sourceIssueId, String sourceCommentId) throws IOException {
+        record(Step.COMMENT_ADDED, sourceIssueId, sourceCommentId, "");
+    }
+
+    public void recordAttachmentAdded(String sourceIssueId, String sourceAttachmentId) throws IOException {
+        record(Step.ATTACHMENT_ADDED, sourceIssueId, sourceAttachmentId, "");
+    }
+
+    public void recordCommentsAdded(String sourceIssueId) throws IOException {
+        record(Step.COMMENTS_ADDED, sourceIssueId, "", "");
+    }
+
+    public void recordStatusTransferred(String sourceIssueId) throws IOException {
+        record(Step.STATUS_TRANSFERRED, sourceIssueId, "", "");
+    }
+
+    public void recordDeleted(String sourceIssueId) throws IOException {
+        record(Step.DELETED, sourceIssueId, "", "");
+    }
+
+    /**
+     * Removes the journal of a finished migration, there is nothing left to resume.
+     *
+     * @throws IOException if the journal file cannot be deleted
+     */
+    public void complete() throws IOException {
+        close();
+        if (path != null) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Closes the journal file once the records handed to the writer are written.
+     *
+     * @throws IOException if the journal file cannot be forced to the disk
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.shutdown();
+            try {
+                writer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            if (channel != null && channel.isOpen()) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    private void record(Step step, String sourceIssueId, String value, String secondValue) throws IOException {
+        apply(step, sourceIssueId, value, secondValue);
+        if (channel == null) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeByte(step.ordinal());
+        payload.writeUTF(sourceIssueId);
+        payload.writeUTF(value);
+        payload.writeUTF(secondValue);
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+
+        ByteBuffer record = ByteBuffer.allocate(Integer.BYTES + bytes.size() + Integer.BYTES);
+        record.putInt(bytes.size()).put(bytes.toByteArray()).putInt((int) crc.getValue()).flip();
+        synchronized (this) {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            long now = System.nanoTime();
+            if (++unsyncedRecords >= syncEvery || now - lastSync >= syncIntervalNanos) {
+                channel.force(false);
+                unsyncedRecords = 0;
+                lastSync = now;
+            }
+        }
+    }
+
+    private void apply(Step step, String sourceIssueId, String value, String secondValue) {
+        if (step == Step.DELETED) {
+            progress.remove(sourceIssueId);
+            return;
+        }
+        IssueProgress issueProgress = track(sourceIssueId);
+        switch (step) {
+            case CREATED:
+                issueProgress.newIssue = new JSONObject().put(Fields.Issue.ID, value).put(Fields.KEY, secondValue);
+                break;
+            case COMMENT_ADDED:
+                issueProgress.addedComments.add(value);
+                break;
+            case COMMENTS_ADDED:
+                issueProgress.commentsAdded = true;
+                break;
+            case ATTACHMENT_ADDED:
+                issueProgress.addedAttachments.add(value);
+                break;
+            default:
+                issueProgress.statusTransferred = true;
+        }
+    }
+
+    /**
+     * Replays the records of the journal file.
+     *
+     * @return the length of the valid records at the start of the file
+     */
+    private long replay() throws IOException {
+        Step[] steps = Step.values();
+        long validLength = 0;
+        InputStream input = new BufferedInputStream(Channels.newInputStream(channel.position(0)));
+        DataInputStream records = new DataInputStream(input);
+        while (true) {
+            byte[] payload;
+            int checksum;
+            try {
+                int length = records.readInt();
+                if (length <= 0 || length > MAX_RECORD_LENGTH) {
+                    return validLength;
+                }
+                payload = new byte[length];
+                records.readFully(payload);
+                checksum = records.readInt();
+            } catch (EOFException e) {
+                return validLength;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                return validLength;
+            }
+            DataInputStream fields = new DataInputStream(new ByteArrayInputStream(payload));
+            int step = fields.readUnsignedByte();
+            if (step >= steps.length) {
+                return validLength;
+            }
+            apply(steps[step], fields.readUTF(), fields.readUTF(), fields.readUTF());
+            validLength += Integer.BYTES + payload.length + Integer.BYTES;
+        }
+    }
+
+    /**
+     * Migration progress of a single source issue. Every issue is migrated by a single worker at a time.
+     */
+    public static class IssueProgress {
+        private final Set<String> addedComments = ConcurrentHashMap.newKeySet();
+        private final Set<String> addedAttachments = ConcurrentHashMap.newKeySet();
+        private volatile JSONObject newIssue;
+        private volatile boolean commentsAdded;
+        private volatile boolean statusTransferred;
+
+        /**
+         * Gets the issue created in the destination project.
+         *
+         * @return the ID and key of the created issue, or null if the issue was not created yet
+         */
+        public JSONObject getNewIssue() {
+            return newIssue;
+        }
+
+        public boolean isCommentAdded(String sourceCommentId) {
+            return addedComments.contains(sourceCommentId);
+        }
+
+        public int getAddedCommentCount() {
+            return addedComments.size();
+        }
+
+        public boolean isAttachmentAdded(String sourceAttachmentId) {
+            return addedAttachments.contains(sourceAttachmentId);
+        }
+
+        public boolean isCommentsAdded() {
+            return commentsAdded;
+        }
+
+        public boolean isStatusTransferred() {
+            return statusTransferred;
+        }
+    }
+
+}
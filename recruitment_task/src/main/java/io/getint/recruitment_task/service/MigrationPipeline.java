@@ -0,0 +1,292 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.metrics.JiraMetrics;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Migrates issues through a sequence of stages connected by bounded queues.
+ * <p>
+ * Every stage runs its own workers, taking issues from its queue and handing them to the queue of the next stage,
+ * so the stages of different issues overlap while the stages of a single issue keep their order. A full queue
+ * blocks the workers of the stage before it and, through the first queue, {@link #submit(JSONObject)}:
+ * a slow stage slows down the whole pipeline instead of buffering an unbounded amount of work.
+ * <p>
+ * When an issue fails, the issues not submitted yet are rejected, the queued issues are dropped
+ * and the failure of the first failed issue is rethrown by {@link #finish()}.
+ */
+public class MigrationPipeline implements AutoCloseable {
+
+    private static final IssueTask END = new IssueTask(-1, null);
+
+    private final List<Stage> stages;
+    private final JiraMetrics metrics;
+    private final ExecutorService workers;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final Map<Long, JSONObject> results = new ConcurrentSkipListMap<>();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final boolean keepResults;
+    private long submitted;
+
+    /**
+     * Constructs a pipeline of the given stages and starts their workers.
+     *
+     * @param stages  the stages every issue passes in order
+     * @param metrics the metrics the queue depths of the stages are reported to
+     */
+    public MigrationPipeline(List<Stage> stages, JiraMetrics metrics) {
+        this(stages, metrics, true);
+    }
+
+    /**
+     * Constructs a pipeline of the given stages and starts their workers.
+     *
+     * @param stages      the stages every issue passes in order
+     * @param metrics     the metrics the queue depths of the stages are reported to
+     * @param keepResults whether the results of the last stage are kept for {@link #finish()}; when they are
+     *                    reported by the stages themselves, dropping them keeps the memory used constant
+     */
+    public MigrationPipeline(List<Stage> stages, JiraMetrics metrics, boolean keepResults) {
+        this.stages = new ArrayList<>(stages);
+        this.metrics = metrics;
+        this.keepResults = keepResults;
+        int threads = stages.stream().mapToInt(stage -> stage.parallelism).sum();
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "jira-pipeline-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < this.stages.size(); i++) {
+            int stageIndex = i;
+            for (int worker = 0; worker < this.stages.get(i).parallelism; worker++) {
+                workers.execute(() -> work(stageIndex));
+            }
+        }
+    }
+
+    /**
+     * Submits an issue to the first stage, blocking while its queue is full.
+     *
+     * @param sourceIssue the issue to migrate
+     * @throws IOException        if an earlier issue failed with an I/O error or the thread was interrupted
+     * @throws URISyntaxException if an earlier issue failed with an incorrect URI
+     */
+    public void submit(JSONObject sourceIssue) throws IOException, URISyntaxException {
+        rethrow(failure.get());
+        put(0, new IssueTask(submitted++, sourceIssue));
+    }
+
+    /**
+     * Waits until all submitted issues passed the pipeline.
+     *
+     * @return a JSONArray of the migration results of the last stage in the order the issues were submitted,
+     * empty if the results are not kept
+     * @throws IOException        if an issue failed with an I/O error or the thread was interrupted
+     * @throws URISyntaxException if an issue failed with an incorrect URI
+     */
+    public JSONArray finish() throws IOException, URISyntaxException {
+        endStage(0);
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the migration pipeline");
+        }
+        rethrow(failure.get());
+        JSONArray migrated = new JSONArray();
+        results.values().forEach(migrated::put);
+        return migrated;
+    }
+
+    /**
+     * Gets the number of issues waiting in the queue of every stage.
+     *
+     * @return the queue depths by stage name, in stage order
+     */
+    public Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        stages.forEach(stage -> depths.put(stage.name, stage.queue.size()));
+        return depths;
+    }
+
+    @Override
+    public void close() {
+        workers.shutdownNow();
+    }
+
+    private void work(int stageIndex) {
+        Stage stage = stages.get(stageIndex);
+        try {
+            while (true) {
+                IssueTask task = stage.queue.take();
+                metrics.getQueue(stage.name).setDepth(stage.queue.size());
+                if (task == END) {
+                    if (stage.runningWorkers.decrementAndGet() == 0) {
+                        endStage(stageIndex + 1);
+                    }
+                    return;
+                }
+                if (failure.get() != null) {
+                    continue;
+                }
+                try {
+                    if (stage.task.process(task)) {
+                        put(stageIndex + 1, task);
+                    }
+                } catch (Throwable e) {
+                    // an Error must not end the worker either, or the stage would never be drained and finish() would hang
+                    failure.compareAndSet(null, e);
+                }
+            }
+        } catch (InterruptedException | InterruptedIOException e) {
+            failure.compareAndSet(null, new InterruptedIOException("Interrupted while migrating issues"));
+            Thread.currentThread().interrupt();
+            finished.countDown();
+        }
+    }
+
+    private void put(int stageIndex, IssueTask task) throws InterruptedIOException {
+        if (stageIndex == stages.size()) {
+            if (keepResults && task.newIssue != null && !task.newIssue.isEmpty()) {
+                results.put(task.sequence, task.newIssue);
+            }
+            return;
+        }
+        Stage stage = stages.get(stageIndex);
+        try {
+            stage.queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the " + stage.name + " stage");
+        }
+        metrics.getQueue(stage.name).setDepth(stage.queue.size());
+    }
+
+    private void endStage(int stageIndex) throws InterruptedIOException {
+        if (stageIndex == stages.size()) {
+            finished.countDown();
+            return;
+        }
+        for (int worker = 0; worker < stages.get(stageIndex).parallelism; worker++) {
+            put(stageIndex, END);
+        }
+    }
+
+    private static void rethrow(Throwable failure) throws IOException, URISyntaxException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+        if (failure instanceof URISyntaxException) {
+            throw (URISyntaxException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+        if (failure != null) {
+            throw new IOException(failure.getMessage(), failure);
+        }
+    }
+
+    /**
+     * Issue passing the pipeline, carrying the issue created from it between the stages.
+     */
+    public static class IssueTask {
+        private final long sequence;
+        private final JSONObject sourceIssue;
+        private volatile JSONObject newIssue;
+
+        private IssueTask(long sequence, JSONObject sourceIssue) {
+            this.sequence = sequence;
+            this.sourceIssue = sourceIssue;
+        }
+
+        /**
+         * Gets the position of the issue among the submitted issues.
+         *
+         * @return the sequence number, starting at 0
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        public JSONObject getSourceIssue() {
+            return sourceIssue;
+        }
+
+        public JSONObject getNewIssue() {
+            return newIssue;
+        }
+
+        public void setNewIssue(JSONObject newIssue) {
+            this.newIssue = newIssue;
+        }
+    }
+
+    /**
+     * Stage of the pipeline: a step of the migration run by a fixed number of workers fed by a bounded queue.
+     */
+    public static class Stage {
+        private final String name;
+        private final int parallelism;
+        private final BlockingQueue<IssueTask> queue;
+        private final StageTask task;
+        private final AtomicInteger runningWorkers;
+
+        /**
+         * Constructs a new stage.
+         *
+         * @param name          the name of the stage, e.g. {@code comments}
+         * @param parallelism   the number of issues processed by the stage at once
+         * @param queueCapacity the maximum number of issues waiting for the stage
+         * @param task          the step run for every issue
+         */
+        public Stage(String name, int parallelism, int queueCapacity, StageTask task) {
+            this.name = name;
+            this.parallelism = Math.max(1, parallelism);
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+            this.task = task;
+            this.runningWorkers = new AtomicInteger(this.parallelism);
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Step of the migration of a single issue run by a stage.
+     */
+    @FunctionalInterface
+    public interface StageTask {
+        /**
+         * Runs the step for an issue.
+         *
+         * @param task the issue passing the pipeline
+         * @return true to hand the issue to the next stage, false if the issue leaves the pipeline
+         * @throws IOException        if an I/O error occurs
+         * @throws URISyntaxException if the URI syntax is incorrect
+         */
+        boolean process(IssueTask task) throws IOException, URISyntaxException;
+    }
+
+}
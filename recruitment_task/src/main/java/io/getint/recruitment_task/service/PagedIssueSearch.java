@@ -0,0 +1,186 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.httpclient.JiraHttpClient;
+import io.getint.recruitment_task.util.Fields;
+import io.getint.recruitment_task.util.JiraApiRequestQueryUtil;
+import io.getint.recruitment_task.util.JiraResponseReader;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Walks all issues of a project page by page, so only a single page of issues is held in memory at once.
+ * <p>
+ * When prefetching is enabled, the next page is requested in the background as soon as the current one
+ * is handed out, so fetching overlaps with the migration of the current page.
+ */
+public class PagedIssueSearch implements AutoCloseable {
+
+    private final JiraHttpClient httpClient;
+    private final RetryPolicy retryPolicy;
+    private final String jql;
+    private final String projectKey;
+    private final String[] fields;
+    private final int pageSize;
+    private final ExecutorService prefetchExecutor;
+
+    private CompletableFuture<JSONObject> nextPage;
+
+    /**
+     * Constructs a new search over the issues of the given project, configured by the search settings.
+     *
+     * @param httpClient   the HTTP client to use
+     * @param retryPolicy  the retry policy of the page requests
+     * @param projectKey   the key of the searched project
+     * @param searchConfig the search settings
+     */
+    public PagedIssueSearch(JiraHttpClient httpClient, RetryPolicy retryPolicy, String projectKey, ConfigLoader.SearchConfig searchConfig) {
+        this(httpClient, retryPolicy, projectKey, searchConfig.getJql(), searchConfig);
+    }
+
+    /**
+     * Constructs a new search over the issues of the given project matching the given JQL filter.
+     *
+     * @param httpClient   the HTTP client to use
+     * @param retryPolicy  the retry policy of the page requests
+     * @param projectKey   the key of the searched project
+     * @param jql          the JQL filter, may contain the {@code {projectKey}} placeholder
+     * @param searchConfig the search settings
+     */
+    public PagedIssueSearch(JiraHttpClient httpClient, RetryPolicy retryPolicy, String projectKey, String jql, ConfigLoader.SearchConfig searchConfig) {
+        this(httpClient, retryPolicy, projectKey, jql, Collections.emptyList(), searchConfig);
+    }
+
+    /**
+     * Constructs a new search over the issues of the given project matching the given JQL filter,
+     * returning only the given fields of the issues.
+     *
+     * @param httpClient   the HTTP client to use
+     * @param retryPolicy  the retry policy of the page requests
+     * @param projectKey   the key of the searched project
+     * @param jql          the JQL filter, may contain the {@code {projectKey}} placeholder
+     * @param fields       the returned fields, or an empty collection for all fields
+     * @param searchConfig the search settings
+     */
+    public PagedIssueSearch(JiraHttpClient httpClient, RetryPolicy retryPolicy, String projectKey, String jql,
+                            Collection<String> fields, ConfigLoader.SearchConfig searchConfig) {
+        this.httpClient = httpClient;
+        this.retryPolicy = retryPolicy;
+        this.jql = jql;
+        this.projectKey = projectKey;
+        this.fields = fields.toArray(new String[0]);
+        this.pageSize = searchConfig.getPageSize();
+        this.prefetchExecutor = searchConfig.isPrefetch() ? Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jira-search-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+        this.nextPage = requestPage(null);
+    }
+
+    /**
+     * Checks whether the search may still return issues.
+     *
+     * @return false once the last page has been handed out
+     */
+    public boolean hasNextPage() {
+        return nextPage != null;
+    }
+
+    /**
+     * Returns the next page of issues and starts fetching the one after it.
+     *
+     * @return a JSONArray of issues, empty when there are no more issues
+     * @throws IOException        if an I/O error occurs
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    public JSONArray nextPage() throws IOException, URISyntaxException {
+        if (nextPage == null) {
+            return new JSONArray();
+        }
+        JSONObject page = awaitPage(nextPage);
+        JSONArray issues = page.getJSONArray(Fields.SearchResult.ISSUES);
+        nextPage = isLastPage(page, issues)
+                ? null
+                : requestPage(issues.getJSONObject(issues.length() - 1).getString(Fields.KEY));
+        return issues;
+    }
+
+    @Override
+    public void close() {
+        if (nextPage != null) {
+            nextPage.cancel(true);
+            nextPage = null;
+        }
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
+    }
+
+    private boolean isLastPage(JSONObject page, JSONArray issues) {
+        if (issues.isEmpty()) {
+            return true;
+        }
+        if (page.has(Fields.SearchResult.IS_LAST)) {
+            return page.getBoolean(Fields.SearchResult.IS_LAST);
+        }
+        return issues.length() >= page.optInt(Fields.SearchResult.TOTAL, 0);
+    }
+
+    private CompletableFuture<JSONObject> requestPage(String afterKey) {
+        CompletableFuture<JSONObject> page = new CompletableFuture<>();
+        Runnable fetch = () -> {
+            try {
+                page.complete(fetchPage(afterKey));
+            } catch (Exception e) {
+                page.completeExceptionally(e);
+            }
+        };
+        if (prefetchExecutor == null) {
+            fetch.run();
+        } else {
+            prefetchExecutor.execute(fetch);
+        }
+        return page;
+    }
+
+    private JSONObject fetchPage(String afterKey) throws IOException, URISyntaxException {
+        String pageJql = JiraApiRequestQueryUtil.searchIssuesPageJql(jql, projectKey, afterKey);
+        return retryPolicy.call(RetryPolicy.RequestType.SEARCH, true, attempt -> {
+            HttpGet request = new HttpGet(JiraApiRequestQueryUtil.searchIssuesQueryUri(pageJql, pageSize, fields));
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                return JiraResponseReader.readJson(response.getEntity(), JiraResponseReader.SKIPPED_ISSUE_PROPERTIES);
+            }
+        });
+    }
+
+    private JSONObject awaitPage(CompletableFuture<JSONObject> page) throws IOException, URISyntaxException {
+        try {
+            return page.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for search page", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof URISyntaxException) {
+                throw (URISyntaxException) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+}
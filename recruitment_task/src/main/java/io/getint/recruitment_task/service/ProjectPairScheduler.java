@@ -0,0 +1,280 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.exception.JiraApiException;
+import io.getint.recruitment_task.httpclient.JiraHttpClient;
+import io.getint.recruitment_task.metrics.JiraMetrics;
+import org.json.JSONArray;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Runs the migrations of many project pairs at once over one shared HTTP client,
+ * so all pairs use one connection pool and one rate budget.
+ * <p>
+ * Every pair sends its requests through its own lane of the shared request throttle, which grants requests
+ * to the lanes in weighted round-robin: a pair with many issues gets its weight's share of the rate budget
+ * while smaller pairs are running, and the whole budget once they are done.
+ * At most {@code concurrency} pairs run at once, the others wait in the configured order.
+ */
+public class ProjectPairScheduler {
+
+    private final Logger log = Logger.getLogger(ProjectPairScheduler.class.getName());
+
+    private final ConfigLoader.ProjectPairsConfig config;
+
+    private final JiraMetrics metrics = new JiraMetrics();
+
+    /**
+     * Constructs a new scheduler of the given project pairs.
+     *
+     * @param config the project pairs settings
+     */
+    public ProjectPairScheduler(ConfigLoader.ProjectPairsConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Gets the metrics of the requests and migrated issues of all pairs.
+     *
+     * @return the live metrics
+     */
+    public JiraMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Moves the issues of every configured project pair, as in {@link JiraApiService#moveIssuesToOtherProject}.
+     *
+     * @return the summaries of the pairs in the configured order, including the failed ones
+     * @throws JiraApiException if interrupted while waiting for the pairs or the shared client cannot be closed
+     */
+    public List<PairSummary> moveAll() throws JiraApiException {
+        return runAll(JiraApiService::moveIssuesToOtherProject);
+    }
+
+    /**
+     * Synchronises the issues of every configured project pair, as in {@link JiraApiService#syncIssuesToOtherProject}.
+     *
+     * @return the summaries of the pairs in the configured order, including the failed ones
+     * @throws JiraApiException if interrupted while waiting for the pairs or the shared client cannot be closed
+     */
+    public List<PairSummary> syncAll() throws JiraApiException {
+        return runAll(JiraApiService::syncIssuesToOtherProject);
+    }
+
+    /**
+     * Runs the given migration for every pair, logging the progress of the pairs periodically and their summary at the end.
+     * The failure of one pair does not stop the others. The shared client is closed only once no pair runs anymore.
+     *
+     * @param migration the migration of a single pair
+     * @return the summaries of the pairs in the configured order
+     * @throws JiraApiException if interrupted while waiting for the pairs or the shared client cannot be closed
+     */
+    private List<PairSummary> runAll(PairMigration migration) throws JiraApiException {
+        List<ConfigLoader.ProjectPairConfig> pairs = config.getPairs();
+        List<PairSummary> summaries = new ArrayList<>(pairs.size());
+        ExecutorService pairExecutor = Executors.newFixedThreadPool(Math.max(1, Math.min(config.getConcurrency(), pairs.size())),
+                daemonThreads("jira-project-pair-"));
+        ScheduledExecutorService progressLogger = Executors.newSingleThreadScheduledExecutor(daemonThreads("jira-project-pair-progress-"));
+        try (JiraHttpClient httpClient = new JiraHttpClient(metrics)) {
+            try {
+                List<Future<?>> futures = new ArrayList<>(pairs.size());
+                for (ConfigLoader.ProjectPairConfig pair : pairs) {
+                    PairSummary summary = new PairSummary(pair.getSource(), pair.getDestination(),
+                            httpClient.forLane(pair.getSource() + " -> " + pair.getDestination(), pair.getWeight()));
+                    summaries.add(summary);
+                    futures.add(pairExecutor.submit(() -> runPair(migration, summary)));
+                }
+                if (config.getProgressInterval() > 0) {
+                    progressLogger.scheduleWithFixedDelay(() -> logProgress(summaries),
+                            config.getProgressInterval(), config.getProgressInterval(), TimeUnit.MILLISECONDS);
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } finally {
+                progressLogger.shutdownNow();
+                pairExecutor.shutdownNow();
+                awaitTermination(pairExecutor);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JiraApiException("Interrupted while migrating project pairs", e);
+        } catch (Exception e) {
+            throw new JiraApiException(e.getMessage(), e);
+        }
+        logSummary(summaries);
+        return summaries;
+    }
+
+    private void runPair(PairMigration migration, PairSummary summary) {
+        summary.startNanos = System.nanoTime();
+        try {
+            JSONArray result = migration.migrate(new JiraApiService(summary.httpClient), summary.sourceProjectKey, summary.destinationProjectKey);
+            summary.issues = result.length();
+        } catch (JiraApiException e) {
+            fail(summary, e);
+        } catch (RuntimeException e) {
+            fail(summary, new JiraApiException(e.getMessage(), e));
+        } finally {
+            summary.endNanos = System.nanoTime();
+        }
+    }
+
+    private void fail(PairSummary summary, JiraApiException failure) {
+        summary.failure = failure;
+        log.warning(String.format("Project pair %S -> %S failed: %s", summary.sourceProjectKey, summary.destinationProjectKey, failure.getMessage()));
+    }
+
+    /**
+     * Waits for the interrupted pairs to stop, so none of them still sends requests once the shared client is closed.
+     * If the waiting thread is interrupted itself, the client is closed anyway and the interrupt is kept.
+     */
+    private void awaitTermination(ExecutorService pairExecutor) {
+        try {
+            while (!pairExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warning("Waiting for project pairs to stop before closing the shared HTTP client");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void logProgress(List<PairSummary> summaries) {
+        for (PairSummary summary : summaries) {
+            log.info(String.format("Project pair %S -> %S: %s, %S requests, %.1f requests/s",
+                    summary.sourceProjectKey, summary.destinationProjectKey, summary.getState(),
+                    summary.getRequests(), summary.getRequestsPerSecond()));
+        }
+    }
+
+    private void logSummary(List<PairSummary> summaries) {
+        StringBuilder table = new StringBuilder(String.format("%-25s %-8s %8s %9s %10s %10s%n",
+                "pair", "state", "issues", "requests", "seconds", "issues/s"));
+        for (PairSummary summary : summaries) {
+            table.append(String.format("%-25s %-8s %8d %9d %10.1f %10.2f%n",
+                    summary.sourceProjectKey + " -> " + summary.destinationProjectKey, summary.getState(),
+                    summary.getIssues(), summary.getRequests(), summary.getElapsedMillis() / 1000.0, summary.getIssuesPerSecond()));
+        }
+        log.info(String.format("### Project pairs finished ###%n%s", table));
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Migration of the issues of a single project pair.
+     */
+    @FunctionalInterface
+    private interface PairMigration {
+        JSONArray migrate(JiraApiService service, String sourceProjectKey, String destinationProjectKey) throws JiraApiException;
+    }
+
+    /**
+     * Progress and throughput of a single project pair.
+     */
+    public static class PairSummary {
+        private final String sourceProjectKey;
+        private final String destinationProjectKey;
+        private final JiraHttpClient httpClient;
+        private volatile long startNanos;
+        private volatile long endNanos;
+        private volatile int issues;
+        private volatile JiraApiException failure;
+
+        private PairSummary(String sourceProjectKey, String destinationProjectKey, JiraHttpClient httpClient) {
+            this.sourceProjectKey = sourceProjectKey;
+            this.destinationProjectKey = destinationProjectKey;
+            this.httpClient = httpClient;
+        }
+
+        public String getSourceProjectKey() {
+            return sourceProjectKey;
+        }
+
+        public String getDestinationProjectKey() {
+            return destinationProjectKey;
+        }
+
+        /**
+         * Gets the state of the pair.
+         *
+         * @return {@code waiting}, {@code running}, {@code done} or {@code failed}
+         */
+        public String getState() {
+            if (startNanos == 0) {
+                return "waiting";
+            }
+            if (endNanos == 0) {
+                return "running";
+            }
+            return failure == null ? "done" : "failed";
+        }
+
+        /**
+         * Gets the number of issues created or updated in the destination project, known once the pair is done.
+         *
+         * @return the number of issues
+         */
+        public int getIssues() {
+            return issues;
+        }
+
+        /**
+         * Gets the number of requests the pair has sent so far, retries included.
+         *
+         * @return the number of requests
+         */
+        public long getRequests() {
+            return httpClient.getLane().getGrantedRequests();
+        }
+
+        /**
+         * Gets the time the pair has been running for.
+         *
+         * @return the elapsed time in milliseconds, 0 if the pair has not started yet
+         */
+        public long getElapsedMillis() {
+            if (startNanos == 0) {
+                return 0;
+            }
+            return TimeUnit.NANOSECONDS.toMillis((endNanos != 0 ? endNanos : System.nanoTime()) - startNanos);
+        }
+
+        public double getIssuesPerSecond() {
+            long elapsedMillis = getElapsedMillis();
+            return elapsedMillis > 0 ? issues * 1000.0 / elapsedMillis : 0;
+        }
+
+        public double getRequestsPerSecond() {
+            long elapsedMillis = getElapsedMillis();
+            return elapsedMillis > 0 ? getRequests() * 1000.0 / elapsedMillis : 0;
+        }
+
+        /**
+         * Gets the failure of the pair.
+         *
+         * @return the exception the pair failed with, or null if it did not fail
+         */
+        public JiraApiException getFailure() {
+            return failure;
+        }
+    }
+
+}
@@ -0,0 +1,231 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.exception.JiraRateLimitException;
+import io.getint.recruitment_task.exception.JiraResponseException;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URISyntaxException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+import java.util.logging.Logger;
+
+/**
+ * Retries failed Jira API requests with exponential backoff and full jitter, configured per request type.
+ * <p>
+ * A failure is retried only when repeating the request is safe: failures to connect are always retried,
+ * because the request never reached the server, while timeouts, dropped connections and 5xx responses
+ * are retried only for idempotent requests. Rate limiting is handled by the request throttle and 4xx responses
+ * are never retried. All retries of a run share a budget, so a failing server is not flooded with retries.
+ */
+public class RetryPolicy {
+
+    private final Logger log = Logger.getLogger(RetryPolicy.class.getName());
+
+    private final ConfigLoader.RetryConfig config;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+
+    /**
+     * Types of requests with separate retry settings.
+     */
+    public enum RequestType {
+        SEARCH, CREATE, COMMENT, TRANSITION, UPDATE, DELETE, ATTACHMENT
+    }
+
+    public RetryPolicy(ConfigLoader.RetryConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * Calls the request, retrying it while the failure is retryable, attempts are left and the budget allows.
+     *
+     * @param type       the type of the request
+     * @param idempotent whether repeating a request which may have reached the server is safe
+     * @param call       the request, given the number of the attempt starting at 1
+     * @param <T>        the type of the result
+     * @return the result of the first successful attempt
+     * @throws IOException        if an I/O error occurs on the last attempt
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    public <T> T call(RequestType type, boolean idempotent, RetryableCall<T> call) throws IOException, URISyntaxException {
+        ConfigLoader.RetryPolicyConfig policy = getPolicy(type);
+        for (int attempt = 1; ; attempt++) {
+            requests.incrementAndGet();
+            try {
+                return call.call(attempt);
+            } catch (IOException e) {
+                if (!shouldRetry(type, policy, e, idempotent, attempt)) {
+                    throw e;
+                }
+                sleep(getBackoffMillis(policy, attempt));
+            }
+        }
+    }
+
+    /**
+     * Calls the asynchronous request, retrying it while the failure is retryable, attempts are left
+     * and the budget allows. The backoff is waited out without blocking any thread.
+     *
+     * @param type       the type of the request
+     * @param idempotent whether repeating a request which may have reached the server is safe
+     * @param call       the request, given the number of the attempt starting at 1
+     * @param <T>        the type of the result
+     * @return a CompletableFuture of the result of the first successful attempt
+     */
+    public <T> CompletableFuture<T> callAsync(RequestType type, boolean idempotent, IntFunction<CompletableFuture<T>> call) {
+        return callAsync(type, getPolicy(type), idempotent, call, 1);
+    }
+
+    public boolean isSourceLabelEnabled() {
+        return config.getSourceLabelPrefix() != null && !config.getSourceLabelPrefix().isEmpty();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+
+    private <T> CompletableFuture<T> callAsync(RequestType type, ConfigLoader.RetryPolicyConfig policy, boolean idempotent,
+                                               IntFunction<CompletableFuture<T>> call, int attempt) {
+        requests.incrementAndGet();
+        CompletableFuture<T> attemptResult;
+        try {
+            attemptResult = call.apply(attempt);
+        } catch (RuntimeException e) {
+            attemptResult = CompletableFuture.failedFuture(e);
+        }
+        return attemptResult.handle((result, failure) -> {
+            if (failure == null) {
+                return CompletableFuture.completedFuture(result);
+            }
+            if (!shouldRetry(type, policy, failure, idempotent, attempt)) {
+                return CompletableFuture.<T>failedFuture(failure);
+            }
+            return CompletableFuture.runAsync(() -> {
+            }, CompletableFuture.delayedExecutor(getBackoffMillis(policy, attempt), TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> callAsync(type, policy, idempotent, call, attempt + 1));
+        }).thenCompose(result -> result);
+    }
+
+    private boolean shouldRetry(RequestType type, ConfigLoader.RetryPolicyConfig policy, Throwable failure, boolean idempotent, int attempt) {
+        if (attempt >= policy.getMaxAttempts() || !isRetryable(failure, idempotent)) {
+            return false;
+        }
+        long allowedRetries = config.getMinRetries() + (long) (config.getBudgetRatio() * requests.get());
+        if (retries.incrementAndGet() > allowedRetries) {
+            retries.decrementAndGet();
+            log.warning(String.format("Retry budget exhausted, not retrying %S request: %s", type, failure.getMessage()));
+            return false;
+        }
+        log.info(String.format("Retrying %S request, attempt %S failed: %s", type, attempt, failure.getMessage()));
+        return true;
+    }
+
+    /**
+     * Checks whether repeating a failed request is safe and may succeed.
+     *
+     * @param failure    the failure of the request
+     * @param idempotent whether repeating a request which may have reached the server is safe
+     * @return true if the request should be retried
+     */
+    public static boolean isRetryable(Throwable failure, boolean idempotent) {
+        Throwable cause = unwrap(failure);
+        if (cause instanceof ConnectException || cause instanceof ConnectTimeoutException || cause instanceof ConnectionPoolTimeoutException) {
+            return true;
+        }
+        JiraResponseException responseException = getResponseException(cause);
+        if (responseException != null) {
+            return idempotent && !(responseException instanceof JiraRateLimitException) && responseException.getStatusCode() >= 500;
+        }
+        return idempotent && cause instanceof IOException && !(cause instanceof ClientProtocolException);
+    }
+
+    /**
+     * Gets the status code of a failed Jira response.
+     *
+     * @param failure the failure of the request
+     * @return the response status code, or -1 if the request failed without a response
+     */
+    public static int getStatusCode(Throwable failure) {
+        JiraResponseException responseException = getResponseException(unwrap(failure));
+        return responseException != null ? responseException.getStatusCode() : -1;
+    }
+
+    private static JiraResponseException getResponseException(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof JiraResponseException) {
+                return (JiraResponseException) cause;
+            }
+        }
+        return null;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private ConfigLoader.RetryPolicyConfig getPolicy(RequestType type) {
+        switch (type) {
+            case SEARCH:
+                return config.getSearch();
+            case CREATE:
+                return config.getCreate();
+            case COMMENT:
+                return config.getComment();
+            case TRANSITION:
+                return config.getTransition();
+            case UPDATE:
+                return config.getUpdate();
+            case ATTACHMENT:
+                return config.getAttachment();
+            default:
+                return config.getDelete();
+        }
+    }
+
+    private long getBackoffMillis(ConfigLoader.RetryPolicyConfig policy, int attempt) {
+        long ceiling = Math.min(policy.getMaxBackoff(), policy.getInitialBackoff() << Math.min(attempt - 1, 16));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to retry a request", e);
+        }
+    }
+
+    /**
+     * A request which may be retried.
+     *
+     * @param <T> the type of the result
+     */
+    @FunctionalInterface
+    public interface RetryableCall<T> {
+        /**
+         * Calls the request.
+         *
+         * @param attempt the number of the attempt, starting at 1
+         * @return the result of the request
+         * @throws IOException        if an I/O error occurs
+         * @throws URISyntaxException if the URI syntax is incorrect
+         */
+        T call(int attempt) throws IOException, URISyntaxException;
+    }
+
+}
@@ -0,0 +1,290 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.exception.JiraApiException;
+import io.getint.recruitment_task.httpclient.JiraHttpClient;
+import io.getint.recruitment_task.metrics.JiraMetrics;
+import org.json.JSONArray;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * Long-running synchronisation of two projects, running a sync cycle on the configured schedule.
+ * <p>
+ * The daemon keeps one HTTP client and one service between cycles, so the pooled connections stay warm and
+ * the field mapping and workflow transitions of the destination project are resolved only once. All cycles run on
+ * the single daemon thread, so they never overlap: a cycle requested while another one runs is run right after it,
+ * and the requests made meanwhile are coalesced into that one cycle. Issues requested by webhook events are
+ * synchronised on the same thread, in batches of all issues requested while the previous batch or cycle was running.
+ * <p>
+ * Before a cycle the configuration file is reloaded if it was modified. The reload happens on the daemon thread
+ * between cycles, so a cycle always runs with one configuration; the client and the service are then recreated
+ * with the new settings. On {@link #close()} the running cycle may finish before the client is closed.
+ */
+public class SyncDaemon implements AutoCloseable {
+
+    private final Logger log = Logger.getLogger(SyncDaemon.class.getName());
+
+    private final String sourceProjectKey;
+    private final String destinationProjectKey;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final JiraMetrics metrics = new JiraMetrics();
+    private final AtomicBoolean cycleRequested = new AtomicBoolean();
+    private final AtomicBoolean issuesRequested = new AtomicBoolean();
+    private final Set<String> requestedIssueIds = ConcurrentHashMap.newKeySet();
+    private final AtomicLong syncedRequestedIssues = new AtomicLong();
+    private final AtomicLong completedCycles = new AtomicLong();
+    private final AtomicLong failedCycles = new AtomicLong();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile boolean stopping;
+    private volatile long lastCycleMillis;
+    private JiraHttpClient httpClient;
+    private JiraApiService service;
+
+    /**
+     * Constructs a daemon synchronising the given projects, not started yet.
+     *
+     * @param sourceProjectKey      the key of the source project
+     * @param destinationProjectKey the key of the destination project
+     */
+    public SyncDaemon(String sourceProjectKey, String destinationProjectKey) {
+        this.sourceProjectKey = sourceProjectKey;
+        this.destinationProjectKey = destinationProjectKey;
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "jira-sync-daemon");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    /**
+     * Starts the daemon, running the first cycle at once.
+     */
+    public void start() {
+        log.info(String.format("### Sync daemon of projects %S to %S started ###", sourceProjectKey, destinationProjectKey));
+        scheduleNextCycle(0);
+    }
+
+    /**
+     * Requests a cycle outside of the schedule, e.g. when an issue changed. The cycle runs as soon as the running cycle,
+     * if any, is finished; requests made before it starts are coalesced into it.
+     */
+    public void requestCycle() {
+        if (stopping || !cycleRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(() -> {
+                if (cycleRequested.get()) {
+                    runCycle();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            cycleRequested.set(false);
+        }
+    }
+
+    /**
+     * Requests the synchronisation of the given source issues only, e.g. the issues named by webhook events.
+     * They are synchronised as soon as the running cycle or batch, if any, is finished, together with the issues
+     * requested meanwhile. Issues of a failed batch are left to the next scheduled cycle.
+     *
+     * @param sourceIssueIds the IDs of the source issues
+     */
+    public void requestIssues(Collection<String> sourceIssueIds) {
+        if (stopping || sourceIssueIds.isEmpty()) {
+            return;
+        }
+        requestedIssueIds.addAll(sourceIssueIds);
+        if (!issuesRequested.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            scheduler.execute(this::syncRequestedIssues);
+        } catch (RejectedExecutionException e) {
+            issuesRequested.set(false);
+        }
+    }
+
+    public JiraMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long getCompletedCycles() {
+        return completedCycles.get();
+    }
+
+    public long getFailedCycles() {
+        return failedCycles.get();
+    }
+
+    /**
+     * Gets the number of issues synchronised on request, outside of the scheduled cycles.
+     *
+     * @return the number of created or updated issues
+     */
+    public long getSyncedRequestedIssues() {
+        return syncedRequestedIssues.get();
+    }
+
+    /**
+     * Gets the duration of the last finished cycle.
+     *
+     * @return the duration in milliseconds, 0 if no cycle has finished yet
+     */
+    public long getLastCycleMillis() {
+        return lastCycleMillis;
+    }
+
+    /**
+     * Blocks until the daemon is closed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitTermination() throws InterruptedException {
+        terminated.await();
+    }
+
+    /**
+     * Stops the daemon: no further cycle is started, the running cycle may finish within the shutdown timeout
+     * before it is interrupted, and then the HTTP client is closed.
+     */
+    @Override
+    public void close() {
+        if (stopping) {
+            return;
+        }
+        stopping = true;
+        long shutdownTimeout = ConfigLoader.getJiraApiConfig().getDaemon().getShutdownTimeout();
+        scheduler.shutdown();
+        try {
+            if (!scheduler.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS)) {
+                log.warning(String.format("Sync cycle still running after %S ms, interrupting it", shutdownTimeout));
+                scheduler.shutdownNow();
+                scheduler.awaitTermination(shutdownTimeout, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            scheduler.shutdownNow();
+            Thread.currentThread().interrupt();
+        } finally {
+            closeClient();
+            terminated.countDown();
+            log.info(String.format("### Sync daemon of projects %S to %S stopped after %S cycles ###",
+                    sourceProjectKey, destinationProjectKey, completedCycles.get() + failedCycles.get()));
+        }
+    }
+
+    private void runScheduledCycle() {
+        runCycle();
+        scheduleNextCycle(ConfigLoader.getJiraApiConfig().getDaemon().getInterval());
+    }
+
+    private void scheduleNextCycle(long delayMillis) {
+        if (stopping) {
+            return;
+        }
+        try {
+            scheduler.schedule(this::runScheduledCycle, Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            log.fine("Sync daemon stopped, next cycle not scheduled");
+        }
+    }
+
+    /**
+     * Runs a single sync cycle on the daemon thread. A failed cycle is logged and the schedule goes on.
+     */
+    private void runCycle() {
+        cycleRequested.set(false);
+        if (stopping) {
+            return;
+        }
+        reloadConfigIfChanged();
+        long start = System.nanoTime();
+        try {
+            JSONArray result = getService().syncIssuesToOtherProject(sourceProjectKey, destinationProjectKey);
+            completedCycles.incrementAndGet();
+            lastCycleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info(String.format("Sync cycle of projects %S to %S finished in %S ms, %S issues synced",
+                    sourceProjectKey, destinationProjectKey, lastCycleMillis, result.length()));
+        } catch (JiraApiException | RuntimeException e) {
+            failedCycles.incrementAndGet();
+            lastCycleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.warning(String.format("Sync cycle of projects %S to %S failed: %s", sourceProjectKey, destinationProjectKey, e.getMessage()));
+        }
+    }
+
+    /**
+     * Synchronises the requested issues on the daemon thread, taking all issues requested so far.
+     */
+    private void syncRequestedIssues() {
+        issuesRequested.set(false);
+        Set<String> sourceIssueIds = new TreeSet<>();
+        for (Iterator<String> requested = requestedIssueIds.iterator(); requested.hasNext(); ) {
+            sourceIssueIds.add(requested.next());
+            requested.remove();
+        }
+        if (stopping || sourceIssueIds.isEmpty()) {
+            return;
+        }
+        reloadConfigIfChanged();
+        try {
+            JSONArray result = getService().syncIssuesToOtherProject(sourceProjectKey, destinationProjectKey, sourceIssueIds);
+            syncedRequestedIssues.addAndGet(result.length());
+        } catch (JiraApiException | RuntimeException e) {
+            log.warning(String.format("Sync of requested issues %S failed, left to the next cycle: %s", sourceIssueIds, e.getMessage()));
+        }
+    }
+
+    /**
+     * Reloads the configuration file if it was modified, recreating the client and the service with the new settings.
+     * A file which cannot be parsed or misses a required field is reported and the previous configuration is kept.
+     */
+    private void reloadConfigIfChanged() {
+        if (!ConfigLoader.getJiraApiConfig().getDaemon().isReloadConfig()) {
+            return;
+        }
+        try {
+            if (ConfigLoader.reloadJiraApiConfigIfChanged()) {
+                log.info("Configuration reloaded, reconnecting with the new settings");
+                closeClient();
+            }
+        } catch (YAMLException e) {
+            log.warning(String.format("Configuration not reloaded, keeping the previous one: %s", e.getMessage()));
+        }
+    }
+
+    private JiraApiService getService() {
+        if (service == null) {
+            httpClient = new JiraHttpClient(metrics);
+            service = new JiraApiService(httpClient);
+        }
+        return service;
+    }
+
+    private void closeClient() {
+        if (httpClient == null) {
+            return;
+        }
+        try {
+            httpClient.close();
+        } catch (Exception e) {
+            log.warning(String.format("HTTP client not closed: %s", e.getMessage()));
+        }
+        httpClient = null;
+        service = null;
+    }
+
+}
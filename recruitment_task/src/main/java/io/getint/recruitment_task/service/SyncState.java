@@ -0,0 +1,299 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.util.Fields;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent state of the incremental synchronisation between two projects: the watermark of the last
+ * completed cycle and the mapping of every synchronised source issue to its destination issue,
+ * together with what was already copied to it (field fingerprints, status, comments and attachments).
+ * <p>
+ * The state is saved as a JSON snapshot and a log next to it. Every save appends to the log only the issues
+ * changed since the previous save, as a single JSON line, so saving after every page costs as much as the page.
+ * Once the log outgrows the snapshot, both are compacted into a new snapshot, replacing the previous file atomically.
+ * A line torn by a cycle interrupted while saving is skipped on load, leaving the last saved state intact.
+ */
+public class SyncState {
+
+    private static final String WATERMARK = "watermark";
+    private static final String ISSUES = "issues";
+    private static final String FIELDS = "fields";
+    private static final String STATUS = "status";
+    private static final String COMMENTS = "comments";
+    private static final String ATTACHMENTS = "attachments";
+
+    private static final long MIN_COMPACTED_LOG_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final Path logPath;
+    private final Map<String, SyncedIssue> issues = new ConcurrentHashMap<>();
+    private final Set<String> changedIssues = ConcurrentHashMap.newKeySet();
+    private volatile Instant watermark;
+    private volatile boolean watermarkChanged;
+    private long snapshotSize;
+    private long logSize;
+
+    private SyncState(Path path) {
+        this.path = path.toAbsolutePath();
+        this.logPath = this.path.resolveSibling(this.path.getFileName() + ".log");
+    }
+
+    /**
+     * Loads the synchronisation state of two projects as configured.
+     *
+     * @param config                the synchronisation settings
+     * @param sourceProjectKey      the key of the source project
+     * @param destinationProjectKey the key of the destination project
+     * @return the loaded state, empty if it was never saved
+     * @throws IOException if the state file cannot be read
+     */
+    public static SyncState load(ConfigLoader.SyncConfig config, String sourceProjectKey, String destinationProjectKey) throws IOException {
+        String path = config.getStatePath()
+                .replace("{sourceProjectKey}", sourceProjectKey)
+                .replace("{destinationProjectKey}", destinationProjectKey);
+        return load(Paths.get(path));
+    }
+
+    /**
+     * Loads the synchronisation state from the given file.
+     *
+     * @param path the state file
+     * @return the loaded state, empty if the file does not exist
+     * @throws IOException if the state file cannot be read
+     */
+    public static SyncState load(Path path) throws IOException {
+        SyncState state = new SyncState(path);
+        if (Files.exists(state.path)) {
+            byte[] snapshot = Files.readAllBytes(state.path);
+            state.snapshotSize = snapshot.length;
+            state.apply(new JSONObject(new String(snapshot, StandardCharsets.UTF_8)));
+        }
+        if (Files.exists(state.logPath)) {
+            state.logSize = Files.size(state.logPath);
+            String[] changes = new String(Files.readAllBytes(state.logPath), StandardCharsets.UTF_8).split("\n");
+            for (String change : changes) {
+                try {
+                    state.apply(new JSONObject(change));
+                } catch (JSONException e) {
+                    // the last line was torn by an interrupted save, further changes must not be appended to it
+                    state.compact();
+                    break;
+                }
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Gets the start of the last completed synchronisation cycle.
+     *
+     * @return the watermark, or null if no cycle was completed yet
+     */
+    public Instant getWatermark() {
+        return watermark;
+    }
+
+    public void setWatermark(Instant watermark) {
+        this.watermark = watermark;
+        this.watermarkChanged = true;
+    }
+
+    /**
+     * Gets the destination issue synchronised with a source issue.
+     *
+     * @param sourceIssueId the ID of the source issue
+     * @return the synchronised issue, or null if the source issue was not synchronised yet
+     */
+    public SyncedIssue getIssue(String sourceIssueId) {
+        return issues.get(sourceIssueId);
+    }
+
+    /**
+     * Maps a source issue to the issue created from it in the destination project.
+     *
+     * @param sourceIssueId the ID of the source issue
+     * @param newIssue      the destination issue
+     * @return the synchronised issue, with nothing copied to it yet
+     */
+    public SyncedIssue putIssue(String sourceIssueId, JSONObject newIssue) {
+        SyncedIssue issue = new SyncedIssue(this, sourceIssueId, new JSONObject()
+                .put(Fields.Issue.ID, newIssue.getString(Fields.Issue.ID))
+                .put(Fields.KEY, newIssue.getString(Fields.KEY)));
+        issues.put(sourceIssueId, issue);
+        changedIssues.add(sourceIssueId);
+        return issue;
+    }
+
+    /**
+     * Saves the changes made since the previous save, appending them to the log,
+     * and compacts the log into the snapshot once it outgrows it.
+     *
+     * @throws IOException if the state files cannot be written
+     */
+    public synchronized void save() throws IOException {
+        if (changedIssues.isEmpty() && !watermarkChanged) {
+            return;
+        }
+        JSONObject savedIssues = new JSONObject();
+        for (String sourceIssueId : changedIssues) {
+            changedIssues.remove(sourceIssueId);
+            savedIssues.put(sourceIssueId, toJson(issues.get(sourceIssueId)));
+        }
+        watermarkChanged = false;
+        byte[] change = (toJson(savedIssues).toString() + "\n").getBytes(StandardCharsets.UTF_8);
+        Files.createDirectories(path.getParent());
+        Files.write(logPath, change, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        logSize += change.length;
+        if (logSize > Math.max(snapshotSize, MIN_COMPACTED_LOG_SIZE)) {
+            compact();
+        }
+    }
+
+    /**
+     * Writes the whole state as a new snapshot, atomically replacing the previous one, and drops the log.
+     * A log left behind by an interruption right after the snapshot is replaced only repeats changes the snapshot has.
+     *
+     * @throws IOException if the state files cannot be written
+     */
+    public synchronized void compact() throws IOException {
+        JSONObject savedIssues = new JSONObject();
+        issues.forEach((sourceIssueId, issue) -> savedIssues.put(sourceIssueId, toJson(issue)));
+        byte[] snapshot = toJson(savedIssues).toString().getBytes(StandardCharsets.UTF_8);
+        changedIssues.clear();
+        watermarkChanged = false;
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.createDirectories(path.getParent());
+        Files.write(temporary, snapshot);
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(logPath);
+        snapshotSize = snapshot.length;
+        logSize = 0;
+    }
+
+    private JSONObject toJson(JSONObject savedIssues) {
+        return new JSONObject()
+                .putOpt(WATERMARK, watermark != null ? watermark.toString() : null)
+                .put(ISSUES, savedIssues);
+    }
+
+    private static JSONObject toJson(SyncedIssue issue) {
+        return new JSONObject()
+                .put(Fields.Issue.ID, issue.getIssue().getString(Fields.Issue.ID))
+                .put(Fields.KEY, issue.getIssue().getString(Fields.KEY))
+                .put(FIELDS, new JSONObject(issue.fieldFingerprints))
+                .putOpt(STATUS, issue.status)
+                .put(COMMENTS, new JSONArray(issue.comments))
+                .put(ATTACHMENTS, new JSONArray(issue.attachments));
+    }
+
+    /**
+     * Applies a saved snapshot or change, which holds the whole state of every issue it lists.
+     */
+    private void apply(JSONObject saved) {
+        if (saved.has(WATERMARK)) {
+            watermark = Instant.parse(saved.getString(WATERMARK));
+        }
+        JSONObject savedIssues = saved.optJSONObject(ISSUES);
+        for (String sourceIssueId : savedIssues != null ? savedIssues.keySet() : Set.<String>of()) {
+            JSONObject savedIssue = savedIssues.getJSONObject(sourceIssueId);
+            SyncedIssue issue = new SyncedIssue(this, sourceIssueId, new JSONObject()
+                    .put(Fields.Issue.ID, savedIssue.getString(Fields.Issue.ID))
+                    .put(Fields.KEY, savedIssue.getString(Fields.KEY)));
+            JSONObject fields = savedIssue.optJSONObject(FIELDS);
+            for (String field : fields != null ? fields.keySet() : Set.<String>of()) {
+                issue.fieldFingerprints.put(field, fields.getString(field));
+            }
+            issue.status = savedIssue.optString(STATUS, null);
+            JSONArray comments = savedIssue.optJSONArray(COMMENTS);
+            for (int i = 0; comments != null && i < comments.length(); i++) {
+                issue.comments.add(comments.getString(i));
+            }
+            JSONArray attachments = savedIssue.optJSONArray(ATTACHMENTS);
+            for (int i = 0; attachments != null && i < attachments.length(); i++) {
+                issue.attachments.add(attachments.getString(i));
+            }
+            issues.put(sourceIssueId, issue);
+        }
+    }
+
+    /**
+     * Destination issue synchronised with a source issue. Every issue is synchronised by a single worker at a time.
+     */
+    public static class SyncedIssue {
+        private final SyncState state;
+        private final String sourceIssueId;
+        private final JSONObject issue;
+        private final Map<String, String> fieldFingerprints = new ConcurrentHashMap<>();
+        private final Set<String> comments = ConcurrentHashMap.newKeySet();
+        private final Set<String> attachments = ConcurrentHashMap.newKeySet();
+        private volatile String status;
+
+        private SyncedIssue(SyncState state, String sourceIssueId, JSONObject issue) {
+            this.state = state;
+            this.sourceIssueId = sourceIssueId;
+            this.issue = issue;
+        }
+
+        /**
+         * Gets the destination issue.
+         *
+         * @return the ID and key of the destination issue
+         */
+        public JSONObject getIssue() {
+            return issue;
+        }
+
+        public String getFieldFingerprint(String field) {
+            return fieldFingerprints.get(field);
+        }
+
+        public void setFieldFingerprint(String field, String fingerprint) {
+            fieldFingerprints.put(field, fingerprint);
+            state.changedIssues.add(sourceIssueId);
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+            state.changedIssues.add(sourceIssueId);
+        }
+
+        public boolean isCommentSynced(String sourceCommentId) {
+            return comments.contains(sourceCommentId);
+        }
+
+        public void addSyncedComment(String sourceCommentId) {
+            comments.add(sourceCommentId);
+            state.changedIssues.add(sourceIssueId);
+        }
+
+        public boolean isAttachmentSynced(String sourceAttachmentId) {
+            return attachments.contains(sourceAttachmentId);
+        }
+
+        public void addSyncedAttachment(String sourceAttachmentId) {
+            attachments.add(sourceAttachmentId);
+            state.changedIssues.add(sourceIssueId);
+        }
+    }
+
+}
@@ -0,0 +1,284 @@
+package io.getint.recruitment_task.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.util.Fields;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * Embedded HTTP listener of Jira issue and comment webhook events, so changed issues are synchronised
+ * within seconds instead of waiting for the next polling cycle.
+ * <p>
+ * An event is accepted only when it concerns an issue of the source project. Events redelivered by Jira with an
+ * already seen {@code X-Atlassian-Webhook-Identifier} are dropped. The IDs of the issues of all events received
+ * within the coalesce window after the first one are handed to the sink once, as a single batch, so a burst of
+ * edits of one issue is synchronised once. Events are acknowledged as soon as they are recorded; the issues of
+ * a lost event are still synchronised by the next polling cycle.
+ */
+public class WebhookListener implements AutoCloseable {
+
+    static final String IDENTIFIER_HEADER = "X-Atlassian-Webhook-Identifier";
+    static final String SIGNATURE_HEADER = "X-Hub-Signature";
+    private static final String SIGNATURE_PREFIX = "sha256=";
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final Pattern ISSUE_ID = Pattern.compile("\\d+");
+    private static final Set<String> SYNCED_EVENTS = Set.of(Fields.Webhook.ISSUE_CREATED, Fields.Webhook.ISSUE_UPDATED,
+            Fields.Webhook.COMMENT_CREATED, Fields.Webhook.COMMENT_UPDATED);
+
+    private final Logger log = Logger.getLogger(WebhookListener.class.getName());
+
+    private final ConfigLoader.WebhookConfig config;
+    private final String sourceProjectKey;
+    private final Consumer<Set<String>> issueSink;
+    private final ScheduledThreadPoolExecutor flusher;
+    private final Map<String, Boolean> seenDeliveries;
+    private final AtomicLong receivedEvents = new AtomicLong();
+    private final AtomicLong duplicateEvents = new AtomicLong();
+    private final AtomicLong ignoredEvents = new AtomicLong();
+    private final AtomicLong dispatchedBatches = new AtomicLong();
+    private Set<String> pendingIssueIds = new TreeSet<>();
+    private HttpServer server;
+
+    /**
+     * Constructs a listener of the events of the given project, not started yet.
+     *
+     * @param config           the webhook settings
+     * @param sourceProjectKey the key of the project whose events are accepted
+     * @param issueSink        receives the IDs of the changed source issues, one batch per coalesce window
+     */
+    public WebhookListener(ConfigLoader.WebhookConfig config, String sourceProjectKey, Consumer<Set<String>> issueSink) {
+        this.config = config;
+        this.sourceProjectKey = sourceProjectKey;
+        this.issueSink = issueSink;
+        this.flusher = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "jira-webhook-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int deduplicationCapacity = Math.max(1, config.getDeduplicationCapacity());
+        this.seenDeliveries = Collections.synchronizedMap(new LinkedHashMap<String, Boolean>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > deduplicationCapacity;
+            }
+        });
+    }
+
+    /**
+     * Starts listening on the configured port and path.
+     *
+     * @throws IOException if the port cannot be bound
+     */
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(config.getPort()), 0);
+        server.createContext(config.getPath(), this::handle);
+        server.start();
+        log.info(String.format("### Webhook listener of project %S started on port %S at %S ###",
+                sourceProjectKey, getPort(), config.getPath()));
+    }
+
+    /**
+     * Gets the port the listener is bound to, useful when the configured port is 0.
+     *
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getReceivedEvents() {
+        return receivedEvents.get();
+    }
+
+    public long getDuplicateEvents() {
+        return duplicateEvents.get();
+    }
+
+    public long getIgnoredEvents() {
+        return ignoredEvents.get();
+    }
+
+    public long getDispatchedBatches() {
+        return dispatchedBatches.get();
+    }
+
+    /**
+     * Stops listening and hands the pending issues to the sink without waiting for the coalesce window.
+     */
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        flusher.shutdownNow();
+        flush();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().add("Allow", "POST");
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                exchange.sendResponseHeaders(413, -1);
+                return;
+            }
+            if (!isSignatureValid(exchange.getRequestHeaders().getFirst(SIGNATURE_HEADER), body)) {
+                log.warning("Webhook event rejected: invalid signature");
+                exchange.sendResponseHeaders(401, -1);
+                return;
+            }
+            JSONObject event;
+            try {
+                event = new JSONObject(new String(body, StandardCharsets.UTF_8));
+            } catch (JSONException e) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(accept(exchange.getRequestHeaders().getFirst(IDENTIFIER_HEADER), event) ? 202 : 200, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Records the issue of an event for the next batch.
+     *
+     * @return true if the event was accepted, false if it was a duplicate or is not synchronised
+     */
+    private boolean accept(String deliveryId, JSONObject event) {
+        receivedEvents.incrementAndGet();
+        if (deliveryId != null && seenDeliveries.put(deliveryId, Boolean.TRUE) != null) {
+            duplicateEvents.incrementAndGet();
+            return false;
+        }
+        String issueId = getSourceIssueId(event);
+        if (issueId == null) {
+            ignoredEvents.incrementAndGet();
+            return false;
+        }
+        boolean firstPending;
+        synchronized (this) {
+            firstPending = pendingIssueIds.isEmpty();
+            pendingIssueIds.add(issueId);
+        }
+        if (firstPending && !flusher.isShutdown()) {
+            flusher.schedule(this::flush, Math.max(0, config.getCoalesceWindow()), TimeUnit.MILLISECONDS);
+        }
+        return true;
+    }
+
+    /**
+     * Gets the ID of the issue of a synchronised event of the source project.
+     *
+     * @return the numeric ID of the issue, which is searched by JQL, null if the event is not synchronised
+     */
+    private String getSourceIssueId(JSONObject event) {
+        JSONObject issue = event.optJSONObject(Fields.Webhook.ISSUE);
+        if (!SYNCED_EVENTS.contains(event.optString(Fields.Webhook.EVENT)) || issue == null || !issue.has(Fields.Issue.ID)) {
+            return null;
+        }
+        JSONObject project = issue.optJSONObject(Fields.Issue.FIELDS) != null
+                ? issue.getJSONObject(Fields.Issue.FIELDS).optJSONObject(Fields.PROJECT) : null;
+        boolean sourceProject = project != null
+                ? sourceProjectKey.equals(project.optString(Fields.KEY))
+                : issue.optString(Fields.KEY).startsWith(sourceProjectKey + "-");
+        String issueId = issue.get(Fields.Issue.ID).toString();
+        return sourceProject && ISSUE_ID.matcher(issueId).matches() ? issueId : null;
+    }
+
+    private void flush() {
+        Set<String> batch;
+        synchronized (this) {
+            if (pendingIssueIds.isEmpty()) {
+                return;
+            }
+            batch = pendingIssueIds;
+            pendingIssueIds = new TreeSet<>();
+        }
+        dispatchedBatches.incrementAndGet();
+        log.info(String.format("Webhook events of %S issues of project %S dispatched", batch.size(), sourceProjectKey));
+        try {
+            issueSink.accept(batch);
+        } catch (RuntimeException e) {
+            log.warning(String.format("Webhook issues %S not dispatched: %s", batch, e.getMessage()));
+        }
+    }
+
+    /**
+     * Reads the request body up to the configured limit.
+     *
+     * @return the body, null if it exceeds the limit
+     */
+    private byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int read; (read = in.read(buffer)) != -1; ) {
+            if (body.size() + read > config.getMaxBodySize()) {
+                return null;
+            }
+            body.write(buffer, 0, read);
+        }
+        return body.toByteArray();
+    }
+
+    private boolean isSignatureValid(String signature, byte[] body) {
+        String secret = config.getSecret();
+        if (secret == null || secret.isEmpty()) {
+            return true;
+        }
+        if (signature == null || !signature.startsWith(SIGNATURE_PREFIX)) {
+            return false;
+        }
+        return MessageDigest.isEqual(sign(secret, body).getBytes(StandardCharsets.US_ASCII),
+                signature.substring(SIGNATURE_PREFIX.length()).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Signs a request body the way Jira signs webhook events with a secret.
+     *
+     * @param secret the shared secret
+     * @param body   the request body
+     * @return the hex encoded HMAC-SHA256 of the body
+     */
+    static String sign(String secret, byte[] body) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : mac.doFinal(body)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " not available", e);
+        }
+    }
+
+}
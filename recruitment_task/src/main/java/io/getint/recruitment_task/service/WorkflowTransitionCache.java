@@ -0,0 +1,150 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.model.Transition;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of the workflow transition graphs of the destination project, keyed by project and issue type.
+ * <p>
+ * Jira only lists the transitions available from the current status of an issue, so the graph is learnt
+ * one status at a time: the transitions of a status are fetched once, by the first issue passing through it,
+ * and reused by all following issues. The path to a target status is planned as the shortest path over
+ * the statuses learnt so far, heading for the nearest status not learnt yet while the target is not reachable.
+ */
+public class WorkflowTransitionCache {
+
+    /**
+     * The maximum number of transitions applied to reach a status, guarding against workflows learnt inconsistently.
+     */
+    public static final int MAX_PATH_LENGTH = 20;
+
+    private final Map<String, Workflow> workflows = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the status of issues of the given type just after they are created.
+     *
+     * @param projectKey the key of the project
+     * @param issueType  the name of the issue type
+     * @return the initial status, or null if it is not known yet
+     */
+    public String getInitialStatus(String projectKey, String issueType) {
+        return getWorkflow(projectKey, issueType).initialStatus;
+    }
+
+    /**
+     * Records the status of issues of the given type just after they are created, as seen on the first created issue.
+     *
+     * @param projectKey the key of the project
+     * @param issueType  the name of the issue type
+     * @param status     the name of the initial status
+     */
+    public void putInitialStatus(String projectKey, String issueType, String status) {
+        getWorkflow(projectKey, issueType).initialStatus = status;
+    }
+
+    /**
+     * Checks whether the transitions available from the given status are known.
+     *
+     * @param projectKey the key of the project
+     * @param issueType  the name of the issue type
+     * @param status     the name of the status
+     * @return true if the transitions of the status were learnt
+     */
+    public boolean isKnown(String projectKey, String issueType, String status) {
+        return getWorkflow(projectKey, issueType).transitions.containsKey(status);
+    }
+
+    /**
+     * Learns the transitions available from the given status.
+     *
+     * @param projectKey  the key of the project
+     * @param issueType   the name of the issue type
+     * @param status      the name of the status
+     * @param transitions the transitions available from the status
+     */
+    public void putTransitions(String projectKey, String issueType, String status, List<Transition> transitions) {
+        getWorkflow(projectKey, issueType).transitions.put(status, Collections.unmodifiableList(new ArrayList<>(transitions)));
+    }
+
+    /**
+     * Forgets the transitions of the given status, after one of them was rejected for an issue.
+     *
+     * @param projectKey the key of the project
+     * @param issueType  the name of the issue type
+     * @param status     the name of the status
+     */
+    public void evict(String projectKey, String issueType, String status) {
+        getWorkflow(projectKey, issueType).transitions.remove(status);
+    }
+
+    /**
+     * Plans the next transition on the shortest path from the current status to the target status.
+     * While the target is not reachable over the learnt statuses, the next transition heads for the nearest
+     * status whose transitions are not learnt yet.
+     *
+     * @param projectKey    the key of the project
+     * @param issueType     the name of the issue type
+     * @param currentStatus the name of the current status, which must be learnt
+     * @param targetStatus  the name of the target status
+     * @return the next transition to apply, or null if the target status cannot be reached
+     */
+    public Transition nextTransition(String projectKey, String issueType, String currentStatus, String targetStatus) {
+        Map<String, List<Transition>> transitions = getWorkflow(projectKey, issueType).transitions;
+        Map<String, Transition> firstTransitions = new HashMap<>();
+        Deque<String> queue = new ArrayDeque<>();
+        queue.add(currentStatus);
+        firstTransitions.put(currentStatus, null);
+        String nearestUnknown = null;
+        while (!queue.isEmpty()) {
+            String status = queue.poll();
+            List<Transition> available = transitions.get(status);
+            if (available == null) {
+                if (nearestUnknown == null) {
+                    nearestUnknown = status;
+                }
+                continue;
+            }
+            for (Transition transition : available) {
+                String to = getTargetStatus(transition);
+                if (firstTransitions.containsKey(to)) {
+                    continue;
+                }
+                Transition first = status.equals(currentStatus) ? transition : firstTransitions.get(status);
+                if (to.equals(targetStatus)) {
+                    return first;
+                }
+                firstTransitions.put(to, first);
+                queue.add(to);
+            }
+        }
+        return nearestUnknown != null ? firstTransitions.get(nearestUnknown) : null;
+    }
+
+    /**
+     * Gets the status an issue is in after the transition.
+     *
+     * @param transition the transition
+     * @return the name of the target status
+     */
+    public static String getTargetStatus(Transition transition) {
+        return transition.getTo().getName();
+    }
+
+    private Workflow getWorkflow(String projectKey, String issueType) {
+        return workflows.computeIfAbsent(projectKey + "/" + issueType, key -> new Workflow());
+    }
+
+    private static class Workflow {
+        private final Map<String, List<Transition>> transitions = new ConcurrentHashMap<>();
+        private volatile String initialStatus;
+    }
+
+}
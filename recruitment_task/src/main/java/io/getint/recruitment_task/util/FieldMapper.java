@@ -0,0 +1,263 @@
+package io.getint.recruitment_task.util;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.exception.FieldMappingException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+/**
+ * Field mapping of a destination project, compiled from the configured mapping rules and the create metadata
+ * of the project.
+ * <p>
+ * Issue type names, field IDs and allowed values are resolved to destination IDs once, when the mapper is compiled,
+ * so building the fields of an issue is pure in-memory work. A rule which cannot be resolved fails the compilation,
+ * before anything is written to the destination project.
+ */
+public class FieldMapper {
+
+    private static final Logger log = Logger.getLogger(FieldMapper.class.getName());
+
+    private final String projectKey;
+    private final List<String> sourceFields;
+    private final Map<String, String> issueTypeNames;
+    private final Map<String, CompiledIssueType> issueTypes;
+
+    private FieldMapper(String projectKey, List<String> sourceFields, Map<String, String> issueTypeNames, Map<String, CompiledIssueType> issueTypes) {
+        this.projectKey = projectKey;
+        this.sourceFields = sourceFields;
+        this.issueTypeNames = issueTypeNames;
+        this.issueTypes = issueTypes;
+    }
+
+    /**
+     * Compiles the field mapping of a destination project.
+     *
+     * @param projectKey          the key of the destination project
+     * @param config              the field mapping settings
+     * @param issueTypes          the issue types of the destination project, as returned by the create metadata
+     * @param fieldsByIssueTypeId the fields of every issue type, as returned by the create metadata
+     * @return the compiled field mapper
+     * @throws FieldMappingException if an issue type or a field rule cannot be resolved in the destination project
+     */
+    public static FieldMapper compile(String projectKey, ConfigLoader.FieldMappingConfig config, JSONArray issueTypes,
+                                      Map<String, JSONArray> fieldsByIssueTypeId) {
+        Map<String, CompiledIssueType> compiledIssueTypes = new HashMap<>();
+        Set<ConfigLoader.FieldRule> resolvedRules = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < issueTypes.length(); i++) {
+            JSONObject issueType = issueTypes.getJSONObject(i);
+            String issueTypeId = issueType.getString(Fields.Issue.ID);
+            Map<String, JSONObject> fields = new HashMap<>();
+            JSONArray issueTypeFields = fieldsByIssueTypeId.getOrDefault(issueTypeId, new JSONArray());
+            for (int j = 0; j < issueTypeFields.length(); j++) {
+                JSONObject field = issueTypeFields.getJSONObject(j);
+                fields.put(field.getString(Fields.CreateMeta.FIELD_ID), field);
+            }
+
+            List<FieldTransformer> transformers = new ArrayList<>();
+            for (ConfigLoader.FieldRule rule : config.getFields()) {
+                JSONObject field = fields.get(rule.getDestination());
+                if (field != null) {
+                    transformers.add(compileRule(projectKey, rule, field));
+                    resolvedRules.add(rule);
+                }
+            }
+            compiledIssueTypes.put(issueType.getString(Fields.Issue.NAME),
+                    new CompiledIssueType(issueTypeId, Collections.unmodifiableList(transformers)));
+        }
+
+        for (Map.Entry<String, String> issueTypeName : config.getIssueTypes().entrySet()) {
+            if (!compiledIssueTypes.containsKey(issueTypeName.getValue())) {
+                throw new FieldMappingException(String.format("Issue type %s mapped from %s does not exist in project %s",
+                        issueTypeName.getValue(), issueTypeName.getKey(), projectKey));
+            }
+        }
+        for (ConfigLoader.FieldRule rule : config.getFields()) {
+            if (!resolvedRules.contains(rule)) {
+                throw new FieldMappingException(String.format("Field %s mapped from %s cannot be set in any issue type of project %s",
+                        rule.getDestination(), rule.getSource(), projectKey));
+            }
+        }
+        List<String> sourceFields = new ArrayList<>();
+        for (ConfigLoader.FieldRule rule : config.getFields()) {
+            if (!sourceFields.contains(rule.getSource())) {
+                sourceFields.add(rule.getSource());
+            }
+        }
+        return new FieldMapper(projectKey, Collections.unmodifiableList(sourceFields), new HashMap<>(config.getIssueTypes()), compiledIssueTypes);
+    }
+
+    public String getProjectKey() {
+        return projectKey;
+    }
+
+    /**
+     * Gets the fields of the source issues read by the mapping.
+     *
+     * @return the IDs of the source fields
+     */
+    public List<String> getSourceFields() {
+        return sourceFields;
+    }
+
+    /**
+     * Checks that the issue type of every source issue exists in the destination project,
+     * so a page of issues is rejected before any of them is written to the destination project.
+     *
+     * @param sourceIssues the source issues, with their {@code issuetype} field
+     * @throws FieldMappingException if the issue type of any source issue does not exist in the destination project
+     */
+    public void validateIssueTypes(JSONArray sourceIssues) {
+        Map<String, String> missingIssueTypes = new LinkedHashMap<>();
+        for (int i = 0; i < sourceIssues.length(); i++) {
+            JSONObject sourceIssue = sourceIssues.getJSONObject(i);
+            String name = getIssueTypeName(sourceIssue);
+            if (!issueTypes.containsKey(name)) {
+                missingIssueTypes.putIfAbsent(name, sourceIssue.optString(Fields.KEY));
+            }
+        }
+        if (!missingIssueTypes.isEmpty()) {
+            throw new FieldMappingException(String.format("Issue types %s of issues %s do not exist in project %s",
+                    missingIssueTypes.keySet(), missingIssueTypes.values(), projectKey));
+        }
+    }
+
+    /**
+     * Maps the fields of a source issue to the fields of its destination issue.
+     *
+     * @param sourceIssue the source issue
+     * @return the mapped fields, without the project and the issue type
+     * @throws FieldMappingException if the issue type of the source issue does not exist in the destination project
+     */
+    public JSONObject mapFields(JSONObject sourceIssue) {
+        return mapFields(sourceIssue, getIssueType(sourceIssue));
+    }
+
+    /**
+     * Maps a source issue to the fields creating its destination issue.
+     *
+     * @param sourceIssue the source issue
+     * @return the mapped fields, including the project and the issue type
+     * @throws FieldMappingException if the issue type of the source issue does not exist in the destination project
+     */
+    public JSONObject mapIssueFields(JSONObject sourceIssue) {
+        CompiledIssueType issueType = getIssueType(sourceIssue);
+        return mapFields(sourceIssue, issueType)
+                .put(Fields.PROJECT, new JSONObject().put(Fields.KEY, projectKey))
+                .put(Fields.Issue.ISSUE_TYPE, new JSONObject().put(Fields.Issue.ID, issueType.id));
+    }
+
+    private JSONObject mapFields(JSONObject sourceIssue, CompiledIssueType issueType) {
+        JSONObject sourceFields = sourceIssue.getJSONObject(Fields.Issue.FIELDS);
+        JSONObject fields = new JSONObject();
+        for (FieldTransformer transformer : issueType.transformers) {
+            Object value = transformer.mapper.apply(sourceFields.opt(transformer.source));
+            if (value != null) {
+                fields.put(transformer.destination, value);
+            }
+        }
+        return fields;
+    }
+
+    private CompiledIssueType getIssueType(JSONObject sourceIssue) {
+        String name = getIssueTypeName(sourceIssue);
+        CompiledIssueType issueType = issueTypes.get(name);
+        if (issueType == null) {
+            throw new FieldMappingException(String.format("Issue type %s of issue %s does not exist in project %s",
+                    name, sourceIssue.optString(Fields.KEY), projectKey));
+        }
+        return issueType;
+    }
+
+    private String getIssueTypeName(JSONObject sourceIssue) {
+        String sourceName = sourceIssue.getJSONObject(Fields.Issue.FIELDS)
+                .getJSONObject(Fields.Issue.ISSUE_TYPE).getString(Fields.Issue.NAME);
+        return issueTypeNames.getOrDefault(sourceName, sourceName);
+    }
+
+    private static FieldTransformer compileRule(String projectKey, ConfigLoader.FieldRule rule, JSONObject field) {
+        JSONArray allowedValues = field.optJSONArray(Fields.CreateMeta.ALLOWED_VALUES);
+        if (allowedValues == null) {
+            if (!rule.getValues().isEmpty()) {
+                throw new FieldMappingException(String.format("Values %s mapped from %s cannot be translated, field %s of project %s has no allowed values",
+                        rule.getValues().values(), rule.getSource(), rule.getDestination(), projectKey));
+            }
+            return new FieldTransformer(rule.getSource(), rule.getDestination(), value -> value != null ? value : JSONObject.NULL);
+        }
+
+        Map<String, String> allowedValueIds = new HashMap<>();
+        for (int i = 0; i < allowedValues.length(); i++) {
+            JSONObject allowedValue = allowedValues.getJSONObject(i);
+            allowedValueIds.put(getValueName(allowedValue), allowedValue.getString(Fields.Issue.ID));
+        }
+        for (Map.Entry<String, String> value : rule.getValues().entrySet()) {
+            if (!allowedValueIds.containsKey(value.getValue())) {
+                throw new FieldMappingException(String.format("Value %s mapped from %s is not allowed for field %s of project %s",
+                        value.getValue(), value.getKey(), rule.getDestination(), projectKey));
+            }
+        }
+
+        Map<String, String> translations = new HashMap<>(rule.getValues());
+        Function<Object, Object> valueMapper = value -> {
+            String name = value instanceof JSONObject ? getValueName((JSONObject) value) : String.valueOf(value);
+            String id = allowedValueIds.get(translations.getOrDefault(name, name));
+            if (id == null) {
+                log.warning(String.format("Value %S is not allowed for field %S, skipping it", name, rule.getDestination()));
+                return null;
+            }
+            return new JSONObject().put(Fields.Issue.ID, id);
+        };
+        JSONObject schema = field.optJSONObject(Fields.CreateMeta.SCHEMA);
+        if (schema != null && Fields.CreateMeta.ARRAY.equals(schema.optString(Fields.CreateMeta.TYPE))) {
+            return new FieldTransformer(rule.getSource(), rule.getDestination(), value -> {
+                JSONArray mapped = new JSONArray();
+                for (Object element : value instanceof JSONArray ? (JSONArray) value : new JSONArray()) {
+                    Object mappedElement = valueMapper.apply(element);
+                    if (mappedElement != null) {
+                        mapped.put(mappedElement);
+                    }
+                }
+                return mapped;
+            });
+        }
+        return new FieldTransformer(rule.getSource(), rule.getDestination(),
+                value -> value == null || JSONObject.NULL.equals(value) ? JSONObject.NULL : valueMapper.apply(value));
+    }
+
+    private static String getValueName(JSONObject value) {
+        return value.has(Fields.Issue.NAME) ? value.getString(Fields.Issue.NAME) : value.optString(Fields.CreateMeta.VALUE);
+    }
+
+    private static class CompiledIssueType {
+        private final String id;
+        private final List<FieldTransformer> transformers;
+
+        private CompiledIssueType(String id, List<FieldTransformer> transformers) {
+            this.id = id;
+            this.transformers = transformers;
+        }
+    }
+
+    private static class FieldTransformer {
+        private final String source;
+        private final String destination;
+        private final Function<Object, Object> mapper;
+
+        private FieldTransformer(String source, String destination, Function<Object, Object> mapper) {
+            this.source = source;
+            this.destination = destination;
+            this.mapper = mapper;
+        }
+    }
+
+}
@@ -13,6 +13,8 @@ public class Fields {
 
     public static class SearchResult {
         public static final String ISSUES = "issues";
+        public static final String TOTAL = "total";
+        public static final String IS_LAST = "isLast";
         public static final String COMMENTS = "comments";
         public static final String TRANSITIONS = "transitions";
     }
@@ -26,6 +28,27 @@ public class Fields {
         public static final String NAME = "name";
         public static final String ISSUE_TYPE = "issuetype";
         public static final String STATUS = "status";
+        public static final String LABELS = "labels";
+        public static final String COMMENT = "comment";
+        public static final String ATTACHMENT = "attachment";
+        public static final String SELF = "self";
+    }
+
+    public static class Webhook {
+        public static final String EVENT = "webhookEvent";
+        public static final String ISSUE = "issue";
+        public static final String ISSUE_CREATED = "jira:issue_created";
+        public static final String ISSUE_UPDATED = "jira:issue_updated";
+        public static final String COMMENT_CREATED = "comment_created";
+        public static final String COMMENT_UPDATED = "comment_updated";
+    }
+
+    public static class Attachment {
+        public static final String ID = "id";
+        public static final String FILENAME = "filename";
+        public static final String SIZE = "size";
+        public static final String MIME_TYPE = "mimeType";
+        public static final String CONTENT = "content";
     }
 
     public static class Comment {
@@ -33,6 +56,8 @@ public class Fields {
         public static final String BODY = "body";
         public static final String AUTHOR = "author";
         public static final String CREATED = "created";
+        public static final String ACCOUNT_ID = "accountId";
+        public static final String NAME = "name";
     }
 
     public static class Transition {
@@ -42,10 +67,33 @@ public class Fields {
         public static final String TO = "to";
     }
 
+    public static class Bulk {
+        public static final String ISSUE_UPDATES = "issueUpdates";
+        public static final String ERRORS = "errors";
+        public static final String FAILED_ELEMENT_NUMBER = "failedElementNumber";
+        public static final String ELEMENT_ERRORS = "elementErrors";
+    }
+
+    public static class CreateMeta {
+        public static final String ISSUE_TYPES = "issueTypes";
+        public static final String FIELDS = "fields";
+        public static final String VALUES = "values";
+        public static final String FIELD_ID = "fieldId";
+        public static final String SCHEMA = "schema";
+        public static final String TYPE = "type";
+        public static final String ARRAY = "array";
+        public static final String ALLOWED_VALUES = "allowedValues";
+        public static final String VALUE = "value";
+    }
+
     public static class IssueType {
         public static final String ID = "id";
         public static final String NAME = "name";
         public static final String DESCRIPTION = "description";
     }
 
+    public static class User {
+        public static final String TIME_ZONE = "timeZone";
+    }
+
 }
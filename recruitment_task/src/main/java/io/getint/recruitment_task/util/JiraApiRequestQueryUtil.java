@@ -1,18 +1,30 @@
 package io.getint.recruitment_task.util;
 
 import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.model.Comment;
 import org.apache.http.client.utils.URIBuilder;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Utility class for constructing Jira API request URIs and payloads.
  */
 public class JiraApiRequestQueryUtil {
 
+    private static final DateTimeFormatter JQL_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+
     private JiraApiRequestQueryUtil() {
     }
 
@@ -30,79 +42,252 @@ public class JiraApiRequestQueryUtil {
         return uriBuilder;
     }
 
-    public static URI fetchFiveIssuesByProjectKeyQueryUri(String projectKey) throws URISyntaxException {
+    /**
+     * Appends segments to the base API path of the builder. The base path is split into its own segments,
+     * so its slashes are not encoded as part of a single segment.
+     *
+     * @param uriBuilder the builder with the base API path
+     * @param segments   the segments to append
+     * @return the path segments of the API resource
+     */
+    private static List<String> apiPathSegments(URIBuilder uriBuilder, String... segments) {
+        List<String> pathSegments = new ArrayList<>(uriBuilder.getPathSegments());
+        pathSegments.removeIf(String::isEmpty);
+        pathSegments.addAll(Arrays.asList(segments));
+        return pathSegments;
+    }
+
+    public static URI searchIssuesQueryUri(String jql, int maxResults) throws URISyntaxException {
+        URIBuilder uriBuilder = getDefaultUriBuilder();
+        uriBuilder.setPathSegments(apiPathSegments(uriBuilder, "search"));
+        uriBuilder.addParameter("jql", jql);
+        uriBuilder.addParameter("startAt", "0");
+        uriBuilder.addParameter("maxResults", String.valueOf(maxResults));
+        return uriBuilder.build();
+    }
+
+    public static URI searchIssuesQueryUri(String jql, int maxResults, String... fields) throws URISyntaxException {
+        URIBuilder uriBuilder = new URIBuilder(searchIssuesQueryUri(jql, maxResults));
+        if (fields.length > 0) {
+            uriBuilder.addParameter("fields", String.join(",", fields));
+        }
+        return uriBuilder.build();
+    }
+
+    /**
+     * Builds the JQL finding issues already created from the given source issues by their source labels.
+     *
+     * @param projectKey   the key of the destination project
+     * @param sourceLabels the source labels of the searched issues
+     * @return the JQL query
+     */
+    public static String findIssuesBySourceLabelsJql(String projectKey, Collection<String> sourceLabels) {
+        return String.format("project = \"%s\" AND labels in (%s)", projectKey, sourceLabels.stream()
+                .map(label -> "\"" + label + "\"")
+                .collect(Collectors.joining(",")));
+    }
+
+    /**
+     * Gets the label marking an issue created from the given source issue.
+     *
+     * @param sourceIssueId the ID of the source issue
+     * @return the source label, or null if source labels are disabled
+     */
+    public static String getSourceLabel(String sourceIssueId) {
+        String prefix = ConfigLoader.getJiraApiConfig().getRetry().getSourceLabelPrefix();
+        return prefix == null || prefix.isEmpty() ? null : prefix + sourceIssueId;
+    }
+
+    /**
+     * Builds the JQL of a single search page. Pages are walked by issue key rather than by {@code startAt} offset,
+     * so issues deleted from the source project while the search is running do not shift the following pages.
+     *
+     * @param jql        the configured JQL filter, may contain the {@code {projectKey}} placeholder
+     * @param projectKey the key of the searched project
+     * @param afterKey   the key of the last issue of the previous page, or null for the first page
+     * @return the JQL query of the page
+     */
+    public static String searchIssuesPageJql(String jql, String projectKey, String afterKey) {
+        StringBuilder pageJql = new StringBuilder("(").append(jql.replace("{projectKey}", projectKey)).append(")");
+        if (afterKey != null) {
+            pageJql.append(" AND key > \"").append(afterKey).append("\"");
+        }
+        return pageJql.append(" ORDER BY key ASC").toString();
+    }
+
+    /**
+     * Restricts the configured JQL filter to the issues updated since the given instant.
+     *
+     * @param jql          the configured JQL filter, may contain the {@code {projectKey}} placeholder
+     * @param updatedSince the instant since which issues were updated, or null for all issues
+     * @param timeZone     the time zone in which Jira interprets JQL dates
+     * @return the restricted JQL filter
+     */
+    public static String updatedSinceJql(String jql, Instant updatedSince, ZoneId timeZone) {
+        if (updatedSince == null) {
+            return jql;
+        }
+        return String.format("(%s) AND updated >= \"%s\"", jql, JQL_DATE_FORMAT.format(updatedSince.atZone(timeZone)));
+    }
+
+    /**
+     * Restricts the configured JQL filter to the issues with the given IDs.
+     *
+     * @param jql      the configured JQL filter, may contain the {@code {projectKey}} placeholder
+     * @param issueIds the IDs of the issues
+     * @return the restricted JQL filter
+     */
+    public static String issuesByIdJql(String jql, Collection<String> issueIds) {
+        return String.format("(%s) AND id in (%s)", jql, String.join(",", issueIds));
+    }
+
+    public static URI fetchMyselfQueryUri() throws URISyntaxException {
         URIBuilder uriBuilder = getDefaultUriBuilder();
-        uriBuilder.setPathSegments(uriBuilder.getPath(), "search");
-        uriBuilder.addParameter("jql", "project=" + projectKey);
-        uriBuilder.addParameter("maxResults", "5");
+        uriBuilder.setPathSegments(apiPathSegments(uriBuilder, "myself"));
         return uriBuilder.build();
     }
 
     public static URI fetchTransitionsByIssueIdQueryUri(String issueId) throws URISyntaxException {
         URIBuilder uriBuilder = getDefaultUriBuilder();
-        uriBuilder.setPathSegments(uriBuilder.getPath(), "issue", issueId, "transitions");
+        uriBuilder.setPathSegments(apiPathSegments(uriBuilder, "issue", issueId, "transitions"));
         return uriBuilder.build();
     }
 
+    public static URI fetchIssueByIdQueryUri(String issueId, String... fields) throws URISyntaxException {
+        return new URIBuilder(issueByIdUri(issueId))
+                .addParameter("fields", String.join(",", fields))
+                .build();
+    }
+
     public static URI fetchIssueTypesByProjectKeyQueryUri(String projectKey) throws URISyntaxException {
         URIBuilder uriBuilder = getDefaultUriBuilder();
-        uriBuilder.setPathSegments(uriBuilder.getPath(), "issue", "createmeta", projectKey, "issuetypes");
+        uriBuilder.setPathSegments(apiPathSegments(uriBuilder, "issue", "createmeta", projectKey, "issuetypes"));
+        return uriBuilder.build();
+    }
+
+    public static URI fetchFieldsByIssueTypeQueryUri(String projectKey, String issueTypeId) throws URISyntaxException {
+        URIBuilder uriBuilder = getDefaultUriBuilder();
+        uriBuilder.setPathSegments(apiPathSegments(uriBuilder, "issue", "createmeta", projectKey, "issuetypes", issueTypeId));
         return uriBuilder.build();
     }
 
+    /**
+     * Adds the paging parameters to a query of a paged list.
+     *
+     * @param uri        the query URI
+     * @param startAt    the index of the first returned element
+     * @param maxResults the maximum number of returned elements
+     * @return the query URI of the page
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    public static URI pagedQueryUri(URI uri, int startAt, int maxResults) throws URISyntaxException {
+        return new URIBuilder(uri)
+                .setParameter("startAt", String.valueOf(startAt))
+                .setParameter("maxResults", String.valueOf(maxResults))
+                .build();
+    }
+
     public static URI fetchCommentsByIssueIdQueryUri(String issueId) throws URISyntaxException {
         URIBuilder uriBuilder = getDefaultUriBuilder();
-        uriBuilder.setPathSegments(uriBuilder.getPath(), "issue", issueId, "comment");
+        uriBuilder.setPathSegments(apiPathSegments(uriBuilder, "issue", issueId, "comment"));
         return uriBuilder.build();
     }
 
+    /**
+     * Builds the query of a page of the comments of an issue, ordered by their creation date.
+     *
+     * @param issueId    the ID of the issue
+     * @param startAt    the index of the first returned comment
+     * @param maxResults the maximum number of returned comments
+     * @return the query URI of the page
+     * @throws URISyntaxException if the URI syntax is incorrect
+     */
+    public static URI fetchCommentsByIssueIdQueryUri(String issueId, int startAt, int maxResults) throws URISyntaxException {
+        return new URIBuilder(pagedQueryUri(fetchCommentsByIssueIdQueryUri(issueId), startAt, maxResults))
+                .setParameter("orderBy", Fields.Comment.CREATED)
+                .build();
+    }
+
     public static URI createCommentByIssueIdUri(String issueId) throws URISyntaxException {
         return fetchCommentsByIssueIdQueryUri(issueId);
     }
 
+    public static URI addAttachmentsByIssueIdUri(String issueId) throws URISyntaxException {
+        URIBuilder uriBuilder = getDefaultUriBuilder();
+        uriBuilder.setPathSegments(apiPathSegments(uriBuilder, "issue", issueId, "attachments"));
+        return uriBuilder.build();
+    }
+
     public static URI transferStatusByIssueIdUri(String issueId) throws URISyntaxException {
         return fetchTransitionsByIssueIdQueryUri(issueId);
     }
 
     public static URI createIssueUri() throws URISyntaxException {
         URIBuilder uriBuilder = getDefaultUriBuilder();
-        uriBuilder.setPathSegments(uriBuilder.getPath(), "issue");
+        uriBuilder.setPathSegments(apiPathSegments(uriBuilder, "issue"));
+        return uriBuilder.build();
+    }
+
+    public static URI createIssuesInBulkUri() throws URISyntaxException {
+        URIBuilder uriBuilder = getDefaultUriBuilder();
+        uriBuilder.setPathSegments(apiPathSegments(uriBuilder, "issue", "bulk"));
         return uriBuilder.build();
     }
 
     public static URI createIssueTypeUri() throws URISyntaxException {
         URIBuilder uriBuilder = getDefaultUriBuilder();
-        uriBuilder.setPathSegments(uriBuilder.getPath(), "issuetype");
+        uriBuilder.setPathSegments(apiPathSegments(uriBuilder, "issuetype"));
         return uriBuilder.build();
     }
 
     public static URI deleteIssueByIdUri(String issueId) throws URISyntaxException {
+        return issueByIdUri(issueId);
+    }
+
+    public static URI updateIssueByIdUri(String issueId) throws URISyntaxException {
+        return issueByIdUri(issueId);
+    }
+
+    private static URI issueByIdUri(String issueId) throws URISyntaxException {
         URIBuilder uriBuilder = getDefaultUriBuilder();
-        uriBuilder.setPathSegments(uriBuilder.getPath(), "issue", issueId);
+        uriBuilder.setPathSegments(apiPathSegments(uriBuilder, "issue", issueId));
         return uriBuilder.build();
     }
 
-    public static JSONObject createIssuePayload(JSONObject sourceIssue, String projectKey) {
-        String summary = sourceIssue.getJSONObject(Fields.Issue.FIELDS).getString(Fields.Issue.SUMMARY);
-        String description = sourceIssue.getJSONObject(Fields.Issue.FIELDS).getString(Fields.Issue.DESCRIPTION);
-        String priority = sourceIssue.getJSONObject(Fields.Issue.FIELDS).getJSONObject(Fields.Issue.PRIORITY).getString(Fields.Issue.NAME);
-        String issueTypeName = sourceIssue.getJSONObject(Fields.Issue.FIELDS).getJSONObject(Fields.Issue.ISSUE_TYPE).getString(Fields.IssueType.NAME);
+    /**
+     * Builds the payload creating the destination issue of a source issue.
+     *
+     * @param sourceIssue the source issue
+     * @param fieldMapper the field mapping resolved for the destination project
+     * @return the issue payload
+     */
+    public static JSONObject createIssuePayload(JSONObject sourceIssue, FieldMapper fieldMapper) {
+        JSONObject fields = fieldMapper.mapIssueFields(sourceIssue);
+        String sourceLabel = getSourceLabel(sourceIssue.getString(Fields.Issue.ID));
+        if (sourceLabel != null) {
+            JSONArray labels = fields.optJSONArray(Fields.Issue.LABELS);
+            fields.put(Fields.Issue.LABELS, (labels != null ? labels : new JSONArray()).put(sourceLabel));
+        }
+        return new JSONObject().put(Fields.Issue.FIELDS, fields);
+    }
 
-        return new JSONObject()
-                .put(Fields.Issue.FIELDS, new JSONObject()
-                        .put(Fields.PROJECT, new JSONObject().put(Fields.KEY, projectKey))
-                        .put(Fields.Issue.SUMMARY, summary)
-                        .put(Fields.Issue.DESCRIPTION, description)
-                        .put(Fields.Issue.PRIORITY, new JSONObject().put(Fields.Issue.NAME, priority))
-                        .put(Fields.Issue.ISSUE_TYPE, new JSONObject().put(Fields.IssueType.NAME, issueTypeName)));
+    public static JSONObject updateIssuePayload(JSONObject changedFields) {
+        return new JSONObject().put(Fields.Issue.FIELDS, changedFields);
+    }
+
+    public static JSONObject createIssuesInBulkPayload(List<JSONObject> issuePayloads) {
+        return new JSONObject().put(Fields.Bulk.ISSUE_UPDATES, new JSONArray(issuePayloads));
     }
 
-    public static JSONObject createCommentPayload(JSONObject sourceComment) {
-        String body = sourceComment.getString(Fields.Comment.BODY);
-        JSONObject author = sourceComment.getJSONObject(Fields.Comment.AUTHOR);
+    public static JSONObject createCommentPayload(Comment sourceComment) {
+        JSONObject author = new JSONObject();
+        if (sourceComment.getAuthor() != null) {
+            author.putOpt(Fields.Comment.ACCOUNT_ID, sourceComment.getAuthor().getAccountId())
+                    .putOpt(Fields.Comment.NAME, sourceComment.getAuthor().getName());
+        }
 
         return new JSONObject()
-                .put(Fields.Comment.BODY, body)
+                .put(Fields.Comment.BODY, sourceComment.getBody())
                 .put(Fields.Comment.AUTHOR, author);
     }
 
@@ -1,14 +1,24 @@
 package io.getint.recruitment_task.util;
 
+import io.getint.recruitment_task.model.Comment;
+import io.getint.recruitment_task.model.User;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class JiraDataUtils {
 
@@ -18,21 +28,164 @@ public class JiraDataUtils {
     }
 
     /**
-     * Sorts a list of Jira comments by their creation date.
+     * Sorts a list of Jira comments by their creation date. Every creation date is parsed once,
+     * and comments which are already in order, as returned by the server, are not sorted again.
      *
-     * @param comments the JSONArray of comments to be sorted
-     * @return a sorted list of comments as JSONObjects, or an empty list if the input is null
+     * @param comments the comments to be sorted
+     * @return a sorted list of comments, or an empty list if the input is null
      */
-    public static List<JSONObject> getSortedCommentsByCreated(JSONArray comments) {
+    public static List<Comment> getSortedCommentsByCreated(List<Comment> comments) {
         if (comments == null) {
             return Collections.emptyList();
         }
-        List<JSONObject> commentList = new ArrayList<>();
-        for (int i = 0; i < comments.length(); i++) {
-            commentList.add(comments.getJSONObject(i));
+        Instant[] created = new Instant[comments.size()];
+        boolean sorted = true;
+        for (int i = 0; i < created.length; i++) {
+            created[i] = ZonedDateTime.parse(comments.get(i).getCreated(), DATE_FORMAT).toInstant();
+            sorted &= i == 0 || !created[i].isBefore(created[i - 1]);
+        }
+        if (sorted) {
+            return new ArrayList<>(comments);
+        }
+        List<Integer> order = new ArrayList<>(created.length);
+        for (int i = 0; i < created.length; i++) {
+            order.add(i);
+        }
+        order.sort(Comparator.comparing(i -> created[i]));
+        List<Comment> commentList = new ArrayList<>(created.length);
+        for (int i : order) {
+            commentList.add(comments.get(i));
         }
-        commentList.sort(Comparator.comparing(c -> ZonedDateTime.parse(c.getString(Fields.Comment.CREATED), DATE_FORMAT)));
         return commentList;
     }
 
+    /**
+     * Gets the comments embedded in an issue returned by a search requesting the comment field.
+     *
+     * @param issue the issue
+     * @return a list of the embedded comments, or null if the comment field was not returned
+     * or the embedded comments were truncated
+     */
+    public static List<Comment> getEmbeddedComments(JSONObject issue) {
+        JSONObject commentField = issue.getJSONObject(Fields.Issue.FIELDS).optJSONObject(Fields.Issue.COMMENT);
+        JSONArray comments = commentField != null ? commentField.optJSONArray(Fields.SearchResult.COMMENTS) : null;
+        if (comments == null || commentField.optInt(Fields.SearchResult.TOTAL, 0) > comments.length()) {
+            return null;
+        }
+        List<Comment> embeddedComments = new ArrayList<>(comments.length());
+        for (int i = 0; i < comments.length(); i++) {
+            JSONObject comment = comments.getJSONObject(i);
+            Comment embeddedComment = new Comment();
+            embeddedComment.setId(comment.getString(Fields.Comment.ID));
+            embeddedComment.setBody(comment.optString(Fields.Comment.BODY));
+            embeddedComment.setCreated(comment.getString(Fields.Comment.CREATED));
+            JSONObject author = comment.optJSONObject(Fields.Comment.AUTHOR);
+            if (author != null) {
+                User embeddedAuthor = new User();
+                embeddedAuthor.setAccountId(author.optString(Fields.Comment.ACCOUNT_ID, null));
+                embeddedAuthor.setName(author.optString(Fields.Comment.NAME, null));
+                embeddedComment.setAuthor(embeddedAuthor);
+            }
+            embeddedComments.add(embeddedComment);
+        }
+        return embeddedComments;
+    }
+
+    /**
+     * Aligns the result of a bulk issue creation with the submitted issues. The created issues are returned
+     * by the server in submission order, skipping the elements reported in the errors by their element number.
+     *
+     * @param bulkCreateResult the response of the bulk create request
+     * @param submittedCount   the number of submitted issues
+     * @return a JSONArray with the created issue for every submitted element, or an empty JSONObject if it failed
+     */
+    public static JSONArray alignBulkCreateResult(JSONObject bulkCreateResult, int submittedCount) {
+        JSONArray createdIssues = bulkCreateResult.optJSONArray(Fields.SearchResult.ISSUES);
+        JSONArray errors = bulkCreateResult.optJSONArray(Fields.Bulk.ERRORS);
+        Set<Integer> failedElements = new HashSet<>();
+        for (int i = 0; errors != null && i < errors.length(); i++) {
+            failedElements.add(errors.getJSONObject(i).getInt(Fields.Bulk.FAILED_ELEMENT_NUMBER));
+        }
+        JSONArray aligned = new JSONArray();
+        int created = 0;
+        for (int i = 0; i < submittedCount; i++) {
+            boolean succeeded = !failedElements.contains(i) && createdIssues != null && created < createdIssues.length();
+            aligned.put(succeeded ? createdIssues.getJSONObject(created++) : new JSONObject());
+        }
+        return aligned;
+    }
+
+    /**
+     * Gets the error reported for a single element of a bulk issue creation.
+     *
+     * @param bulkCreateResult the response of the bulk create request
+     * @param elementNumber    the index of the submitted element
+     * @return the element errors as a JSONObject, or an empty JSONObject if none was reported
+     */
+    public static JSONObject getBulkCreateError(JSONObject bulkCreateResult, int elementNumber) {
+        JSONArray errors = bulkCreateResult.optJSONArray(Fields.Bulk.ERRORS);
+        for (int i = 0; errors != null && i < errors.length(); i++) {
+            JSONObject error = errors.getJSONObject(i);
+            if (error.getInt(Fields.Bulk.FAILED_ELEMENT_NUMBER) == elementNumber) {
+                return error.optJSONObject(Fields.Bulk.ELEMENT_ERRORS, new JSONObject());
+            }
+        }
+        return new JSONObject();
+    }
+
+    /**
+     * Maps the found issues to the source issues they were created from, using their source labels.
+     *
+     * @param issues                the found issues, with their labels field
+     * @param sourceIssueIdsByLabel the source issue IDs by source label
+     * @return a Map of the found issues (ID, key and self link) by source issue ID
+     */
+    public static Map<String, JSONObject> getIssuesBySourceLabel(JSONArray issues, Map<String, String> sourceIssueIdsByLabel) {
+        Map<String, JSONObject> issuesBySourceId = new HashMap<>();
+        for (int i = 0; i < issues.length(); i++) {
+            JSONObject issue = issues.getJSONObject(i);
+            JSONArray labels = issue.getJSONObject(Fields.Issue.FIELDS).optJSONArray(Fields.Issue.LABELS);
+            for (int j = 0; labels != null && j < labels.length(); j++) {
+                String sourceIssueId = sourceIssueIdsByLabel.get(labels.getString(j));
+                if (sourceIssueId != null) {
+                    issuesBySourceId.put(sourceIssueId, new JSONObject()
+                            .put(Fields.Issue.ID, issue.getString(Fields.Issue.ID))
+                            .put(Fields.KEY, issue.getString(Fields.KEY))
+                            .put(Fields.Issue.SELF, issue.optString(Fields.Issue.SELF)));
+                }
+            }
+        }
+        return issuesBySourceId;
+    }
+
+    /**
+     * Computes a fingerprint of a field value, so a later change of the value can be detected without storing it.
+     *
+     * @param value the field value
+     * @return the hex encoded SHA-1 digest of the JSON representation of the value
+     */
+    public static String getFieldFingerprint(Object value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] hash = digest.digest(JSONObject.valueToString(value).getBytes(StandardCharsets.UTF_8));
+            StringBuilder fingerprint = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                fingerprint.append(String.format("%02x", b));
+            }
+            return fingerprint.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Gets the key of the project an issue belongs to from the issue key.
+     *
+     * @param issueKey the issue key, e.g. {@code LBN-12}
+     * @return the project key, e.g. {@code LBN}
+     */
+    public static String getProjectKey(String issueKey) {
+        return issueKey.substring(0, issueKey.lastIndexOf('-'));
+    }
+
 }
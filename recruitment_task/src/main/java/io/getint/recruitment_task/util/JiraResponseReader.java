@@ -0,0 +1,129 @@
+package io.getint.recruitment_task.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.http.HttpEntity;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Reads Jira responses straight from the response entity stream, without buffering the body as a String first.
+ * <p>
+ * Comments and transitions are bound to typed models, ignoring the properties the migration does not use.
+ * Issues are kept as JSONObjects, since the field mapping copies any configured field, but they are built
+ * token by token from the stream, skipping the properties which are never read.
+ */
+public class JiraResponseReader {
+
+    /**
+     * The properties of issue responses which are never read, skipped at any depth.
+     */
+    public static final Set<String> SKIPPED_ISSUE_PROPERTIES = Set.of("expand", "renderedFields", "names", "schema", "avatarUrls", "iconUrl");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static final JsonFactory JSON_FACTORY = MAPPER.getFactory();
+
+    private JiraResponseReader() {
+    }
+
+    /**
+     * Binds the response body to a typed model.
+     *
+     * @param entity the response entity
+     * @param type   the type of the model
+     * @param <T>    the type of the model
+     * @return the bound model
+     * @throws IOException if the body cannot be read or parsed
+     */
+    public static <T> T read(HttpEntity entity, Class<T> type) throws IOException {
+        try (InputStream content = entity.getContent()) {
+            return MAPPER.readValue(content, type);
+        }
+    }
+
+    /**
+     * Reads the response body as a JSONObject.
+     *
+     * @param entity the response entity
+     * @return the body as a JSONObject
+     * @throws IOException if the body cannot be read or parsed
+     */
+    public static JSONObject readJson(HttpEntity entity) throws IOException {
+        return readJson(entity, Collections.emptySet());
+    }
+
+    /**
+     * Reads the response body as a JSONObject, skipping the given properties at any depth.
+     *
+     * @param entity             the response entity
+     * @param skippedProperties the names of the properties which are not read
+     * @return the body as a JSONObject
+     * @throws IOException if the body cannot be read or parsed
+     */
+    public static JSONObject readJson(HttpEntity entity, Set<String> skippedProperties) throws IOException {
+        try (InputStream content = entity.getContent();
+             JsonParser parser = JSON_FACTORY.createParser(content)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            return readObject(parser, skippedProperties);
+        }
+    }
+
+    private static JSONObject readObject(JsonParser parser, Set<String> skippedProperties) throws IOException {
+        JSONObject object = new JSONObject();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (skippedProperties.contains(name)) {
+                parser.skipChildren();
+                continue;
+            }
+            object.put(name, readValue(parser, token, skippedProperties));
+        }
+        return object;
+    }
+
+    private static JSONArray readArray(JsonParser parser, Set<String> skippedProperties) throws IOException {
+        JSONArray array = new JSONArray();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            array.put(readValue(parser, token, skippedProperties));
+        }
+        return array;
+    }
+
+    private static Object readValue(JsonParser parser, JsonToken token, Set<String> skippedProperties) throws IOException {
+        switch (token) {
+            case START_OBJECT:
+                return readObject(parser, skippedProperties);
+            case START_ARRAY:
+                return readArray(parser, skippedProperties);
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return JSONObject.NULL;
+            default:
+                throw new JsonParseException(parser, "Unexpected token " + token);
+        }
+    }
+
+}
@@ -1,12 +1,77 @@
 package io.getint.recruitment_task.config;
 
+import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yaml.snakeyaml.error.YAMLException;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 public class ConfigLoaderTests {
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @After
+    public void restoreClasspathConfig() {
+        System.clearProperty(ConfigLoader.CONFIG_FILE_PROPERTY);
+        ConfigLoader.reloadJiraApiConfig();
+    }
+
+    @Test
+    public void shouldReloadConfigFileOnlyWhenModifiedAndKeepItWhenInvalid() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("jira-api-config.yml");
+        Files.write(file, "server: http://first\nuser: user\napiKey: key\ndaemon:\n  interval: 1000\n".getBytes(StandardCharsets.UTF_8));
+        System.setProperty(ConfigLoader.CONFIG_FILE_PROPERTY, file.toString());
+
+        ConfigLoader.JiraApiConfig first = ConfigLoader.reloadJiraApiConfig();
+        assertEquals("http://first", ConfigLoader.getJiraApiConfig().getServer());
+        assertEquals(1000, first.getDaemon().getInterval());
+        assertFalse(ConfigLoader.reloadJiraApiConfigIfChanged());
+
+        Files.write(file, "server: http://second\nuser: user\napiKey: key\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2_000));
+        assertTrue(ConfigLoader.reloadJiraApiConfigIfChanged());
+        assertEquals("http://second", ConfigLoader.getJiraApiConfig().getServer());
+        assertEquals("http://first", first.getServer());
+
+        Files.write(file, "server: [unclosed\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 4_000));
+        try {
+            ConfigLoader.reloadJiraApiConfigIfChanged();
+            fail("Should not reload an invalid file");
+        } catch (YAMLException e) {
+            assertEquals("http://second", ConfigLoader.getJiraApiConfig().getServer());
+        }
+    }
+
+    @Test
+    public void shouldKeepConfigWhenReloadedFileMissesRequiredFields() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("jira-api-config.yml");
+        Files.write(file, "server: http://first\nuser: user\napiKey: key\n".getBytes(StandardCharsets.UTF_8));
+        System.setProperty(ConfigLoader.CONFIG_FILE_PROPERTY, file.toString());
+        ConfigLoader.reloadJiraApiConfig();
+
+        Files.write(file, "server: http://second\nuser: user\n".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2_000));
+        try {
+            ConfigLoader.reloadJiraApiConfigIfChanged();
+            fail("Should not reload a file without an API key");
+        } catch (YAMLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("apiKey"));
+            assertEquals("http://first", ConfigLoader.getJiraApiConfig().getServer());
+        }
+    }
+
 //    @Test
 //    public void shouldLoadJiraApiConfigWithoutThrow() {
 //        try {
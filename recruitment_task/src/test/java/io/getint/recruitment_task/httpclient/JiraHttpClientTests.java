@@ -0,0 +1,303 @@
+package io.getint.recruitment_task.httpclient;
+
+import com.sun.net.httpserver.HttpServer;
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.exception.JiraRateLimitException;
+import io.getint.recruitment_task.metrics.JiraMetrics;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ClientProtocolException;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.util.EntityUtils;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JiraHttpClientTests {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int throttledRequests;
+    private volatile boolean gzipRequestsRejected;
+    private volatile CountDownLatch rejectedGzipRequests = new CountDownLatch(0);
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private final List<String> requestEncodings = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch blockedRequestStarted = new CountDownLatch(1);
+    private final CountDownLatch blockedRequestReleased = new CountDownLatch(1);
+    private final ConfigLoader.HttpConfig originalHttpConfig = ConfigLoader.getJiraApiConfig().getHttp();
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/rest/api/2/myself", exchange -> {
+            boolean throttled = requests.incrementAndGet() <= throttledRequests;
+            byte[] body = (throttled ? "{\"message\":\"Rate limit exceeded\"}" : "{\"name\":\"agent\"}").getBytes(StandardCharsets.UTF_8);
+            if (throttled) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+            }
+            exchange.sendResponseHeaders(throttled ? 429 : 200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        server.createContext("/rest/api/2/issue", exchange -> {
+            String encoding = String.valueOf(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+            requestEncodings.add(encoding);
+            if (encoding.equals("gzip") && gzipRequestsRejected) {
+                exchange.getRequestBody().readAllBytes();
+                rejectedGzipRequests.countDown();
+                try {
+                    rejectedGzipRequests.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.sendResponseHeaders(415, -1);
+                exchange.close();
+                return;
+            }
+            byte[] body;
+            try (InputStream requestBody = encoding.equals("gzip") ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody()) {
+                body = requestBody.readAllBytes();
+            }
+            if (String.valueOf(exchange.getRequestHeaders().getFirst("Accept-Encoding")).contains("gzip")) {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+                try (OutputStream output = new GZIPOutputStream(compressed)) {
+                    output.write(body);
+                }
+                body = compressed.toByteArray();
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+            exchange.sendResponseHeaders(201, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        server.createContext("/rest/api/2/serverInfo", exchange -> {
+            blockedRequestStarted.countDown();
+            try {
+                blockedRequestReleased.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"version\":\"9.4.0\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    @After
+    public void stopServer() {
+        blockedRequestReleased.countDown();
+        server.stop(0);
+        handlers.shutdownNow();
+        ConfigLoader.getJiraApiConfig().setHttp(originalHttpConfig);
+        ConfigLoader.getJiraApiConfig().getHttp().setCompressRequests(false);
+    }
+
+    @Test
+    public void shouldRetryThrottledRequest() throws Exception {
+        throttledRequests = 2;
+        try (JiraHttpClient httpClient = new JiraHttpClient();
+             CloseableHttpResponse response = httpClient.execute(new HttpGet(uri()))) {
+            assertEquals("{\"name\":\"agent\"}", EntityUtils.toString(response.getEntity()));
+            assertEquals(3, requests.get());
+            assertEquals(2, httpClient.getThrottle().getThrottledResponses());
+            assertEquals(5, httpClient.getThrottle().getConcurrencyLimit());
+        }
+    }
+
+    @Test
+    public void shouldRetryThrottledAsyncRequest() throws Exception {
+        throttledRequests = 2;
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            HttpResponse response = httpClient.executeAsync(new HttpGet(uri())).get();
+            assertEquals("{\"name\":\"agent\"}", EntityUtils.toString(response.getEntity()));
+            assertEquals(3, requests.get());
+        }
+    }
+
+    @Test
+    public void shouldFailWhenStillThrottledAfterRetries() throws Exception {
+        throttledRequests = Integer.MAX_VALUE;
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            httpClient.execute(new HttpGet(uri()));
+        } catch (ClientProtocolException e) {
+            assertTrue(e.getCause() instanceof JiraRateLimitException);
+            assertEquals(429, ((JiraRateLimitException) e.getCause()).getStatusCode());
+            return;
+        }
+        throw new AssertionError("Should fail when throttled on every attempt");
+    }
+
+    @Test
+    public void shouldRecordMetricsOfEveryAttempt() throws Exception {
+        throttledRequests = 1;
+        try (JiraHttpClient httpClient = new JiraHttpClient();
+             CloseableHttpResponse response = httpClient.execute(new HttpGet(uri()))) {
+            assertEquals("{\"name\":\"agent\"}", EntityUtils.toString(response.getEntity()));
+            JiraMetrics.EndpointMetrics metrics = httpClient.getMetrics().getEndpoint("GET myself");
+            assertEquals(Long.valueOf(1), metrics.getStatusClasses().get("2xx"));
+            assertEquals(Long.valueOf(1), metrics.getStatusClasses().get("4xx"));
+            assertEquals(2, metrics.getLatency().getCount());
+            assertEquals(16, metrics.getBytesReceived());
+        }
+    }
+
+    @Test
+    public void shouldExchangeGzipEncodedBodies() throws Exception {
+        ConfigLoader.getJiraApiConfig().getHttp().setCompressRequests(true);
+        JSONObject payload = new JSONObject().put("fields", new JSONObject().put("description", "Long description. ".repeat(2_000)));
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            HttpPost request = new HttpPost(issueUri());
+            request.setEntity(new JsonEntity(payload));
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                assertEquals(payload.toString(), EntityUtils.toString(response.getEntity()));
+            }
+            request.setEntity(new JsonEntity(payload));
+            assertEquals(payload.toString(), EntityUtils.toString(httpClient.executeAsync(request).get().getEntity()));
+
+            JiraMetrics.EndpointMetrics metrics = httpClient.getMetrics().getEndpoint("POST issue");
+            assertEquals(List.of("gzip", "gzip"), requestEncodings);
+            assertTrue(metrics.getBytesSent() < payload.toString().length() * 2L);
+            assertTrue(metrics.getBytesReceived() < payload.toString().length());
+        }
+    }
+
+    @Test
+    public void shouldSendUncompressedBodiesOnceServerRejectsGzip() throws Exception {
+        ConfigLoader.getJiraApiConfig().getHttp().setCompressRequests(true);
+        gzipRequestsRejected = true;
+        JSONObject payload = new JSONObject().put("fields", new JSONObject().put("summary", "Summary"));
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            for (int i = 0; i < 2; i++) {
+                HttpPost request = new HttpPost(issueUri());
+                request.setEntity(new JsonEntity(payload));
+                try (CloseableHttpResponse response = httpClient.execute(request)) {
+                    assertEquals(payload.toString(), EntityUtils.toString(response.getEntity()));
+                }
+            }
+
+            assertEquals(List.of("gzip", "null", "null"), requestEncodings);
+        }
+    }
+
+    @Test
+    public void shouldSendUncompressedAsyncBodiesOnceServerRejectsGzip() throws Exception {
+        ConfigLoader.getJiraApiConfig().getHttp().setCompressRequests(true);
+        gzipRequestsRejected = true;
+        JSONObject payload = new JSONObject().put("fields", new JSONObject().put("summary", "Summary"));
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            for (int i = 0; i < 2; i++) {
+                HttpPost request = new HttpPost(issueUri());
+                request.setEntity(new JsonEntity(payload));
+                HttpResponse response = httpClient.executeAsync(request).get(10, TimeUnit.SECONDS);
+                assertEquals(payload.toString(), EntityUtils.toString(response.getEntity()));
+            }
+
+            assertEquals(List.of("gzip", "null", "null"), requestEncodings);
+        }
+    }
+
+    @Test
+    public void shouldResendEveryConcurrentRequestRejectedForGzip() throws Exception {
+        ConfigLoader.getJiraApiConfig().getHttp().setCompressRequests(true);
+        gzipRequestsRejected = true;
+        rejectedGzipRequests = new CountDownLatch(2);
+        JSONObject payload = new JSONObject().put("fields", new JSONObject().put("summary", "Summary"));
+        ExecutorService senders = Executors.newFixedThreadPool(2);
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                responses.add(senders.submit(() -> {
+                    HttpPost request = new HttpPost(issueUri());
+                    request.setEntity(new JsonEntity(payload));
+                    try (CloseableHttpResponse response = httpClient.execute(request)) {
+                        return EntityUtils.toString(response.getEntity());
+                    }
+                }));
+            }
+            for (Future<String> response : responses) {
+                assertEquals(payload.toString(), response.get(10, TimeUnit.SECONDS));
+            }
+
+            assertEquals(2, Collections.frequency(requestEncodings, "gzip"));
+            assertEquals(2, Collections.frequency(requestEncodings, "null"));
+        } finally {
+            senders.shutdownNow();
+        }
+    }
+
+    @Test
+    public void shouldCountConnectionsOfInFlightRequestInPoolStats() throws Exception {
+        ConfigLoader.getJiraApiConfig().setHttp(new Yaml(new Constructor(ConfigLoader.HttpConfig.class)).load(
+                "maxConnections: 4\n"
+                        + "maxConnectionsPerRoute: 2\n"
+                        + "keepAlive: 30000\n"));
+        ExecutorService sender = Executors.newSingleThreadExecutor();
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            Future<String> response = sender.submit(() -> {
+                try (CloseableHttpResponse blockedResponse = httpClient.execute(new HttpGet(blockedUri()))) {
+                    return EntityUtils.toString(blockedResponse.getEntity());
+                }
+            });
+            assertTrue(blockedRequestStarted.await(10, TimeUnit.SECONDS));
+
+            PoolStats inFlight = httpClient.getConnectionPoolStats();
+            assertEquals(1, inFlight.getLeased());
+            assertEquals(0, inFlight.getAvailable());
+            assertEquals(4, inFlight.getMax());
+            assertEquals(0, httpClient.getAsyncConnectionPoolStats().getLeased());
+
+            blockedRequestReleased.countDown();
+            assertEquals("{\"version\":\"9.4.0\"}", response.get(10, TimeUnit.SECONDS));
+            PoolStats idle = httpClient.getConnectionPoolStats();
+            assertEquals(0, idle.getLeased());
+            assertEquals(1, idle.getAvailable());
+        } finally {
+            sender.shutdownNow();
+        }
+    }
+
+    private String blockedUri() {
+        return "http://localhost:" + server.getAddress().getPort() + "/rest/api/2/serverInfo";
+    }
+
+    private String issueUri() {
+        return "http://localhost:" + server.getAddress().getPort() + "/rest/api/2/issue";
+    }
+
+    private String uri() {
+        return "http://localhost:" + server.getAddress().getPort() + "/rest/api/2/myself";
+    }
+
+}
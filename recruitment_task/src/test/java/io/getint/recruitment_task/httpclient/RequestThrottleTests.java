@@ -0,0 +1,90 @@
+package io.getint.recruitment_task.httpclient;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RequestThrottleTests {
+
+    private final ConfigLoader.ThrottleConfig config = ConfigLoader.getJiraApiConfig().getThrottle();
+    private int originalMaxConcurrency;
+
+    @Before
+    public void limitConcurrency() {
+        originalMaxConcurrency = config.getMaxConcurrency();
+        config.setMaxConcurrency(1);
+    }
+
+    @After
+    public void restoreConcurrency() {
+        config.setMaxConcurrency(originalMaxConcurrency);
+    }
+
+    @Test
+    public void shouldGrantRequestsOfLanesInWeightedRoundRobin() throws Exception {
+        try (RequestThrottle throttle = new RequestThrottle(config)) {
+            RequestThrottle.Lane large = throttle.getLane("large", 2);
+            RequestThrottle.Lane small = throttle.getLane("small", 1);
+            List<String> granted = Collections.synchronizedList(new ArrayList<>());
+            List<CompletableFuture<Void>> waiters = new ArrayList<>();
+            throttle.acquire();
+            for (int i = 0; i < 6; i++) {
+                waiters.add(grantAndRelease(throttle, large, granted));
+            }
+            for (int i = 0; i < 2; i++) {
+                waiters.add(grantAndRelease(throttle, small, granted));
+            }
+            throttle.release();
+
+            CompletableFuture.allOf(waiters.toArray(new CompletableFuture<?>[0])).get(5, TimeUnit.SECONDS);
+            assertEquals(List.of("large", "large", "small", "large", "large", "small", "large", "large"), granted);
+            assertEquals(6, large.getGrantedRequests());
+            assertEquals(2, small.getGrantedRequests());
+        }
+    }
+
+    @Test(timeout = 5_000)
+    public void shouldFailBlockedAndAsyncWaitersOnClose() throws Exception {
+        RequestThrottle throttle = new RequestThrottle(config);
+        throttle.acquire();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread blocked = new Thread(() -> {
+            try {
+                throttle.acquire();
+            } catch (InterruptedException | RuntimeException e) {
+                failure.set(e);
+            }
+        });
+        blocked.start();
+        CompletableFuture<Void> waiting = throttle.acquireAsync();
+        while (blocked.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+
+        throttle.close();
+        blocked.join();
+
+        assertTrue(failure.get() instanceof IllegalStateException);
+        assertTrue(waiting.isCancelled());
+        assertTrue(throttle.acquireAsync().isCancelled());
+    }
+
+    private static CompletableFuture<Void> grantAndRelease(RequestThrottle throttle, RequestThrottle.Lane lane, List<String> granted) {
+        return throttle.acquireAsync(lane).thenRun(() -> {
+            granted.add(lane.getName());
+            throttle.release();
+        });
+    }
+
+}
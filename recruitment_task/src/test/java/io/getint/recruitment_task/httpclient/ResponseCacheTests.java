@@ -0,0 +1,234 @@
+package io.getint.recruitment_task.httpclient;
+
+import com.sun.net.httpserver.HttpServer;
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.metrics.JiraMetrics;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResponseCacheTests {
+
+    private static final String TRANSITIONS = "GET issue/{id}/transitions";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ConfigLoader.CacheConfig config = ConfigLoader.getJiraApiConfig().getCache();
+    private HttpServer server;
+    private String originalServer;
+    private boolean originalEnabled;
+    private String originalDiskPath;
+    private Map<String, Long> originalTtls;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private volatile String transitions = "{\"transitions\":[{\"id\":\"11\"}]}";
+
+    @Before
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/rest/api/2/issue/10001", exchange -> {
+            requests.incrementAndGet();
+            String etag = "\"" + Integer.toHexString(transitions.hashCode()) + "\"";
+            byte[] body = exchange.getRequestMethod().equals("GET") ? transitions.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            exchange.getResponseHeaders().add("ETag", etag);
+            if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(304, -1);
+            } else {
+                exchange.sendResponseHeaders(body.length > 0 ? 200 : 204, body.length > 0 ? body.length : -1);
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(body);
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+        originalServer = ConfigLoader.getJiraApiConfig().getServer();
+        originalEnabled = config.isEnabled();
+        originalDiskPath = config.getDiskPath();
+        originalTtls = config.getTtls();
+        ConfigLoader.getJiraApiConfig().setServer("http://localhost:" + server.getAddress().getPort());
+        config.setEnabled(true);
+    }
+
+    @After
+    public void stopServer() {
+        server.stop(0);
+        ConfigLoader.getJiraApiConfig().setServer(originalServer);
+        config.setEnabled(originalEnabled);
+        config.setDiskPath(originalDiskPath);
+        config.setTtls(originalTtls);
+    }
+
+    @Test
+    public void shouldServeResponseWithinTtlWithoutRequest() throws Exception {
+        config.setTtls(Map.of(TRANSITIONS, 60_000L));
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            assertEquals(transitions, get(httpClient));
+            assertEquals(transitions, get(httpClient));
+            assertEquals(transitions, EntityUtils.toString(httpClient.executeAsync(new HttpGet(uri())).get().getEntity()));
+
+            assertEquals(1, requests.get());
+            assertEquals(2, httpClient.getMetrics().getCache().getHits());
+            assertEquals(1, httpClient.getMetrics().getCache().getMisses());
+        }
+    }
+
+    @Test
+    public void shouldRevalidateExpiredResponseWithETag() throws Exception {
+        config.setTtls(Map.of());
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            assertEquals(transitions, get(httpClient));
+            assertEquals(transitions, get(httpClient));
+            HttpResponse revalidated = httpClient.executeAsync(new HttpGet(uri())).get();
+            assertEquals(transitions, EntityUtils.toString(revalidated.getEntity()));
+
+            assertEquals(3, requests.get());
+            assertEquals(2, notModified.get());
+            assertEquals(2, httpClient.getMetrics().getCache().getRevalidated());
+            assertEquals(1L, (long) httpClient.getMetrics().getEndpoint("GET issue/{id}/transitions").getStatusClasses().get("2xx"));
+        }
+    }
+
+    @Test
+    public void shouldReuseResponsesCachedOnDiskByEarlierClient() throws Exception {
+        config.setTtls(Map.of(TRANSITIONS, 60_000L));
+        config.setDiskPath(temporaryFolder.getRoot().toPath().resolve("cache").toString());
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            assertEquals(transitions, get(httpClient));
+        }
+
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            assertEquals(1, httpClient.getCache().getDiskEntries());
+            assertEquals(transitions, get(httpClient));
+            assertEquals(1, requests.get());
+            assertEquals(1L, (long) httpClient.getMetrics().getCache().getLookups().get(JiraMetrics.CacheMetrics.DISK_HIT));
+        }
+    }
+
+    @Test
+    public void shouldDropCachedResponsesOfChangedIssue() throws Exception {
+        config.setTtls(Map.of(TRANSITIONS, 60_000L));
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            assertEquals(transitions, get(httpClient));
+            transitions = "{\"transitions\":[{\"id\":\"21\"}]}";
+            try (CloseableHttpResponse response = httpClient.execute(new HttpPut("http://localhost:" + server.getAddress().getPort() + "/rest/api/2/issue/10001"))) {
+                assertEquals(204, response.getStatusLine().getStatusCode());
+                assertEquals(0, httpClient.getCache().getMemoryEntries());
+            }
+
+            assertEquals(transitions, get(httpClient));
+            assertEquals(3, requests.get());
+        }
+    }
+
+    @Test
+    public void shouldReadTtlsOfEndpointsFromYaml() {
+        ConfigLoader.CacheConfig loaded = new Yaml(new Constructor(ConfigLoader.CacheConfig.class))
+                .load("defaultTtl: 5\nttls:\n  \"GET issue/{id}/transitions\": 1000\n");
+
+        assertEquals(1000, loaded.getTtl(TRANSITIONS));
+        assertEquals(5, loaded.getTtl("GET search"));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedResponsesOverEntryLimit() throws IOException {
+        try (ResponseCache cache = new ResponseCache(cacheConfig("maxEntries: 2\ndefaultTtl: 60000\n"), "/rest/api/2/", new JiraMetrics().getCache())) {
+            cache.complete(cachedUri("10001"), null, okResponse("1"));
+            cache.complete(cachedUri("10002"), null, okResponse("2"));
+            assertNotNull(cache.getFresh(cachedUri("10001")));
+            cache.complete(cachedUri("10003"), null, okResponse("3"));
+
+            assertEquals(2, cache.getMemoryEntries());
+            assertNotNull(cache.getFresh(cachedUri("10001")));
+            assertNull(cache.getFresh(cachedUri("10002")));
+            assertNotNull(cache.getFresh(cachedUri("10003")));
+        }
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedResponsesOverMemoryLimit() throws IOException {
+        try (ResponseCache cache = new ResponseCache(cacheConfig("maxMemory: 10\ndefaultTtl: 60000\n"), "/rest/api/2/", new JiraMetrics().getCache())) {
+            cache.complete(cachedUri("10001"), null, okResponse("aaaa"));
+            cache.complete(cachedUri("10002"), null, okResponse("bbbb"));
+            cache.complete(cachedUri("10003"), null, okResponse("cccc"));
+
+            assertEquals(2, cache.getMemoryEntries());
+            assertEquals(8, cache.getMemoryBytes());
+            assertNull(cache.getFresh(cachedUri("10001")));
+        }
+    }
+
+    @Test
+    public void shouldBoundDiskTierBySizeAndAge() throws Exception {
+        String diskPath = temporaryFolder.getRoot().toPath().resolve("cache").toString().replace("\\", "/");
+        try (ResponseCache cache = new ResponseCache(cacheConfig("diskPath: " + diskPath + "\nmaxDisk: 400\ndefaultTtl: 60000\n"),
+                "/rest/api/2/", new JiraMetrics().getCache())) {
+            for (int i = 1; i <= 5; i++) {
+                cache.complete(cachedUri("1000" + i), null, okResponse("x".repeat(100)));
+                Thread.sleep(2);
+            }
+            cache.close();
+            assertTrue(cache.getDiskBytes() <= 400);
+            assertTrue(cache.getDiskEntries() < 5);
+        }
+
+        Thread.sleep(10);
+        try (ResponseCache cache = new ResponseCache(cacheConfig("diskPath: " + diskPath + "\nmaxDiskAge: 5\ndefaultTtl: 60000\n"),
+                "/rest/api/2/", new JiraMetrics().getCache())) {
+            assertEquals(0, cache.getDiskEntries());
+            assertEquals(0, cache.getDiskBytes());
+        }
+    }
+
+    private static ConfigLoader.CacheConfig cacheConfig(String yaml) {
+        return new Yaml(new Constructor(ConfigLoader.CacheConfig.class)).load(yaml);
+    }
+
+    private static URI cachedUri(String issueId) {
+        return URI.create("http://localhost/rest/api/2/issue/" + issueId);
+    }
+
+    private static HttpResponse okResponse(String body) {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new StringEntity(body, StandardCharsets.UTF_8));
+        return response;
+    }
+
+    private String get(JiraHttpClient httpClient) throws IOException {
+        try (CloseableHttpResponse response = httpClient.execute(new HttpGet(uri()))) {
+            return EntityUtils.toString(response.getEntity());
+        }
+    }
+
+    private String uri() {
+        return "http://localhost:" + server.getAddress().getPort() + "/rest/api/2/issue/10001/transitions";
+    }
+
+}
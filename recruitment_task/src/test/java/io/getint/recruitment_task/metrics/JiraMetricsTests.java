@@ -0,0 +1,59 @@
+package io.getint.recruitment_task.metrics;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class JiraMetricsTests {
+
+    @Test
+    public void shouldReplaceIssueIdsAndKeysInEndpointTemplate() {
+        assertEquals("POST issue/{id}/comment",
+                JiraMetrics.getEndpointTemplate("POST", URI.create("/rest/api/2/issue/10001/comment"), "/rest/api/2/"));
+        assertEquals("GET issue/{id}/transitions",
+                JiraMetrics.getEndpointTemplate("GET", URI.create("https://x.atlassian.net/rest/api/2/issue/BRN-12/transitions?expand=x"), "/rest/api/2/"));
+        assertEquals("GET issue/createmeta/{projectKey}/issuetypes/{id}",
+                JiraMetrics.getEndpointTemplate("GET", URI.create("/rest/api/2/issue/createmeta/LBN/issuetypes/10002"), "/rest/api/2/"));
+        assertEquals("GET search", JiraMetrics.getEndpointTemplate("GET", URI.create("/rest/api/2/search?jql=x"), "/rest/api/2/"));
+    }
+
+    @Test
+    public void shouldReportLatencyPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int millis = 1; millis <= 1_000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertEquals(1_000, histogram.getCount());
+        assertEquals(500, histogram.getPercentileMillis(50), 500 / 32.0);
+        assertEquals(990, histogram.getPercentileMillis(99), 990 / 32.0);
+        assertEquals(1_000, histogram.getPercentileMillis(100), 0.001);
+        assertEquals(500.5, histogram.getMeanMillis(), 0.001);
+    }
+
+    @Test
+    public void shouldExportEndpointAndIssueMetrics() {
+        JiraMetrics metrics = new JiraMetrics();
+        metrics.getEndpoint("POST issue").recordResponse(201, TimeUnit.MILLISECONDS.toNanos(120));
+        metrics.getEndpoint("POST issue").recordResponse(429, TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.getEndpoint("POST issue").addBytesSent(300);
+        metrics.countIssues(JiraMetrics.CREATED, 1);
+
+        String text = metrics.toPrometheus();
+        assertTrue(text.contains("jira_http_requests_total{method=\"POST\",endpoint=\"issue\",status=\"2xx\"} 1\n"));
+        assertTrue(text.contains("jira_http_requests_total{method=\"POST\",endpoint=\"issue\",status=\"4xx\"} 1\n"));
+        assertTrue(text.contains("jira_http_request_bytes_total{method=\"POST\",endpoint=\"issue\"} 300\n"));
+        assertTrue(text.contains("jira_http_request_duration_seconds_count{method=\"POST\",endpoint=\"issue\"} 2\n"));
+        assertTrue(text.contains("jira_issues_total{stage=\"created\"} 1\n"));
+
+        JSONObject json = metrics.toJson().getJSONObject("endpoints").getJSONObject("POST issue");
+        assertEquals(1, json.getJSONObject("requests").getLong("2xx"));
+        assertEquals(120, json.getJSONObject("latencyMillis").getDouble("max"), 0.001);
+    }
+
+}
@@ -0,0 +1,594 @@
+package io.getint.recruitment_task.mock;
+
+import io.getint.recruitment_task.JiraSynchronizer;
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.service.IssueOutcome;
+import io.getint.recruitment_task.service.JiraApiService;
+import io.getint.recruitment_task.service.ProjectPairScheduler;
+import io.getint.recruitment_task.service.SyncDaemon;
+import io.getint.recruitment_task.service.WebhookListener;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JiraSynchronizerEndToEndTests {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final ConfigLoader.JiraApiConfig config = ConfigLoader.getJiraApiConfig();
+    private MockJiraServer server;
+    private String originalServer;
+    private String originalJournalPath;
+    private String originalStatePath;
+    private double originalRequestsPerSecond;
+    private int originalBurst;
+    private int originalConcurrency;
+    private boolean originalAsync;
+    private boolean originalAttachmentsEnabled;
+    private long originalMaxAttachmentSize;
+    private boolean originalCacheEnabled;
+    private String originalCachePath;
+    private long originalDaemonInterval;
+    private boolean originalReloadConfig;
+    private boolean originalCompressRequests;
+    private int originalOutcomeBufferSize;
+    private boolean originalPipelineEnabled;
+    private int originalBulkCreateSize;
+    private String originalMetricsExportPath;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new MockJiraServer(16);
+        originalServer = config.getServer();
+        originalJournalPath = config.getJournal().getPath();
+        originalStatePath = config.getSync().getStatePath();
+        originalRequestsPerSecond = config.getThrottle().getRequestsPerSecond();
+        originalBurst = config.getThrottle().getBurst();
+        originalConcurrency = config.getMigration().getConcurrency();
+        originalAsync = config.getMigration().isAsync();
+        originalAttachmentsEnabled = config.getAttachments().isEnabled();
+        originalMaxAttachmentSize = config.getAttachments().getMaxSize();
+        originalCacheEnabled = config.getCache().isEnabled();
+        originalCachePath = config.getCache().getDiskPath();
+        originalDaemonInterval = config.getDaemon().getInterval();
+        originalReloadConfig = config.getDaemon().isReloadConfig();
+        originalCompressRequests = config.getHttp().isCompressRequests();
+        originalOutcomeBufferSize = config.getMigration().getOutcomeBufferSize();
+        originalPipelineEnabled = config.getMigration().getPipeline().isEnabled();
+        originalBulkCreateSize = config.getMigration().getBulkCreateSize();
+        originalMetricsExportPath = config.getMetrics().getExportPath();
+
+        config.setServer(server.getUrl());
+        config.getJournal().setPath(temporaryFolder.getRoot().toPath().resolve("journal-{sourceProjectKey}.bin").toString());
+        config.getSync().setStatePath(temporaryFolder.getRoot().toPath().resolve("sync-{sourceProjectKey}.json").toString());
+        config.getThrottle().setRequestsPerSecond(10_000);
+        config.getThrottle().setBurst(1_000);
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+        config.setServer(originalServer);
+        config.getJournal().setPath(originalJournalPath);
+        config.getSync().setStatePath(originalStatePath);
+        config.getThrottle().setRequestsPerSecond(originalRequestsPerSecond);
+        config.getThrottle().setBurst(originalBurst);
+        config.getMigration().setConcurrency(originalConcurrency);
+        config.getMigration().setAsync(originalAsync);
+        config.getAttachments().setEnabled(originalAttachmentsEnabled);
+        config.getAttachments().setMaxSize(originalMaxAttachmentSize);
+        config.getCache().setEnabled(originalCacheEnabled);
+        config.getCache().setDiskPath(originalCachePath);
+        config.getDaemon().setInterval(originalDaemonInterval);
+        config.getDaemon().setReloadConfig(originalReloadConfig);
+        config.getHttp().setCompressRequests(originalCompressRequests);
+        config.getMigration().setOutcomeBufferSize(originalOutcomeBufferSize);
+        config.getMigration().getPipeline().setEnabled(originalPipelineEnabled);
+        config.getMigration().setBulkCreateSize(originalBulkCreateSize);
+        config.getMetrics().setExportPath(originalMetricsExportPath);
+    }
+
+    @Test
+    public void shouldMoveIssuesWithAllCommentsAndStatuses() throws Exception {
+        server.seedProject("BRN", 12, 25);
+        List<JSONObject> sourceIssues = server.getIssues("BRN");
+
+        new JiraSynchronizer("BRN", "LBN").moveTasksToOtherProject();
+
+        assertTrue(server.getIssues("BRN").isEmpty());
+        assertMoved(sourceIssues, server.getIssues("LBN"));
+    }
+
+    @Test
+    public void shouldMoveIssuesThroughMigrationPipeline() throws Exception {
+        server.seedProject("BRN", 12, 25);
+        config.getMigration().getPipeline().setEnabled(true);
+        List<JSONObject> sourceIssues = server.getIssues("BRN");
+
+        new JiraSynchronizer("BRN", "LBN").moveTasksToOtherProject();
+
+        assertTrue(server.getIssues("BRN").isEmpty());
+        assertMoved(sourceIssues, server.getIssues("LBN"));
+    }
+
+    @Test
+    public void shouldMoveIssuesCreatedInBulk() throws Exception {
+        server.seedProject("BRN", 7, 3);
+        config.getMigration().setBulkCreateSize(3);
+        List<JSONObject> sourceIssues = server.getIssues("BRN");
+
+        new JiraSynchronizer("BRN", "LBN").moveTasksToOtherProject();
+
+        assertTrue(server.getIssues("BRN").isEmpty());
+        assertMoved(sourceIssues, server.getIssues("LBN"));
+    }
+
+    @Test
+    public void shouldKeepIssuesWhichBulkCreateRejectsEntirely() throws Exception {
+        server.seedProject("BRN", 2, 1);
+        server.seedIssue("BRN", "");
+        server.seedIssue("BRN", "");
+        config.getMigration().setBulkCreateSize(2);
+
+        new JiraSynchronizer("BRN", "LBN").moveTasksToOtherProject();
+
+        assertEquals(2, server.getIssues("LBN").size());
+        assertEquals(2, server.getIssues("BRN").size());
+        assertTrue(server.getIssues("BRN").stream().allMatch(issue -> issue.getJSONObject("fields").getString("summary").isEmpty()));
+    }
+
+    @Test
+    public void shouldMoveIssuesAsynchronouslyWhileJiraThrottlesRequests() throws Exception {
+        server.withThrottleRate(0.2, 0).seedProject("BRN", 12, 5);
+        config.getMigration().setAsync(true);
+        config.getMigration().setConcurrency(4);
+        List<JSONObject> sourceIssues = server.getIssues("BRN");
+
+        new JiraSynchronizer("BRN", "LBN").moveTasksToOtherProject();
+
+        assertTrue(server.getIssues("BRN").isEmpty());
+        assertMoved(sourceIssues, server.getIssues("LBN"));
+    }
+
+    @Test
+    public void shouldMoveIssuesWithGzipEncodedRequestAndResponseBodies() throws Exception {
+        server.withGzipRequests(true).seedProject("BRN", 6, 4);
+        config.getHttp().setCompressRequests(true);
+        List<JSONObject> sourceIssues = server.getIssues("BRN");
+
+        new JiraSynchronizer("BRN", "LBN").moveTasksToOtherProject();
+
+        assertMoved(sourceIssues, server.getIssues("LBN"));
+        assertTrue(server.getGzipRequestBodies() >= 6 * 5);
+        assertTrue(server.getGzipResponseBodies() > 0);
+    }
+
+    @Test
+    public void shouldMoveIssuesAsynchronouslyWithGzipEncodedRequestAndResponseBodies() throws Exception {
+        server.withGzipRequests(true).seedProject("BRN", 6, 4);
+        config.getHttp().setCompressRequests(true);
+        config.getMigration().setAsync(true);
+        List<JSONObject> sourceIssues = server.getIssues("BRN");
+
+        new JiraSynchronizer("BRN", "LBN").moveTasksToOtherProject();
+
+        assertMoved(sourceIssues, server.getIssues("LBN"));
+        assertTrue(server.getGzipRequestBodies() >= 6 * 5);
+        assertTrue(server.getGzipResponseBodies() > 0);
+    }
+
+    @Test
+    public void shouldPublishOutcomeOfEveryMovedIssueAsSubscriberRequestsThem() throws Exception {
+        server.seedProject("BRN", 12, 5);
+        config.getMigration().setOutcomeBufferSize(2);
+        List<JSONObject> sourceIssues = server.getIssues("BRN");
+        OutcomeSubscriber subscriber = new OutcomeSubscriber(Long.MAX_VALUE);
+
+        new JiraApiService().publishMovedIssues("BRN", "LBN").subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(30, TimeUnit.SECONDS));
+        assertEquals(null, subscriber.error);
+        assertEquals(12, subscriber.outcomes.size());
+        for (IssueOutcome outcome : subscriber.outcomes) {
+            assertTrue(outcome.toString(), outcome.isMoved());
+            assertEquals(5, outcome.getAddedComments());
+        }
+        assertMoved(sourceIssues, server.getIssues("LBN"));
+    }
+
+    @Test
+    public void shouldStopMigrationWhenSubscriptionIsCancelled() throws Exception {
+        server.withLatency(5, 0).seedProject("BRN", 60, 1);
+        config.getMigration().setOutcomeBufferSize(1);
+        OutcomeSubscriber subscriber = new OutcomeSubscriber(1);
+
+        new JiraApiService().publishMovedIssues("BRN", "LBN").subscribe(subscriber);
+        assertTrue(subscriber.cancelled.await(30, TimeUnit.SECONDS));
+        awaitIdleServer();
+
+        assertEquals(1, subscriber.outcomes.size());
+        assertFalse(server.getIssues("BRN").isEmpty());
+        assertTrue(server.getIssues("LBN").size() < 60);
+    }
+
+    @Test
+    public void shouldHandOutcomeOfEveryIssueMovedAsynchronouslyToListener() throws Exception {
+        server.seedProject("BRN", 8, 3);
+        config.getMigration().setAsync(true);
+        config.getMigration().setConcurrency(4);
+        List<JSONObject> sourceIssues = server.getIssues("BRN");
+        List<IssueOutcome> outcomes = new CopyOnWriteArrayList<>();
+        List<String> listenerThreads = new CopyOnWriteArrayList<>();
+
+        new JiraApiService().moveIssuesToOtherProject("BRN", "LBN", outcome -> {
+            listenerThreads.add(Thread.currentThread().getName());
+            outcomes.add(outcome);
+        });
+
+        assertEquals(8, outcomes.size());
+        assertTrue(outcomes.stream().allMatch(outcome -> outcome.isMoved() && outcome.getAddedComments() == 3));
+        assertTrue(listenerThreads.toString(), listenerThreads.stream().noneMatch(name -> name.startsWith("I/O dispatcher")));
+        assertMoved(sourceIssues, server.getIssues("LBN"));
+    }
+
+    @Test
+    public void shouldPublishOutcomesOfAsynchronousMigrationToSlowSubscriber() throws Exception {
+        server.withLatency(2, 0).seedProject("BRN", 12, 2);
+        config.getMigration().setAsync(true);
+        config.getMigration().setConcurrency(4);
+        config.getMigration().setOutcomeBufferSize(1);
+        List<JSONObject> sourceIssues = server.getIssues("BRN");
+        OutcomeSubscriber subscriber = new OutcomeSubscriber(Long.MAX_VALUE, 50);
+
+        new JiraApiService().publishMovedIssues("BRN", "LBN").subscribe(subscriber);
+
+        assertTrue(subscriber.completed.await(30, TimeUnit.SECONDS));
+        assertEquals(null, subscriber.error);
+        assertEquals(12, subscriber.outcomes.size());
+        assertTrue(subscriber.outcomes.stream().allMatch(IssueOutcome::isMoved));
+        assertMoved(sourceIssues, server.getIssues("LBN"));
+    }
+
+    @Test
+    public void shouldNotCopyIssuesAgainWhenSyncedTwice() throws Exception {
+        server.seedProject("BRN", 6, 3);
+        JiraSynchronizer synchronizer = new JiraSynchronizer("BRN", "LBN");
+
+        synchronizer.syncTasksToOtherProject();
+        synchronizer.syncTasksToOtherProject();
+
+        assertEquals(6, server.getIssues("BRN").size());
+        assertEquals(6, server.getIssues("LBN").size());
+        assertEquals(3, server.getIssues("LBN").get(0).getJSONObject("fields")
+                .getJSONObject("comment").getJSONArray("comments").length());
+    }
+
+    @Test
+    public void shouldFetchTimeZoneOfJiraUserOnceWhenNoneIsConfigured() throws Exception {
+        server.withUserTimeZone(ZoneId.of("Pacific/Auckland")).seedProject("BRN", 2, 1);
+        JiraApiService service = new JiraApiService();
+
+        for (int i = 0; i < 3; i++) {
+            service.syncIssuesToOtherProject("BRN", "LBN");
+        }
+
+        assertEquals(1, countRequests("myself"));
+        assertEquals(2, server.getIssues("LBN").size());
+    }
+
+    @Test
+    public void shouldSearchOnlyIssuesUpdatedSincePreviousCycleInTimeZoneOfJiraUser() throws Exception {
+        server.withUserTimeZone(ZoneId.of("Pacific/Auckland")).seedProject("BRN", 4, 1);
+        server.ageIssues("BRN", Duration.ofHours(2));
+        JiraApiService service = new JiraApiService();
+        assertEquals(4, service.syncIssuesToOtherProject("BRN", "LBN").length());
+
+        server.seedIssue("BRN", "Issue created after the first cycle");
+        JSONArray synced = service.syncIssuesToOtherProject("BRN", "LBN");
+
+        assertEquals(1, synced.length());
+        assertEquals(5, server.getIssues("LBN").size());
+        assertEquals("Issue created after the first cycle", server.getIssues("LBN").get(4).getJSONObject("fields").getString("summary"));
+    }
+
+    @Test
+    public void shouldReuseCachedCreateMetadataWhenSyncedAgain() throws Exception {
+        server.seedProject("BRN", 6, 3);
+        config.getCache().setEnabled(true);
+        config.getCache().setDiskPath(temporaryFolder.getRoot().toPath().resolve("cache").toString());
+        JiraSynchronizer synchronizer = new JiraSynchronizer("BRN", "LBN");
+
+        synchronizer.syncTasksToOtherProject();
+        long createMetadataRequests = countRequests("createmeta");
+        server.seedProject("BRN", 2, 1);
+        synchronizer.syncTasksToOtherProject();
+
+        assertTrue(createMetadataRequests > 0);
+        assertEquals(createMetadataRequests, countRequests("createmeta"));
+        assertEquals(server.getIssues("BRN").size(), server.getIssues("LBN").size());
+    }
+
+    @Test
+    public void shouldSyncNewIssuesInCyclesOfDaemonResolvingMetadataOnce() throws Exception {
+        server.seedProject("BRN", 6, 2);
+        config.getDaemon().setInterval(60_000);
+        config.getDaemon().setReloadConfig(false);
+
+        try (SyncDaemon daemon = new SyncDaemon("BRN", "LBN")) {
+            daemon.start();
+            awaitIssues("LBN", 6);
+            long createMetadataRequests = countRequests("createmeta");
+            server.seedProject("BRN", 3, 1);
+            daemon.requestCycle();
+            daemon.requestCycle();
+            awaitIssues("LBN", server.getIssues("BRN").size());
+            awaitCompletedCycles(daemon, 2);
+
+            assertEquals(createMetadataRequests, countRequests("createmeta"));
+            assertEquals(0, daemon.getFailedCycles());
+        }
+    }
+
+    @Test
+    public void shouldSyncOnlyIssuesOfWebhookEventsBetweenCyclesOfDaemon() throws Exception {
+        server.seedProject("BRN", 6, 2);
+        config.getDaemon().setInterval(60_000);
+        config.getDaemon().setReloadConfig(false);
+        ConfigLoader.WebhookConfig webhookConfig = new Yaml(new Constructor(ConfigLoader.WebhookConfig.class))
+                .load("port: 0\ncoalesceWindow: 50\n");
+
+        try (SyncDaemon daemon = new SyncDaemon("BRN", "LBN");
+             WebhookListener listener = new WebhookListener(webhookConfig, "BRN", daemon::requestIssues);
+             CloseableHttpClient httpClient = HttpClients.createDefault()) {
+            daemon.start();
+            listener.start();
+            awaitIssues("LBN", 6);
+            awaitCompletedCycles(daemon, 1);
+            server.seedProject("BRN", 3, 1);
+            JSONObject changedIssue = server.getIssues("BRN").get(7);
+            JSONObject event = new JSONObject(webhookPayload("jira-issue-updated.json"));
+            event.getJSONObject("issue")
+                    .put("id", changedIssue.getString("id"))
+                    .put("key", changedIssue.getString("key"));
+            for (int i = 0; i < 3; i++) {
+                HttpPost request = new HttpPost("http://localhost:" + listener.getPort() + webhookConfig.getPath());
+                request.setEntity(new StringEntity(event.put("timestamp", i).toString(), ContentType.APPLICATION_JSON));
+                try (CloseableHttpResponse response = httpClient.execute(request)) {
+                    assertEquals(202, response.getStatusLine().getStatusCode());
+                }
+            }
+            awaitIssues("LBN", 7);
+            while (daemon.getSyncedRequestedIssues() < 1) {
+                Thread.sleep(20);
+            }
+
+            assertEquals(1, daemon.getCompletedCycles());
+            assertEquals(1, daemon.getSyncedRequestedIssues());
+            assertEquals(1, listener.getDispatchedBatches());
+            assertEquals(changedIssue.getJSONObject("fields").getString("summary"),
+                    server.getIssues("LBN").get(6).getJSONObject("fields").getString("summary"));
+        }
+    }
+
+    @Test
+    public void shouldMoveIssuesOfAllProjectPairsAtOnce() throws Exception {
+        server.seedProject("BRN", 20, 2);
+        server.seedProject("SRC", 4, 2);
+        List<JSONObject> largeSourceIssues = server.getIssues("BRN");
+        List<JSONObject> smallSourceIssues = server.getIssues("SRC");
+        ConfigLoader.ProjectPairsConfig pairsConfig = new Yaml(new Constructor(ConfigLoader.ProjectPairsConfig.class)).load(
+                "concurrency: 2\n"
+                        + "pairs:\n"
+                        + "  - {source: BRN, destination: LBN, weight: 2}\n"
+                        + "  - {source: SRC, destination: DST}\n");
+
+        List<ProjectPairScheduler.PairSummary> summaries = new ProjectPairScheduler(pairsConfig).moveAll();
+
+        assertEquals(2, summaries.size());
+        assertEquals("done", summaries.get(0).getState());
+        assertEquals(20, summaries.get(0).getIssues());
+        assertEquals(4, summaries.get(1).getIssues());
+        assertTrue(summaries.get(1).getRequests() > 0);
+        assertMoved(largeSourceIssues, server.getIssues("LBN"));
+        assertMoved(smallSourceIssues, server.getIssues("DST"));
+    }
+
+    @Test
+    public void shouldRecordUnexpectedExceptionOfProjectPairAsItsFailure() throws Exception {
+        server.seedProject("BRN", 6, 1);
+        server.seedProject("SRC", 2, 1);
+        config.getMetrics().setExportPath("metrics\0.json");
+        ConfigLoader.ProjectPairsConfig pairsConfig = new Yaml(new Constructor(ConfigLoader.ProjectPairsConfig.class)).load(
+                "concurrency: 2\n"
+                        + "pairs:\n"
+                        + "  - {source: BRN, destination: LBN}\n"
+                        + "  - {source: SRC, destination: DST}\n");
+
+        List<ProjectPairScheduler.PairSummary> summaries = new ProjectPairScheduler(pairsConfig).moveAll();
+
+        for (ProjectPairScheduler.PairSummary summary : summaries) {
+            assertEquals("failed", summary.getState());
+            assertTrue(summary.getFailure().getCause() instanceof InvalidPathException);
+        }
+        assertEquals(6, server.getIssues("LBN").size());
+        assertEquals(2, server.getIssues("DST").size());
+    }
+
+    @Test
+    public void shouldStreamAttachmentsOfMovedIssuesUpToSizeLimit() throws Exception {
+        server.seedProject("BRN", 4, 1);
+        server.seedAttachments("BRN", 2, 3 * 1024 * 1024 + 17);
+        server.seedAttachments("BRN", 1, 9 * 1024 * 1024);
+        config.getAttachments().setEnabled(true);
+        config.getAttachments().setMaxSize(8 * 1024 * 1024);
+        config.getMigration().setAsync(true);
+        Map<String, Long> sourceChecksums = new HashMap<>();
+        for (JSONObject issue : server.getIssues("BRN")) {
+            JSONArray attachments = issue.getJSONObject("fields").getJSONArray("attachment");
+            for (int i = 0; i < attachments.length(); i++) {
+                JSONObject attachment = attachments.getJSONObject(i);
+                if (attachment.getLong("size") <= config.getAttachments().getMaxSize()) {
+                    sourceChecksums.put(attachment.getString("filename"), attachment.getLong("crc32"));
+                }
+            }
+        }
+
+        new JiraSynchronizer("BRN", "LBN").moveTasksToOtherProject();
+
+        Map<String, Long> movedChecksums = new HashMap<>();
+        for (JSONObject issue : server.getIssues("LBN")) {
+            JSONArray attachments = issue.getJSONObject("fields").getJSONArray("attachment");
+            for (int i = 0; i < attachments.length(); i++) {
+                JSONObject attachment = attachments.getJSONObject(i);
+                assertEquals(3 * 1024 * 1024 + 17, attachment.getLong("size"));
+                movedChecksums.put(attachment.getString("filename"), attachment.getLong("crc32"));
+            }
+        }
+        assertEquals(8, sourceChecksums.size());
+        assertEquals(sourceChecksums, movedChecksums);
+    }
+
+    private void awaitIssues(String projectKey, int issues) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (server.getIssues(projectKey).size() < issues && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(issues, server.getIssues(projectKey).size());
+    }
+
+    private static void awaitCompletedCycles(SyncDaemon daemon, int cycles) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (daemon.getCompletedCycles() < cycles && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(daemon.getCompletedCycles() >= cycles);
+    }
+
+    private void awaitIdleServer() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 20_000;
+        long requests = -1;
+        while (requests != server.getRequestCount() && System.currentTimeMillis() < deadline) {
+            requests = server.getRequestCount();
+            Thread.sleep(300);
+        }
+    }
+
+    private static String webhookPayload(String name) throws IOException {
+        try (InputStream in = JiraSynchronizerEndToEndTests.class.getResourceAsStream("/webhooks/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private long countRequests(String endpointPart) {
+        return server.getStats().entrySet().stream()
+                .filter(entry -> entry.getKey().contains(endpointPart))
+                .mapToLong(entry -> entry.getValue().getCount())
+                .sum();
+    }
+
+    /**
+     * Subscriber requesting outcomes one at a time, cancelling its subscription after the given number of outcomes.
+     * A slow subscriber takes the given time to handle every outcome.
+     */
+    private static class OutcomeSubscriber implements Flow.Subscriber<IssueOutcome> {
+        private final long cancelAfter;
+        private final long delayMillis;
+        private final List<IssueOutcome> outcomes = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private final CountDownLatch cancelled = new CountDownLatch(1);
+        private volatile Throwable error;
+        private Flow.Subscription subscription;
+
+        private OutcomeSubscriber(long cancelAfter) {
+            this(cancelAfter, 0);
+        }
+
+        private OutcomeSubscriber(long cancelAfter, long delayMillis) {
+            this.cancelAfter = cancelAfter;
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(IssueOutcome outcome) {
+            if (delayMillis > 0) {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            outcomes.add(outcome);
+            if (outcomes.size() >= cancelAfter) {
+                subscription.cancel();
+                cancelled.countDown();
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+
+    private static void assertMoved(List<JSONObject> sourceIssues, List<JSONObject> newIssues) {
+        assertEquals(sourceIssues.size(), newIssues.size());
+        Map<String, JSONObject> newIssuesBySummary = new HashMap<>();
+        newIssues.forEach(issue -> newIssuesBySummary.put(issue.getJSONObject("fields").getString("summary"), issue.getJSONObject("fields")));
+        for (JSONObject sourceIssue : sourceIssues) {
+            JSONObject source = sourceIssue.getJSONObject("fields");
+            JSONObject moved = newIssuesBySummary.get(source.getString("summary"));
+            assertEquals(source.getString("description"), moved.getString("description"));
+            assertEquals(source.getJSONObject("priority").getString("name"), moved.getJSONObject("priority").getString("name"));
+            assertEquals(source.getJSONObject("status").getString("name"), moved.getJSONObject("status").getString("name"));
+            assertEquals(source.getJSONObject("comment").getInt("total"), moved.getJSONObject("comment").getInt("total"));
+            assertEquals(source.getJSONObject("comment").getJSONArray("comments").getJSONObject(0).getString("body"),
+                    moved.getJSONObject("comment").getJSONArray("comments").getJSONObject(0).getString("body"));
+        }
+    }
+
+}
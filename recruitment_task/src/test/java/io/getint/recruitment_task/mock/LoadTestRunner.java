@@ -0,0 +1,85 @@
+package io.getint.recruitment_task.mock;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.service.JiraApiService;
+import org.json.JSONArray;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * End-to-end load test moving a synthetic project through a {@link MockJiraServer}, reporting the throughput,
+ * the number of requests per issue, the server-side latency percentiles of every endpoint and the client-side metrics.
+ * <p>
+ * Run with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.getint.recruitment_task.mock.LoadTestRunner -Dexec.args="issues=500 comments=10 latency=50"}.
+ * The arguments, all optional, are:
+ * <ul>
+ *     <li>{@code issues}, {@code comments}: the size of the seeded source project, 200 issues with 5 comments by default</li>
+ *     <li>{@code latency}, {@code jitter}: the delay of every response in milliseconds, 20 and 10 by default</li>
+ *     <li>{@code errorRate}, {@code throttleRate}: the rates of 500 and 429 responses, none by default</li>
+ *     <li>{@code concurrency}, {@code async}, {@code bulkCreateSize}, {@code requestsPerSecond}: the migration settings,
+ *     as configured in {@code jira-api-config.yml} by default</li>
+ * </ul>
+ */
+public class LoadTestRunner {
+
+    private static final String SOURCE_PROJECT_KEY = "SRC";
+    private static final String DESTINATION_PROJECT_KEY = "DST";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        ConfigLoader.JiraApiConfig config = ConfigLoader.getJiraApiConfig();
+        int issues = Integer.parseInt(options.getOrDefault("issues", "200"));
+        int comments = Integer.parseInt(options.getOrDefault("comments", "5"));
+        config.getMigration().setConcurrency(Integer.parseInt(options.getOrDefault("concurrency", String.valueOf(config.getMigration().getConcurrency()))));
+        config.getMigration().setAsync(Boolean.parseBoolean(options.getOrDefault("async", String.valueOf(config.getMigration().isAsync()))));
+        config.getMigration().setBulkCreateSize(Integer.parseInt(options.getOrDefault("bulkCreateSize", String.valueOf(config.getMigration().getBulkCreateSize()))));
+        config.getThrottle().setRequestsPerSecond(Double.parseDouble(options.getOrDefault("requestsPerSecond", String.valueOf(config.getThrottle().getRequestsPerSecond()))));
+
+        Path journalDirectory = Files.createTempDirectory("load-test");
+        config.getJournal().setPath(journalDirectory.resolve("journal.bin").toString());
+        Logger.getLogger("io.getint.recruitment_task").setLevel(Level.WARNING);
+
+        try (MockJiraServer server = new MockJiraServer(Integer.parseInt(options.getOrDefault("serverThreads", "64")))) {
+            server.withLatency(Long.parseLong(options.getOrDefault("latency", "20")), Long.parseLong(options.getOrDefault("jitter", "10")))
+                    .withErrorRate(Double.parseDouble(options.getOrDefault("errorRate", "0")))
+                    .withThrottleRate(Double.parseDouble(options.getOrDefault("throttleRate", "0")), 0)
+                    .seedProject(SOURCE_PROJECT_KEY, issues, comments);
+            config.setServer(server.getUrl());
+
+            JiraApiService jiraApiService = new JiraApiService();
+            long start = System.nanoTime();
+            JSONArray movedIssues = jiraApiService.moveIssuesToOtherProject(SOURCE_PROJECT_KEY, DESTINATION_PROJECT_KEY);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.out.println(String.format("Moved %d issues with %d comments each in %.2f s: %.1f issues/s, %.1f requests/issue",
+                    movedIssues.length(), comments, seconds, movedIssues.length() / seconds, (double) server.getRequestCount() / Math.max(1, movedIssues.length())));
+            System.out.println(String.format("%-60s %8s %10s %10s %10s", "Endpoint", "Requests", "p50 ms", "p95 ms", "p99 ms"));
+            server.getStats().forEach((endpoint, stats) -> System.out.println(String.format("%-60s %8d %10.1f %10.1f %10.1f",
+                    endpoint, stats.getCount(), stats.getLatencyMillis(50), stats.getLatencyMillis(95), stats.getLatencyMillis(99))));
+            System.out.println("Client-side metrics:");
+            System.out.println(jiraApiService.getMetrics().toPrometheus());
+        } finally {
+            Files.deleteIfExists(journalDirectory.resolve("journal.bin"));
+            Files.deleteIfExists(journalDirectory);
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected name=value argument: " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+}
@@ -0,0 +1,949 @@
+package io.getint.recruitment_task.mock;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-process stub of the Jira REST endpoints used by the migration: search, issue create, bulk create,
+ * update and delete, comments, attachments, transitions and create metadata.
+ * <p>
+ * Every request can be delayed by a fixed latency with a random jitter, and can fail with a server error
+ * or be throttled with status 429 at the configured rates. Every project has the same workflow
+ * ({@code To Do}, {@code In Progress}, {@code Done}, each reachable from the others) and the same issue types
+ * ({@code Task}, {@code Bug}). The handled requests are counted and timed per endpoint.
+ * <p>
+ * Attachment contents are generated on the fly when downloaded and only checksummed when uploaded, so attachments
+ * of any size are served without being held in memory; their {@code crc32} is listed with the attachment fields.
+ * GET responses carry an {@code ETag} and are answered with {@code 304 Not Modified} when it is matched.
+ */
+public class MockJiraServer implements AutoCloseable {
+
+    public static final String API_URI = "/rest/api/2/";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSZ");
+    private static final List<String> STATUSES = List.of("To Do", "In Progress", "Done");
+    private static final Map<String, String> PRIORITIES = new LinkedHashMap<>(Map.of(
+            "1", "Highest", "2", "High", "3", "Medium", "4", "Low", "5", "Lowest"));
+    private static final Map<String, String> ISSUE_TYPES = new LinkedHashMap<>(Map.of("10001", "Task", "10002", "Bug"));
+
+    private static final Pattern PROJECT_JQL = Pattern.compile("project = \"?([A-Z][A-Z0-9]*)\"?");
+    private static final Pattern AFTER_KEY_JQL = Pattern.compile("key > \"([A-Z][A-Z0-9]*-\\d+)\"");
+    private static final Pattern LABELS_JQL = Pattern.compile("labels in \\(([^)]*)\\)");
+    private static final Pattern IDS_JQL = Pattern.compile("id in \\(([^)]*)\\)");
+    private static final Pattern UPDATED_JQL = Pattern.compile("updated >= \"(\\d{4}/\\d{2}/\\d{2} \\d{2}:\\d{2})\"");
+    private static final DateTimeFormatter JQL_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy/MM/dd HH:mm");
+    private static final Pattern FILENAME = Pattern.compile("filename=\"([^\"]*)\"");
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, TreeMap<Integer, MockIssue>> projects = new HashMap<>();
+    private final Map<String, MockIssue> issuesById = new HashMap<>();
+    private final Map<String, MockAttachment> attachmentsById = new ConcurrentHashMap<>();
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong gzipRequestBodies = new AtomicLong();
+    private final AtomicLong gzipResponseBodies = new AtomicLong();
+    private int nextIssueId = 10000;
+    private int nextCommentId = 50000;
+    private int nextAttachmentId = 70000;
+
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double errorRate;
+    private volatile double throttleRate;
+    private volatile int retryAfterSeconds;
+    private volatile int embeddedCommentLimit = 20;
+    private volatile boolean gzipRequests;
+    private volatile ZoneId userTimeZone = ZoneOffset.UTC;
+
+    /**
+     * Starts the server on a free local port.
+     *
+     * @param threads the number of threads handling requests
+     * @throws IOException if the server cannot be bound
+     */
+    public MockJiraServer(int threads) throws IOException {
+        // without it the responses written in two packets wait for the delayed ACK of the client
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mock-jira");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext(API_URI, this::handle);
+        server.start();
+    }
+
+    public String getUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public MockJiraServer withLatency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        return this;
+    }
+
+    public MockJiraServer withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public MockJiraServer withThrottleRate(double throttleRate, int retryAfterSeconds) {
+        this.throttleRate = throttleRate;
+        this.retryAfterSeconds = retryAfterSeconds;
+        return this;
+    }
+
+    public MockJiraServer withEmbeddedCommentLimit(int embeddedCommentLimit) {
+        this.embeddedCommentLimit = embeddedCommentLimit;
+        return this;
+    }
+
+    /**
+     * Accepts gzip encoded request bodies; without it they are rejected with {@code 415 Unsupported Media Type}.
+     */
+    public MockJiraServer withGzipRequests(boolean gzipRequests) {
+        this.gzipRequests = gzipRequests;
+        return this;
+    }
+
+    /**
+     * Sets the time zone of the Jira user, reported by {@code myself}, in which JQL dates are interpreted.
+     */
+    public MockJiraServer withUserTimeZone(ZoneId userTimeZone) {
+        this.userTimeZone = userTimeZone;
+        return this;
+    }
+
+    /**
+     * Seeds a project with synthetic issues, cycling through the issue types, priorities and statuses.
+     *
+     * @param projectKey the key of the project, created if missing
+     * @param issues     the number of issues
+     * @param comments   the number of comments of every issue
+     */
+    public synchronized void seedProject(String projectKey, int issues, int comments) {
+        List<String> priorities = new ArrayList<>(PRIORITIES.keySet());
+        List<String> issueTypes = new ArrayList<>(ISSUE_TYPES.keySet());
+        ZonedDateTime created = ZonedDateTime.of(2024, 1, 1, 9, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < issues; i++) {
+            String priorityId = priorities.get(i % priorities.size());
+            String issueTypeId = issueTypes.get(i % issueTypes.size());
+            MockIssue issue = addIssue(projectKey, new JSONObject()
+                    .put("summary", "Issue " + (i + 1) + " of " + projectKey)
+                    .put("description", "Description of issue " + (i + 1) + " ".repeat(i % 7) + "with some text.")
+                    .put("priority", priority(priorityId))
+                    .put("issuetype", issueType(issueTypeId))
+                    .put("labels", new JSONArray()));
+            issue.status = STATUSES.get(i % STATUSES.size());
+            for (int j = 0; j < comments; j++) {
+                issue.comments.add(comment("Comment " + (j + 1) + " of " + issue.key, created.plusMinutes(j)));
+            }
+        }
+    }
+
+    /**
+     * Seeds a single Task with the given summary, e.g. an empty one which is rejected when the issue is created again.
+     *
+     * @param projectKey the key of the project, created if missing
+     * @param summary    the summary of the issue
+     */
+    public synchronized void seedIssue(String projectKey, String summary) {
+        addIssue(projectKey, new JSONObject()
+                .put("summary", summary)
+                .put("description", "Description of " + summary)
+                .put("priority", priority("3"))
+                .put("issuetype", issueType("10001"))
+                .put("labels", new JSONArray()));
+    }
+
+    /**
+     * Moves the last update of every issue of a project back in time, e.g. to before the previous synchronisation.
+     *
+     * @param projectKey the key of the project
+     * @param age        the time since the last update of every issue
+     */
+    public synchronized void ageIssues(String projectKey, Duration age) {
+        Instant updated = Instant.now().minus(age);
+        projects.getOrDefault(projectKey, new TreeMap<>()).values().forEach(issue -> issue.updated = updated);
+    }
+
+    /**
+     * Adds synthetic attachments to every issue of a project.
+     *
+     * @param projectKey  the key of the project
+     * @param attachments the number of attachments of every issue
+     * @param size        the size of every attachment in bytes
+     */
+    public synchronized void seedAttachments(String projectKey, int attachments, long size) {
+        for (MockIssue issue : projects.getOrDefault(projectKey, new TreeMap<>()).values()) {
+            for (int i = 0; i < attachments; i++) {
+                MockAttachment attachment = addAttachment(issue, "attachment-" + (i + 1) + "-of-" + issue.key + ".bin", "application/octet-stream");
+                attachment.size = size;
+                CRC32 crc = new CRC32();
+                byte[] buffer = new byte[64 * 1024];
+                for (long offset = 0; offset < size; offset += buffer.length) {
+                    int length = (int) Math.min(buffer.length, size - offset);
+                    attachment.fill(buffer, offset, length);
+                    crc.update(buffer, 0, length);
+                }
+                attachment.crc32 = crc.getValue();
+            }
+        }
+    }
+
+    /**
+     * Gets the issues of a project in the order of their keys.
+     *
+     * @param projectKey the key of the project
+     * @return the issues with all fields and comments
+     */
+    public synchronized List<JSONObject> getIssues(String projectKey) {
+        List<JSONObject> issues = new ArrayList<>();
+        for (MockIssue issue : projects.getOrDefault(projectKey, new TreeMap<>()).values()) {
+            issues.add(toJson(issue, null, Integer.MAX_VALUE));
+        }
+        return issues;
+    }
+
+    /**
+     * Gets the statistics of the handled requests by endpoint, e.g. {@code POST issue/{id}/comment}.
+     *
+     * @return the statistics by endpoint
+     */
+    public Map<String, EndpointStats> getStats() {
+        return new TreeMap<>(stats);
+    }
+
+    public long getGzipRequestBodies() {
+        return gzipRequestBodies.get();
+    }
+
+    public long getGzipResponseBodies() {
+        return gzipResponseBodies.get();
+    }
+
+    public long getRequestCount() {
+        return stats.values().stream().mapToLong(EndpointStats::getCount).sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String method = exchange.getRequestMethod();
+        List<String> path = Arrays.asList(exchange.getRequestURI().getPath().substring(API_URI.length()).split("/"));
+        String endpoint = method + " " + getEndpoint(path);
+        try {
+            delay();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            if (random.nextDouble() < throttleRate) {
+                exchange.getResponseHeaders().add("Retry-After", String.valueOf(retryAfterSeconds));
+                respond(exchange, 429, new JSONObject().put("errorMessages", new JSONArray().put("Rate limit exceeded")));
+            } else if (random.nextDouble() < errorRate) {
+                respond(exchange, 500, new JSONObject().put("errorMessages", new JSONArray().put("Injected server error")));
+            } else if (path.size() == 3 && path.get(0).equals("attachment") && path.get(1).equals("content") && method.equals("GET")) {
+                downloadAttachment(exchange, attachmentsById.get(path.get(2)));
+            } else if (path.size() == 3 && path.get(0).equals("issue") && path.get(2).equals("attachments") && method.equals("POST")) {
+                uploadAttachment(exchange, path.get(1));
+            } else if (isGzipEncoded(exchange.getRequestHeaders().getFirst("Content-Encoding")) && !gzipRequests) {
+                exchange.getRequestBody().readAllBytes();
+                respond(exchange, 415, new JSONObject().put("errorMessages", new JSONArray().put("Unsupported content encoding")));
+            } else {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                JSONObject body = readBody(exchange);
+                Response response;
+                synchronized (this) {
+                    response = route(method, path, query, body);
+                }
+                if (method.equals("GET") && response.status == 200 && response.body != null) {
+                    String etag = "\"" + Integer.toHexString(response.body.toString().hashCode()) + "\"";
+                    exchange.getResponseHeaders().set("ETag", etag);
+                    if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                        response = new Response(304, null);
+                    }
+                }
+                respond(exchange, response.status, response.body);
+            }
+        } catch (RuntimeException e) {
+            respond(exchange, 500, new JSONObject().put("errorMessages", new JSONArray().put(String.valueOf(e))));
+        } finally {
+            stats.computeIfAbsent(endpoint, key -> new EndpointStats()).record(System.nanoTime() - start);
+        }
+    }
+
+    private Response route(String method, List<String> path, Map<String, String> query, JSONObject body) {
+        String resource = path.get(0);
+        if (resource.equals("search") && method.equals("GET")) {
+            return search(query);
+        }
+        if (resource.equals("myself") && method.equals("GET")) {
+            return new Response(200, new JSONObject().put("name", "mock").put("timeZone", userTimeZone.getId()));
+        }
+        if (!resource.equals("issue")) {
+            return notFound();
+        }
+        if (path.size() == 1 && method.equals("POST")) {
+            return createIssue(body);
+        }
+        if (path.size() == 2 && path.get(1).equals("bulk") && method.equals("POST")) {
+            return createIssues(body);
+        }
+        if (path.size() >= 3 && path.get(1).equals("createmeta")) {
+            return path.size() == 4 ? createMetaIssueTypes(path.get(2)) : createMetaFields(path.get(4));
+        }
+        MockIssue issue = issuesById.get(path.get(1));
+        if (issue == null) {
+            return notFound();
+        }
+        if (path.size() == 2) {
+            switch (method) {
+                case "GET":
+                    return new Response(200, toJson(issue, fields(query), embeddedCommentLimit));
+                case "PUT":
+                    return updateIssue(issue, body);
+                case "DELETE":
+                    projects.get(issue.projectKey).remove(issue.number);
+                    issuesById.remove(issue.id);
+                    return new Response(204, null);
+                default:
+                    return notFound();
+            }
+        }
+        if (path.get(2).equals("comment")) {
+            return method.equals("GET") ? comments(issue, query) : addComment(issue, body);
+        }
+        if (path.get(2).equals("transitions")) {
+            return method.equals("GET") ? transitions(issue) : transition(issue, body);
+        }
+        return notFound();
+    }
+
+    /**
+     * Streams the generated content of an attachment.
+     */
+    private void downloadAttachment(HttpExchange exchange, MockAttachment attachment) throws IOException {
+        if (attachment == null || attachment.crc32 < 0 || attachment.seed < 0) {
+            respond(exchange, 404, new JSONObject().put("errorMessages", new JSONArray().put("Not found")));
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", attachment.mimeType);
+        exchange.sendResponseHeaders(200, attachment.size > 0 ? attachment.size : -1);
+        try (OutputStream output = exchange.getResponseBody()) {
+            byte[] buffer = new byte[64 * 1024];
+            for (long offset = 0; offset < attachment.size; offset += buffer.length) {
+                int length = (int) Math.min(buffer.length, attachment.size - offset);
+                attachment.fill(buffer, offset, length);
+                output.write(buffer, 0, length);
+            }
+        }
+        exchange.close();
+    }
+
+    /**
+     * Reads a multipart upload of a single file as a stream, checksumming the file content without holding it.
+     */
+    private void uploadAttachment(HttpExchange exchange, String issueId) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (!"no-check".equals(exchange.getRequestHeaders().getFirst("X-Atlassian-Token"))
+                || contentType == null || !contentType.startsWith("multipart/form-data")) {
+            exchange.getRequestBody().readAllBytes();
+            respond(exchange, 415, new JSONObject().put("errorMessages", new JSONArray().put("XSRF check failed")));
+            return;
+        }
+        String boundary = contentType.substring(contentType.indexOf("boundary=") + "boundary=".length()).replace("\"", "");
+        InputStream body = new BufferedInputStream(exchange.getRequestBody());
+        String filename = null;
+        String mimeType = "application/octet-stream";
+        for (String header = readLine(body); header != null && !header.isEmpty(); header = readLine(body)) {
+            Matcher disposition = FILENAME.matcher(header);
+            if (disposition.find()) {
+                filename = disposition.group(1);
+            } else if (header.toLowerCase().startsWith("content-type:")) {
+                mimeType = header.substring("content-type:".length()).trim();
+            }
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] tail = new byte[closing.length];
+        int tailLength = 0;
+        long size = 0;
+        CRC32 crc = new CRC32();
+        for (int next = body.read(); next >= 0; next = body.read()) {
+            if (tailLength == tail.length) {
+                crc.update(tail[0]);
+                size++;
+                System.arraycopy(tail, 1, tail, 0, tail.length - 1);
+                tailLength--;
+            }
+            tail[tailLength++] = (byte) next;
+        }
+        if (filename == null || tailLength != tail.length || !Arrays.equals(tail, closing)) {
+            respond(exchange, 400, new JSONObject().put("errorMessages", new JSONArray().put("Malformed multipart request")));
+            return;
+        }
+        MockAttachment attachment;
+        synchronized (this) {
+            MockIssue issue = issuesById.get(issueId);
+            if (issue == null) {
+                respond(exchange, 404, new JSONObject().put("errorMessages", new JSONArray().put("Not found")));
+                return;
+            }
+            attachment = addAttachment(issue, filename, mimeType);
+            attachment.seed = -1;
+            attachment.size = size;
+            attachment.crc32 = crc.getValue();
+            issue.updated = Instant.now();
+        }
+        byte[] bytes = new JSONArray().put(toJson(attachment)).toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+        exchange.close();
+    }
+
+    private Response search(Map<String, String> query) {
+        String jql = query.getOrDefault("jql", "");
+        Matcher project = PROJECT_JQL.matcher(jql);
+        if (!project.find()) {
+            return badRequest("The JQL query must restrict the project");
+        }
+        Matcher afterKey = AFTER_KEY_JQL.matcher(jql);
+        int afterNumber = afterKey.find() ? Integer.parseInt(afterKey.group(1).substring(afterKey.group(1).indexOf('-') + 1)) : 0;
+        Matcher labels = LABELS_JQL.matcher(jql);
+        Set<String> searchedLabels = new HashSet<>();
+        if (labels.find()) {
+            for (String label : labels.group(1).split(",")) {
+                searchedLabels.add(label.trim().replace("\"", ""));
+            }
+        }
+        Matcher ids = IDS_JQL.matcher(jql);
+        Set<String> searchedIds = ids.find() ? new HashSet<>(Arrays.asList(ids.group(1).replace(" ", "").split(","))) : Set.of();
+        // JQL dates have minute precision and are interpreted in the time zone of the user
+        Matcher updated = UPDATED_JQL.matcher(jql);
+        Instant updatedSince = updated.find() ? LocalDateTime.parse(updated.group(1), JQL_DATE_FORMAT).atZone(userTimeZone).toInstant() : null;
+        int maxResults = Integer.parseInt(query.getOrDefault("maxResults", "50"));
+        Set<String> fields = fields(query);
+
+        JSONArray issues = new JSONArray();
+        int total = 0;
+        for (MockIssue issue : projects.getOrDefault(project.group(1), new TreeMap<>()).tailMap(afterNumber, false).values()) {
+            if (!searchedLabels.isEmpty() && !hasAnyLabel(issue, searchedLabels)
+                    || !searchedIds.isEmpty() && !searchedIds.contains(issue.id)
+                    || updatedSince != null && issue.updated.isBefore(updatedSince)) {
+                continue;
+            }
+            if (issues.length() < maxResults) {
+                issues.put(toJson(issue, fields, embeddedCommentLimit));
+            }
+            total++;
+        }
+        return new Response(200, new JSONObject()
+                .put("startAt", 0)
+                .put("maxResults", maxResults)
+                .put("total", total)
+                .put("issues", issues));
+    }
+
+    private Response createIssue(JSONObject body) {
+        JSONObject fields = body.getJSONObject("fields");
+        String error = validate(fields);
+        if (error != null) {
+            return badRequest(error);
+        }
+        MockIssue issue = addIssue(fields.getJSONObject("project").getString("key"), createdFields(fields));
+        return new Response(201, new JSONObject().put("id", issue.id).put("key", issue.key).put("self", self(issue)));
+    }
+
+    private Response createIssues(JSONObject body) {
+        JSONArray issueUpdates = body.getJSONArray("issueUpdates");
+        JSONArray issues = new JSONArray();
+        JSONArray errors = new JSONArray();
+        for (int i = 0; i < issueUpdates.length(); i++) {
+            JSONObject fields = issueUpdates.getJSONObject(i).getJSONObject("fields");
+            String error = validate(fields);
+            if (error != null) {
+                errors.put(new JSONObject()
+                        .put("status", 400)
+                        .put("failedElementNumber", i)
+                        .put("elementErrors", new JSONObject().put("errorMessages", new JSONArray().put(error))));
+                continue;
+            }
+            MockIssue issue = addIssue(fields.getJSONObject("project").getString("key"), createdFields(fields));
+            issues.put(new JSONObject().put("id", issue.id).put("key", issue.key).put("self", self(issue)));
+        }
+        // Jira answers 400 instead of 201 when not a single issue was created
+        return new Response(issues.isEmpty() && !errors.isEmpty() ? 400 : 201, new JSONObject().put("issues", issues).put("errors", errors));
+    }
+
+    private Response updateIssue(MockIssue issue, JSONObject body) {
+        JSONObject fields = body.getJSONObject("fields");
+        for (String field : fields.keySet()) {
+            if (field.equals("priority")) {
+                String priorityId = fields.getJSONObject(field).optString("id", null);
+                if (!PRIORITIES.containsKey(priorityId)) {
+                    return badRequest("Priority " + priorityId + " does not exist");
+                }
+                issue.fields.put(field, priority(priorityId));
+            } else {
+                issue.fields.put(field, fields.get(field));
+            }
+        }
+        issue.updated = Instant.now();
+        return new Response(204, null);
+    }
+
+    private Response comments(MockIssue issue, Map<String, String> query) {
+        int startAt = Integer.parseInt(query.getOrDefault("startAt", "0"));
+        int maxResults = Integer.parseInt(query.getOrDefault("maxResults", "50"));
+        JSONArray comments = new JSONArray();
+        for (int i = startAt; i < issue.comments.size() && comments.length() < maxResults; i++) {
+            comments.put(issue.comments.get(i));
+        }
+        return new Response(200, new JSONObject()
+                .put("startAt", startAt)
+                .put("maxResults", maxResults)
+                .put("total", issue.comments.size())
+                .put("comments", comments));
+    }
+
+    private Response addComment(MockIssue issue, JSONObject body) {
+        JSONObject comment = comment(body.getString("body"), ZonedDateTime.now(ZoneOffset.UTC));
+        issue.comments.add(comment);
+        issue.updated = Instant.now();
+        return new Response(201, comment);
+    }
+
+    private Response transitions(MockIssue issue) {
+        JSONArray transitions = new JSONArray();
+        for (int i = 0; i < STATUSES.size(); i++) {
+            if (!STATUSES.get(i).equals(issue.status)) {
+                transitions.put(new JSONObject()
+                        .put("id", String.valueOf(11 + i * 10))
+                        .put("name", STATUSES.get(i))
+                        .put("to", status(i)));
+            }
+        }
+        return new Response(200, new JSONObject().put("transitions", transitions));
+    }
+
+    private Response transition(MockIssue issue, JSONObject body) {
+        String transitionId = body.getJSONObject("transition").getString("id");
+        int index = (Integer.parseInt(transitionId) - 11) / 10;
+        if (index < 0 || index >= STATUSES.size() || STATUSES.get(index).equals(issue.status)) {
+            return badRequest("Transition " + transitionId + " is not valid for issue " + issue.key);
+        }
+        issue.status = STATUSES.get(index);
+        issue.updated = Instant.now();
+        return new Response(204, null);
+    }
+
+    private Response createMetaIssueTypes(String projectKey) {
+        JSONArray values = new JSONArray();
+        ISSUE_TYPES.forEach((id, name) -> values.put(issueType(id)));
+        return new Response(200, new JSONObject()
+                .put("startAt", 0)
+                .put("maxResults", 50)
+                .put("total", values.length())
+                .put("isLast", true)
+                .put("values", values));
+    }
+
+    private Response createMetaFields(String issueTypeId) {
+        if (!ISSUE_TYPES.containsKey(issueTypeId)) {
+            return notFound();
+        }
+        JSONArray allowedPriorities = new JSONArray();
+        PRIORITIES.keySet().forEach(id -> allowedPriorities.put(priority(id)));
+        JSONArray values = new JSONArray()
+                .put(field("summary", "string", true))
+                .put(field("description", "string", false))
+                .put(field("priority", "priority", false).put("allowedValues", allowedPriorities))
+                .put(field("labels", "array", false))
+                .put(field("issuetype", "issuetype", true))
+                .put(field("project", "project", true));
+        return new Response(200, new JSONObject()
+                .put("startAt", 0)
+                .put("maxResults", 50)
+                .put("total", values.length())
+                .put("isLast", true)
+                .put("values", values));
+    }
+
+    private String validate(JSONObject fields) {
+        JSONObject project = fields.optJSONObject("project");
+        if (project == null || !project.has("key")) {
+            return "Project is required";
+        }
+        JSONObject issueType = fields.optJSONObject("issuetype");
+        if (issueType == null || !ISSUE_TYPES.containsKey(issueType.optString("id"))) {
+            return "Issue type is required";
+        }
+        if (fields.optString("summary").isEmpty()) {
+            return "Summary is required";
+        }
+        JSONObject priority = fields.optJSONObject("priority");
+        if (priority != null && !PRIORITIES.containsKey(priority.optString("id"))) {
+            return "Priority " + priority.optString("id") + " does not exist";
+        }
+        return null;
+    }
+
+    private JSONObject createdFields(JSONObject fields) {
+        JSONObject created = new JSONObject()
+                .put("summary", fields.getString("summary"))
+                .put("description", fields.opt("description"))
+                .put("issuetype", issueType(fields.getJSONObject("issuetype").getString("id")))
+                .put("labels", fields.optJSONArray("labels") != null ? fields.getJSONArray("labels") : new JSONArray());
+        JSONObject priority = fields.optJSONObject("priority");
+        return created.put("priority", priority(priority != null ? priority.getString("id") : "3"));
+    }
+
+    private MockIssue addIssue(String projectKey, JSONObject fields) {
+        TreeMap<Integer, MockIssue> project = projects.computeIfAbsent(projectKey, key -> new TreeMap<>());
+        MockIssue issue = new MockIssue();
+        issue.id = String.valueOf(nextIssueId++);
+        issue.projectKey = projectKey;
+        issue.number = project.isEmpty() ? 1 : project.lastKey() + 1;
+        issue.key = projectKey + "-" + issue.number;
+        issue.fields = fields;
+        issue.status = STATUSES.get(0);
+        issue.updated = Instant.now();
+        project.put(issue.number, issue);
+        issuesById.put(issue.id, issue);
+        issuesById.put(issue.key, issue);
+        return issue;
+    }
+
+    private JSONObject toJson(MockIssue issue, Set<String> fields, int commentLimit) {
+        JSONObject json = new JSONObject();
+        for (String field : issue.fields.keySet()) {
+            if (fields == null || fields.contains(field)) {
+                json.put(field, issue.fields.get(field));
+            }
+        }
+        if (fields == null || fields.contains("status")) {
+            json.put("status", status(STATUSES.indexOf(issue.status)));
+        }
+        if (fields == null || fields.contains("updated")) {
+            json.put("updated", issue.updated.atZone(ZoneOffset.UTC).format(DATE_FORMAT));
+        }
+        if (fields == null || fields.contains("attachment")) {
+            JSONArray attachments = new JSONArray();
+            issue.attachments.forEach(attachment -> attachments.put(toJson(attachment)));
+            json.put("attachment", attachments);
+        }
+        if (fields == null || fields.contains("comment")) {
+            JSONArray comments = new JSONArray();
+            for (int i = 0; i < issue.comments.size() && i < commentLimit; i++) {
+                comments.put(issue.comments.get(i));
+            }
+            json.put("comment", new JSONObject()
+                    .put("comments", comments)
+                    .put("maxResults", comments.length())
+                    .put("total", issue.comments.size())
+                    .put("startAt", 0));
+        }
+        return new JSONObject()
+                .put("expand", "renderedFields,names,schema,operations,editmeta,changelog")
+                .put("id", issue.id)
+                .put("self", self(issue))
+                .put("key", issue.key)
+                .put("fields", json);
+    }
+
+    private JSONObject toJson(MockAttachment attachment) {
+        return new JSONObject()
+                .put("id", attachment.id)
+                .put("self", getUrl() + API_URI + "attachment/" + attachment.id)
+                .put("filename", attachment.filename)
+                .put("size", attachment.size)
+                .put("mimeType", attachment.mimeType)
+                .put("content", getUrl() + API_URI + "attachment/content/" + attachment.id)
+                .put("crc32", attachment.crc32);
+    }
+
+    private MockAttachment addAttachment(MockIssue issue, String filename, String mimeType) {
+        MockAttachment attachment = new MockAttachment();
+        attachment.id = String.valueOf(nextAttachmentId++);
+        attachment.seed = Integer.parseInt(attachment.id);
+        attachment.filename = filename;
+        attachment.mimeType = mimeType;
+        issue.attachments.add(attachment);
+        attachmentsById.put(attachment.id, attachment);
+        return attachment;
+    }
+
+    private JSONObject comment(String body, ZonedDateTime created) {
+        String timestamp = created.format(DATE_FORMAT);
+        return new JSONObject()
+                .put("id", String.valueOf(nextCommentId++))
+                .put("body", body)
+                .put("author", new JSONObject().put("accountId", "5b10ac8d82e05b22cc7d4ef5").put("displayName", "Mock User"))
+                .put("created", timestamp)
+                .put("updated", timestamp);
+    }
+
+    private void delay() {
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        if (delay <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String self(MockIssue issue) {
+        return getUrl() + API_URI + "issue/" + issue.id;
+    }
+
+    private static boolean hasAnyLabel(MockIssue issue, Set<String> labels) {
+        JSONArray issueLabels = issue.fields.optJSONArray("labels");
+        for (int i = 0; issueLabels != null && i < issueLabels.length(); i++) {
+            if (labels.contains(issueLabels.getString(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> fields(Map<String, String> query) {
+        String fields = query.get("fields");
+        return fields == null || fields.isEmpty() || fields.equals("*all") ? null : new HashSet<>(Arrays.asList(fields.split(",")));
+    }
+
+    private static JSONObject priority(String id) {
+        return new JSONObject().put("id", id).put("name", PRIORITIES.get(id));
+    }
+
+    private static JSONObject issueType(String id) {
+        return new JSONObject().put("id", id).put("name", ISSUE_TYPES.get(id)).put("subtask", false);
+    }
+
+    private static JSONObject status(int index) {
+        return new JSONObject().put("id", String.valueOf(index + 1)).put("name", STATUSES.get(index));
+    }
+
+    private static JSONObject field(String fieldId, String type, boolean required) {
+        return new JSONObject()
+                .put("fieldId", fieldId)
+                .put("name", fieldId)
+                .put("required", required)
+                .put("schema", new JSONObject().put("type", type));
+    }
+
+    private static String getEndpoint(List<String> path) {
+        List<String> endpoint = new ArrayList<>(path);
+        if (endpoint.size() > 1 && endpoint.get(0).equals("issue") && !endpoint.get(1).equals("bulk") && !endpoint.get(1).equals("createmeta")) {
+            endpoint.set(1, "{id}");
+        }
+        if (endpoint.size() > 2 && endpoint.get(0).equals("attachment")) {
+            endpoint.set(2, "{id}");
+        }
+        if (endpoint.size() > 2 && endpoint.get(1).equals("createmeta")) {
+            endpoint.set(2, "{projectKey}");
+            if (endpoint.size() > 4) {
+                endpoint.set(4, "{issueTypeId}");
+            }
+        }
+        return String.join("/", endpoint);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            String name = separator < 0 ? parameter : parameter.substring(0, separator);
+            String value = separator < 0 ? "" : parameter.substring(separator + 1);
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int next = input.read(); next >= 0; next = input.read()) {
+            if (next == '\n') {
+                return line.toString();
+            }
+            if (next != '\r') {
+                line.append((char) next);
+            }
+        }
+        return line.length() > 0 ? line.toString() : null;
+    }
+
+    private JSONObject readBody(HttpExchange exchange) throws IOException {
+        byte[] bytes;
+        if (isGzipEncoded(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            gzipRequestBodies.incrementAndGet();
+            try (InputStream body = new GZIPInputStream(exchange.getRequestBody())) {
+                bytes = body.readAllBytes();
+            }
+        } else {
+            bytes = exchange.getRequestBody().readAllBytes();
+        }
+        return bytes.length == 0 ? new JSONObject() : new JSONObject(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private static boolean isGzipEncoded(String encoding) {
+        return encoding != null && encoding.toLowerCase().contains("gzip");
+    }
+
+    private void respond(HttpExchange exchange, int status, JSONObject body) throws IOException {
+        byte[] bytes = body != null ? body.toString().getBytes(StandardCharsets.UTF_8) : new byte[0];
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        if (bytes.length > 0 && isGzipEncoded(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (OutputStream output = new GZIPOutputStream(compressed)) {
+                output.write(bytes);
+            }
+            bytes = compressed.toByteArray();
+            gzipResponseBodies.incrementAndGet();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        exchange.sendResponseHeaders(status, bytes.length > 0 ? bytes.length : -1);
+        if (bytes.length > 0) {
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        }
+        exchange.close();
+    }
+
+    private static Response badRequest(String message) {
+        return new Response(400, new JSONObject().put("errorMessages", new JSONArray().put(message)));
+    }
+
+    private static Response notFound() {
+        return new Response(404, new JSONObject().put("errorMessages", new JSONArray().put("Not found")));
+    }
+
+    private static class MockIssue {
+        private String id;
+        private String key;
+        private String projectKey;
+        private int number;
+        private JSONObject fields;
+        private String status;
+        private Instant updated;
+        private final List<JSONObject> comments = new ArrayList<>();
+        private final List<MockAttachment> attachments = new ArrayList<>();
+    }
+
+    private static class MockAttachment {
+        private String id;
+        private String filename;
+        private String mimeType;
+        private long size;
+        private long crc32;
+        private long seed;
+
+        /**
+         * Generates a slice of the content of a seeded attachment, the same bytes on every download.
+         */
+        private void fill(byte[] buffer, long offset, int length) {
+            for (int i = 0; i < length; i++) {
+                long position = offset + i;
+                buffer[i] = (byte) (position * 131 + seed ^ position >>> 9);
+            }
+        }
+    }
+
+    private static class Response {
+        private final int status;
+        private final JSONObject body;
+
+        private Response(int status, JSONObject body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Count and latencies of the requests handled by a single endpoint.
+     */
+    public static class EndpointStats {
+        private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+
+        private void record(long latencyNanos) {
+            latencies.add(latencyNanos);
+        }
+
+        public long getCount() {
+            return latencies.size();
+        }
+
+        /**
+         * Gets a latency percentile of the handled requests.
+         *
+         * @param percentile the percentile, between 0 and 100
+         * @return the latency in milliseconds
+         */
+        public double getLatencyMillis(double percentile) {
+            List<Long> sorted;
+            synchronized (latencies) {
+                sorted = new ArrayList<>(latencies);
+            }
+            if (sorted.isEmpty()) {
+                return 0;
+            }
+            Collections.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100 * sorted.size()) - 1;
+            return sorted.get(Math.max(0, Math.min(sorted.size() - 1, index))) / 1_000_000.0;
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+package io.getint.recruitment_task.service;
+
+import com.sun.net.httpserver.HttpServer;
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.httpclient.JiraHttpClient;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AttachmentTransferTests {
+
+    private final ConfigLoader.JiraApiConfig config = ConfigLoader.getJiraApiConfig();
+    private final ExecutorService handlers = Executors.newCachedThreadPool();
+    private final List<String> downloads = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> transferredAttachments = new ArrayList<>();
+    private HttpServer server;
+    private volatile int downloadedSize;
+    private volatile int uploadedSizeOffset;
+    private String originalServer;
+    private boolean originalEnabled;
+    private long originalMaxSize;
+    private int originalMaxConcurrentTransfers;
+    private int originalMaxConnectionsPerRoute;
+
+    @Before
+    public void saveConfig() throws IOException {
+        originalServer = config.getServer();
+        originalEnabled = config.getAttachments().isEnabled();
+        originalMaxSize = config.getAttachments().getMaxSize();
+        originalMaxConcurrentTransfers = config.getAttachments().getMaxConcurrentTransfers();
+        originalMaxConnectionsPerRoute = config.getHttp().getMaxConnectionsPerRoute();
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/secure/attachment", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            downloads.add(path);
+            int size = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+            downloadedSize = size;
+            exchange.sendResponseHeaders(200, size);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(new byte[size]);
+            }
+        });
+        server.createContext("/rest/api/2/issue", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = new JSONArray().put(new JSONObject().put("id", "1").put("size", downloadedSize + uploadedSizeOffset))
+                    .toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        server.setExecutor(handlers);
+        server.start();
+        config.setServer("http://localhost:" + server.getAddress().getPort());
+    }
+
+    @After
+    public void restoreConfig() {
+        server.stop(0);
+        handlers.shutdownNow();
+        config.setServer(originalServer);
+        config.getAttachments().setEnabled(originalEnabled);
+        config.getAttachments().setMaxSize(originalMaxSize);
+        config.getAttachments().setMaxConcurrentTransfers(originalMaxConcurrentTransfers);
+        config.getHttp().setMaxConnectionsPerRoute(originalMaxConnectionsPerRoute);
+    }
+
+    @Test
+    public void shouldAcceptTransfersTakingHalfOfConnectionsPerRoute() {
+        config.getAttachments().setEnabled(true);
+        config.getAttachments().setMaxConcurrentTransfers(4);
+        config.getHttp().setMaxConnectionsPerRoute(8);
+        new AttachmentTransfer(new RetryPolicy(config.getRetry()), config.getAttachments(), config.getHttp());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTransfersWhichCouldTakeEveryConnectionWithDownloads() {
+        config.getAttachments().setEnabled(true);
+        config.getAttachments().setMaxConcurrentTransfers(5);
+        config.getHttp().setMaxConnectionsPerRoute(8);
+        new AttachmentTransfer(new RetryPolicy(config.getRetry()), config.getAttachments(), config.getHttp());
+    }
+
+    @Test
+    public void shouldSkipAttachmentsLargerThanMaxSize() throws Exception {
+        config.getAttachments().setEnabled(true);
+        config.getAttachments().setMaxSize(1024);
+        JSONObject sourceIssue = createIssue(attachment("10", 1024), attachment("11", 1025), attachment("12", 17));
+        AttachmentTransfer attachmentTransfer = new AttachmentTransfer(new RetryPolicy(config.getRetry()), config.getAttachments(), config.getHttp());
+
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            int transferred = attachmentTransfer.transferAll(httpClient, sourceIssue, "20", id -> false, transferredAttachments::add);
+
+            assertEquals(2, transferred);
+            assertEquals(List.of("10", "12"), transferredAttachments);
+            assertEquals(List.of("/secure/attachment/10/1024", "/secure/attachment/12/17"), downloads);
+        }
+    }
+
+    @Test
+    public void shouldFailTransferWhenUploadedSizeDiffersFromSourceSize() throws Exception {
+        config.getAttachments().setEnabled(true);
+        uploadedSizeOffset = -1;
+        JSONObject sourceIssue = createIssue(attachment("10", 512));
+        AttachmentTransfer attachmentTransfer = new AttachmentTransfer(new RetryPolicy(config.getRetry()), config.getAttachments(), config.getHttp());
+
+        try (JiraHttpClient httpClient = new JiraHttpClient()) {
+            attachmentTransfer.transferAll(httpClient, sourceIssue, "20", id -> false, transferredAttachments::add);
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("511 of 512 bytes"));
+            assertTrue(transferredAttachments.isEmpty());
+            return;
+        }
+        throw new AssertionError("Should fail when the uploaded attachment is smaller than the source attachment");
+    }
+
+    private JSONObject attachment(String id, int size) {
+        return new JSONObject()
+                .put("id", id)
+                .put("filename", "file-" + id + ".bin")
+                .put("size", size)
+                .put("mimeType", "application/octet-stream")
+                .put("content", config.getServer() + "/secure/attachment/" + id + "/" + size);
+    }
+
+    private static JSONObject createIssue(JSONObject... attachments) {
+        return new JSONObject()
+                .put("key", "BRN-1")
+                .put("fields", new JSONObject().put("attachment", new JSONArray(List.of(attachments))));
+    }
+
+}
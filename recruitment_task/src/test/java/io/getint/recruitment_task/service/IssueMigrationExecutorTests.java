@@ -0,0 +1,64 @@
+package io.getint.recruitment_task.service;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class IssueMigrationExecutorTests {
+
+    @Test
+    public void shouldKeepSourceOrderWhenMigratingConcurrently() throws Exception {
+        JSONArray sourceIssues = sourceIssues(40);
+        try (IssueMigrationExecutor executor = new IssueMigrationExecutor(8)) {
+            JSONArray result = executor.migrateAll(sourceIssues, (index, sourceIssue) -> {
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextInt(5));
+                } catch (InterruptedException e) {
+                    fail("Should not be interrupted");
+                }
+                return new JSONObject().put("id", sourceIssue.getString("id"));
+            });
+            assertEquals(40, result.length());
+            for (int i = 0; i < result.length(); i++) {
+                assertEquals(String.valueOf(i), result.getJSONObject(i).getString("id"));
+            }
+        }
+    }
+
+    @Test
+    public void shouldSkipEmptyResults() throws Exception {
+        try (IssueMigrationExecutor executor = new IssueMigrationExecutor(1)) {
+            JSONArray result = executor.migrateAll(sourceIssues(4), (index, sourceIssue) ->
+                    index % 2 == 0 ? new JSONObject() : new JSONObject().put("id", sourceIssue.getString("id")));
+            assertEquals(2, result.length());
+            assertEquals("1", result.getJSONObject(0).getString("id"));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRethrowFirstFailure() throws Exception {
+        try (IssueMigrationExecutor executor = new IssueMigrationExecutor(4)) {
+            executor.migrateAll(sourceIssues(10), (index, sourceIssue) -> {
+                if (index == 3) {
+                    throw new IOException("Create failed");
+                }
+                return new JSONObject().put("id", sourceIssue.getString("id"));
+            });
+        }
+    }
+
+    private JSONArray sourceIssues(int count) {
+        JSONArray issues = new JSONArray();
+        for (int i = 0; i < count; i++) {
+            issues.put(new JSONObject().put("id", String.valueOf(i)));
+        }
+        return issues;
+    }
+
+}
@@ -0,0 +1,176 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.httpclient.JiraHttpClient;
+import io.getint.recruitment_task.metrics.JiraMetrics;
+import io.getint.recruitment_task.mock.MockJiraServer;
+import io.getint.recruitment_task.util.FieldMapper;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IssueMigratorTests {
+
+    private static final JSONArray ISSUE_TYPES = new JSONArray()
+            .put(new JSONObject().put("id", "10001").put("name", "Task"))
+            .put(new JSONObject().put("id", "10002").put("name", "Bug"));
+
+    private final ConfigLoader.JiraApiConfig config = ConfigLoader.getJiraApiConfig();
+    private MockJiraServer server;
+    private String originalServer;
+    private double originalRequestsPerSecond;
+    private int originalBurst;
+    private int originalCommentPageSize;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new MockJiraServer(4);
+        originalServer = config.getServer();
+        originalRequestsPerSecond = config.getThrottle().getRequestsPerSecond();
+        originalBurst = config.getThrottle().getBurst();
+        originalCommentPageSize = config.getMigration().getCommentPageSize();
+        config.setServer(server.getUrl());
+        config.getThrottle().setRequestsPerSecond(10_000);
+        config.getThrottle().setBurst(1_000);
+    }
+
+    @After
+    public void stopServer() {
+        server.close();
+        config.setServer(originalServer);
+        config.getThrottle().setRequestsPerSecond(originalRequestsPerSecond);
+        config.getThrottle().setBurst(originalBurst);
+        config.getMigration().setCommentPageSize(originalCommentPageSize);
+    }
+
+    @Test
+    public void shouldMigrateIssueOnBlockingTransport() throws Exception {
+        assertMigratesIssue(false);
+    }
+
+    @Test
+    public void shouldMigrateIssueOnAsyncTransport() throws Exception {
+        assertMigratesIssue(true);
+    }
+
+    @Test
+    public void shouldResumeJournaledIssueOnBlockingTransport() throws Exception {
+        assertResumesIssue(false);
+    }
+
+    @Test
+    public void shouldResumeJournaledIssueOnAsyncTransport() throws Exception {
+        assertResumesIssue(true);
+    }
+
+    @Test
+    public void shouldWalkCommentPagesWhenEmbeddedCommentsAreTruncatedOnBlockingTransport() throws Exception {
+        assertWalksCommentPages(false);
+    }
+
+    @Test
+    public void shouldWalkCommentPagesWhenEmbeddedCommentsAreTruncatedOnAsyncTransport() throws Exception {
+        assertWalksCommentPages(true);
+    }
+
+    private void assertWalksCommentPages(boolean async) throws Exception {
+        config.getMigration().setCommentPageSize(5);
+        server.seedProject("BRN", 1, 12);
+        JSONObject sourceIssue = server.getIssues("BRN").get(0);
+        JSONArray sourceComments = sourceIssue.getJSONObject("fields").getJSONObject("comment").getJSONArray("comments");
+        JSONArray embeddedComments = new JSONArray();
+        for (int i = 0; i < 5; i++) {
+            embeddedComments.put(sourceComments.getJSONObject(i));
+        }
+        sourceIssue.getJSONObject("fields").put("comment", new JSONObject()
+                .put("total", sourceComments.length())
+                .put("maxResults", 5)
+                .put("comments", embeddedComments));
+
+        try (JiraHttpClient httpClient = new JiraHttpClient(new JiraMetrics())) {
+            IssueMigrator.await(createMigrator(httpClient, MigrationJournal.inMemory(), async)
+                    .recreateIssueInDestination(0, sourceIssue, "LBN"));
+
+            JSONArray comments = server.getIssues("LBN").get(0).getJSONObject("fields").getJSONObject("comment").getJSONArray("comments");
+            assertEquals(12, comments.length());
+            for (int i = 0; i < comments.length(); i++) {
+                assertEquals(sourceComments.getJSONObject(i).getString("body"), comments.getJSONObject(i).getString("body"));
+            }
+            assertEquals(3, server.getStats().get("GET issue/{id}/comment").getCount());
+            if (!async) {
+                assertEquals(0, httpClient.getAsyncConnectionPoolStats().getAvailable());
+            }
+        }
+    }
+
+    private void assertMigratesIssue(boolean async) throws Exception {
+        server.seedProject("BRN", 3, 4);
+        JSONObject sourceIssue = server.getIssues("BRN").get(2);
+
+        try (JiraHttpClient httpClient = new JiraHttpClient(new JiraMetrics())) {
+            JSONObject newIssue = IssueMigrator.await(createMigrator(httpClient, MigrationJournal.inMemory(), async)
+                    .recreateIssueInDestination(0, sourceIssue, "LBN"));
+
+            List<JSONObject> destinationIssues = server.getIssues("LBN");
+            assertEquals(1, destinationIssues.size());
+            JSONObject fields = destinationIssues.get(0).getJSONObject("fields");
+            assertEquals(newIssue.getString("key"), destinationIssues.get(0).getString("key"));
+            assertEquals(sourceIssue.getJSONObject("fields").getString("summary"), fields.getString("summary"));
+            assertEquals("Done", fields.getJSONObject("status").getString("name"));
+            assertEquals(4, fields.getJSONObject("comment").getJSONArray("comments").length());
+            assertEquals(2, server.getIssues("BRN").size());
+        }
+    }
+
+    private void assertResumesIssue(boolean async) throws Exception {
+        server.seedProject("BRN", 2, 5);
+        JSONObject sourceIssue = server.getIssues("BRN").get(1);
+        String sourceIssueId = sourceIssue.getString("id");
+        JSONArray sourceComments = sourceIssue.getJSONObject("fields").getJSONObject("comment").getJSONArray("comments");
+        MigrationJournal journal = MigrationJournal.inMemory();
+
+        try (JiraHttpClient httpClient = new JiraHttpClient(new JiraMetrics())) {
+            IssueMigrator migrator = createMigrator(httpClient, journal, async);
+            JSONObject newIssue = IssueMigrator.await(migrator.createIssueOnce(0, sourceIssue, "LBN"));
+            journal.recordCommentAdded(sourceIssueId, sourceComments.getJSONObject(0).getString("id"));
+            journal.recordCommentAdded(sourceIssueId, sourceComments.getJSONObject(1).getString("id"));
+
+            JSONObject resumedIssue = IssueMigrator.await(migrator.recreateIssueInDestination(0, sourceIssue, "LBN"));
+
+            List<JSONObject> destinationIssues = server.getIssues("LBN");
+            assertEquals(1, destinationIssues.size());
+            assertEquals(newIssue.getString("key"), resumedIssue.getString("key"));
+            assertEquals(3, destinationIssues.get(0).getJSONObject("fields").getJSONObject("comment").getJSONArray("comments").length());
+            assertEquals("In Progress", destinationIssues.get(0).getJSONObject("fields").getJSONObject("status").getString("name"));
+            assertTrue(server.getIssues("BRN").stream().noneMatch(issue -> issue.getString("id").equals(sourceIssueId)));
+        }
+    }
+
+    private IssueMigrator createMigrator(JiraHttpClient httpClient, MigrationJournal journal, boolean async) {
+        RetryPolicy retryPolicy = new RetryPolicy(config.getRetry());
+        return new IssueMigrator(httpClient, retryPolicy, journal, new WorkflowTransitionCache(),
+                new AttachmentTransfer(retryPolicy, config.getAttachments(), config.getHttp()), createFieldMapper(), async);
+    }
+
+    private FieldMapper createFieldMapper() {
+        JSONArray priorities = new JSONArray();
+        for (int i = 1; i <= 5; i++) {
+            priorities.put(new JSONObject().put("id", String.valueOf(i)).put("name", List.of("Highest", "High", "Medium", "Low", "Lowest").get(i - 1)));
+        }
+        JSONArray fields = new JSONArray()
+                .put(new JSONObject().put("fieldId", "summary").put("schema", new JSONObject().put("type", "string")))
+                .put(new JSONObject().put("fieldId", "description").put("schema", new JSONObject().put("type", "string")))
+                .put(new JSONObject().put("fieldId", "priority").put("schema", new JSONObject().put("type", "priority"))
+                        .put("allowedValues", priorities));
+        return FieldMapper.compile("LBN", config.getFieldMapping(), ISSUE_TYPES, Map.of("10001", fields, "10002", fields));
+    }
+}
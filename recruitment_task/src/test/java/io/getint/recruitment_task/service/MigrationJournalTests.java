@@ -0,0 +1,111 @@
+package io.getint.recruitment_task.service;
+
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class MigrationJournalTests {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldResumeFromStepsRecordedByEarlierRun() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("journal.bin");
+        try (MigrationJournal journal = MigrationJournal.open(path, 64, 1_000)) {
+            assertFalse(journal.isResumed());
+            journal.recordCreated("10001", new JSONObject().put("id", "20001").put("key", "LBN-1"));
+            journal.recordCommentAdded("10001", "30001");
+            journal.recordCreated("10002", new JSONObject().put("id", "20002").put("key", "LBN-2"));
+            journal.recordCommentsAdded("10002");
+            journal.recordStatusTransferred("10002");
+            journal.recordDeleted("10002");
+        }
+
+        try (MigrationJournal journal = MigrationJournal.open(path, 64, 1_000)) {
+            MigrationJournal.IssueProgress progress = journal.getProgress("10001");
+            assertTrue(journal.isResumed());
+            assertEquals("LBN-1", progress.getNewIssue().getString("key"));
+            assertTrue(progress.isCommentAdded("30001"));
+            assertFalse(progress.isCommentsAdded());
+            assertFalse(progress.isStatusTransferred());
+            assertNull(journal.getProgress("10002").getNewIssue());
+        }
+    }
+
+    @Test
+    public void shouldWriteRecordsHandedToWriterBeforeClosing() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("journal.bin");
+        Set<String> writerThreads = ConcurrentHashMap.newKeySet();
+        try (MigrationJournal journal = MigrationJournal.open(path, 64, 1_000)) {
+            for (int i = 1; i <= 100; i++) {
+                String commentId = String.valueOf(30000 + i);
+                journal.getWriter().execute(() -> {
+                    writerThreads.add(Thread.currentThread().getName());
+                    try {
+                        journal.recordCommentAdded("10001", commentId);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        }
+
+        assertEquals(Set.of("jira-journal"), writerThreads);
+        try (MigrationJournal journal = MigrationJournal.open(path, 64, 1_000)) {
+            assertEquals(100, journal.getProgress("10001").getAddedCommentCount());
+        }
+    }
+
+    @Test
+    public void shouldTruncateTornRecordAtEndOfJournal() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("journal.bin");
+        try (MigrationJournal journal = MigrationJournal.open(path, 1, 0)) {
+            journal.recordCreated("10001", new JSONObject().put("id", "20001").put("key", "LBN-1"));
+        }
+        long validLength = Files.size(path);
+        Files.write(path, new byte[]{0, 0, 0, 40, 1, 0}, StandardOpenOption.APPEND);
+
+        try (MigrationJournal journal = MigrationJournal.open(path, 1, 0)) {
+            assertEquals(validLength, Files.size(path));
+            journal.recordStatusTransferred("10001");
+        }
+
+        try (MigrationJournal journal = MigrationJournal.open(path, 1, 0)) {
+            assertEquals("LBN-1", journal.getProgress("10001").getNewIssue().getString("key"));
+            assertTrue(journal.getProgress("10001").isStatusTransferred());
+        }
+    }
+
+    @Test
+    public void shouldTrackOnlyIssuesWithRecordedSteps() throws IOException {
+        MigrationJournal journal = MigrationJournal.inMemory();
+        assertSame(journal.getProgress("10001"), journal.getProgress("10002"));
+
+        MigrationJournal.IssueProgress tracked = journal.track("10001");
+        journal.recordCreated("10001", new JSONObject().put("id", "20001").put("key", "LBN-1"));
+        journal.recordCommentAdded("10001", "30001");
+        assertSame(tracked, journal.getProgress("10001"));
+        assertTrue(tracked.isCommentAdded("30001"));
+
+        journal.recordDeleted("10001");
+        assertSame(journal.getProgress("10001"), journal.getProgress("10002"));
+        assertNull(journal.getProgress("10001").getNewIssue());
+    }
+
+}
@@ -0,0 +1,144 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.metrics.JiraMetrics;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MigrationPipelineTests {
+
+    @Test
+    public void shouldRunStagesOfEveryIssueInOrderAndKeepSubmissionOrder() throws Exception {
+        Map<String, String> lastStages = new ConcurrentHashMap<>();
+        List<MigrationPipeline.Stage> stages = List.of(
+                new MigrationPipeline.Stage("create", 2, 4, task -> {
+                    pause();
+                    lastStages.put(id(task), "create");
+                    task.setNewIssue(new JSONObject().put("id", id(task)));
+                    return !id(task).equals("7");
+                }),
+                new MigrationPipeline.Stage("comments", 4, 4, task -> {
+                    pause();
+                    assertTrue(lastStages.replace(id(task), "create", "comments"));
+                    return true;
+                }),
+                new MigrationPipeline.Stage("delete", 2, 4, task -> {
+                    assertTrue(lastStages.replace(id(task), "comments", "delete"));
+                    return true;
+                }));
+
+        try (MigrationPipeline pipeline = new MigrationPipeline(stages, new JiraMetrics())) {
+            for (int i = 0; i < 30; i++) {
+                pipeline.submit(new JSONObject().put("id", String.valueOf(i)));
+            }
+            JSONArray result = pipeline.finish();
+
+            assertEquals(29, result.length());
+            for (int i = 0; i < result.length(); i++) {
+                assertEquals(String.valueOf(i < 7 ? i : i + 1), result.getJSONObject(i).getString("id"));
+            }
+            assertEquals("create", lastStages.get("7"));
+            assertEquals("delete", lastStages.get("29"));
+        }
+    }
+
+    @Test
+    public void shouldBlockSubmissionsWhileSlowStageIsBehind() throws Exception {
+        JiraMetrics metrics = new JiraMetrics();
+        AtomicInteger created = new AtomicInteger();
+        List<MigrationPipeline.Stage> stages = List.of(
+                new MigrationPipeline.Stage("create", 1, 2, task -> {
+                    created.incrementAndGet();
+                    return true;
+                }),
+                new MigrationPipeline.Stage("comments", 1, 2, task -> {
+                    sleep(20);
+                    return true;
+                }));
+
+        try (MigrationPipeline pipeline = new MigrationPipeline(stages, metrics)) {
+            for (int i = 0; i < 20; i++) {
+                pipeline.submit(new JSONObject().put("id", String.valueOf(i)));
+                assertTrue(created.get() - i <= 2 + 2 + 2);
+            }
+            pipeline.finish();
+        }
+        assertTrue(metrics.getQueue("comments").getMaxDepth() <= 2);
+        assertEquals(0, metrics.getQueue("comments").getDepth());
+    }
+
+    @Test
+    public void shouldRethrowFirstFailureAndRejectFurtherIssues() throws Exception {
+        List<MigrationPipeline.Stage> stages = List.of(
+                new MigrationPipeline.Stage("create", 1, 1, task -> {
+                    if (id(task).equals("3")) {
+                        throw new IOException("Create failed");
+                    }
+                    return true;
+                }));
+
+        try (MigrationPipeline pipeline = new MigrationPipeline(stages, new JiraMetrics())) {
+            try {
+                for (int i = 0; i < 100; i++) {
+                    pipeline.submit(new JSONObject().put("id", String.valueOf(i)));
+                }
+                pipeline.finish();
+                fail("Expected the failure to be rethrown");
+            } catch (IOException e) {
+                assertEquals("Create failed", e.getMessage());
+            }
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void shouldDrainStagesAndRethrowErrorOfFailedIssue() throws Exception {
+        List<MigrationPipeline.Stage> stages = List.of(
+                new MigrationPipeline.Stage("create", 1, 1, task -> {
+                    if (id(task).equals("2")) {
+                        throw new StackOverflowError("Create failed");
+                    }
+                    return true;
+                }),
+                new MigrationPipeline.Stage("delete", 1, 1, task -> true));
+
+        try (MigrationPipeline pipeline = new MigrationPipeline(stages, new JiraMetrics())) {
+            try {
+                for (int i = 0; i < 3; i++) {
+                    pipeline.submit(new JSONObject().put("id", String.valueOf(i)));
+                }
+                pipeline.finish();
+                fail("Expected the error to be rethrown");
+            } catch (StackOverflowError e) {
+                assertEquals("Create failed", e.getMessage());
+            }
+        }
+    }
+
+    private static String id(MigrationPipeline.IssueTask task) {
+        return task.getSourceIssue().getString("id");
+    }
+
+    private static void pause() {
+        sleep(ThreadLocalRandom.current().nextInt(3));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
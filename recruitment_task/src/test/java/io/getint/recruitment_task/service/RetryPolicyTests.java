@@ -0,0 +1,70 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.exception.JiraRateLimitException;
+import io.getint.recruitment_task.exception.JiraResponseException;
+import org.apache.http.client.ClientProtocolException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URISyntaxException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryPolicyTests {
+
+    @Test
+    public void shouldRetryOnlyFailuresWhichAreSafeToRepeat() {
+        ClientProtocolException serverError = new ClientProtocolException(new JiraResponseException("Response failed", 502));
+        ClientProtocolException badRequest = new ClientProtocolException(new JiraResponseException("Response failed", 400));
+        ClientProtocolException throttled = new ClientProtocolException(new JiraRateLimitException("Response failed", 429, 0));
+
+        assertTrue(RetryPolicy.isRetryable(new ConnectException(), false));
+        assertTrue(RetryPolicy.isRetryable(serverError, true));
+        assertFalse(RetryPolicy.isRetryable(serverError, false));
+        assertFalse(RetryPolicy.isRetryable(badRequest, true));
+        assertFalse(RetryPolicy.isRetryable(throttled, true));
+        assertEquals(502, RetryPolicy.getStatusCode(serverError));
+    }
+
+    @Test
+    public void shouldRetryIdempotentRequestUntilItSucceeds() throws IOException, URISyntaxException {
+        RetryPolicy retryPolicy = new RetryPolicy(ConfigLoader.getJiraApiConfig().getRetry());
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = retryPolicy.call(RetryPolicy.RequestType.SEARCH, true, attempt -> {
+            attempts.incrementAndGet();
+            if (attempt == 1) {
+                throw new ClientProtocolException(new JiraResponseException("Response failed", 500));
+            }
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        assertEquals(2, attempts.get());
+        assertEquals(1, retryPolicy.getRetries());
+    }
+
+    @Test
+    public void shouldNotRetryNonIdempotentRequestAfterServerError() throws URISyntaxException {
+        RetryPolicy retryPolicy = new RetryPolicy(ConfigLoader.getJiraApiConfig().getRetry());
+        AtomicInteger attempts = new AtomicInteger();
+
+        try {
+            retryPolicy.call(RetryPolicy.RequestType.COMMENT, false, attempt -> {
+                attempts.incrementAndGet();
+                throw new ClientProtocolException(new JiraResponseException("Response failed", 500));
+            });
+            fail("Expected the server error to be rethrown");
+        } catch (IOException e) {
+            assertEquals(500, RetryPolicy.getStatusCode(e));
+        }
+        assertEquals(1, attempts.get());
+    }
+
+}
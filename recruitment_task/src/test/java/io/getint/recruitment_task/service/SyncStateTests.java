@@ -0,0 +1,88 @@
+package io.getint.recruitment_task.service;
+
+import org.json.JSONObject;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SyncStateTests {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void shouldKeepMappingAndWatermarkBetweenCycles() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("sync-state.json");
+        SyncState syncState = SyncState.load(path);
+        assertNull(syncState.getWatermark());
+        SyncState.SyncedIssue syncedIssue = syncState.putIssue("10001", new JSONObject().put("id", "20001").put("key", "LBN-1"));
+        syncedIssue.setFieldFingerprint("summary", "abc");
+        syncedIssue.setStatus("Done");
+        syncedIssue.addSyncedComment("30001");
+        syncState.setWatermark(Instant.parse("2024-03-01T10:15:30Z"));
+        syncState.save();
+
+        SyncState loaded = SyncState.load(path);
+        SyncState.SyncedIssue loadedIssue = loaded.getIssue("10001");
+        assertEquals(Instant.parse("2024-03-01T10:15:30Z"), loaded.getWatermark());
+        assertEquals("LBN-1", loadedIssue.getIssue().getString("key"));
+        assertEquals("abc", loadedIssue.getFieldFingerprint("summary"));
+        assertEquals("Done", loadedIssue.getStatus());
+        assertTrue(loadedIssue.isCommentSynced("30001"));
+        assertFalse(loadedIssue.isCommentSynced("30002"));
+    }
+
+    @Test
+    public void shouldAppendOnlyIssuesChangedSinceLastSave() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("sync-state.json");
+        SyncState syncState = SyncState.load(path);
+        syncState.putIssue("10001", new JSONObject().put("id", "20001").put("key", "LBN-1"));
+        syncState.putIssue("10002", new JSONObject().put("id", "20002").put("key", "LBN-2"));
+        syncState.save();
+        syncState.getIssue("10002").addSyncedComment("30001");
+        syncState.save();
+        syncState.save();
+
+        List<String> changes = Files.readAllLines(path.resolveSibling("sync-state.json.log"));
+        assertEquals(2, changes.size());
+        assertEquals(2, new JSONObject(changes.get(0)).getJSONObject("issues").length());
+        assertEquals(1, new JSONObject(changes.get(1)).getJSONObject("issues").length());
+        assertTrue(SyncState.load(path).getIssue("10002").isCommentSynced("30001"));
+
+        syncState.compact();
+        assertFalse(Files.exists(path.resolveSibling("sync-state.json.log")));
+        assertEquals("LBN-1", SyncState.load(path).getIssue("10001").getIssue().getString("key"));
+        assertTrue(SyncState.load(path).getIssue("10002").isCommentSynced("30001"));
+    }
+
+    @Test
+    public void shouldSkipChangeTornByInterruptedSave() throws IOException {
+        Path path = temporaryFolder.getRoot().toPath().resolve("sync-state.json");
+        SyncState syncState = SyncState.load(path);
+        syncState.putIssue("10001", new JSONObject().put("id", "20001").put("key", "LBN-1"));
+        syncState.save();
+        Files.write(path.resolveSibling("sync-state.json.log"), "{\"issues\":{\"10002\":{\"id\"".getBytes(StandardCharsets.UTF_8),
+                StandardOpenOption.APPEND);
+
+        SyncState loaded = SyncState.load(path);
+        assertNull(loaded.getIssue("10002"));
+        loaded.getIssue("10001").setStatus("Done");
+        loaded.save();
+
+        assertEquals("Done", SyncState.load(path).getIssue("10001").getStatus());
+    }
+
+}
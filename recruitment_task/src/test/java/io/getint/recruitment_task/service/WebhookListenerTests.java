@@ -0,0 +1,121 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.junit.After;
+import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+public class WebhookListenerTests {
+
+    private final List<Set<String>> batches = new CopyOnWriteArrayList<>();
+    private final CloseableHttpClient httpClient = HttpClients.createDefault();
+    private WebhookListener listener;
+
+    @After
+    public void stopListener() throws IOException {
+        if (listener != null) {
+            listener.close();
+        }
+        httpClient.close();
+    }
+
+    @Test
+    public void shouldCoalesceBurstOfEventsOfIssueIntoOneBatch() throws Exception {
+        startListener("coalesceWindow: 200\n");
+
+        assertEquals(202, post(payload("jira-issue-updated.json"), "delivery-1", null));
+        assertEquals(202, post(payload("jira-comment-created.json"), "delivery-2", null));
+        assertEquals(202, post(payload("jira-issue-updated.json"), "delivery-3", null));
+        awaitBatches(1);
+        Thread.sleep(300);
+
+        assertEquals(List.of(Set.of("10001")), batches);
+        assertEquals(3, listener.getReceivedEvents());
+    }
+
+    @Test
+    public void shouldDropRedeliveredAndIgnoredEvents() throws Exception {
+        startListener("coalesceWindow: 50\n");
+
+        assertEquals(202, post(payload("jira-issue-updated.json"), "delivery-1", null));
+        assertEquals(200, post(payload("jira-issue-updated.json"), "delivery-1", null));
+        assertEquals(200, post(payload("jira-issue-deleted.json"), "delivery-2", null));
+        assertEquals(200, post(payload("jira-issue-updated.json").replace("\"BRN\"", "\"SRC\""), "delivery-3", null));
+        assertEquals(400, post("{\"webhookEvent\":", "delivery-4", null));
+        awaitBatches(1);
+
+        assertEquals(List.of(Set.of("10001")), batches);
+        assertEquals(1, listener.getDuplicateEvents());
+        assertEquals(2, listener.getIgnoredEvents());
+    }
+
+    @Test
+    public void shouldRejectEventsWithoutValidSignature() throws Exception {
+        startListener("coalesceWindow: 50\nsecret: s3cr3t\n");
+        String body = payload("jira-comment-created.json");
+
+        assertEquals(401, post(body, "delivery-1", null));
+        assertEquals(401, post(body, "delivery-2", "sha256=" + WebhookListener.sign("other", body.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(202, post(body, "delivery-3", "sha256=" + WebhookListener.sign("s3cr3t", body.getBytes(StandardCharsets.UTF_8))));
+        awaitBatches(1);
+
+        assertEquals(List.of(Set.of("10001")), batches);
+    }
+
+    @Test
+    public void shouldDispatchPendingEventsWhenClosed() throws Exception {
+        startListener("coalesceWindow: 60000\n");
+
+        assertEquals(202, post(payload("jira-issue-updated.json"), "delivery-1", null));
+        listener.close();
+
+        assertEquals(List.of(Set.of("10001")), batches);
+    }
+
+    private void startListener(String yaml) throws IOException {
+        ConfigLoader.WebhookConfig config = new Yaml(new Constructor(ConfigLoader.WebhookConfig.class)).load("port: 0\n" + yaml);
+        listener = new WebhookListener(config, "BRN", batches::add);
+        listener.start();
+    }
+
+    private int post(String body, String deliveryId, String signature) throws IOException {
+        HttpPost request = new HttpPost("http://localhost:" + listener.getPort() + "/webhooks/jira");
+        request.setHeader(WebhookListener.IDENTIFIER_HEADER, deliveryId);
+        if (signature != null) {
+            request.setHeader(WebhookListener.SIGNATURE_HEADER, signature);
+        }
+        request.setEntity(new ByteArrayEntity(body.getBytes(StandardCharsets.UTF_8), ContentType.APPLICATION_JSON));
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            return response.getStatusLine().getStatusCode();
+        }
+    }
+
+    private void awaitBatches(int count) throws InterruptedException {
+        for (int i = 0; i < 500 && batches.size() < count; i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static String payload(String name) throws IOException {
+        try (InputStream in = WebhookListenerTests.class.getResourceAsStream("/webhooks/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+}
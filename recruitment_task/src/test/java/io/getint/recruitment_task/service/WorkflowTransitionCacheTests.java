@@ -0,0 +1,53 @@
+package io.getint.recruitment_task.service;
+
+import io.getint.recruitment_task.model.Transition;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WorkflowTransitionCacheTests {
+
+    @Test
+    public void shouldPlanShortestPathOverLearntStatuses() {
+        WorkflowTransitionCache cache = new WorkflowTransitionCache();
+        cache.putTransitions("LBN", "Task", "To Do", transitions(transition("11", "In Progress"), transition("21", "Blocked")));
+        cache.putTransitions("LBN", "Task", "In Progress", transitions(transition("31", "In Review"), transition("41", "To Do")));
+        cache.putTransitions("LBN", "Task", "In Review", transitions(transition("51", "Done")));
+        cache.putTransitions("LBN", "Task", "Blocked", transitions(transition("61", "To Do")));
+        cache.putTransitions("LBN", "Task", "Done", transitions());
+
+        assertEquals("11", cache.nextTransition("LBN", "Task", "To Do", "Done").getId());
+        assertEquals("31", cache.nextTransition("LBN", "Task", "In Progress", "Done").getId());
+        assertEquals("51", cache.nextTransition("LBN", "Task", "In Review", "Done").getId());
+        assertNull(cache.nextTransition("LBN", "Task", "Blocked", "Closed"));
+        assertFalse(cache.isKnown("LBN", "Bug", "To Do"));
+    }
+
+    @Test
+    public void shouldHeadForUnknownStatusWhileTargetIsNotReachable() {
+        WorkflowTransitionCache cache = new WorkflowTransitionCache();
+        cache.putTransitions("LBN", "Task", "To Do", transitions(transition("11", "In Progress")));
+
+        Transition transition = cache.nextTransition("LBN", "Task", "To Do", "Done");
+
+        assertEquals("11", transition.getId());
+        assertEquals("In Progress", WorkflowTransitionCache.getTargetStatus(transition));
+        assertTrue(cache.isKnown("LBN", "Task", "To Do"));
+        cache.evict("LBN", "Task", "To Do");
+        assertFalse(cache.isKnown("LBN", "Task", "To Do"));
+    }
+
+    private static List<Transition> transitions(Transition... transitions) {
+        return List.of(transitions);
+    }
+
+    private static Transition transition(String id, String to) {
+        return new Transition(id, null, new Transition.Status(null, to));
+    }
+
+}
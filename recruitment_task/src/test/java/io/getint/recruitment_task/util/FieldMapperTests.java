@@ -0,0 +1,99 @@
+package io.getint.recruitment_task.util;
+
+import io.getint.recruitment_task.config.ConfigLoader;
+import io.getint.recruitment_task.exception.FieldMappingException;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.Constructor;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FieldMapperTests {
+
+    private static final JSONArray ISSUE_TYPES = new JSONArray()
+            .put(new JSONObject().put("id", "10001").put("name", "Task"));
+
+    @Test
+    public void shouldMapIssueFieldsToResolvedDestinationIds() {
+        FieldMapper fieldMapper = FieldMapper.compile("LBN", ConfigLoader.getJiraApiConfig().getFieldMapping(), ISSUE_TYPES,
+                Map.of("10001", new JSONArray()
+                        .put(new JSONObject().put("fieldId", "summary").put("schema", new JSONObject().put("type", "string")))
+                        .put(new JSONObject().put("fieldId", "description").put("schema", new JSONObject().put("type", "string")))
+                        .put(new JSONObject().put("fieldId", "priority").put("schema", new JSONObject().put("type", "priority"))
+                                .put("allowedValues", new JSONArray()
+                                        .put(new JSONObject().put("id", "2").put("name", "High"))
+                                        .put(new JSONObject().put("id", "3").put("name", "Medium"))))));
+
+        JSONObject fields = fieldMapper.mapIssueFields(new JSONObject()
+                .put("id", "20001")
+                .put("fields", new JSONObject()
+                        .put("summary", "Summary")
+                        .put("description", JSONObject.NULL)
+                        .put("priority", new JSONObject().put("id", "7").put("name", "High"))
+                        .put("issuetype", new JSONObject().put("id", "7").put("name", "Task"))));
+
+        assertEquals("Summary", fields.getString("summary"));
+        assertEquals(JSONObject.NULL, fields.get("description"));
+        assertEquals("2", fields.getJSONObject("priority").getString("id"));
+        assertEquals("10001", fields.getJSONObject("issuetype").getString("id"));
+        assertEquals("LBN", fields.getJSONObject("project").getString("key"));
+        assertFalse(fieldMapper.mapFields(new JSONObject().put("fields", new JSONObject()
+                .put("summary", "Summary")
+                .put("issuetype", new JSONObject().put("name", "Task")))).has("project"));
+    }
+
+    @Test(expected = FieldMappingException.class)
+    public void shouldFailFastWhenMappedFieldCannotBeSet() {
+        FieldMapper.compile("LBN", ConfigLoader.getJiraApiConfig().getFieldMapping(), ISSUE_TYPES,
+                Map.of("10001", new JSONArray()
+                        .put(new JSONObject().put("fieldId", "summary"))
+                        .put(new JSONObject().put("fieldId", "description"))));
+    }
+
+    @Test(expected = FieldMappingException.class)
+    public void shouldFailFastWhenSecondRuleOfSourceFieldCannotBeSet() {
+        FieldMapper.compile("LBN", fieldMapping("fields:\n  - source: summary\n  - source: summary\n    destination: customfield_10100\n"),
+                ISSUE_TYPES, Map.of("10001", new JSONArray().put(new JSONObject().put("fieldId", "summary"))));
+    }
+
+    @Test(expected = FieldMappingException.class)
+    public void shouldFailFastWhenValuesAreTranslatedForFieldWithoutAllowedValues() {
+        FieldMapper.compile("LBN", fieldMapping("fields:\n  - source: summary\n    values: {Old: New}\n"),
+                ISSUE_TYPES, Map.of("10001", new JSONArray().put(new JSONObject().put("fieldId", "summary"))));
+    }
+
+    @Test
+    public void shouldRejectPageWithIssueTypeMissingFromDestinationProject() {
+        FieldMapper fieldMapper = FieldMapper.compile("LBN", fieldMapping("issueTypes: {Story: Task}\nfields:\n  - source: summary\n"),
+                ISSUE_TYPES, Map.of("10001", new JSONArray().put(new JSONObject().put("fieldId", "summary"))));
+        JSONArray sourceIssues = new JSONArray()
+                .put(sourceIssue("BRN-1", "Story"))
+                .put(sourceIssue("BRN-2", "Task"));
+        fieldMapper.validateIssueTypes(sourceIssues);
+
+        try {
+            fieldMapper.validateIssueTypes(sourceIssues.put(sourceIssue("BRN-3", "Epic")));
+            fail("Page with an issue type missing from the destination project accepted");
+        } catch (FieldMappingException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Epic") && e.getMessage().contains("BRN-3"));
+        }
+    }
+
+    private static ConfigLoader.FieldMappingConfig fieldMapping(String yaml) {
+        return new Yaml(new Constructor(ConfigLoader.FieldMappingConfig.class)).load(yaml);
+    }
+
+    private static JSONObject sourceIssue(String key, String issueType) {
+        return new JSONObject().put("key", key).put("fields", new JSONObject()
+                .put("summary", key)
+                .put("issuetype", new JSONObject().put("name", issueType)));
+    }
+
+}
@@ -0,0 +1,43 @@
+package io.getint.recruitment_task.util;
+
+import org.junit.Test;
+
+import java.net.URISyntaxException;
+import java.time.Instant;
+import java.time.ZoneId;
+
+import static org.junit.Assert.assertEquals;
+
+public class JiraApiRequestQueryUtilTests {
+
+    @Test
+    public void shouldBuildFirstSearchPageJql() {
+        String jql = JiraApiRequestQueryUtil.searchIssuesPageJql("project = {projectKey}", "BRN", null);
+        assertEquals("(project = BRN) ORDER BY key ASC", jql);
+    }
+
+    @Test
+    public void shouldContinueSearchAfterLastKey() {
+        String jql = JiraApiRequestQueryUtil.searchIssuesPageJql("project = {projectKey} AND status = Done", "BRN", "BRN-50");
+        assertEquals("(project = BRN AND status = Done) AND key > \"BRN-50\" ORDER BY key ASC", jql);
+    }
+
+    @Test
+    public void shouldRestrictJqlToIssuesUpdatedSinceWatermark() {
+        String jql = JiraApiRequestQueryUtil.updatedSinceJql("project = {projectKey}", Instant.parse("2024-03-01T10:15:30Z"), ZoneId.of("Europe/Warsaw"));
+        assertEquals("(project = {projectKey}) AND updated >= \"2024/03/01 11:15\"", jql);
+    }
+
+    @Test
+    public void shouldAppendResourceToBaseApiPath() throws URISyntaxException {
+        assertEquals("/rest/api/2/issue/10001/comment", JiraApiRequestQueryUtil.fetchCommentsByIssueIdQueryUri("10001").getRawPath());
+    }
+
+    @Test
+    public void shouldAddressIssueByIdForUpdateAndDelete() throws URISyntaxException {
+        assertEquals("/rest/api/2/issue/10001", JiraApiRequestQueryUtil.updateIssueByIdUri("10001").getRawPath());
+        assertEquals("/rest/api/2/issue/10001", JiraApiRequestQueryUtil.deleteIssueByIdUri("10001").getRawPath());
+        assertEquals("fields=summary,status", JiraApiRequestQueryUtil.fetchIssueByIdQueryUri("10001", "summary", "status").getQuery());
+    }
+
+}
@@ -0,0 +1,76 @@
+package io.getint.recruitment_task.util;
+
+import io.getint.recruitment_task.model.Comment;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class JiraDataUtilsTests {
+
+    @Test
+    public void shouldAlignBulkCreateResultWithSubmittedIssues() {
+        JSONObject bulkCreateResult = new JSONObject()
+                .put("issues", new JSONArray()
+                        .put(new JSONObject().put("id", "101").put("key", "LBN-1"))
+                        .put(new JSONObject().put("id", "103").put("key", "LBN-2")))
+                .put("errors", new JSONArray()
+                        .put(new JSONObject()
+                                .put("failedElementNumber", 1)
+                                .put("elementErrors", new JSONObject().put("errors", new JSONObject().put("priority", "invalid")))));
+
+        JSONArray aligned = JiraDataUtils.alignBulkCreateResult(bulkCreateResult, 3);
+
+        assertEquals(3, aligned.length());
+        assertEquals("LBN-1", aligned.getJSONObject(0).getString("key"));
+        assertTrue(aligned.getJSONObject(1).isEmpty());
+        assertEquals("LBN-2", aligned.getJSONObject(2).getString("key"));
+        assertEquals("invalid", JiraDataUtils.getBulkCreateError(bulkCreateResult, 1).getJSONObject("errors").getString("priority"));
+    }
+
+    @Test
+    public void shouldUseEmbeddedCommentsUnlessTruncated() {
+        JSONObject comment = new JSONObject()
+                .put("id", "30001")
+                .put("body", "Body")
+                .put("author", new JSONObject().put("accountId", "abc"))
+                .put("created", "2024-01-01T10:00:00.000+0000");
+        JSONObject complete = new JSONObject().put("fields", new JSONObject().put("comment", new JSONObject()
+                .put("total", 1).put("comments", new JSONArray().put(comment))));
+        JSONObject truncated = new JSONObject().put("fields", new JSONObject().put("comment", new JSONObject()
+                .put("total", 2).put("comments", new JSONArray().put(comment))));
+
+        List<Comment> comments = JiraDataUtils.getEmbeddedComments(complete);
+
+        assertEquals(1, comments.size());
+        assertEquals("30001", comments.get(0).getId());
+        assertEquals("abc", comments.get(0).getAuthor().getAccountId());
+        assertNull(JiraDataUtils.getEmbeddedComments(truncated));
+        assertNull(JiraDataUtils.getEmbeddedComments(new JSONObject().put("fields", new JSONObject())));
+    }
+
+    @Test
+    public void shouldSortCommentsByCreationDate() {
+        Comment first = comment("30001", "2024-01-01T10:00:00.000+0100");
+        Comment second = comment("30002", "2024-01-01T09:30:00.000+0000");
+        Comment third = comment("30003", "2024-01-02T08:00:00.000+0000");
+
+        List<Comment> sorted = JiraDataUtils.getSortedCommentsByCreated(List.of(second, third, first));
+
+        assertEquals(List.of(first, second, third), sorted);
+        assertEquals(List.of(first, second, third), JiraDataUtils.getSortedCommentsByCreated(sorted));
+    }
+
+    private static Comment comment(String id, String created) {
+        Comment comment = new Comment();
+        comment.setId(id);
+        comment.setCreated(created);
+        return comment;
+    }
+
+}
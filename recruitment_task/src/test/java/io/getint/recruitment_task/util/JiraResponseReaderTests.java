@@ -0,0 +1,49 @@
+package io.getint.recruitment_task.util;
+
+import io.getint.recruitment_task.model.CommentPage;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class JiraResponseReaderTests {
+
+    @Test
+    public void shouldReadIssuesSkippingUnusedProperties() throws IOException {
+        StringEntity entity = new StringEntity("{\"expand\":\"names\",\"total\":1,\"issues\":[{\"id\":\"10001\",\"key\":\"BRN-1\","
+                + "\"renderedFields\":{\"description\":\"<p>Description</p>\"},"
+                + "\"fields\":{\"summary\":\"Summary\",\"description\":null,\"labels\":[\"a\"],\"priority\":{\"name\":\"High\",\"iconUrl\":\"x\"}}}]}",
+                ContentType.APPLICATION_JSON);
+
+        JSONObject page = JiraResponseReader.readJson(entity, JiraResponseReader.SKIPPED_ISSUE_PROPERTIES);
+        JSONObject issue = page.getJSONArray("issues").getJSONObject(0);
+
+        assertFalse(page.has("expand"));
+        assertEquals(1, page.getInt("total"));
+        assertFalse(issue.has("renderedFields"));
+        assertEquals("Summary", issue.getJSONObject("fields").getString("summary"));
+        assertEquals(JSONObject.NULL, issue.getJSONObject("fields").get("description"));
+        assertEquals("a", issue.getJSONObject("fields").getJSONArray("labels").getString(0));
+        assertFalse(issue.getJSONObject("fields").getJSONObject("priority").has("iconUrl"));
+    }
+
+    @Test
+    public void shouldBindCommentsToTypedModel() throws IOException {
+        StringEntity entity = new StringEntity("{\"startAt\":0,\"total\":1,\"comments\":[{\"id\":\"30001\",\"body\":\"Body\","
+                + "\"author\":{\"accountId\":\"abc\",\"avatarUrls\":{}},\"created\":\"2024-01-01T10:00:00.000+0000\",\"jsdPublic\":true}]}",
+                ContentType.APPLICATION_JSON);
+
+        CommentPage page = JiraResponseReader.read(entity, CommentPage.class);
+
+        assertEquals(1, page.getTotal());
+        assertEquals("30001", page.getComments().get(0).getId());
+        assertEquals("Body", page.getComments().get(0).getBody());
+        assertEquals("abc", page.getComments().get(0).getAuthor().getAccountId());
+    }
+
+}